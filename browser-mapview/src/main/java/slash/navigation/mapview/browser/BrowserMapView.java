@@ -1540,7 +1540,7 @@ public abstract class BrowserMapView implements MapView {
                 synchronized (notificationMutex) {
                     haveToRepaintRouteImmediately = true;
                     routeUpdateReason = "repaint not visible positions";
-                    positionReducer.clear();
+                    positionReducer.clearReducedPositions();
                     notificationMutex.notifyAll();
                 }
             }
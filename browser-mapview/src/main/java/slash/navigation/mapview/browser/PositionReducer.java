@@ -21,6 +21,7 @@
 package slash.navigation.mapview.browser;
 
 import slash.navigation.base.RouteCharacteristics;
+import slash.navigation.base.SignificanceRanks;
 import slash.navigation.common.BoundingBox;
 import slash.navigation.common.NavigationPosition;
 import slash.navigation.mapview.MapView;
@@ -35,9 +36,10 @@ import java.util.prefs.Preferences;
 import static java.lang.Math.max;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
-import static slash.navigation.base.RouteCalculations.getSignificantPositions;
+import static slash.navigation.base.RouteCalculations.getSignificanceRanks;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.common.DistanceAccuracy.Spherical;
 
 /**
  * Helps to reduce the amount of positions for rending routes, tracks, waypoint lists.
@@ -74,6 +76,7 @@ class PositionReducer {
     private final Callback callback;
     private final Map<Integer, List<NavigationPosition>> reducedPositions = new HashMap<>(THRESHOLD_PER_ZOOM.length);
     private BoundingBox visible;
+    private SignificanceRanks significanceRanks;
 
     PositionReducer(Callback callback) {
         this.callback = callback;
@@ -122,11 +125,16 @@ class PositionReducer {
         return !hasFilteredVisibleArea() || visible.contains(boundingBox);
     }
 
-    public void clear() {
+    public void clearReducedPositions() {
         reducedPositions.clear();
         visible = null;
     }
 
+    public void clear() {
+        clearReducedPositions();
+        significanceRanks = null;
+    }
+
     interface Callback {
         int getZoom();
         NavigationPosition getNorthEastBounds();
@@ -168,6 +176,10 @@ class PositionReducer {
     private List<NavigationPosition> reducePositions(List<NavigationPosition> positions, int zoom, RouteCharacteristics characteristics, boolean showWaypointDescription) {
         int maximumPositionCount = getMaximumPositionCount(characteristics, showWaypointDescription);
 
+        // determine significant result for routes and tracks for this zoom level if there are too many positions
+        if (!characteristics.equals(Waypoints))
+            positions = filterSignificantPositions(positions, zoom);
+
         // reduce the number of result to those that are visible for tracks and waypoint lists
         if (positions.size() > maximumPositionCount && !characteristics.equals(Route)) {
             positions = filterVisiblePositions(positions, zoom);
@@ -176,15 +188,6 @@ class PositionReducer {
             visible = null;
         }
 
-        // reduce the number of result by selecting every Nth to limit significance computation time
-        int maximumSignificantPositionCount = preferences.getInt("maximumSignificantPositionCount", 50000);
-        if (positions.size() > maximumSignificantPositionCount)
-            positions = filterEveryNthPosition(positions, maximumSignificantPositionCount);
-
-        // determine significant result for routes and tracks for this zoom level if there are too many positions
-        if (!characteristics.equals(Waypoints))
-            positions = filterSignificantPositions(positions, zoom);
-
         // reduce the number of result to ensure browser stability
         if (positions.size() > maximumPositionCount)
             positions = filterEveryNthPosition(positions, maximumPositionCount);
@@ -208,13 +211,24 @@ class PositionReducer {
         return result;
     }
 
+    private SignificanceRanks getSignificanceRanksFor(List<NavigationPosition> positions) {
+        // the significance of the positions is calculated once for all zoom levels
+        if (significanceRanks == null || significanceRanks.getPositionCount() != positions.size()) {
+            long start = currentTimeMillis();
+            significanceRanks = getSignificanceRanks(positions, Spherical);
+            long end = currentTimeMillis();
+            log.info(format("Calculated significance of %d positions in %d milliseconds", positions.size(), (end - start)));
+        }
+        return significanceRanks;
+    }
+
     private List<NavigationPosition> filterSignificantPositions(List<NavigationPosition> positions, int zoom) {
         long start = currentTimeMillis();
 
         List<NavigationPosition> result = new ArrayList<>();
         if (zoom < MAXIMUM_ZOOM_FOR_SIGNIFICANCE_CALCULATION) {
             double threshold = THRESHOLD_PER_ZOOM[zoom];
-            int[] significantPositions = getSignificantPositions(positions, threshold);
+            int[] significantPositions = getSignificanceRanksFor(positions).getSignificantPositions(threshold);
             for (int significantPosition : significantPositions) {
                 result.add(positions.get(significantPosition));
             }
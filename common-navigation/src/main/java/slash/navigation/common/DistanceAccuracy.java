@@ -0,0 +1,45 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+/**
+ * Enumeration of the accuracies with which {@link Geodesy} calculates distances.
+ *
+ * @author Christian Pesch
+ */
+
+public enum DistanceAccuracy {
+    /**
+     * Vincenty's solution on the WGS-84 ellipsoid with millimeter precision.
+     */
+    Exact,
+    /**
+     * Haversine formula on a sphere with the mean earth radius,
+     * deviates less than 0.6% from {@link #Exact}.
+     */
+    Spherical,
+    /**
+     * Equirectangular projection around the mean latitude of both positions,
+     * deviates less than 0.6% from {@link #Exact} for distances up to 100 kilometers
+     * and latitudes up to 80 degrees. Meant for comparing nearby positions.
+     */
+    Equirectangular
+}
@@ -0,0 +1,332 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.common;
+
+import static java.lang.Math.PI;
+import static java.lang.Math.abs;
+import static java.lang.Math.asin;
+import static java.lang.Math.atan2;
+import static java.lang.Math.cos;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+import static slash.common.io.Transfer.roundMeterToMillimeterPrecision;
+import static slash.navigation.common.Bearing.EARTH_RADIUS;
+import static slash.navigation.common.Bearing.calculateBearing;
+
+/**
+ * Calculates distances between positions in degrees with a selectable {@link DistanceAccuracy}
+ * without creating objects. The bulk variants calculate the distances for whole coordinate arrays.
+ *
+ * @author Christian Pesch
+ */
+
+public class Geodesy {
+    /**
+     * Mean earth radius in meters
+     */
+    public static final double MEAN_EARTH_RADIUS = 6371008.8;
+
+    private static final double F = 1.0 / 298.257223563;
+    private static final double EPS = 0.5E-13;
+    private static final double R = 1.0 - F;
+    private static final double rad = toRadians(1.0);
+
+    /**
+     * Computes the distance in meters on the WGS-84 ellipsoid with the same solution as
+     * {@link Bearing#calculateBearing(double, double, double, double)} but without the azimuths.
+     *
+     * @param longitude1 Lon of point 1
+     * @param latitude1 Lat of point 1
+     * @param longitude2 Lon of point 2
+     * @param latitude2 Lat of point 2
+     * @return the distance in meters with millimeter precision
+     */
+    public static double calculateVincentyDistance(double longitude1, double latitude1,
+                                                   double longitude2, double latitude2) {
+        return calculateVincenty(longitude1, latitude1, longitude2, latitude2, null);
+    }
+
+    /**
+     * Solves the geodetic inverse problem on the WGS-84 ellipsoid after T. Vincenty
+     * with the algorithm from the U.S. National Geodetic Survey, FORTRAN program "inverse,"
+     * subroutine "INVER1," by L. PFEIFER and JOHN G. GERGEN.
+     * See http://www.ngs.noaa.gov/TOOLS/Inv_Fwd/Inv_Fwd.html
+     *
+     * @param longitude1 Lon of point 1
+     * @param latitude1 Lat of point 1
+     * @param longitude2 Lon of point 2
+     * @param latitude2 Lat of point 2
+     * @param azimuths receives the azimuth from point 1 to point 2 and the back azimuth in radians
+     *                 at index 0 and 1 if not <code>null</code>
+     * @return the distance in meters with millimeter precision
+     */
+    static double calculateVincenty(double longitude1, double latitude1,
+                                    double longitude2, double latitude2, double[] azimuths) {
+        if ((latitude1 == latitude2) && (longitude1 == longitude2))
+            return 0.0;
+
+        // Conversion to JAVA from FORTRAN was made with as few changes as possible
+        // to avoid errors made while recasting form, and to facilitate any future
+        // comparisons between the original code and the altered version in Java.
+        // Original documentation:
+        // SOLUTION OF THE GEODETIC INVERSE PROBLEM AFTER T.VINCENTY
+        // MODIFIED RAINSFORD'S METHOD WITH HELMERT'S ELLIPTICAL TERMS
+        // EFFECTIVE IN ANY AZIMUTH AND AT ANY DISTANCE SHORT OF ANTIPODAL
+        // STANDPOINT/FOREPOINT MUST NOT BE THE GEOGRAPHIC POLE
+        // A IS THE SEMI-MAJOR AXIS OF THE REFERENCE ELLIPSOID
+        // F IS THE FLATTENING (NOT RECIPROCAL) OF THE REFERNECE ELLIPSOID
+        // LATITUDES GLAT1 AND GLAT2
+        // AND LONGITUDES GLON1 AND GLON2 ARE IN RADIANS POSITIVE NORTH AND EAST
+        // FORWARD AZIMUTHS AT BOTH POINTS RETURNED IN RADIANS FROM NORTH
+        //
+        // Reference ellipsoid is the WGS-84 ellipsoid.
+        // See http://www.colorado.edu/geography/gcraft/notes/datum/elist.html
+        // FAZ is forward azimuth in radians from pt1 to pt2;
+        // BAZ is backward azimuth from point 2 to 1;
+        // S is distance in meters.
+        //
+        // IMPLICIT REAL*8 (A-H,O-Z)
+        // COMMON/CONST/PI,RAD
+        // COMMON/ELIPSOID/EARTH_RADIUS,F
+        double GLAT1 = rad * latitude1;
+        double GLAT2 = rad * latitude2;
+        double TU1 = R * sin(GLAT1) / cos(GLAT1);
+        double TU2 = R * sin(GLAT2) / cos(GLAT2);
+        double CU1 = 1. / sqrt(TU1 * TU1 + 1.);
+        double SU1 = CU1 * TU1;
+        double CU2 = 1. / sqrt(TU2 * TU2 + 1.);
+        double S = CU1 * CU2;
+        double BAZ = S * TU2;
+        double FAZ = BAZ * TU1;
+        double GLON1 = rad * longitude1;
+        double GLON2 = rad * longitude2;
+        double X = GLON2 - GLON1;
+        double D, SX, CX, SY, CY, Y, SA, C2A, CZ, E, C;
+        int count = 0;
+        do {
+            SX = sin(X);
+            CX = cos(X);
+            TU1 = CU2 * SX;
+            TU2 = BAZ - SU1 * CU2 * CX;
+            SY = sqrt(TU1 * TU1 + TU2 * TU2);
+            CY = S * CX + FAZ;
+            Y = atan2(SY, CY);
+            SA = S * SX / SY;
+            C2A = -SA * SA + 1.;
+            CZ = FAZ + FAZ;
+            if (C2A > 0.) {
+                CZ = -CZ / C2A + CY;
+            }
+            E = CZ * CZ * 2. - 1.;
+            C = ((-3. * C2A + 4.) * F + 4.) * C2A * F / 16.;
+            D = X;
+            X = ((E * CY * C + CZ) * SY * C + Y) * SA;
+            X = (1. - C) * X * F + GLON2 - GLON1;
+            if (count++ > 100000)
+                return 0.0;
+            //IF(DABS(D-X).GT.EPS) GO TO 100
+        } while (abs(D - X) > EPS);
+
+        if (azimuths != null) {
+            azimuths[0] = atan2(TU1, TU2);
+            azimuths[1] = atan2(CU1 * SX, BAZ * CX - SU1 * CU2) + PI;
+        }
+        X = sqrt((1. / R / R - 1.) * C2A + 1.) + 1.;
+        X = (X - 2.) / X;
+        C = 1. - X;
+        C = (X * X / 4. + 1.) / C;
+        D = (0.375 * X * X - 1.) * X;
+        X = E * CY;
+        S = 1. - E - E;
+        S = ((((SY * SY * 4. - 3.) * S * CZ * D / 6. - X) * D / 4. + CZ) * SY * D + Y) * C * EARTH_RADIUS * R;
+        return roundMeterToMillimeterPrecision(S);
+    }
+
+    private static double haversine(double latitude1, double cosLatitude1, double latitude2, double cosLatitude2,
+                                     double deltaLongitude) {
+        double sinDeltaLatitude = sin((latitude2 - latitude1) / 2.0);
+        double sinDeltaLongitude = sin(deltaLongitude / 2.0);
+        double a = sinDeltaLatitude * sinDeltaLatitude +
+                cosLatitude1 * cosLatitude2 * sinDeltaLongitude * sinDeltaLongitude;
+        return 2.0 * MEAN_EARTH_RADIUS * asin(min(1.0, sqrt(a)));
+    }
+
+    /**
+     * Computes the great circle distance in meters on a sphere with the mean earth radius.
+     */
+    public static double calculateHaversineDistance(double longitude1, double latitude1,
+                                                    double longitude2, double latitude2) {
+        double phi1 = rad * latitude1, phi2 = rad * latitude2;
+        return haversine(phi1, cos(phi1), phi2, cos(phi2), rad * (longitude2 - longitude1));
+    }
+
+    private static double normalizeLongitude(double deltaLongitude) {
+        if (deltaLongitude > PI)
+            return deltaLongitude - 2.0 * PI;
+        if (deltaLongitude < -PI)
+            return deltaLongitude + 2.0 * PI;
+        return deltaLongitude;
+    }
+
+    /**
+     * Computes the distance in meters in an equirectangular projection around the mean latitude
+     * of both positions on a sphere with the mean earth radius.
+     */
+    public static double calculateEquirectangularDistance(double longitude1, double latitude1,
+                                                          double longitude2, double latitude2) {
+        double x = normalizeLongitude(rad * (longitude2 - longitude1)) * cos(rad * (latitude1 + latitude2) / 2.0);
+        double y = rad * (latitude2 - latitude1);
+        return MEAN_EARTH_RADIUS * sqrt(x * x + y * y);
+    }
+
+    /**
+     * Computes the distance in meters with the given accuracy.
+     */
+    public static double calculateDistance(DistanceAccuracy accuracy,
+                                           double longitude1, double latitude1,
+                                           double longitude2, double latitude2) {
+        switch (accuracy) {
+            case Spherical:
+                return calculateHaversineDistance(longitude1, latitude1, longitude2, latitude2);
+            case Equirectangular:
+                return calculateEquirectangularDistance(longitude1, latitude1, longitude2, latitude2);
+            default:
+                return calculateVincentyDistance(longitude1, latitude1, longitude2, latitude2);
+        }
+    }
+
+    /**
+     * Computes the distances between the consecutive positions of the given coordinate arrays.
+     *
+     * @param accuracy the accuracy of the distances
+     * @param longitudes the longitudes of the positions
+     * @param latitudes the latitudes of the positions
+     * @param count the number of positions
+     * @param distances receives the distance from position i - 1 to position i at index i, 0.0 at index 0
+     */
+    public static void calculateDistances(DistanceAccuracy accuracy, double[] longitudes, double[] latitudes,
+                                          int count, double[] distances) {
+        if (count <= 0)
+            return;
+        distances[0] = 0.0;
+
+        switch (accuracy) {
+            case Spherical: {
+                double previousLatitude = rad * latitudes[0], previousCos = cos(previousLatitude);
+                for (int i = 1; i < count; i++) {
+                    double latitude = rad * latitudes[i], cosLatitude = cos(latitude);
+                    distances[i] = haversine(previousLatitude, previousCos, latitude, cosLatitude,
+                            rad * (longitudes[i] - longitudes[i - 1]));
+                    previousLatitude = latitude;
+                    previousCos = cosLatitude;
+                }
+                break;
+            }
+            case Equirectangular:
+                for (int i = 1; i < count; i++)
+                    distances[i] = calculateEquirectangularDistance(longitudes[i - 1], latitudes[i - 1],
+                            longitudes[i], latitudes[i]);
+                break;
+            default:
+                for (int i = 1; i < count; i++)
+                    distances[i] = calculateVincentyDistance(longitudes[i - 1], latitudes[i - 1],
+                            longitudes[i], latitudes[i]);
+        }
+    }
+
+    /**
+     * Computes the distances from one position to all positions of the given coordinate arrays.
+     *
+     * @param accuracy the accuracy of the distances
+     * @param longitude the longitude of the position to measure from
+     * @param latitude the latitude of the position to measure from
+     * @param longitudes the longitudes of the positions
+     * @param latitudes the latitudes of the positions
+     * @param count the number of positions
+     * @param distances receives the distance to position i at index i
+     */
+    public static void calculateDistances(DistanceAccuracy accuracy, double longitude, double latitude,
+                                          double[] longitudes, double[] latitudes, int count, double[] distances) {
+        switch (accuracy) {
+            case Spherical: {
+                double phi = rad * latitude, cosPhi = cos(phi);
+                for (int i = 0; i < count; i++) {
+                    double otherPhi = rad * latitudes[i];
+                    distances[i] = haversine(phi, cosPhi, otherPhi, cos(otherPhi), rad * (longitudes[i] - longitude));
+                }
+                break;
+            }
+            case Equirectangular:
+                for (int i = 0; i < count; i++)
+                    distances[i] = calculateEquirectangularDistance(longitude, latitude, longitudes[i], latitudes[i]);
+                break;
+            default:
+                for (int i = 0; i < count; i++)
+                    distances[i] = calculateVincentyDistance(longitude, latitude, longitudes[i], latitudes[i]);
+        }
+    }
+
+    /**
+     * Computes the signed distance in meters of position D from the great circle through
+     * the positions A and B with the given accuracy, positive if D is right of the course
+     * from A to B.
+     */
+    public static double calculateOrthogonalDistance(DistanceAccuracy accuracy,
+                                                     double longitudeD, double latitudeD,
+                                                     double longitudeA, double latitudeA,
+                                                     double longitudeB, double latitudeB) {
+        switch (accuracy) {
+            case Spherical: {
+                // the unit vectors of the positions and the normal of the great circle through A and B
+                double phiA = rad * latitudeA, lambdaA = rad * longitudeA, cosPhiA = cos(phiA);
+                double xA = cosPhiA * cos(lambdaA), yA = cosPhiA * sin(lambdaA), zA = sin(phiA);
+                double phiB = rad * latitudeB, lambdaB = rad * longitudeB, cosPhiB = cos(phiB);
+                double xB = cosPhiB * cos(lambdaB), yB = cosPhiB * sin(lambdaB), zB = sin(phiB);
+                double phiD = rad * latitudeD, lambdaD = rad * longitudeD, cosPhiD = cos(phiD);
+                double xD = cosPhiD * cos(lambdaD), yD = cosPhiD * sin(lambdaD), zD = sin(phiD);
+                double x = yA * zB - zA * yB, y = zA * xB - xA * zB, z = xA * yB - yA * xB;
+                double length = sqrt(x * x + y * y + z * z);
+                if (length == 0.0)
+                    return calculateHaversineDistance(longitudeA, latitudeA, longitudeD, latitudeD);
+                return -asin((xD * x + yD * y + zD * z) / length) * MEAN_EARTH_RADIUS;
+            }
+            case Equirectangular: {
+                double cosLatitude = cos(rad * latitudeA);
+                double xB = normalizeLongitude(rad * (longitudeB - longitudeA)) * cosLatitude;
+                double yB = rad * (latitudeB - latitudeA);
+                double xD = normalizeLongitude(rad * (longitudeD - longitudeA)) * cosLatitude;
+                double yD = rad * (latitudeD - latitudeA);
+                double length = sqrt(xB * xB + yB * yB);
+                if (length == 0.0)
+                    return MEAN_EARTH_RADIUS * sqrt(xD * xD + yD * yD);
+                return MEAN_EARTH_RADIUS * (yB * xD - xB * yD) / length;
+            }
+            default: {
+                Bearing bearingAD = calculateBearing(longitudeA, latitudeA, longitudeD, latitudeD);
+                double courseAtoD = toRadians(bearingAD.getAngle());
+                double courseAtoB = toRadians(calculateBearing(longitudeA, latitudeA, longitudeB, latitudeB).getAngle());
+                return asin(sin(bearingAD.getDistance() / EARTH_RADIUS) * sin(courseAtoD - courseAtoB)) * EARTH_RADIUS;
+            }
+        }
+    }
+}
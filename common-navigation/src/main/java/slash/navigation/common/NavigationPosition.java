@@ -92,6 +92,16 @@ public interface NavigationPosition {
     Double calculateDistance(NavigationPosition other);
     Double calculateDistance(double longitude, double latitude);
 
+    /**
+     * Calculate the distance in meters between this and the other position with the given accuracy.
+     *
+     * @param other the other position
+     * @param accuracy the accuracy of the calculation
+     * @return the distance in meters between this and the other position
+     *         or null if the distance cannot be calculated
+     */
+    Double calculateDistance(NavigationPosition other, DistanceAccuracy accuracy);
+
     /**
      * Calculate the orthogonal distance of this position to the line from pointA to pointB,
      * supposed you are proceeding on a great circle route from A to B and end up at D, perhaps
@@ -106,6 +116,7 @@ public interface NavigationPosition {
      *         or null if the orthogonal distance cannot be calculated
      */
     Double calculateOrthogonalDistance(NavigationPosition pointA, NavigationPosition pointB);
+    Double calculateOrthogonalDistance(NavigationPosition pointA, NavigationPosition pointB, DistanceAccuracy accuracy);
 
     /**
      * Calculate the angle in degree between this and the other position.
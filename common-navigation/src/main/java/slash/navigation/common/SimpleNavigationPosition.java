@@ -120,10 +120,18 @@ public class SimpleNavigationPosition implements NavigationPosition {
         throw new UnsupportedOperationException();
     }
 
+    public Double calculateDistance(NavigationPosition other, DistanceAccuracy accuracy) {
+        throw new UnsupportedOperationException();
+    }
+
     public Double calculateOrthogonalDistance(NavigationPosition pointA, NavigationPosition pointB) {
         throw new UnsupportedOperationException();
     }
 
+    public Double calculateOrthogonalDistance(NavigationPosition pointA, NavigationPosition pointB, DistanceAccuracy accuracy) {
+        throw new UnsupportedOperationException();
+    }
+
     public Double calculateAngle(NavigationPosition other) {
         throw new UnsupportedOperationException();
     }
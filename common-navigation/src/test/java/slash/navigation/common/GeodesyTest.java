@@ -0,0 +1,112 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.common;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.common.TestCase.assertDoubleEquals;
+import static slash.navigation.common.Bearing.calculateBearing;
+import static slash.navigation.common.DistanceAccuracy.Equirectangular;
+import static slash.navigation.common.DistanceAccuracy.Exact;
+import static slash.navigation.common.DistanceAccuracy.Spherical;
+import static slash.navigation.common.Geodesy.calculateDistance;
+import static slash.navigation.common.Geodesy.calculateDistances;
+import static slash.navigation.common.Geodesy.calculateOrthogonalDistance;
+import static slash.navigation.common.Geodesy.calculateVincentyDistance;
+
+public class GeodesyTest {
+    private final Random random = new Random(42);
+
+    private double[] createPosition() {
+        double latitude = random.nextDouble() * 160.0 - 80.0;
+        double longitude = random.nextDouble() * 360.0 - 180.0;
+        return new double[]{longitude, latitude,
+                longitude + random.nextDouble() * 0.8 - 0.4, latitude + random.nextDouble() * 0.4 - 0.2};
+    }
+
+    @Test
+    public void testVincentyMatchesBearing() {
+        for (int i = 0; i < 1000; i++) {
+            double[] p = createPosition();
+            assertEquals(calculateBearing(p[0], p[1], p[2], p[3]).getDistance(),
+                    calculateVincentyDistance(p[0], p[1], p[2], p[3]), 0.0);
+        }
+        assertEquals(0.0, calculateVincentyDistance(10.0, 50.0, 10.0, 50.0), 0.0);
+    }
+
+    @Test
+    public void testErrorBounds() {
+        for (int i = 0; i < 1000; i++) {
+            double[] p = createPosition();
+            double exact = calculateDistance(Exact, p[0], p[1], p[2], p[3]);
+            if (exact < 1.0 || abs(p[3]) > 80.0)
+                continue;
+            assertTrue(abs(calculateDistance(Spherical, p[0], p[1], p[2], p[3]) - exact) / exact < 0.006);
+            assertTrue(abs(calculateDistance(Equirectangular, p[0], p[1], p[2], p[3]) - exact) / exact < 0.006);
+        }
+    }
+
+    @Test
+    public void testAcrossDateLine() {
+        double exact = calculateDistance(Exact, 179.99, 0.0, -179.99, 0.0);
+        assertEquals(2226.4, exact, 0.1);
+        assertTrue(abs(calculateDistance(Spherical, 179.99, 0.0, -179.99, 0.0) - exact) < 15.0);
+        assertTrue(abs(calculateDistance(Equirectangular, 179.99, 0.0, -179.99, 0.0) - exact) < 15.0);
+    }
+
+    @Test
+    public void testBulkMatchesSingle() {
+        int count = 50;
+        double[] longitudes = new double[count], latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = 10.0 + i * 0.01 + random.nextDouble() * 0.005;
+            latitudes[i] = 53.0 + random.nextDouble() * 0.01;
+        }
+
+        for (DistanceAccuracy accuracy : DistanceAccuracy.values()) {
+            double[] segments = new double[count];
+            calculateDistances(accuracy, longitudes, latitudes, count, segments);
+            assertEquals(0.0, segments[0], 0.0);
+            double[] fromPoint = new double[count];
+            calculateDistances(accuracy, 10.5, 53.5, longitudes, latitudes, count, fromPoint);
+
+            for (int i = 1; i < count; i++) {
+                assertDoubleEquals(calculateDistance(accuracy, longitudes[i - 1], latitudes[i - 1], longitudes[i], latitudes[i]), segments[i]);
+                assertDoubleEquals(calculateDistance(accuracy, 10.5, 53.5, longitudes[i], latitudes[i]), fromPoint[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testOrthogonalDistance() {
+        // D is north of the line from A to B along the equator
+        for (DistanceAccuracy accuracy : DistanceAccuracy.values()) {
+            double distance = calculateOrthogonalDistance(accuracy, 0.5, 0.01, 0.0, 0.0, 1.0, 0.0);
+            assertTrue(accuracy + ": " + distance, distance < 0.0);
+            assertEquals(1110.0, abs(distance), 10.0);
+            assertTrue(calculateOrthogonalDistance(accuracy, 0.5, -0.01, 0.0, 0.0, 1.0, 0.0) > 0.0);
+        }
+    }
+}
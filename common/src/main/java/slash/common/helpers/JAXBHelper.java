@@ -24,26 +24,51 @@ import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBException;
 import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
-import java.util.HashMap;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
+import static java.lang.System.currentTimeMillis;
 import static java.util.Arrays.asList;
+import static java.util.Collections.sort;
 import static javax.xml.bind.Marshaller.JAXB_FORMATTED_OUTPUT;
 
 /**
  * Provides JAXB helpers.
  *
+ * Contexts are built once per list of classes and shared by all threads. Each context keeps a bounded
+ * pool of {@link Unmarshaller}s and {@link Marshaller}s which are handed out by the acquire and release
+ * methods since JAXB (un)marshallers are cheap to reuse but not thread-safe.
+ *
  * @author Christian Pesch
  */
 
 public class JAXBHelper {
+    private static final Logger log = Logger.getLogger(JAXBHelper.class.getName());
     private static final Preferences preferences = Preferences.userNodeForPackage(JAXBHelper.class);
     public static final String JAXB_IMPL_HEADER = "com.sun.xml.internal.bind.xmlHeaders".intern();
+    static final int POOL_SIZE = 4;
 
-    private static Map<List<Class<?>>, JAXBContext> classesToContext = new HashMap<>();
-    private static boolean cacheContexts = false;
+    private static final ConcurrentMap<List<Class<?>>, Binding> classesToBinding = new ConcurrentHashMap<>();
+    private static final Map<JAXBContext, Binding> contextToBinding = new ConcurrentHashMap<>();
+    private static final AtomicInteger initialized = new AtomicInteger();
+    private static boolean cacheContexts = true;
 
     public static void setCacheContexts(boolean cacheContexts) {
         JAXBHelper.cacheContexts = cacheContexts;
@@ -51,23 +76,105 @@ public class JAXBHelper {
 
     public static JAXBContext newContext(Class<?>... classes) {
         List<Class<?>> key = asList(classes);
-        JAXBContext context = classesToContext.get(key);
-        if (context == null) {
-            try {
-                context = JAXBContext.newInstance(classes);
-                if (cacheContexts)
-                    classesToContext.put(key, context);
-            } catch (JAXBException e) {
-                throw new RuntimeException(e);
+        if (!cacheContexts)
+            return createContext(key);
+
+        Binding binding = classesToBinding.get(key);
+        if (binding == null) {
+            Binding created = new Binding(key);
+            binding = classesToBinding.putIfAbsent(key, created);
+            if (binding == null)
+                binding = created;
+        }
+        // returns at once if another thread is already building the context and waits for it below
+        binding.context.run();
+        try {
+            return binding.context.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            // allow a later call to try again
+            classesToBinding.remove(key, binding);
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static JAXBContext createContext(List<Class<?>> classes) {
+        try {
+            return JAXBContext.newInstance(classes.toArray(new Class<?>[classes.size()]));
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Builds the contexts for the given lists of classes one after the other on a background thread
+     * so that the first read or write of a format does not have to wait for them.
+     *
+     * @param classes the lists of classes in the order of their priority
+     * @return the thread that builds the contexts
+     */
+    public static Thread initializeContexts(final List<Class<?>[]> classes) {
+        Thread thread = new Thread(new Runnable() {
+            public void run() {
+                long start = currentTimeMillis();
+                for (Class<?>[] list : classes) {
+                    try {
+                        newContext(list);
+                    } catch (RuntimeException e) {
+                        log.warning("Cannot initialize JAXB context for " + getName(asList(list)) + ": " + e);
+                    }
+                }
+                log.info("Initialized " + classes.size() + " JAXB contexts in " + (currentTimeMillis() - start) + " milliseconds");
             }
+        }, "JAXBContextInitializer");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+        return thread;
+    }
+
+    /**
+     * @return the milliseconds it took to build the context for each list of classes
+     * in the order in which the building finished; the lists are named by the packages of the classes
+     */
+    public static Map<String, Long> getInitializationTimes() {
+        List<Binding> bindings = new ArrayList<>();
+        for (Binding binding : classesToBinding.values()) {
+            if (binding.order > 0)
+                bindings.add(binding);
         }
-        return context;
+        sort(bindings, new Comparator<Binding>() {
+            public int compare(Binding b1, Binding b2) {
+                return Integer.compare(b1.order, b2.order);
+            }
+        });
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (Binding binding : bindings)
+            result.put(getName(binding.classes), binding.milliseconds);
+        return result;
+    }
+
+    static String getName(List<Class<?>> classes) {
+        StringBuilder buffer = new StringBuilder();
+        for (Class<?> clazz : classes) {
+            if (buffer.length() > 0)
+                buffer.append(",");
+            Package aPackage = clazz.getPackage();
+            buffer.append(aPackage != null && clazz.getSimpleName().equals("ObjectFactory") ? aPackage.getName() : clazz.getName());
+        }
+        return buffer.toString();
+    }
+
+    public static boolean isFormattedOutput() {
+        return preferences.getBoolean("prettyPrintXml", true);
     }
 
     public static Marshaller newMarshaller(JAXBContext context) {
         try {
             Marshaller result = context.createMarshaller();
-            result.setProperty(JAXB_FORMATTED_OUTPUT, preferences.getBoolean("prettyPrintXml", true));
+            result.setProperty(JAXB_FORMATTED_OUTPUT, isFormattedOutput());
             return result;
         } catch (JAXBException e) {
             throw new RuntimeException(e);
@@ -81,4 +188,107 @@ public class JAXBHelper {
             throw new RuntimeException(e);
         }
     }
+
+    /**
+     * Takes a marshaller from the pool of the context or creates one if the pool is empty.
+     * Hand it back with {@link #releaseMarshaller} when done and do not change its event handler.
+     */
+    public static Marshaller acquireMarshaller(JAXBContext context) {
+        Binding binding = contextToBinding.get(context);
+        Marshaller result = binding != null ? binding.marshallers.poll() : null;
+        if (result == null)
+            return newMarshaller(context);
+        try {
+            result.setProperty(JAXB_FORMATTED_OUTPUT, isFormattedOutput());
+        } catch (JAXBException e) {
+            throw new RuntimeException(e);
+        }
+        return result;
+    }
+
+    public static void releaseMarshaller(JAXBContext context, Marshaller marshaller) {
+        Binding binding = contextToBinding.get(context);
+        if (binding == null || marshaller.getSchema() != null || marshaller.getListener() != null)
+            return;
+        binding.marshallers.offer(marshaller);
+    }
+
+    /**
+     * Takes an unmarshaller from the pool of the context or creates one if the pool is empty.
+     * Hand it back with {@link #releaseUnmarshaller} when done and do not change its event handler.
+     */
+    public static Unmarshaller acquireUnmarshaller(JAXBContext context) {
+        Binding binding = contextToBinding.get(context);
+        Unmarshaller result = binding != null ? binding.unmarshallers.poll() : null;
+        return result != null ? result : newUnmarshaller(context);
+    }
+
+    public static void releaseUnmarshaller(JAXBContext context, Unmarshaller unmarshaller) {
+        Binding binding = contextToBinding.get(context);
+        // a changed unmarshaller is dropped since setting the event handler to null would not restore the lenient default
+        if (binding == null || unmarshaller.getSchema() != null || unmarshaller.getListener() != null)
+            return;
+        binding.unmarshallers.offer(unmarshaller);
+    }
+
+    public static Object unmarshal(JAXBContext context, InputStream in) throws JAXBException {
+        Unmarshaller unmarshaller = acquireUnmarshaller(context);
+        try {
+            return unmarshaller.unmarshal(in);
+        } finally {
+            releaseUnmarshaller(context, unmarshaller);
+        }
+    }
+
+    public static Object unmarshal(JAXBContext context, Reader reader) throws JAXBException {
+        Unmarshaller unmarshaller = acquireUnmarshaller(context);
+        try {
+            return unmarshaller.unmarshal(reader);
+        } finally {
+            releaseUnmarshaller(context, unmarshaller);
+        }
+    }
+
+    public static void marshal(JAXBContext context, Object element, OutputStream out) throws JAXBException {
+        Marshaller marshaller = acquireMarshaller(context);
+        try {
+            marshaller.marshal(element, out);
+        } finally {
+            releaseMarshaller(context, marshaller);
+        }
+    }
+
+    public static void marshal(JAXBContext context, Object element, Writer writer) throws JAXBException {
+        Marshaller marshaller = acquireMarshaller(context);
+        try {
+            marshaller.marshal(element, writer);
+        } finally {
+            releaseMarshaller(context, marshaller);
+        }
+    }
+
+    private static class Binding {
+        private final List<Class<?>> classes;
+        private final FutureTask<JAXBContext> context;
+        private final BlockingQueue<Unmarshaller> unmarshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+        private final BlockingQueue<Marshaller> marshallers = new ArrayBlockingQueue<>(POOL_SIZE);
+        private volatile long milliseconds;
+        private volatile int order;
+
+        private Binding(final List<Class<?>> classes) {
+            this.classes = classes;
+            this.context = new FutureTask<>(new Callable<JAXBContext>() {
+                public JAXBContext call() {
+                    long start = currentTimeMillis();
+                    JAXBContext result = createContext(classes);
+                    milliseconds = currentTimeMillis() - start;
+                    order = initialized.incrementAndGet();
+                    contextToBinding.put(result, Binding.this);
+                    log.info("Initialized JAXB context for " + getName(classes) + " in " + milliseconds + " milliseconds on " +
+                            Thread.currentThread().getName());
+                    return result;
+                }
+            });
+        }
+    }
 }
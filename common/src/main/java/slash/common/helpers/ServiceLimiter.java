@@ -0,0 +1,110 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.helpers;
+
+import java.util.concurrent.Semaphore;
+
+import static java.lang.Math.max;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Limits the number of concurrent requests to a service and the rate in which
+ * requests are started.
+ *
+ * @author Christian Pesch
+ */
+
+public class ServiceLimiter {
+    private final String name;
+    private final int maximumConcurrency;
+    private final double maximumRequestsPerSecond;
+    private final Semaphore permits;
+    private final long intervalNanos;
+    private long nextStartNanos = nanoTime();
+
+    /**
+     * @param name the name of the service
+     * @param maximumConcurrency the maximum number of concurrent requests
+     * @param maximumRequestsPerSecond the maximum number of requests started per second, 0 for no limit
+     */
+    public ServiceLimiter(String name, int maximumConcurrency, double maximumRequestsPerSecond) {
+        if (maximumConcurrency < 1)
+            throw new IllegalArgumentException("Maximum concurrency " + maximumConcurrency + " is less than 1");
+        this.name = name;
+        this.maximumConcurrency = maximumConcurrency;
+        this.maximumRequestsPerSecond = maximumRequestsPerSecond;
+        this.permits = new Semaphore(maximumConcurrency, true);
+        this.intervalNanos = maximumRequestsPerSecond > 0.0 ? (long) (1000000000L / maximumRequestsPerSecond) : 0;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getMaximumConcurrency() {
+        return maximumConcurrency;
+    }
+
+    public double getMaximumRequestsPerSecond() {
+        return maximumRequestsPerSecond;
+    }
+
+    /**
+     * Blocks until a request may be started. Every successful call has to be
+     * followed by a call to {@link #release()}.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting
+     */
+    public void acquire() throws InterruptedException {
+        permits.acquire();
+        try {
+            throttle();
+        } catch (InterruptedException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    private void throttle() throws InterruptedException {
+        if (intervalNanos == 0)
+            return;
+
+        long waitNanos;
+        synchronized (this) {
+            long now = nanoTime();
+            long start = max(now, nextStartNanos);
+            nextStartNanos = start + intervalNanos;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0)
+            NANOSECONDS.sleep(waitNanos);
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[name=" + name + ", maximumConcurrency=" + maximumConcurrency +
+                ", maximumRequestsPerSecond=" + maximumRequestsPerSecond + "]";
+    }
+}
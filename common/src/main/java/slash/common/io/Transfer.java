@@ -153,18 +153,20 @@ public class Transfer {
         return aBigInteger != null ? aBigInteger.intValue() : null;
     }
 
-    private static final NumberFormat DECIMAL_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-
-    static {
-        DECIMAL_NUMBER_FORMAT.setGroupingUsed(false);
-        DECIMAL_NUMBER_FORMAT.setMinimumFractionDigits(1);
-        DECIMAL_NUMBER_FORMAT.setMaximumFractionDigits(20);
-    }
+    private static final ThreadLocal<NumberFormat> DECIMAL_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(Locale.US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(1);
+            format.setMaximumFractionDigits(20);
+            return format;
+        }
+    };
 
     public static String formatDoubleAsString(Double aDouble) {
         if (aDouble == null)
             return "0.0";
-        return DECIMAL_NUMBER_FORMAT.format(aDouble);
+        return DECIMAL_NUMBER_FORMAT.get().format(aDouble);
     }
 
     public static String formatDoubleAsString(Double aDouble, int exactFractionCount) {
@@ -359,8 +361,12 @@ public class Transfer {
         return datatypeFactory;
     }
 
+    public static boolean isReduceTimeToSecondPrecision() {
+        return preferences.getBoolean(REDUCE_TIME_TO_SECOND_PRECISION_PREFERENCE, false);
+    }
+
     public static XMLGregorianCalendar formatXMLTime(CompactCalendar time) {
-       return formatXMLTime(time, preferences.getBoolean(REDUCE_TIME_TO_SECOND_PRECISION_PREFERENCE, false));
+       return formatXMLTime(time, isReduceTimeToSecondPrecision());
     }
 
     public static XMLGregorianCalendar formatXMLTime(CompactCalendar time, boolean reduceTimeToSecondPrecision) {
@@ -60,9 +60,21 @@ import static slash.common.type.CompactCalendar.UTC;
  */
 
 public final class ISO8601 {
-    private static final DecimalFormat XX_FORMAT = new DecimalFormat("00");
-    private static final DecimalFormat XXX_FORMAT = new DecimalFormat("000");
-    private static final DecimalFormat XXXX_FORMAT = new DecimalFormat("0000");
+    private static final ThreadLocal<DecimalFormat> XX_FORMAT = new ThreadLocal<DecimalFormat>() {
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat("00");
+        }
+    };
+    private static final ThreadLocal<DecimalFormat> XXX_FORMAT = new ThreadLocal<DecimalFormat>() {
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat("000");
+        }
+    };
+    private static final ThreadLocal<DecimalFormat> XXXX_FORMAT = new ThreadLocal<DecimalFormat>() {
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat("0000");
+        }
+    };
 
     /**
      * Parses an ISO8601-compliant date/time string.
@@ -264,26 +276,26 @@ public final class ISO8601 {
          */
         StringBuilder buffer = new StringBuilder();
         // year ([-]YYYY)
-        buffer.append(XXXX_FORMAT.format(year));
+        buffer.append(XXXX_FORMAT.get().format(year));
         buffer.append('-');
         // month (MM)
-        buffer.append(XX_FORMAT.format(calendar.get(MONTH) + 1));
+        buffer.append(XX_FORMAT.get().format(calendar.get(MONTH) + 1));
         buffer.append('-');
         // day (DD)
-        buffer.append(XX_FORMAT.format(calendar.get(DAY_OF_MONTH)));
+        buffer.append(XX_FORMAT.get().format(calendar.get(DAY_OF_MONTH)));
         buffer.append('T');
         // hour (hh)
-        buffer.append(XX_FORMAT.format(calendar.get(HOUR_OF_DAY)));
+        buffer.append(XX_FORMAT.get().format(calendar.get(HOUR_OF_DAY)));
         buffer.append(':');
         // minute (mm)
-        buffer.append(XX_FORMAT.format(calendar.get(MINUTE)));
+        buffer.append(XX_FORMAT.get().format(calendar.get(MINUTE)));
         buffer.append(':');
         // second (ss)
-        buffer.append(XX_FORMAT.format(calendar.get(SECOND)));
+        buffer.append(XX_FORMAT.get().format(calendar.get(SECOND)));
         if (includeMilliseconds) {
             // millisecond (SSS)
             buffer.append('.');
-            buffer.append(XXX_FORMAT.format(calendar.get(MILLISECOND)));
+            buffer.append(XXX_FORMAT.get().format(calendar.get(MILLISECOND)));
         }
         if (calendar.getTimeZone().equals(UTC))
             buffer.append('Z');
@@ -291,9 +303,9 @@ public final class ISO8601 {
             buffer.append('+');
             int offsetHours = calendar.getTimeZone().getRawOffset() / 1000 / 3600;
             int offsetMinutes = calendar.getTimeZone().getRawOffset() / 1000 / 60 - offsetHours * 60;
-            buffer.append(XX_FORMAT.format(offsetHours));
+            buffer.append(XX_FORMAT.get().format(offsetHours));
             buffer.append(':');
-            buffer.append(XX_FORMAT.format(offsetMinutes));
+            buffer.append(XX_FORMAT.get().format(offsetMinutes));
         }
         return buffer.toString();
     }
@@ -0,0 +1,131 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.helpers;
+
+import org.junit.Test;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.bind.annotation.XmlRootElement;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.junit.Assert.*;
+import static slash.common.helpers.JAXBHelper.*;
+
+public class JAXBHelperTest {
+
+    @XmlRootElement(name = "first")
+    public static class First {
+        public String value;
+    }
+
+    @XmlRootElement(name = "second")
+    public static class Second {
+        public int value;
+    }
+
+    @XmlRootElement(name = "third")
+    public static class Third {
+        public double value;
+    }
+
+    @Test
+    public void testContextIsBuiltOnceForAllThreads() throws Exception {
+        ExecutorService executor = newFixedThreadPool(8);
+        List<Future<JAXBContext>> futures = new ArrayList<>();
+        for (int i = 0; i < 16; i++) {
+            futures.add(executor.submit(new Callable<JAXBContext>() {
+                public JAXBContext call() {
+                    return newContext(First.class);
+                }
+            }));
+        }
+        JAXBContext context = futures.get(0).get();
+        for (Future<JAXBContext> future : futures)
+            assertSame(context, future.get());
+        executor.shutdown();
+
+        assertTrue(getInitializationTimes().containsKey(First.class.getName()));
+    }
+
+    @Test
+    public void testPooledUnmarshallerIsReused() throws Exception {
+        JAXBContext context = newContext(Second.class);
+        Unmarshaller unmarshaller = acquireUnmarshaller(context);
+        releaseUnmarshaller(context, unmarshaller);
+        assertSame(unmarshaller, acquireUnmarshaller(context));
+        assertNotSame(unmarshaller, acquireUnmarshaller(context));
+
+        Marshaller marshaller = acquireMarshaller(context);
+        releaseMarshaller(context, marshaller);
+        assertSame(marshaller, acquireMarshaller(context));
+    }
+
+    @Test
+    public void testPoolIsBounded() throws Exception {
+        JAXBContext context = newContext(Third.class);
+        List<Unmarshaller> unmarshallers = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE + 2; i++)
+            unmarshallers.add(acquireUnmarshaller(context));
+        for (Unmarshaller unmarshaller : unmarshallers)
+            releaseUnmarshaller(context, unmarshaller);
+
+        List<Unmarshaller> pooled = new ArrayList<>();
+        for (int i = 0; i < POOL_SIZE + 2; i++)
+            pooled.add(acquireUnmarshaller(context));
+        assertEquals(unmarshallers.subList(0, POOL_SIZE), pooled.subList(0, POOL_SIZE));
+        for (Unmarshaller unmarshaller : pooled.subList(POOL_SIZE, POOL_SIZE + 2))
+            assertFalse(unmarshallers.contains(unmarshaller));
+    }
+
+    @Test
+    public void testMarshalAndUnmarshal() throws Exception {
+        JAXBContext context = newContext(First.class);
+        First first = new First();
+        first.value = "value";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        marshal(context, first, out);
+        First read = (First) unmarshal(context, new ByteArrayInputStream(out.toByteArray()));
+        assertEquals("value", read.value);
+    }
+
+    @Test
+    public void testInitializeContexts() throws Exception {
+        @SuppressWarnings("unchecked")
+        List<Class<?>[]> classes = asList(new Class<?>[]{Second.class, Third.class}, new Class<?>[]{Third.class, First.class});
+        initializeContexts(classes).join();
+
+        List<String> names = new ArrayList<>(getInitializationTimes().keySet());
+        int first = names.indexOf(Second.class.getName() + "," + Third.class.getName());
+        int second = names.indexOf(Third.class.getName() + "," + First.class.getName());
+        assertTrue(first >= 0);
+        assertTrue(second > first);
+    }
+}
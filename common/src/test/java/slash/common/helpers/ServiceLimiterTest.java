@@ -0,0 +1,97 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.common.helpers;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.Math.max;
+import static java.lang.System.currentTimeMillis;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ServiceLimiterTest {
+
+    @Test
+    public void testConcurrencyIsLimited() throws InterruptedException {
+        final ServiceLimiter limiter = new ServiceLimiter("test", 2, 0.0);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger maximumRunning = new AtomicInteger();
+
+        ExecutorService executor = newFixedThreadPool(8);
+        for (int i = 0; i < 32; i++) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    try {
+                        limiter.acquire();
+                        try {
+                            int current = running.incrementAndGet();
+                            synchronized (maximumRunning) {
+                                maximumRunning.set(max(maximumRunning.get(), current));
+                            }
+                            Thread.sleep(5);
+                            running.decrementAndGet();
+                        } finally {
+                            limiter.release();
+                        }
+                    } catch (InterruptedException e) {
+                        // intentionally left empty
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, SECONDS));
+        assertEquals(2, maximumRunning.get());
+    }
+
+    @Test
+    public void testRateIsLimited() throws InterruptedException {
+        ServiceLimiter limiter = new ServiceLimiter("test", 1, 50.0);
+        long start = currentTimeMillis();
+        for (int i = 0; i < 11; i++) {
+            limiter.acquire();
+            limiter.release();
+        }
+        // the first request starts immediately, the following ten every 20 milliseconds
+        assertTrue(currentTimeMillis() - start >= 190);
+    }
+
+    @Test
+    public void testNoRateLimit() throws InterruptedException {
+        ServiceLimiter limiter = new ServiceLimiter("test", 1, 0.0);
+        long start = currentTimeMillis();
+        for (int i = 0; i < 1000; i++) {
+            limiter.acquire();
+            limiter.release();
+        }
+        assertTrue(currentTimeMillis() - start < 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidConcurrency() {
+        new ServiceLimiter("test", 0, 0.0);
+    }
+}
@@ -0,0 +1,79 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.download;
+
+import java.io.InterruptedIOException;
+
+import static java.lang.Thread.sleep;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Limits the bandwidth that all {@link Download}s of a {@link DownloadManager} use together.
+ *
+ * @author Christian Pesch
+ */
+
+public class BandwidthLimiter {
+    // allows a short burst after a download has been idle
+    private static final long MAXIMUM_BURST_NANOS = MILLISECONDS.toNanos(250);
+
+    private volatile long bytesPerSecond;
+    private long nextNanos = System.nanoTime();
+
+    /**
+     * @return the maximum number of bytes per second or 0 if the bandwidth is not limited
+     */
+    public long getBytesPerSecond() {
+        return bytesPerSecond;
+    }
+
+    public void setBytesPerSecond(long bytesPerSecond) {
+        this.bytesPerSecond = bytesPerSecond;
+    }
+
+    /**
+     * Waits until the given number of bytes may be transferred without exceeding the limit.
+     */
+    public void acquire(long bytes) throws InterruptedIOException {
+        long limit = bytesPerSecond;
+        if (limit <= 0)
+            return;
+
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (nextNanos < now - MAXIMUM_BURST_NANOS)
+                nextNanos = now - MAXIMUM_BURST_NANOS;
+            nextNanos += SECONDS.toNanos(bytes) / limit;
+            waitNanos = nextNanos - now;
+        }
+
+        if (waitNanos > 0) {
+            try {
+                sleep(NANOSECONDS.toMillis(waitNanos), (int) (waitNanos % 1000000));
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException("Interrupted while limiting the bandwidth");
+            }
+        }
+    }
+}
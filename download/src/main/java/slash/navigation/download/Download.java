@@ -27,6 +27,7 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.io.File.createTempFile;
 import static java.util.Arrays.asList;
@@ -47,6 +48,7 @@ public class Download {
     private Action action;
     private FileAndChecksum file;
     private List<FileAndChecksum> fragments;
+    private List<Segment> segments;
     private final File tempFile;
 
     private State state;
@@ -133,6 +135,17 @@ public class Download {
         return tempFile;
     }
 
+    /**
+     * @return the segments of the temp file that are downloaded in parallel or null if the download is not segmented
+     */
+    public List<Segment> getSegments() {
+        return segments;
+    }
+
+    public void setSegments(List<Segment> segments) {
+        this.segments = segments != null ? new CopyOnWriteArrayList<>(segments) : null;
+    }
+
     public Integer getPercentage() {
         return expectedBytes != null ? (int) (processedBytes / (double) expectedBytes * 100.0) : null;
     }
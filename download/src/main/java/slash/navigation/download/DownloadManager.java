@@ -24,19 +24,26 @@ import slash.navigation.download.actions.Validator;
 import slash.navigation.download.executor.DownloadExecutor;
 import slash.navigation.download.executor.DownloadExecutorComparator;
 import slash.navigation.download.queue.QueuePersister;
+import slash.navigation.rest.HttpClientPool;
 
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import java.io.File;
 import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
 import java.util.*;
 import java.util.concurrent.*;
 import java.util.logging.Logger;
+import java.util.prefs.Preferences;
 
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
 import static java.util.Arrays.asList;
 import static java.util.Collections.singletonList;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static slash.navigation.download.Action.*;
 import static slash.navigation.download.State.*;
@@ -49,8 +56,13 @@ import static slash.navigation.download.State.*;
 
 public class DownloadManager {
     private static final Logger log = Logger.getLogger(DownloadManager.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(DownloadManager.class);
+    private static final String BANDWIDTH_LIMIT_PREFERENCE = "bandwidthLimit";
     static final int WAIT_TIMEOUT = 60 * 1000;
     private static final int PARALLEL_DOWNLOAD_COUNT = 4;
+    public static final long MINIMUM_SEGMENT_SIZE = 4 * 1024 * 1024L;
+    private static final int MAXIMUM_SEGMENT_COUNT = 8;
+    private static final int SAVE_QUEUE_INTERVAL = 10 * 1000;
 
     private final File queueFile;
 
@@ -59,18 +71,26 @@ public class DownloadManager {
     private final Map<Download,Future> downloadToFutures = new HashMap<>();
     private final Map<Download,DownloadExecutor> downloadToExecutors = new HashMap<>();
     private final ThreadPoolExecutor pool;
+    private final ExecutorService segmentPool = newCachedThreadPool();
+    private final BandwidthLimiter bandwidthLimiter = new BandwidthLimiter();
+    private final Map<String, Integer> routeToSegments = new HashMap<>();
+    private volatile long lastQueueSave;
 
     public DownloadManager(File queueFile) {
         this.queueFile = queueFile;
         BlockingQueue<Runnable> queue = new PriorityBlockingQueue<>(1, new DownloadExecutorComparator());
         pool = new ThreadPoolExecutor(PARALLEL_DOWNLOAD_COUNT, PARALLEL_DOWNLOAD_COUNT * 2, 60, SECONDS, queue);
         pool.allowCoreThreadTimeOut(true);
+        bandwidthLimiter.setBytesPerSecond(getBandwidthLimit());
         addDownloadListener(new DownloadListener() {
             public void initialized(Download download) {
                 saveQueue();
             }
 
             public void progressed(Download download) {
+                // keeps the state of the segments for resuming after the application has been terminated
+                if (download.getSegments() != null && currentTimeMillis() - lastQueueSave > SAVE_QUEUE_INTERVAL)
+                    saveQueue();
             }
 
             public void failed(Download download) {
@@ -140,7 +160,8 @@ public class DownloadManager {
         pool.purge();
     }
 
-    public void saveQueue() {
+    public synchronized void saveQueue() {
+        lastQueueSave = currentTimeMillis();
         try {
             new QueuePersister().save(queueFile, model.getDownloads());
         } catch (Exception e) {
@@ -156,12 +177,77 @@ public class DownloadManager {
 
     public void dispose() {
         pool.shutdownNow();
+        segmentPool.shutdownNow();
     }
 
     public DownloadTableModel getModel() {
         return model;
     }
 
+    public BandwidthLimiter getBandwidthLimiter() {
+        return bandwidthLimiter;
+    }
+
+    /**
+     * @return the maximum number of bytes per second of all downloads together or 0 if the bandwidth is not limited
+     */
+    public long getBandwidthLimit() {
+        return preferences.getLong(BANDWIDTH_LIMIT_PREFERENCE, 0);
+    }
+
+    public void setBandwidthLimit(long bytesPerSecond) {
+        preferences.putLong(BANDWIDTH_LIMIT_PREFERENCE, bytesPerSecond);
+        bandwidthLimiter.setBytesPerSecond(bytesPerSecond);
+    }
+
+    public ExecutorService getSegmentPool() {
+        return segmentPool;
+    }
+
+    private static String getRoute(String url) {
+        try {
+            URL route = new URL(url);
+            return route.getProtocol() + "://" + route.getAuthority();
+        } catch (MalformedURLException e) {
+            return url;
+        }
+    }
+
+    /**
+     * Reserves connections to the server of the given url to download a file with the given length
+     * in parallel. The segments of all downloads from a server leave a connection per route of the
+     * {@link HttpClientPool} for each of the other parallel downloads.
+     *
+     * @return the number of segments which depends on the size of the file and the segments of the
+     * other downloads from the same server; release them with {@link #releaseSegments(String, int)}
+     */
+    public int reserveSegments(String url, long contentLength) {
+        int segmentsForSize = (int) min(contentLength / MINIMUM_SEGMENT_SIZE, MAXIMUM_SEGMENT_COUNT);
+        int segmentsForRoute = HttpClientPool.getInstance().getMaximumPerRoute() - (PARALLEL_DOWNLOAD_COUNT - 1);
+        String route = getRoute(url);
+        synchronized (routeToSegments) {
+            Integer reserved = routeToSegments.get(route);
+            if (reserved == null)
+                reserved = 0;
+            int segments = max(min(segmentsForSize, segmentsForRoute - reserved), 1);
+            routeToSegments.put(route, reserved + segments);
+            return segments;
+        }
+    }
+
+    public void releaseSegments(String url, int segments) {
+        String route = getRoute(url);
+        synchronized (routeToSegments) {
+            Integer reserved = routeToSegments.get(route);
+            if (reserved == null)
+                return;
+            if (reserved > segments)
+                routeToSegments.put(route, reserved - segments);
+            else
+                routeToSegments.remove(route);
+        }
+    }
+
     public void addDownloadListener(DownloadListener listener) {
         downloadListeners.add(listener);
     }
@@ -0,0 +1,108 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.download;
+
+/**
+ * A range of bytes of a {@link Download} that is fetched with its own HTTP range request
+ * and the position up to which it has been written to the temp file.
+ *
+ * @author Christian Pesch
+ */
+
+public class Segment {
+    private final long start;
+    private long end, position;
+
+    public Segment(long start, long end, long position) {
+        this.start = start;
+        this.end = end;
+        this.position = position;
+    }
+
+    public Segment(long start, long end) {
+        this(start, end, start);
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    /**
+     * @return the index of the last byte of the segment
+     */
+    public synchronized long getEnd() {
+        return end;
+    }
+
+    /**
+     * @return the index of the next byte to download
+     */
+    public synchronized long getPosition() {
+        return position;
+    }
+
+    public synchronized long getRemaining() {
+        return end - position + 1;
+    }
+
+    public synchronized boolean isCompleted() {
+        return position > end;
+    }
+
+    public synchronized void advance(long bytes) {
+        position += bytes;
+    }
+
+    /**
+     * Hands the second half of the remaining bytes over to a new segment
+     *
+     * @param minimumSize the minimum number of remaining bytes for each of both segments
+     * @return the new segment or null if there are not enough remaining bytes
+     */
+    public synchronized Segment split(long minimumSize) {
+        long remaining = getRemaining();
+        if (remaining < 2 * minimumSize)
+            return null;
+
+        long splitAt = position + remaining / 2;
+        Segment segment = new Segment(splitAt, end);
+        end = splitAt - 1;
+        return segment;
+    }
+
+    public synchronized String toString() {
+        return getClass().getSimpleName() + "[start=" + start + ", end=" + end + ", position=" + position + "]";
+    }
+
+    public synchronized boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        Segment segment = (Segment) o;
+        synchronized (segment) {
+            return start == segment.start && end == segment.end && position == segment.position;
+        }
+    }
+
+    public int hashCode() {
+        return (int) (start ^ (start >>> 32));
+    }
+}
@@ -19,6 +19,8 @@
 */
 package slash.navigation.download.actions;
 
+import slash.navigation.download.BandwidthLimiter;
+
 import java.io.*;
 
 import static org.apache.commons.io.IOUtils.closeQuietly;
@@ -32,9 +34,15 @@ import static slash.common.io.InputOutput.DEFAULT_BUFFER_SIZE;
  */
 public class Copier {
     private final CopierListener listener;
+    private final BandwidthLimiter bandwidthLimiter;
 
-    public Copier(CopierListener listener) {
+    public Copier(CopierListener listener, BandwidthLimiter bandwidthLimiter) {
         this.listener = listener;
+        this.bandwidthLimiter = bandwidthLimiter;
+    }
+
+    public Copier(CopierListener listener) {
+        this(listener, null);
     }
 
     public long copyAndClose(File from, File to) throws IOException {
@@ -70,6 +78,8 @@ public class Copier {
         int read;
 
         while (-1 != (read = input.read(buffer))) {
+            if (bandwidthLimiter != null)
+                bandwidthLimiter.acquire(read);
             output.write(buffer, 0, read);
             totalBytes += read;
             listener.processedBytes(totalBytes);
@@ -62,6 +62,10 @@ public class DownloadExecutor implements Runnable {
         return modelUpdater;
     }
 
+    public DownloadManager getDownloadManager() {
+        return downloadManager;
+    }
+
     public void run() {
         updateState(Running);
 
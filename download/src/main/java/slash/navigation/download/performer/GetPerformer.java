@@ -39,6 +39,7 @@ import static java.lang.String.format;
 import static java.util.logging.Logger.getLogger;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Files.setLastModified;
+import static slash.navigation.download.DownloadManager.MINIMUM_SEGMENT_SIZE;
 import static slash.navigation.download.State.*;
 
 /**
@@ -62,6 +63,28 @@ public class GetPerformer implements ActionPerformer {
         return downloadExecutor.getModelUpdater();
     }
 
+    private Copier createCopier() {
+        return new Copier(getModelUpdater(), downloadExecutor.getDownloadManager().getBandwidthLimiter());
+    }
+
+    private boolean canResumeSegments() {
+        return getDownload().getSegments() != null && getDownload().getSegments().size() > 0 &&
+                getDownload().getTempFile().exists();
+    }
+
+    private Result resumeSegments() throws IOException {
+        downloadExecutor.updateState(Resuming);
+
+        try {
+            new SegmentedDownload(downloadExecutor, SOCKET_TIMEOUT).resume();
+            return new Result(true);
+        } catch (SegmentedDownload.RangeNotSatisfiedException e) {
+            log.info(format("Cannot resume segments from %s, downloading again: %s", getDownload().getUrl(), e.getMessage()));
+            getDownload().setSegments(null);
+            return new Result(false);
+        }
+    }
+
     private boolean canResume() {
         Checksum checksum = getDownload().getFile().getExpectedChecksum();
         return getDownload().getTempFile().exists() && getDownload().getTempFile().length() > 0 &&
@@ -83,9 +106,11 @@ public class GetPerformer implements ActionPerformer {
         log.info(format("Resume from %s returned with status code %s", getDownload().getUrl(), get.getStatusCode()));
         if (get.isPartialContent()) {
             getModelUpdater().expectingBytes(contentLength != null ? contentLength : get.getContentLength() != null ? get.getContentLength() : 0);
-            new Copier(getModelUpdater()).copyAndClose(inputStream, new FileOutputStream(getDownload().getTempFile(), true), fileSize, contentLength);
+            createCopier().copyAndClose(inputStream, new FileOutputStream(getDownload().getTempFile(), true), fileSize, contentLength);
             return new Result(true);
         }
+        // return the connection to the pool
+        get.release();
         return new Result(false);
     }
 
@@ -97,26 +122,58 @@ public class GetPerformer implements ActionPerformer {
 
         Get get = new Get(getDownload().getUrl());
         get.setSocketTimeout(SOCKET_TIMEOUT);
+        // a server that supports ranges answers with a partial content that tells the complete length
+        boolean segmented = contentLength != null && contentLength >= 2 * MINIMUM_SEGMENT_SIZE;
+        if (segmented)
+            get.setRange(0L, null);
         if (new Validator(getDownload()).isExistsTargets() && getDownload().getETag() != null)
             get.setIfNoneMatch(getDownload().getETag());
 
         InputStream inputStream = get.executeAsStream();
         log.info(format("Download from %s returned with status code %s and %d bytes", getDownload().getUrl(), get.getStatusCode(), get.getContentLength()));
+        Long completeLength = segmented && get.isPartialContent() ? get.getCompleteLength() : null;
+        if (completeLength != null && inputStream != null) {
+            getDownload().setETag(get.getETag());
+            Long lastModified = get.getLastModified();
+            try {
+                new SegmentedDownload(downloadExecutor, SOCKET_TIMEOUT).download(get, inputStream, completeLength);
+                return new Result(true, lastModified);
+            } catch (SegmentedDownload.RangeNotSatisfiedException e) {
+                log.info(format("Cannot download segments from %s, downloading in one stream: %s", getDownload().getUrl(), e.getMessage()));
+                getDownload().setSegments(null);
+                return downloadStream(contentLength);
+            }
+        }
+        return copyToTempFile(get, inputStream, contentLength);
+    }
+
+    private Result downloadStream(Long contentLength) throws IOException {
+        Get get = new Get(getDownload().getUrl());
+        get.setSocketTimeout(SOCKET_TIMEOUT);
+        InputStream inputStream = get.executeAsStream();
+        log.info(format("Download from %s returned with status code %s and %d bytes", getDownload().getUrl(), get.getStatusCode(), get.getContentLength()));
+        return copyToTempFile(get, inputStream, contentLength);
+    }
+
+    private Result copyToTempFile(Get get, InputStream inputStream, Long contentLength) throws IOException {
         if (get.isSuccessful() && inputStream != null) {
             if(contentLength == null)
                 contentLength = get.getContentLength();
             if (contentLength != null)
                 getModelUpdater().expectingBytes(contentLength);
-            new Copier(getModelUpdater()).copyAndClose(inputStream, new FileOutputStream(getDownload().getTempFile()), 0, contentLength);
+            createCopier().copyAndClose(inputStream, new FileOutputStream(getDownload().getTempFile()), 0, contentLength);
             getDownload().setETag(get.getETag());
             return new Result(true, get.getLastModified());
         }
+        get.release();
         return new Result(get.isSuccessful(), get.isNotModified());
     }
 
     public void run() throws IOException {
         Result result = new Result(false);
-        if (canResume())
+        if (canResumeSegments())
+            result = resumeSegments();
+        else if (canResume())
             result = resume();
         if (!result.success)
             result = download();
@@ -0,0 +1,321 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.download.performer;
+
+import slash.navigation.download.BandwidthLimiter;
+import slash.navigation.download.Download;
+import slash.navigation.download.DownloadManager;
+import slash.navigation.download.Segment;
+import slash.navigation.download.executor.DownloadExecutor;
+import slash.navigation.download.executor.ModelUpdater;
+import slash.navigation.rest.Get;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.Collections.newSetFromMap;
+import static java.util.logging.Logger.getLogger;
+import static org.apache.commons.io.IOUtils.closeQuietly;
+import static slash.navigation.download.DownloadManager.MINIMUM_SEGMENT_SIZE;
+
+/**
+ * Downloads the {@link Segment}s of a {@link Download} with parallel HTTP range requests
+ * into a preallocated temp file. A worker that has finished its segment takes over the
+ * second half of the largest remaining segment.
+ *
+ * @author Christian Pesch
+ */
+
+class SegmentedDownload {
+    private static final Logger log = getLogger(SegmentedDownload.class.getName());
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final DownloadExecutor downloadExecutor;
+    private final int socketTimeout;
+    private final Set<Segment> claimed = newSetFromMap(new IdentityHashMap<Segment, Boolean>());
+    private final List<Get> requests = new CopyOnWriteArrayList<>();
+    private final AtomicLong processedBytes = new AtomicLong();
+
+    SegmentedDownload(DownloadExecutor downloadExecutor, int socketTimeout) {
+        this.downloadExecutor = downloadExecutor;
+        this.socketTimeout = socketTimeout;
+    }
+
+    private Download getDownload() {
+        return downloadExecutor.getDownload();
+    }
+
+    private ModelUpdater getModelUpdater() {
+        return downloadExecutor.getModelUpdater();
+    }
+
+    private BandwidthLimiter getBandwidthLimiter() {
+        return downloadExecutor.getDownloadManager().getBandwidthLimiter();
+    }
+
+    /**
+     * A server ignores an If-Range with a weak ETag and answers with the complete content.
+     */
+    static boolean isStrongETag(String eTag) {
+        return eTag != null && !eTag.startsWith("W/");
+    }
+
+    static List<Segment> createSegments(long contentLength, int segmentCount) {
+        List<Segment> segments = new ArrayList<>(segmentCount);
+        long segmentSize = (contentLength + segmentCount - 1) / segmentCount;
+        for (long start = 0; start < contentLength; start += segmentSize)
+            segments.add(new Segment(start, min(start + segmentSize, contentLength) - 1));
+        return segments;
+    }
+
+    /**
+     * Starts a segmented download with the stream of a range request for the complete content
+     * which becomes the stream of the first segment.
+     */
+    void download(Get request, InputStream inputStream, long contentLength) throws IOException {
+        DownloadManager downloadManager = downloadExecutor.getDownloadManager();
+        int segmentCount = downloadManager.reserveSegments(getDownload().getUrl(), contentLength);
+        try {
+            getDownload().setSegments(createSegments(contentLength, segmentCount));
+            log.info(format("Downloading %d bytes from %s in %d segments", contentLength, getDownload().getUrl(), segmentCount));
+
+            try (RandomAccessFile file = new RandomAccessFile(getDownload().getTempFile(), "rw")) {
+                // most file systems keep the file sparse until the segments are written
+                file.setLength(contentLength);
+            }
+            fetch(segmentCount, request, inputStream);
+        } finally {
+            downloadManager.releaseSegments(getDownload().getUrl(), segmentCount);
+        }
+    }
+
+    /**
+     * Continues the incomplete segments of a download.
+     */
+    void resume() throws IOException {
+        List<Segment> segments = getDownload().getSegments();
+        long contentLength = segments.get(segments.size() - 1).getEnd() + 1;
+        if (getDownload().getTempFile().length() != contentLength)
+            throw new RangeNotSatisfiedException(format("Temp file %s has not the %d bytes of the segments",
+                    getDownload().getTempFile(), contentLength));
+
+        DownloadManager downloadManager = downloadExecutor.getDownloadManager();
+        int segmentCount = downloadManager.reserveSegments(getDownload().getUrl(), contentLength);
+        try {
+            log.info(format("Resuming %d bytes from %s with %d segments", contentLength, getDownload().getUrl(), segmentCount));
+            fetch(segmentCount, null, null);
+        } finally {
+            downloadManager.releaseSegments(getDownload().getUrl(), segmentCount);
+        }
+    }
+
+    private void fetch(int workerCount, Get firstRequest, InputStream firstInputStream) throws IOException {
+        List<Segment> segments = getDownload().getSegments();
+        long contentLength = 0, downloaded = 0;
+        for (Segment segment : segments) {
+            contentLength = segment.getEnd() + 1;
+            downloaded += segment.getPosition() - segment.getStart();
+        }
+        processedBytes.set(downloaded);
+        getModelUpdater().expectingBytes(contentLength);
+
+        ExecutorService executor = downloadExecutor.getDownloadManager().getSegmentPool();
+        List<Future<Void>> futures = new ArrayList<>(workerCount);
+        try (RandomAccessFile file = new RandomAccessFile(getDownload().getTempFile(), "rw")) {
+            FileChannel channel = file.getChannel();
+            for (int i = 0; i < workerCount; i++) {
+                Worker worker = i == 0 && firstRequest != null ?
+                        new Worker(channel, claim(segments.get(0)), firstRequest, firstInputStream) :
+                        new Worker(channel, null, null, null);
+                futures.add(executor.submit(worker));
+            }
+
+            for (Future<Void> future : futures)
+                future.get();
+
+        } catch (InterruptedException e) {
+            throw new InterruptedIOException(format("Interrupted while downloading segments from %s", getDownload().getUrl()));
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException)
+                throw (IOException) cause;
+            throw new IOException(format("Cannot download segments from %s: %s", getDownload().getUrl(), cause), cause);
+        } finally {
+            abort(futures);
+        }
+
+        for (Segment segment : getDownload().getSegments()) {
+            if (!segment.isCompleted())
+                throw new IOException(format("Segment %s from %s is incomplete", segment, getDownload().getUrl()));
+        }
+        getDownload().setSegments(null);
+    }
+
+    private void abort(List<Future<Void>> futures) {
+        for (Future<Void> future : futures)
+            future.cancel(false);
+        // unblocks the workers that are waiting for the server
+        for (Get request : requests) {
+            try {
+                request.release();
+            } catch (IOException e) {
+                log.fine(format("Cannot release request for %s: %s", getDownload().getUrl(), e));
+            }
+        }
+    }
+
+    private synchronized Segment claim(Segment segment) {
+        claimed.add(segment);
+        return segment;
+    }
+
+    private synchronized Segment nextSegment() {
+        for (Segment segment : getDownload().getSegments()) {
+            if (!segment.isCompleted() && !claimed.contains(segment))
+                return claim(segment);
+        }
+
+        List<Segment> segments = getDownload().getSegments();
+        Segment largest = null;
+        for (Segment segment : segments) {
+            if (!segment.isCompleted() && (largest == null || segment.getRemaining() > largest.getRemaining()))
+                largest = segment;
+        }
+        if (largest == null)
+            return null;
+
+        Segment split;
+        // the QueuePersister must not see the shortened segment without the split that follows it
+        synchronized (segments) {
+            split = largest.split(MINIMUM_SEGMENT_SIZE);
+            if (split == null)
+                return null;
+            segments.add(segments.indexOf(largest) + 1, split);
+        }
+
+        log.fine(format("Split %s from %s for %s", split, largest, getDownload().getUrl()));
+        return claim(split);
+    }
+
+    static class RangeNotSatisfiedException extends IOException {
+        RangeNotSatisfiedException(String message) {
+            super(message);
+        }
+    }
+
+    private class Worker implements Callable<Void> {
+        private final FileChannel channel;
+        private Segment segment;
+        private Get request;
+        private InputStream inputStream;
+
+        private Worker(FileChannel channel, Segment segment, Get request, InputStream inputStream) {
+            this.channel = channel;
+            this.segment = segment;
+            this.request = request;
+            this.inputStream = inputStream;
+        }
+
+        public Void call() throws IOException {
+            if (segment == null)
+                segment = nextSegment();
+
+            while (segment != null) {
+                if (request == null)
+                    open();
+                requests.add(request);
+                try {
+                    copy();
+                } finally {
+                    requests.remove(request);
+                    // aborts the connection instead of reading the bytes beyond the segment
+                    request.release();
+                    closeQuietly(inputStream);
+                    request = null;
+                    inputStream = null;
+                }
+                segment = nextSegment();
+            }
+            return null;
+        }
+
+        private void open() throws IOException {
+            request = new Get(getDownload().getUrl());
+            request.setSocketTimeout(socketTimeout);
+            request.setRange(segment.getPosition(), segment.getEnd());
+            if (isStrongETag(getDownload().getETag()))
+                request.setIfRange(getDownload().getETag());
+
+            inputStream = request.executeAsStream();
+            if (!request.isPartialContent() || inputStream == null) {
+                request.release();
+                throw new RangeNotSatisfiedException(format("Range %d-%d from %s returned with status code %d",
+                        segment.getPosition(), segment.getEnd(), getDownload().getUrl(), request.getStatusCode()));
+            }
+        }
+
+        private void copy() throws IOException {
+            BandwidthLimiter bandwidthLimiter = getBandwidthLimiter();
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (!segment.isCompleted()) {
+                if (Thread.currentThread().isInterrupted())
+                    throw new InterruptedIOException(format("Interrupted while downloading %s from %s", segment, getDownload().getUrl()));
+
+                int read = inputStream.read(buffer);
+                if (read == -1)
+                    break;
+
+                // the end of the segment moves when another worker takes over a part of it
+                int length = (int) min(read, segment.getRemaining());
+                if (length <= 0)
+                    break;
+
+                bandwidthLimiter.acquire(length);
+                ByteBuffer byteBuffer = ByteBuffer.wrap(buffer, 0, length);
+                long position = segment.getPosition();
+                while (byteBuffer.hasRemaining())
+                    position += channel.write(byteBuffer, position);
+                segment.advance(length);
+                getModelUpdater().processedBytes(processedBytes.addAndGet(length));
+            }
+
+            if (!segment.isCompleted())
+                throw new IOException(format("Server closed connection before end of %s from %s", segment, getDownload().getUrl()));
+        }
+    }
+}
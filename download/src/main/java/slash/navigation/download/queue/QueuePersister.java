@@ -73,10 +73,22 @@ public class QueuePersister {
     }
 
     private Download asDownload(DownloadType downloadType) {
-        return new Download(downloadType.getDescription(), downloadType.getUrl(), Action.valueOf(downloadType.getAction()),
+        Download download = new Download(downloadType.getDescription(), downloadType.getUrl(), Action.valueOf(downloadType.getAction()),
                 new FileAndChecksum(new File(downloadType.getDownloadable().getTarget()), asChecksum(downloadType.getDownloadable().getChecksum())),
                 asFileAndChecksums(downloadType.getDownloadable().getFragment()),
                 downloadType.getETag(), State.valueOf(downloadType.getState()), new File(downloadType.getTempFile()));
+        download.setSegments(asSegments(downloadType.getSegment()));
+        return download;
+    }
+
+    private List<Segment> asSegments(List<SegmentType> segmentTypes) {
+        if (segmentTypes.size() == 0)
+            return null;
+
+        List<Segment> segments = new ArrayList<>();
+        for (SegmentType segmentType : segmentTypes)
+            segments.add(new Segment(segmentType.getStart(), segmentType.getEnd(), segmentType.getPosition()));
+        return segments;
     }
 
     private List<FileAndChecksum> asFileAndChecksums(List<FragmentType> fragmentTypes) {
@@ -119,9 +131,28 @@ public class QueuePersister {
         downloadType.setState(download.getState().name());
         downloadType.setETag(download.getETag());
         downloadType.setTempFile(download.getTempFile().getPath());
+        List<Segment> segments = download.getSegments();
+        if (segments != null) {
+            // a segment is split and its split added while holding the lock of the list
+            synchronized (segments) {
+                downloadType.getSegment().addAll(asSegmentTypes(segments));
+            }
+        }
         return downloadType;
     }
 
+    private List<SegmentType> asSegmentTypes(List<Segment> segments) {
+        List<SegmentType> segmentTypes = new ArrayList<>();
+        for (Segment segment : segments) {
+            SegmentType segmentType = new ObjectFactory().createSegmentType();
+            segmentType.setStart(segment.getStart());
+            segmentType.setEnd(segment.getEnd());
+            segmentType.setPosition(segment.getPosition());
+            segmentTypes.add(segmentType);
+        }
+        return segmentTypes;
+    }
+
     private DownloadableType asDownloadableType(Download download) {
         DownloadableType downloadableType = new ObjectFactory().createDownloadableType();
         downloadableType.setChecksum(asChecksumType(download.getFile().getExpectedChecksum()));
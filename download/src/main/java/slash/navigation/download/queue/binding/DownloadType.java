@@ -8,6 +8,8 @@
 
 package slash.navigation.download.queue.binding;
 
+import java.util.ArrayList;
+import java.util.List;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -31,6 +33,7 @@ import javax.xml.bind.annotation.XmlType;
  *     &lt;restriction base="{http://www.w3.org/2001/XMLSchema}anyType">
  *       &lt;sequence>
  *         &lt;element name="downloadable" type="{http://api.routeconverter.com/v1/schemas/download-queue}downloadableType"/>
+ *         &lt;element name="segment" type="{http://api.routeconverter.com/v1/schemas/download-queue}segmentType" maxOccurs="unbounded" minOccurs="0"/>
  *       &lt;/sequence>
  *       &lt;attribute name="description" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
  *       &lt;attribute name="url" use="required" type="{http://www.w3.org/2001/XMLSchema}string" />
@@ -47,12 +50,14 @@ import javax.xml.bind.annotation.XmlType;
  */
 @XmlAccessorType(XmlAccessType.FIELD)
 @XmlType(name = "downloadType", propOrder = {
-    "downloadable"
+    "downloadable",
+    "segment"
 })
 public class DownloadType {
 
     @XmlElement(required = true)
     protected DownloadableType downloadable;
+    protected List<SegmentType> segment;
     @XmlAttribute(name = "description", required = true)
     protected String description;
     @XmlAttribute(name = "url", required = true)
@@ -90,6 +95,35 @@ public class DownloadType {
         this.downloadable = value;
     }
 
+    /**
+     * Gets the value of the segment property.
+     * 
+     * <p>
+     * This accessor method returns a reference to the live list,
+     * not a snapshot. Therefore any modification you make to the
+     * returned list will be present inside the JAXB object.
+     * This is why there is not a <CODE>set</CODE> method for the segment property.
+     * 
+     * <p>
+     * For example, to add a new item, do as follows:
+     * <pre>
+     *    getSegment().add(newItem);
+     * </pre>
+     * 
+     * 
+     * <p>
+     * Objects of the following type(s) are allowed in the list
+     * {@link SegmentType }
+     * 
+     * 
+     */
+    public List<SegmentType> getSegment() {
+        if (segment == null) {
+            segment = new ArrayList<SegmentType>();
+        }
+        return this.segment;
+    }
+
     /**
      * Gets the value of the description property.
      * 
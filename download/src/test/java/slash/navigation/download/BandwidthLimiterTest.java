@@ -0,0 +1,75 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.download;
+
+import org.junit.Test;
+
+import java.io.InterruptedIOException;
+
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BandwidthLimiterTest {
+    private long measureMillis(BandwidthLimiter limiter, int times, long bytes) throws InterruptedIOException {
+        long start = nanoTime();
+        for (int i = 0; i < times; i++)
+            limiter.acquire(bytes);
+        return NANOSECONDS.toMillis(nanoTime() - start);
+    }
+
+    @Test
+    public void testUnlimited() throws InterruptedIOException {
+        BandwidthLimiter limiter = new BandwidthLimiter();
+        assertEquals(0, limiter.getBytesPerSecond());
+        assertTrue(measureMillis(limiter, 1000, 1024 * 1024) < 500);
+    }
+
+    @Test
+    public void testLimitsBytesPerSecond() throws InterruptedIOException {
+        BandwidthLimiter limiter = new BandwidthLimiter();
+        limiter.setBytesPerSecond(100 * 1000);
+        // the first 250 milliseconds may be a burst
+        long millis = measureMillis(limiter, 10, 10 * 1000);
+        assertTrue("Took " + millis + " milliseconds", millis >= 700);
+        assertTrue("Took " + millis + " milliseconds", millis < 3000);
+    }
+
+    @Test
+    public void testChangingLimit() throws InterruptedIOException {
+        BandwidthLimiter limiter = new BandwidthLimiter();
+        limiter.setBytesPerSecond(1000);
+        limiter.setBytesPerSecond(0);
+        assertTrue(measureMillis(limiter, 10, 1000) < 500);
+    }
+
+    @Test(expected = InterruptedIOException.class)
+    public void testInterrupted() throws InterruptedIOException {
+        BandwidthLimiter limiter = new BandwidthLimiter();
+        limiter.setBytesPerSecond(1);
+        Thread.currentThread().interrupt();
+        try {
+            limiter.acquire(1000);
+        } finally {
+            Thread.interrupted();
+        }
+    }
+}
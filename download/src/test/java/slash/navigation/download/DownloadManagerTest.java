@@ -0,0 +1,70 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.download;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.navigation.download.DownloadManager.MINIMUM_SEGMENT_SIZE;
+
+public class DownloadManagerTest {
+    private static final String URL = "http://www.routeconverter.com/file.zip";
+    private File queueFile;
+    private DownloadManager manager;
+
+    @Before
+    public void setUp() throws IOException {
+        queueFile = createTempFile("queueFile", ".xml");
+        manager = new DownloadManager(queueFile);
+    }
+
+    @After
+    public void tearDown() {
+        manager.dispose();
+        assertTrue(queueFile.delete());
+    }
+
+    @Test
+    public void testSegmentsDependOnSize() {
+        assertEquals(1, manager.reserveSegments(URL, MINIMUM_SEGMENT_SIZE));
+        assertEquals(3, manager.reserveSegments("http://other.routeconverter.com/file.zip", 3 * MINIMUM_SEGMENT_SIZE + 1));
+    }
+
+    @Test
+    public void testSegmentsLeaveConnectionsForOtherDownloads() {
+        // 10 connections per route minus one for each of the other 3 parallel downloads
+        assertEquals(7, manager.reserveSegments(URL, 100 * MINIMUM_SEGMENT_SIZE));
+        assertEquals(1, manager.reserveSegments(URL, 100 * MINIMUM_SEGMENT_SIZE));
+        assertEquals(7, manager.reserveSegments("https://www.routeconverter.com/file.zip", 100 * MINIMUM_SEGMENT_SIZE));
+
+        manager.releaseSegments(URL, 7);
+        assertEquals(6, manager.reserveSegments(URL, 100 * MINIMUM_SEGMENT_SIZE));
+        manager.releaseSegments(URL, 6);
+        manager.releaseSegments(URL, 1);
+        assertEquals(7, manager.reserveSegments(URL, 100 * MINIMUM_SEGMENT_SIZE));
+    }
+}
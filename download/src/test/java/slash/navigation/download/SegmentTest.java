@@ -0,0 +1,76 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.download;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SegmentTest {
+    @Test
+    public void testSplitHandsOverSecondHalfOfRemainingBytes() {
+        Segment segment = new Segment(0, 99);
+        segment.advance(20);
+
+        Segment split = segment.split(10);
+        assertEquals(new Segment(0, 59, 20), segment);
+        assertEquals(new Segment(60, 99, 60), split);
+        assertEquals(40, segment.getRemaining());
+        assertEquals(40, split.getRemaining());
+    }
+
+    @Test
+    public void testSplitOddRemainingBytes() {
+        Segment segment = new Segment(0, 10);
+        Segment split = segment.split(1);
+        assertEquals(4, segment.getEnd());
+        assertEquals(5, split.getStart());
+        assertEquals(10, split.getEnd());
+        assertEquals(11, segment.getRemaining() + split.getRemaining());
+    }
+
+    @Test
+    public void testSplitNeedsTwiceTheMinimumSize() {
+        Segment segment = new Segment(0, 99);
+        segment.advance(81);
+        assertNull(segment.split(10));
+        assertEquals(new Segment(0, 99, 81), segment);
+
+        segment = new Segment(0, 99);
+        segment.advance(80);
+        assertTrue(segment.split(10) != null);
+    }
+
+    @Test
+    public void testCompleted() {
+        Segment segment = new Segment(10, 19);
+        assertFalse(segment.isCompleted());
+        segment.advance(9);
+        assertFalse(segment.isCompleted());
+        assertEquals(1, segment.getRemaining());
+        segment.advance(1);
+        assertTrue(segment.isCompleted());
+        assertEquals(0, segment.getRemaining());
+        assertNull(segment.split(1));
+    }
+}
@@ -0,0 +1,152 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.download.performer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import slash.navigation.download.Checksum;
+import slash.navigation.download.Download;
+import slash.navigation.download.DownloadManager;
+import slash.navigation.download.FileAndChecksum;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.io.File.createTempFile;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static slash.common.io.InputOutput.readBytes;
+import static slash.navigation.download.Action.Copy;
+import static slash.navigation.download.DownloadManager.MINIMUM_SEGMENT_SIZE;
+import static slash.navigation.download.State.Succeeded;
+import static slash.navigation.download.performer.SegmentedDownload.isStrongETag;
+
+public class GetPerformerTest {
+    private static final byte[] CONTENT = new byte[(int) (2 * MINIMUM_SEGMENT_SIZE)];
+    static {
+        for (int i = 0; i < CONTENT.length; i++)
+            CONTENT[i] = (byte) (i % 251);
+    }
+
+    private final AtomicInteger weakIfRanges = new AtomicInteger();
+    private boolean onlyFirstRange = false;
+    private HttpServer server;
+    private String url;
+    private File queueFile, target;
+    private DownloadManager manager;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String range = exchange.getRequestHeaders().getFirst("Range");
+                String ifRange = exchange.getRequestHeaders().getFirst("If-Range");
+                if (ifRange != null && ifRange.startsWith("W/"))
+                    weakIfRanges.incrementAndGet();
+
+                int start = 0, end = CONTENT.length - 1;
+                if (range != null) {
+                    String[] startAndEnd = range.substring("bytes=".length()).split("-");
+                    start = Integer.parseInt(startAndEnd[0]);
+                    if (startAndEnd.length > 1)
+                        end = Integer.parseInt(startAndEnd[1]);
+                }
+
+                exchange.getResponseHeaders().set("ETag", "W/\"weak\"");
+                // servers ignore an If-Range with a weak ETag
+                boolean partial = range != null && !(ifRange != null && ifRange.startsWith("W/")) &&
+                        !(onlyFirstRange && start != 0);
+                if (partial) {
+                    exchange.getResponseHeaders().set("Content-Range", "bytes " + start + "-" + end + "/" + CONTENT.length);
+                    exchange.sendResponseHeaders(206, end - start + 1);
+                } else {
+                    start = 0;
+                    end = CONTENT.length - 1;
+                    exchange.sendResponseHeaders(200, CONTENT.length);
+                }
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(CONTENT, start, end - start + 1);
+                } catch (IOException e) {
+                    // the client aborts requests beyond its segment
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/file.bin";
+
+        queueFile = createTempFile("queueFile", ".xml");
+        target = createTempFile("target", ".bin");
+        assertTrue(target.delete());
+        manager = new DownloadManager(queueFile);
+    }
+
+    @After
+    public void tearDown() {
+        manager.dispose();
+        server.stop(0);
+        if (target.exists())
+            assertTrue(target.delete());
+        assertTrue(queueFile.delete());
+    }
+
+    private Download download() throws IOException {
+        Download download = manager.queueForDownload("test", url, Copy,
+                new FileAndChecksum(target, new Checksum(null, (long) CONTENT.length, null)), null);
+        manager.waitForCompletion(singletonList(download));
+        assertEquals(Succeeded, download.getState());
+        assertArrayEquals(CONTENT, readBytes(new FileInputStream(target)));
+        return download;
+    }
+
+    @Test
+    public void testIsStrongETag() {
+        assertTrue(isStrongETag("\"1bf-50bbbcff309d2\""));
+        assertFalse(isStrongETag("W/\"1bf-50bbbcff309d2\""));
+        assertFalse(isStrongETag(null));
+    }
+
+    @Test
+    public void testSegmentsWithWeakETagSendNoIfRange() throws IOException {
+        Download download = download();
+        assertEquals(0, weakIfRanges.get());
+        assertNull(download.getSegments());
+    }
+
+    @Test
+    public void testFallsBackToSingleStreamIfSegmentsAreNotSatisfied() throws IOException {
+        onlyFirstRange = true;
+        Download download = download();
+        assertNull(download.getSegments());
+    }
+}
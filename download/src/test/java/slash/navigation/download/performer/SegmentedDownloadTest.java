@@ -0,0 +1,62 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.download.performer;
+
+import org.junit.Test;
+import slash.navigation.download.Segment;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.download.performer.SegmentedDownload.createSegments;
+
+public class SegmentedDownloadTest {
+    @Test
+    public void testCreateSegmentsOfEqualSize() {
+        assertEquals(asList(new Segment(0, 24), new Segment(25, 49), new Segment(50, 74), new Segment(75, 99)),
+                createSegments(100, 4));
+    }
+
+    @Test
+    public void testCreateSegmentsWithShorterLastSegment() {
+        assertEquals(asList(new Segment(0, 33), new Segment(34, 67), new Segment(68, 99)),
+                createSegments(100, 3));
+    }
+
+    @Test
+    public void testCreateSingleSegment() {
+        assertEquals(asList(new Segment(0, 99)), createSegments(100, 1));
+    }
+
+    @Test
+    public void testCreateSegmentsCoverContent() {
+        for (int segmentCount = 1; segmentCount <= 8; segmentCount++) {
+            List<Segment> segments = createSegments(8 * 1024 * 1024 + 7, segmentCount);
+            long next = 0;
+            for (Segment segment : segments) {
+                assertEquals(next, segment.getStart());
+                assertEquals(segment.getStart(), segment.getPosition());
+                next = segment.getEnd() + 1;
+            }
+            assertEquals(8 * 1024 * 1024 + 7, next);
+        }
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.Test;
 import slash.navigation.download.Checksum;
 import slash.navigation.download.Download;
 import slash.navigation.download.FileAndChecksum;
+import slash.navigation.download.Segment;
 
 import javax.xml.bind.JAXBException;
 import java.io.File;
@@ -16,8 +17,10 @@ import java.util.List;
 import static java.io.File.createTempFile;
 import static java.util.Arrays.asList;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static slash.common.type.CompactCalendar.now;
+import static slash.navigation.download.Action.Copy;
 import static slash.navigation.download.Action.Flatten;
 import static slash.navigation.download.State.Downloading;
 
@@ -68,6 +71,20 @@ public class QueuePersisterIT {
         assertEquals(downloads, result.getDownloads());
     }
 
+    @Test
+    public void testSaveAndLoadSegments() throws IOException {
+        Download download = new Download("description", "url", Copy, new FileAndChecksum(fileTarget, createChecksum()),
+                null, "etag", Downloading, tempFile);
+        download.setSegments(asList(new Segment(0, 999, 1000), new Segment(1000, 1499, 1200), new Segment(1500, 4710)));
+        Download withoutSegments = new Download("description2", "url2", Copy, new FileAndChecksum(fileTarget, createChecksum()),
+                null, "etag", Downloading, tempFile);
+        persister.save(queueFile, asList(download, withoutSegments));
+
+        QueuePersister.Result result = persister.load(queueFile);
+        assertEquals(download.getSegments(), result.getDownloads().get(0).getSegments());
+        assertNull(result.getDownloads().get(1).getSegments());
+    }
+
     private Checksum createChecksum() {
         return new Checksum(now(), 4711L, "sha1");
     }
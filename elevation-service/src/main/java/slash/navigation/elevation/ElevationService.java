@@ -41,6 +41,16 @@ public interface ElevationService {
 
     Double getElevationFor(double longitude, double latitude) throws IOException;
 
+    /**
+     * Looks up the elevations for many positions at once.
+     *
+     * @param longitudes the longitudes of the positions
+     * @param latitudes the latitudes of the positions, same length as the longitudes
+     * @return the elevations of the positions, {@link Double#NaN} if the elevation of a position is unknown
+     * @throws IOException if an error occurs while looking up the elevations
+     */
+    double[] getElevationsFor(double[] longitudes, double[] latitudes) throws IOException;
+
     void downloadElevationDataFor(List<LongitudeAndLatitude> longitudeAndLatitudes, boolean waitForDownload);
     long calculateRemainingDownloadSize(List<BoundingBox> boundingBoxes);
     void downloadElevationData(List<BoundingBox> boundingBoxes);
@@ -20,6 +20,7 @@
 
 package slash.navigation.geonames;
 
+import slash.common.helpers.ServiceLimiter;
 import slash.navigation.common.BoundingBox;
 import slash.navigation.common.LongitudeAndLatitude;
 import slash.navigation.elevation.ElevationService;
@@ -29,10 +30,16 @@ import slash.navigation.rest.exception.ServiceUnavailableException;
 
 import javax.xml.bind.JAXBException;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.prefs.Preferences;
 
+import static java.lang.Double.MAX_VALUE;
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.lang.Math.min;
+import static java.util.Arrays.fill;
 import static slash.common.io.Transfer.parseInteger;
 
 /**
@@ -45,6 +52,25 @@ public class GeoNamesService implements ElevationService {
     private static final Preferences preferences = Preferences.userNodeForPackage(GeoNamesService.class);
     private static final String GEONAMES_URL_PREFERENCE = "geonamesUrl";
     private static final String GEONAMES_USERNAME_PREFERENCE = "geonamesUserName";
+    private static final int MAXIMUM_POSITIONS_PER_REQUEST = 20;
+
+    private final ServiceLimiter limiter;
+
+    public GeoNamesService() {
+        this(null);
+    }
+
+    /**
+     * @param limiter the limiter to acquire a permit from for every request to geonames.org,
+     *                since one elevation or place name may take several requests
+     */
+    public GeoNamesService(ServiceLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    public ServiceLimiter getLimiter() {
+        return limiter;
+    }
 
     public String getName() {
         return "GeoNames";
@@ -59,6 +85,23 @@ public class GeoNamesService implements ElevationService {
     }
 
     private String execute(String uri) throws IOException {
+        if (limiter == null)
+            return request(uri);
+
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + limiter.getName());
+        }
+        try {
+            return request(uri);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    String request(String uri) throws IOException {
         String url = getGeoNamesNamesUrl() + uri + "&username=" + getGeoNamesUserName();
         Get get = new Get(url);
         String result = get.executeAsString();
@@ -69,18 +112,57 @@ public class GeoNamesService implements ElevationService {
         return null;
     }
 
+    private Integer parseElevation(String result, String line, Integer nullValue) throws IOException {
+        try {
+            Integer elevation = parseInteger(line);
+            if (elevation != null && !elevation.equals(nullValue))
+                return elevation;
+        } catch (NumberFormatException e) {
+            throw new IOException("Cannot unmarshall " + result + ": " + e, e);
+        }
+        return null;
+    }
+
     private Integer getElevationFor(String uri, double longitude, double latitude, Integer nullValue) throws IOException {
-        String result = execute(uri + "?lat=" + latitude + "&lng=" + longitude); // TODO could be up to 20 points
-        if (result != null) {
-            try {
-                Integer elevation = parseInteger(result);
-                if (elevation != null && !elevation.equals(nullValue))
-                    return elevation;
-            } catch (NumberFormatException e) {
-                throw new IOException("Cannot unmarshall " + result + ": " + e, e);
+        String result = execute(uri + "?lat=" + latitude + "&lng=" + longitude);
+        if (result != null)
+            return parseElevation(result, result, nullValue);
+        return null;
+    }
+
+    private void getElevationsFor(String uri, double[] longitudes, double[] latitudes, double[] elevations,
+                                  double minimumLatitude, double maximumLatitude, Integer nullValue) throws IOException {
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < elevations.length; i++) {
+            if (isNaN(elevations[i]) && latitudes[i] > minimumLatitude && latitudes[i] < maximumLatitude)
+                indices.add(i);
+        }
+
+        for (int start = 0; start < indices.size(); start += MAXIMUM_POSITIONS_PER_REQUEST) {
+            List<Integer> chunk = indices.subList(start, min(start + MAXIMUM_POSITIONS_PER_REQUEST, indices.size()));
+            StringBuilder lats = new StringBuilder();
+            StringBuilder lngs = new StringBuilder();
+            for (Integer index : chunk) {
+                if (lats.length() > 0) {
+                    lats.append(",");
+                    lngs.append(",");
+                }
+                lats.append(latitudes[index]);
+                lngs.append(longitudes[index]);
+            }
+
+            String result = execute(uri + "?lats=" + lats + "&lngs=" + lngs);
+            if (result == null)
+                continue;
+
+            // one elevation per line in the order of the positions
+            String[] lines = result.trim().split("\\s+");
+            for (int i = 0; i < min(lines.length, chunk.size()); i++) {
+                Integer elevation = parseElevation(result, lines[i], nullValue);
+                if (elevation != null)
+                    elevations[chunk.get(i)] = elevation;
             }
         }
-        return null;
     }
 
     private void checkCurrentlyOverloaded(String url, String result) throws ServiceUnavailableException {
@@ -115,6 +197,18 @@ public class GeoNamesService implements ElevationService {
         return elevation != null ? elevation.doubleValue() : null;
     }
 
+    public double[] getElevationsFor(double[] longitudes, double[] latitudes) throws IOException {
+        if (longitudes.length != latitudes.length)
+            throw new IllegalArgumentException("Got " + longitudes.length + " longitudes but " + latitudes.length + " latitudes");
+
+        double[] elevations = new double[longitudes.length];
+        fill(elevations, NaN);
+        getElevationsFor("astergdem", longitudes, latitudes, elevations, -65.0, 83.0, -9999);
+        getElevationsFor("srtm3", longitudes, latitudes, elevations, -56.0, 60.0, -32768);
+        getElevationsFor("gtopo30", longitudes, latitudes, elevations, -MAX_VALUE, MAX_VALUE, -9999);
+        return elevations;
+    }
+
     private Geonames getGeonamesFor(String uri) throws IOException {
         String result = execute(uri);
         if (result != null) {
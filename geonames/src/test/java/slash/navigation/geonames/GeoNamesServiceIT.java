@@ -93,6 +93,18 @@ public class GeoNamesServiceIT {
         assertEquals(null, service.getElevationFor(-68.0, -57.0));
     }
 
+    @Test
+    public void testElevationsFor() throws IOException {
+        double[] elevations = service.getElevationsFor(new double[]{11.2, 11.2, 11.2, -68.0, -68.0, -68.0},
+                new double[]{59.0, 60.0, 61.0, -55.0, -56.0, -57.0});
+        assertEquals(23, elevations[0], 0.0);
+        assertEquals(162, elevations[1], 0.0);
+        assertEquals(656, elevations[2], 0.0);
+        assertEquals(454, elevations[3], 0.0);
+        assertEquals(0, elevations[4], 0.0);
+        assertTrue(Double.isNaN(elevations[5]));
+    }
+
     @Test
     public void testNearByFor() throws IOException {
         assertEquals("St. Margarethen", service.getNearByFor(9.0, 47.5));
@@ -0,0 +1,90 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.geonames;
+
+import org.junit.Test;
+import slash.common.helpers.ServiceLimiter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class GeoNamesServiceTest {
+
+    private static class CountingLimiter extends ServiceLimiter {
+        private int acquired;
+
+        private CountingLimiter() {
+            super("GeoNames", 1, 0.0);
+        }
+
+        public void acquire() throws InterruptedException {
+            super.acquire();
+            acquired++;
+        }
+    }
+
+    private static class TestGeoNamesService extends GeoNamesService {
+        private final List<String> uris = new ArrayList<>();
+
+        private TestGeoNamesService(ServiceLimiter limiter) {
+            super(limiter);
+        }
+
+        String request(String uri) {
+            uris.add(uri);
+            int count = uri.split(",").length;
+            // only gtopo30 knows an elevation
+            String elevation = uri.startsWith("astergdem") ? "-9999" : uri.startsWith("srtm3") ? "-32768" : "42";
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < count; i++)
+                result.append(elevation).append("\n");
+            return result.toString();
+        }
+    }
+
+    @Test
+    public void testAcquiresOnePermitPerRequest() throws Exception {
+        CountingLimiter limiter = new CountingLimiter();
+        TestGeoNamesService service = new TestGeoNamesService(limiter);
+        double[] longitudes = new double[25];
+        double[] latitudes = new double[25];
+
+        double[] elevations = service.getElevationsFor(longitudes, latitudes);
+
+        // two requests for each of astergdem, srtm3 and gtopo30
+        assertEquals(6, service.uris.size());
+        assertEquals(6, limiter.acquired);
+        for (double elevation : elevations)
+            assertEquals(42.0, elevation, 0.0);
+    }
+
+    @Test
+    public void testAcquiresOnePermitPerRequestForSinglePosition() throws Exception {
+        CountingLimiter limiter = new CountingLimiter();
+        TestGeoNamesService service = new TestGeoNamesService(limiter);
+
+        assertEquals(42.0, service.getElevationFor(10.0, 50.0), 0.0);
+
+        assertEquals(3, service.uris.size());
+        assertEquals(3, limiter.acquired);
+    }
+}
@@ -38,6 +38,9 @@ import java.util.List;
 import java.util.Locale;
 import java.util.logging.Logger;
 
+import static java.lang.Double.NaN;
+import static java.lang.Math.min;
+import static java.util.Arrays.fill;
 import static java.util.Arrays.sort;
 import static slash.common.io.Transfer.encodeUri;
 import static slash.navigation.common.Bearing.calculateBearing;
@@ -56,6 +59,8 @@ public class GoogleMapsService implements ElevationService {
     private static final Logger log = Logger.getLogger(GoogleMapsService.class.getName());
     private static final String OK = "OK";
     private static final String OVER_QUERY_LIMIT = "OVER_QUERY_LIMIT";
+    // up to 512 locations are allowed but the URL must not exceed 8192 characters
+    private static final int MAXIMUM_LOCATIONS_PER_REQUEST = 128;
 
     public String getName() {
         return "Google Maps";
@@ -153,20 +158,17 @@ public class GoogleMapsService implements ElevationService {
         return result;
     }
 
-    public Double getElevationFor(double longitude, double latitude) throws IOException {
-        String url = getElevationUrl("locations=" + latitude + "," + longitude); // TODO could be up to 512 locations
+    private List<Double> getElevationsFor(String locations) throws IOException {
+        String url = getElevationUrl("locations=" + locations);
         Get get = get(url);
-        log.info("Getting elevation for " + longitude + "," + latitude);
         String result = get.executeAsString();
         if (get.isSuccessful())
             try {
                 ElevationResponse elevationResponse = unmarshalElevation(result);
                 if (elevationResponse != null) {
                     String status = elevationResponse.getStatus();
-                    if (status.equals(OK)) {
-                        List<Double> elevations = extractElevations(elevationResponse.getResult());
-                        return elevations != null && elevations.size() > 0 ? elevations.get(0) : null;
-                    }
+                    if (status.equals(OK))
+                        return extractElevations(elevationResponse.getResult());
                     if (status.equals(OVER_QUERY_LIMIT))
                         throw new ServiceUnavailableException("maps.googleapis.com", url);
                 }
@@ -176,6 +178,40 @@ public class GoogleMapsService implements ElevationService {
         return null;
     }
 
+    public Double getElevationFor(double longitude, double latitude) throws IOException {
+        log.info("Getting elevation for " + longitude + "," + latitude);
+        List<Double> elevations = getElevationsFor(latitude + "," + longitude);
+        return elevations != null && elevations.size() > 0 ? elevations.get(0) : null;
+    }
+
+    public double[] getElevationsFor(double[] longitudes, double[] latitudes) throws IOException {
+        if (longitudes.length != latitudes.length)
+            throw new IllegalArgumentException("Got " + longitudes.length + " longitudes but " + latitudes.length + " latitudes");
+
+        double[] result = new double[longitudes.length];
+        fill(result, NaN);
+
+        for (int start = 0; start < longitudes.length; start += MAXIMUM_LOCATIONS_PER_REQUEST) {
+            int end = min(start + MAXIMUM_LOCATIONS_PER_REQUEST, longitudes.length);
+            StringBuilder locations = new StringBuilder();
+            for (int i = start; i < end; i++) {
+                if (locations.length() > 0)
+                    locations.append("%7C");
+                locations.append(latitudes[i]).append(",").append(longitudes[i]);
+            }
+
+            log.info("Getting elevations for " + (end - start) + " locations");
+            List<Double> elevations = getElevationsFor(locations.toString());
+            if (elevations == null)
+                continue;
+
+            // the results are in the order of the locations
+            for (int i = 0; i < min(elevations.size(), end - start); i++)
+                result[start + i] = elevations.get(i);
+        }
+        return result;
+    }
+
     private List<Double> extractElevations(List<ElevationResponse.Result> responses) {
         List<Double> results = new ArrayList<>(responses.size());
         for (ElevationResponse.Result response : responses) {
@@ -80,4 +80,14 @@ public class GoogleMapsServiceIT {
         assertEquals(-105.0, service.getElevationFor(-68.0, -56.1), 0.5);
         assertEquals(-2893.809082, service.getElevationFor(-68.0, -57.0), 0.5);
     }
+
+    @Test
+    public void getElevationsFor() throws IOException {
+        double[] elevations = service.getElevationsFor(new double[]{11.2, 11.2, -68.0, -68.0},
+                new double[]{59.0, 61.0, -55.0, -57.0});
+        assertEquals(39.3, elevations[0], 0.5);
+        assertEquals(650.1, elevations[1], 0.5);
+        assertEquals(457.6, elevations[2], 0.5);
+        assertEquals(-2893.809082, elevations[3], 0.5);
+    }
 }
\ No newline at end of file
@@ -40,26 +40,34 @@ public class GpxUtil {
     public static final String TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI = "http://trekbuddy.net/2009/01/gpx/nmea";
     public static final String XML_SCHEMA_INSTANCE_NAMESPACE_URI = "http://www.w3.org/2001/XMLSchema-instance";
 
+    public static final Class<?>[] GPX_11_CONTEXT_CLASSES = new Class<?>[]{
+            slash.navigation.gpx.binding11.ObjectFactory.class,
+            slash.navigation.gpx.garmin3.ObjectFactory.class,
+            slash.navigation.gpx.trackpoint2.ObjectFactory.class,
+            slash.navigation.gpx.trip1.ObjectFactory.class
+    };
+
+    private static JAXBContext newContext10() {
+        return newContext(slash.navigation.gpx.binding10.ObjectFactory.class);
+    }
+
     public static Unmarshaller newUnmarshaller10() {
-        return newUnmarshaller(newContext(slash.navigation.gpx.binding10.ObjectFactory.class));
+        return newUnmarshaller(newContext10());
     }
 
-    private static Marshaller newMarshaller10() {
-        return newMarshaller(newContext(slash.navigation.gpx.binding10.ObjectFactory.class));
+    public static Marshaller newMarshaller10() {
+        return newMarshaller(newContext10());
     }
 
     private static JAXBContext newContext11() {
-        return newContext(slash.navigation.gpx.binding11.ObjectFactory.class,
-                slash.navigation.gpx.garmin3.ObjectFactory.class,
-                slash.navigation.gpx.trackpoint2.ObjectFactory.class,
-                slash.navigation.gpx.trip1.ObjectFactory.class);
+        return newContext(GPX_11_CONTEXT_CLASSES);
     }
 
-    private static Unmarshaller newUnmarshaller11() {
+    public static Unmarshaller newUnmarshaller11() {
         return newUnmarshaller(newContext11());
     }
 
-    private static Marshaller newMarshaller11() {
+    public static Marshaller newMarshaller11() {
         return newMarshaller(newContext11());
     }
 
@@ -67,7 +75,7 @@ public class GpxUtil {
     public static Gpx unmarshal10(Reader reader) throws JAXBException {
         Gpx result;
         try {
-            result = (Gpx) newUnmarshaller10().unmarshal(reader);
+            result = (Gpx) unmarshal(newContext10(), reader);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
         }
@@ -77,7 +85,7 @@ public class GpxUtil {
     public static Gpx unmarshal10(InputStream in) throws JAXBException {
         Gpx result;
         try {
-            result = (Gpx) newUnmarshaller10().unmarshal(in);
+            result = (Gpx) unmarshal(newContext10(), in);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
         }
@@ -87,7 +95,7 @@ public class GpxUtil {
     public static void marshal10(Gpx gpx, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller10().marshal(new JAXBElement<>(new QName(GPX_10_NAMESPACE_URI, "gpx"), Gpx.class, gpx), out);
+                marshal(newContext10(), new JAXBElement<>(new QName(GPX_10_NAMESPACE_URI, "gpx"), Gpx.class, gpx), out);
             }
             finally {
                 out.flush();
@@ -106,7 +114,7 @@ public class GpxUtil {
     public static GpxType unmarshal11(Reader reader) throws JAXBException {
         GpxType result;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller11().unmarshal(reader);
+            JAXBElement element = (JAXBElement) unmarshal(newContext11(), reader);
             result = (GpxType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
@@ -117,7 +125,7 @@ public class GpxUtil {
     public static GpxType unmarshal11(InputStream in) throws JAXBException {
         GpxType result;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller11().unmarshal(in);
+            JAXBElement element = (JAXBElement) unmarshal(newContext11(), in);
             result = (GpxType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
@@ -126,13 +134,13 @@ public class GpxUtil {
     }
 
     public static void marshal11(GpxType gpxType, Writer writer) throws JAXBException {
-        newMarshaller11().marshal(new slash.navigation.gpx.binding11.ObjectFactory().createGpx(gpxType), writer);
+        marshal(newContext11(), new slash.navigation.gpx.binding11.ObjectFactory().createGpx(gpxType), writer);
     }
 
     public static void marshal11(GpxType gpxType, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller11().marshal(new slash.navigation.gpx.binding11.ObjectFactory().createGpx(gpxType), out);
+                marshal(newContext11(), new slash.navigation.gpx.binding11.ObjectFactory().createGpx(gpxType), out);
             }
             finally {
                 out.flush();
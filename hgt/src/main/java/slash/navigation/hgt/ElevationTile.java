@@ -21,11 +21,14 @@
 package slash.navigation.hgt;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
 
 /**
  * A tile with elevation data.
  *
+ * The 16-bit big endian values are accessed with absolute reads, thus many threads
+ * may query the same tile concurrently.
+ *
  * @author Robert "robekas", Christian Pesch
  */
 
@@ -37,20 +40,25 @@ public class ElevationTile {
     public static final int SRTM1_FILE_SIZE = (SRTM1_INTERVALS + 1) * (SRTM1_INTERVALS + 1) * 2;
     private static final int INVALID_VALUE_LIMIT = -15000; // Won't interpolate below this elevation in Meters, guess is: -0x8000
 
-    private final RandomAccessFile file;
+    private final ByteBuffer buffer;
+    private final int intervalCount;
 
-    public ElevationTile(RandomAccessFile file) {
-        this.file = file;
+    public ElevationTile(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        this.intervalCount = getIntervalCount(buffer.capacity());
     }
-    
-    private int getIntervalCount() throws IOException {
-        long fileLength = file.length();
+
+    private static int getIntervalCount(long fileLength) throws IOException {
         if(fileLength == SRTM3_FILE_SIZE)
           return SRTM3_INTERVALS;
         else if(fileLength == SRTM1_FILE_SIZE)
             return SRTM1_INTERVALS;
         else
-            throw new IOException("Elevation tile " + file + " has invalid size " + fileLength);
+            throw new IOException("Elevation tile has invalid size " + fileLength);
+    }
+
+    public int getSize() {
+        return buffer.capacity();
     }
 
     /**
@@ -66,8 +74,8 @@ public class ElevationTile {
         return (dHeight12 * dDiff) / dLength12;
     }
 
-    public Double getElevationFor(Double longitude, Double latitude) throws IOException {
-        if (file == null || longitude == null || latitude == null)
+    public Double getElevationFor(Double longitude, Double latitude) {
+        if (longitude == null || latitude == null)
             return null;
 
         // cut off the decimal places
@@ -84,7 +92,6 @@ public class ElevationTile {
             latitude = ((double) latitudeAsInt + latitude) + (double) latitudeAsInt; // Make positive double latitude (needed for later calculation)
         }
 
-        int intervalCount = getIntervalCount();
         int longitudeIntervalIndex = (int) ((longitude - (double) longitudeAsInt) * intervalCount);
         int latitudeIntervalIndex = (int) ((latitude - (double) latitudeAsInt) * intervalCount);
 
@@ -106,20 +113,16 @@ public class ElevationTile {
         int pos;                                                    // The index of the elevation into the hgt file
 
         pos = (((intervalCount - latitudeIntervalIndex) - 1) * (intervalCount + 1)) + longitudeIntervalIndex; // The index for the left top elevation
-        file.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dLeftTop = file.readShort();                       // Now read the left top elevation from hgt file
+        dLeftTop = buffer.getShort(pos * 2);               // 16-bit values, so multiply by 2 and read the left top elevation
 
         pos = ((intervalCount - latitudeIntervalIndex) * (intervalCount + 1)) + longitudeIntervalIndex; // The index for the left bottom elevation
-        file.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dLeftBottom = file.readShort();                    // Now read the left bottom elevation from hgt file
+        dLeftBottom = buffer.getShort(pos * 2);            // 16-bit values, so multiply by 2 and read the left bottom elevation
 
         pos = (((intervalCount - latitudeIntervalIndex) - 1) * (intervalCount + 1)) + longitudeIntervalIndex + 1; // The index for the right top elevation
-        file.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dRightTop = file.readShort();                      // Now read the right top elevation from hgt file
+        dRightTop = buffer.getShort(pos * 2);              // 16-bit values, so multiply by 2 and read the right top elevation
 
         pos = ((intervalCount - latitudeIntervalIndex) * (intervalCount + 1)) + longitudeIntervalIndex + 1; // The index for the right bottom elevation
-        file.seek(pos * 2);                                // We have 16-bit values for elevation, so multiply by 2
-        dRightBottom = file.readShort();                   // Now read the right bottom top elevation from hgt file
+        dRightBottom = buffer.getShort(pos * 2);           // 16-bit values, so multiply by 2 and read the right bottom elevation
 
         // if one of the read elevation values is not valid, we cannot interpolate
         if ((dLeftTop < INVALID_VALUE_LIMIT) || (dLeftBottom < INVALID_VALUE_LIMIT) ||
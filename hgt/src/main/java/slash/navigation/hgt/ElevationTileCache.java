@@ -0,0 +1,125 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.hgt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+
+/**
+ * A least recently used cache of {@link ElevationTile}s that are memory mapped
+ * read-only from HGT files and bounded by the number of mapped bytes.
+ *
+ * Evicted tiles are unmapped by the garbage collector.
+ *
+ * @author Christian Pesch
+ */
+
+public class ElevationTileCache {
+    private static final Logger log = Logger.getLogger(ElevationTileCache.class.getName());
+
+    private final long maximumMappedBytes;
+    private final Map<File, ElevationTile> tiles = new LinkedHashMap<>(16, 0.75f, true);
+    private long mappedBytes, hits, misses, evictions;
+
+    public ElevationTileCache(long maximumMappedBytes) {
+        this.maximumMappedBytes = maximumMappedBytes;
+    }
+
+    public synchronized ElevationTile get(File file) throws IOException {
+        ElevationTile tile = tiles.get(file);
+        if (tile != null) {
+            hits++;
+            return tile;
+        }
+        misses++;
+
+        tile = map(file);
+        tiles.put(file, tile);
+        mappedBytes += tile.getSize();
+        evict();
+        return tile;
+    }
+
+    private ElevationTile map(File file) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+             FileChannel channel = randomAccessFile.getChannel()) {
+            // the mapping stays valid after the channel is closed
+            MappedByteBuffer buffer = channel.map(READ_ONLY, 0, channel.size());
+            return new ElevationTile(buffer);
+        }
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<File, ElevationTile>> iterator = tiles.entrySet().iterator();
+        // keep at least the most recently used tile
+        while (mappedBytes > maximumMappedBytes && tiles.size() > 1) {
+            Map.Entry<File, ElevationTile> eldest = iterator.next();
+            mappedBytes -= eldest.getValue().getSize();
+            evictions++;
+            iterator.remove();
+            log.fine(format("Evicted elevation tile %s, %d bytes remain mapped", eldest.getKey(), mappedBytes));
+        }
+    }
+
+    public synchronized void clear() {
+        tiles.clear();
+        mappedBytes = 0;
+    }
+
+    public long getMaximumMappedBytes() {
+        return maximumMappedBytes;
+    }
+
+    public synchronized int getTileCount() {
+        return tiles.size();
+    }
+
+    public synchronized long getMappedBytes() {
+        return mappedBytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public synchronized String toString() {
+        return getClass().getSimpleName() + "[tiles=" + tiles.size() + ", mappedBytes=" + mappedBytes +
+                ", maximumMappedBytes=" + maximumMappedBytes + ", hits=" + hits + ", misses=" + misses +
+                ", evictions=" + evictions + "]";
+    }
+}
@@ -31,11 +31,13 @@ import slash.navigation.download.FileAndChecksum;
 import slash.navigation.elevation.ElevationService;
 
 import java.io.IOException;
-import java.io.RandomAccessFile;
 import java.util.*;
 import java.util.prefs.Preferences;
 
+import static java.lang.Double.NaN;
 import static java.lang.String.format;
+import static java.util.Arrays.fill;
+import static java.util.Collections.sort;
 import static slash.common.io.Directories.ensureDirectory;
 import static slash.common.io.Directories.getApplicationDirectory;
 import static slash.common.io.Files.removeExtension;
@@ -50,15 +52,25 @@ public class HgtFiles implements ElevationService {
     private static final Preferences preferences = Preferences.userNodeForPackage(HgtFiles.class);
     private static final String DIRECTORY_PREFERENCE = "directory";
     private static final String BASE_URL_PREFERENCE = "baseUrl";
+    private static final String MAXIMUM_MAPPED_BYTES_PREFERENCE = "maximumMappedBytes";
     private static final String DOT_HGT = ".hgt";
 
-    private final Map<java.io.File, RandomAccessFile> randomAccessFileCache = new HashMap<>();
+    private final ElevationTileCache elevationTileCache;
     private final DataSource dataSource;
     private final DownloadManager downloadManager;
 
-    public HgtFiles(DataSource dataSource, DownloadManager downloadManager) {
+    public HgtFiles(DataSource dataSource, DownloadManager downloadManager, ElevationTileCache elevationTileCache) {
         this.dataSource = dataSource;
         this.downloadManager = downloadManager;
+        this.elevationTileCache = elevationTileCache;
+    }
+
+    public HgtFiles(DataSource dataSource, DownloadManager downloadManager) {
+        this(dataSource, downloadManager, createElevationTileCache());
+    }
+
+    static ElevationTileCache createElevationTileCache() {
+        return new ElevationTileCache(preferences.getLong(MAXIMUM_MAPPED_BYTES_PREFERENCE, 512 * 1024 * 1024));
     }
 
     public String getName() {
@@ -106,27 +118,61 @@ public class HgtFiles implements ElevationService {
         return new java.io.File(getDirectory(), key);
     }
 
+    public ElevationTileCache getElevationTileCache() {
+        return elevationTileCache;
+    }
+
     public Double getElevationFor(double longitude, double latitude) throws IOException {
         java.io.File file = createFile(createFileKey(longitude, latitude));
         if (!file.exists())
             return null;
 
-        RandomAccessFile randomAccessFile = randomAccessFileCache.get(file);
-        if (randomAccessFile == null) {
-            randomAccessFile = new RandomAccessFile(file, "r");
-            randomAccessFileCache.put(file, randomAccessFile);
+        return elevationTileCache.get(file).getElevationFor(longitude, latitude);
+    }
+
+    public double[] getElevationsFor(final double[] longitudes, final double[] latitudes) throws IOException {
+        if (longitudes.length != latitudes.length)
+            throw new IllegalArgumentException("Got " + longitudes.length + " longitudes but " + latitudes.length + " latitudes");
+
+        double[] elevations = new double[longitudes.length];
+        fill(elevations, NaN);
+
+        Map<String, List<Integer>> tileKeyToIndices = new HashMap<>();
+        for (int i = 0; i < longitudes.length; i++) {
+            String key = createFileKey(longitudes[i], latitudes[i]);
+            List<Integer> indices = tileKeyToIndices.get(key);
+            if (indices == null) {
+                indices = new ArrayList<>();
+                tileKeyToIndices.put(key, indices);
+            }
+            indices.add(i);
+        }
+
+        for (Map.Entry<String, List<Integer>> entry : tileKeyToIndices.entrySet()) {
+            java.io.File file = createFile(entry.getKey());
+            if (!file.exists())
+                continue;
+
+            ElevationTile tile = elevationTileCache.get(file);
+            List<Integer> indices = entry.getValue();
+            // the rows of a tile are stored from north to south, the columns from west to east
+            sort(indices, new Comparator<Integer>() {
+                public int compare(Integer i1, Integer i2) {
+                    int result = Double.compare(latitudes[i2], latitudes[i1]);
+                    return result != 0 ? result : Double.compare(longitudes[i1], longitudes[i2]);
+                }
+            });
+            for (Integer index : indices) {
+                Double elevation = tile.getElevationFor(longitudes[index], latitudes[index]);
+                if (elevation != null)
+                    elevations[index] = elevation;
+            }
         }
-        return new ElevationTile(randomAccessFile).getElevationFor(longitude, latitude);
+        return elevations;
     }
 
     public void dispose() {
-        for (RandomAccessFile randomAccessFile : randomAccessFileCache.values())
-            try {
-                randomAccessFile.close();
-            } catch (IOException e) {
-                throw new IllegalArgumentException("Cannot close random access file" + randomAccessFile);
-            }
-        randomAccessFileCache.clear();
+        elevationTileCache.clear();
     }
 
     public void downloadElevationDataFor(List<LongitudeAndLatitude> longitudeAndLatitudes, boolean waitForDownload) {
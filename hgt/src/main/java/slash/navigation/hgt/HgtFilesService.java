@@ -44,6 +44,7 @@ public class HgtFilesService {
             "ferranti1"
     ));
 
+    private final ElevationTileCache elevationTileCache = HgtFiles.createElevationTileCache();
     private DataSourceManager dataSourceManager;
 
     public HgtFilesService(DataSourceManager dataSourceManager) {
@@ -54,7 +55,7 @@ public class HgtFilesService {
         hgtFiles.clear();
         for (DataSource dataSource : dataSourceManager.getDataSourceService().getDataSources()) {
             if (DATASOURCE_URIS.contains(dataSource.getId()))
-                hgtFiles.add(new HgtFiles(dataSource, dataSourceManager.getDownloadManager()));
+                hgtFiles.add(new HgtFiles(dataSource, dataSourceManager.getDownloadManager(), elevationTileCache));
         }
     }
 
@@ -62,6 +63,10 @@ public class HgtFilesService {
         return hgtFiles;
     }
 
+    public ElevationTileCache getElevationTileCache() {
+        return elevationTileCache;
+    }
+
     public synchronized void dispose() {
         for (HgtFiles hgtFile : getHgtFiles())
             hgtFile.dispose();
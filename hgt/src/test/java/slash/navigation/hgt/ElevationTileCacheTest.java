@@ -0,0 +1,96 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.hgt;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.*;
+
+public class ElevationTileCacheTest {
+    private static final int SRTM3_SIZE = 1201 * 1201 * 2;
+    private File first, second;
+
+    private File createTile(short elevation) throws IOException {
+        File file = createTempFile("tile", ".hgt");
+        byte[] bytes = new byte[SRTM3_SIZE];
+        for (int i = 0; i < bytes.length; i += 2) {
+            bytes[i] = (byte) (elevation >> 8);
+            bytes[i + 1] = (byte) elevation;
+        }
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(bytes);
+        }
+        return file;
+    }
+
+    @After
+    public void tearDown() {
+        if (first != null)
+            assertTrue(first.delete() || !first.exists());
+        if (second != null)
+            assertTrue(second.delete() || !second.exists());
+    }
+
+    @Test
+    public void testHitsAndMisses() throws IOException {
+        first = createTile((short) 0);
+        ElevationTileCache cache = new ElevationTileCache(10 * SRTM3_SIZE);
+        ElevationTile tile = cache.get(first);
+        assertSame(tile, cache.get(first));
+        assertEquals(1, cache.getMisses());
+        assertEquals(1, cache.getHits());
+        assertEquals(SRTM3_SIZE, cache.getMappedBytes());
+    }
+
+    @Test
+    public void testReadsElevation() throws IOException {
+        first = createTile((short) 4711);
+        ElevationTileCache cache = new ElevationTileCache(SRTM3_SIZE);
+        assertEquals(4711.0, cache.get(first).getElevationFor(10.5, 51.5), 0.5);
+    }
+
+    @Test
+    public void testEvictsLeastRecentlyUsed() throws IOException {
+        first = createTile((short) 1);
+        second = createTile((short) 2);
+        ElevationTileCache cache = new ElevationTileCache(SRTM3_SIZE);
+        cache.get(first);
+        cache.get(second);
+        assertEquals(1, cache.getTileCount());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(SRTM3_SIZE, cache.getMappedBytes());
+
+        cache.get(first);
+        assertEquals(3, cache.getMisses());
+        assertEquals(2, cache.getEvictions());
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidSize() throws IOException {
+        first = createTempFile("tile", ".hgt");
+        new ElevationTileCache(SRTM3_SIZE).get(first);
+    }
+}
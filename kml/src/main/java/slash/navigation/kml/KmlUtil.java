@@ -20,9 +20,9 @@
 
 package slash.navigation.kml;
 
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.namespace.QName;
 import java.io.IOException;
@@ -41,43 +41,31 @@ public class KmlUtil {
     public static final String XAL_20_NAMESPACE_URI = "urn:oasis:names:tc:ciq:xsdschema:xAL:2.0";
     public static final String KML_22_EXT_NAMESPACE_URI = "http://www.google.com/kml/ext/2.2";
 
-    public static Unmarshaller newUnmarshaller20() {
-        return newUnmarshaller(newContext(slash.navigation.kml.binding20.ObjectFactory.class));
-    }
-
-    private static Unmarshaller newUnmarshaller21() {
-        return newUnmarshaller(newContext(slash.navigation.kml.binding21.ObjectFactory.class));
-    }
-
-    private static Unmarshaller newUnmarshaller22Beta() {
-        return newUnmarshaller(newContext(slash.navigation.kml.binding22beta.ObjectFactory.class));
-    }
-
-    private static Unmarshaller newUnmarshaller22() {
-        return newUnmarshaller(newContext(slash.navigation.kml.binding22.ObjectFactory.class));
+    private static JAXBContext newContext20() {
+        return newContext(slash.navigation.kml.binding20.ObjectFactory.class);
     }
 
-    private static Marshaller newMarshaller20() {
-        return newMarshaller(newContext(slash.navigation.kml.binding20.ObjectFactory.class));
+    private static JAXBContext newContext21() {
+        return newContext(slash.navigation.kml.binding21.ObjectFactory.class);
     }
 
-    private static Marshaller newMarshaller21() {
-        return newMarshaller(newContext(slash.navigation.kml.binding21.ObjectFactory.class));
+    private static JAXBContext newContext22Beta() {
+        return newContext(slash.navigation.kml.binding22beta.ObjectFactory.class);
     }
 
-    private static Marshaller newMarshaller22Beta() {
-        return newMarshaller(newContext(slash.navigation.kml.binding22beta.ObjectFactory.class));
+    private static JAXBContext newContext22() {
+        return newContext(slash.navigation.kml.binding22.ObjectFactory.class);
     }
 
-    private static Marshaller newMarshaller22() {
-        return newMarshaller(newContext(slash.navigation.kml.binding22.ObjectFactory.class));
+    public static Unmarshaller newUnmarshaller20() {
+        return newUnmarshaller(newContext20());
     }
 
 
     public static slash.navigation.kml.binding20.Kml unmarshal20(Reader reader) throws JAXBException {
         slash.navigation.kml.binding20.Kml result = null;
         try {
-            result = (slash.navigation.kml.binding20.Kml) newUnmarshaller20().unmarshal(reader);
+            result = (slash.navigation.kml.binding20.Kml) unmarshal(newContext20(), reader);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
         }
@@ -87,7 +75,7 @@ public class KmlUtil {
     public static Object unmarshal20(InputStream in) throws JAXBException {
         Object result = null;
         try {
-            result = newUnmarshaller20().unmarshal(in);
+            result = unmarshal(newContext20(), in);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
         }
@@ -97,7 +85,7 @@ public class KmlUtil {
     public static slash.navigation.kml.binding21.KmlType unmarshal21(Reader reader) throws JAXBException {
         slash.navigation.kml.binding21.KmlType result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller21().unmarshal(reader);
+            JAXBElement element = (JAXBElement) unmarshal(newContext21(), reader);
             result = (slash.navigation.kml.binding21.KmlType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
@@ -108,7 +96,7 @@ public class KmlUtil {
     public static slash.navigation.kml.binding21.KmlType unmarshal21(InputStream in) throws JAXBException {
         slash.navigation.kml.binding21.KmlType result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller21().unmarshal(in);
+            JAXBElement element = (JAXBElement) unmarshal(newContext21(), in);
             result = (slash.navigation.kml.binding21.KmlType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
@@ -119,7 +107,7 @@ public class KmlUtil {
     public static slash.navigation.kml.binding22beta.KmlType unmarshal22Beta(Reader reader) throws JAXBException {
         slash.navigation.kml.binding22beta.KmlType result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller22Beta().unmarshal(reader);
+            JAXBElement element = (JAXBElement) unmarshal(newContext22Beta(), reader);
             result = (slash.navigation.kml.binding22beta.KmlType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
@@ -130,7 +118,7 @@ public class KmlUtil {
     public static slash.navigation.kml.binding22beta.KmlType unmarshal22Beta(InputStream in) throws JAXBException {
         slash.navigation.kml.binding22beta.KmlType result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller22Beta().unmarshal(in);
+            JAXBElement element = (JAXBElement) unmarshal(newContext22Beta(), in);
             result = (slash.navigation.kml.binding22beta.KmlType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
@@ -141,7 +129,7 @@ public class KmlUtil {
     public static slash.navigation.kml.binding22.KmlType unmarshal22(Reader reader) throws JAXBException {
         slash.navigation.kml.binding22.KmlType result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller22().unmarshal(reader);
+            JAXBElement element = (JAXBElement) unmarshal(newContext22(), reader);
             result = (slash.navigation.kml.binding22.KmlType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
@@ -152,7 +140,7 @@ public class KmlUtil {
     public static slash.navigation.kml.binding22.KmlType unmarshal22(InputStream in) throws JAXBException {
         slash.navigation.kml.binding22.KmlType result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller22().unmarshal(in);
+            JAXBElement element = (JAXBElement) unmarshal(newContext22(), in);
             result = (slash.navigation.kml.binding22.KmlType) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e);
@@ -164,7 +152,7 @@ public class KmlUtil {
     public static void marshal20(slash.navigation.kml.binding20.Kml kml, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller20().marshal(new JAXBElement<>(new QName(KML_20_NAMESPACE_URI, "kml"), slash.navigation.kml.binding20.Kml.class, kml), out);
+                marshal(newContext20(), new JAXBElement<>(new QName(KML_20_NAMESPACE_URI, "kml"), slash.navigation.kml.binding20.Kml.class, kml), out);
             } finally {
                 out.flush();
                 out.close();
@@ -177,7 +165,7 @@ public class KmlUtil {
     public static void marshal21(slash.navigation.kml.binding21.KmlType kmlType, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller21().marshal(new slash.navigation.kml.binding21.ObjectFactory().createKml(kmlType), out);
+                marshal(newContext21(), new slash.navigation.kml.binding21.ObjectFactory().createKml(kmlType), out);
             } finally {
                 out.flush();
                 out.close();
@@ -190,7 +178,7 @@ public class KmlUtil {
     public static void marshal22Beta(slash.navigation.kml.binding22beta.KmlType kmlType, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller22Beta().marshal(new slash.navigation.kml.binding22beta.ObjectFactory().createKml(kmlType), out);
+                marshal(newContext22Beta(), new slash.navigation.kml.binding22beta.ObjectFactory().createKml(kmlType), out);
             } finally {
                 out.flush();
                 out.close();
@@ -203,7 +191,7 @@ public class KmlUtil {
     public static void marshal22(slash.navigation.kml.binding22.KmlType kmlType, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller22().marshal(new slash.navigation.kml.binding22.ObjectFactory().createKml(kmlType), out);
+                marshal(newContext22(), new slash.navigation.kml.binding22.ObjectFactory().createKml(kmlType), out);
             } finally {
                 out.flush();
                 out.close();
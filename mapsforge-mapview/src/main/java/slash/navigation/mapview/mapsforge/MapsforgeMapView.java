@@ -29,6 +29,7 @@ import org.mapsforge.map.layer.LayerManager;
 import org.mapsforge.map.layer.Layers;
 import org.mapsforge.map.layer.cache.InMemoryTileCache;
 import org.mapsforge.map.layer.cache.TileCache;
+import org.mapsforge.map.layer.cache.TwoLevelTileCache;
 import org.mapsforge.map.layer.download.TileDownloadLayer;
 import org.mapsforge.map.layer.download.tilesource.TileSource;
 import org.mapsforge.map.layer.overlay.Marker;
@@ -59,20 +60,25 @@ import slash.navigation.gui.Application;
 import slash.navigation.gui.actions.ActionManager;
 import slash.navigation.gui.actions.FrameAction;
 import slash.navigation.maps.LocalMap;
+import slash.navigation.maps.LocalTheme;
 import slash.navigation.maps.MapManager;
 import slash.navigation.mapview.MapView;
 import slash.navigation.mapview.MapViewCallback;
 import slash.navigation.mapview.MapViewListener;
+import slash.navigation.mapview.mapsforge.caches.PersistentTileCache;
 import slash.navigation.mapview.mapsforge.helpers.MapViewCoordinateDisplayer;
 import slash.navigation.mapview.mapsforge.helpers.MapViewMoverAndZoomer;
 import slash.navigation.mapview.mapsforge.helpers.MapViewPopupMenu;
 import slash.navigation.mapview.mapsforge.helpers.MapViewResizer;
 import slash.navigation.mapview.mapsforge.lines.Line;
 import slash.navigation.mapview.mapsforge.lines.Polyline;
+import slash.navigation.mapview.mapsforge.lines.TrackPolyline;
 import slash.navigation.mapview.mapsforge.models.IntermediateRoute;
 import slash.navigation.mapview.mapsforge.overlays.DraggableMarker;
 import slash.navigation.mapview.mapsforge.updater.EventMapUpdater;
 import slash.navigation.mapview.mapsforge.updater.PairWithLayer;
+import slash.navigation.mapview.mapsforge.updater.PolylineOperation;
+import slash.navigation.mapview.mapsforge.updater.PolylineUpdater;
 import slash.navigation.mapview.mapsforge.updater.PositionWithLayer;
 import slash.navigation.mapview.mapsforge.updater.SelectionOperation;
 import slash.navigation.mapview.mapsforge.updater.SelectionUpdater;
@@ -92,8 +98,11 @@ import javax.swing.event.ListDataListener;
 import javax.swing.event.TableModelEvent;
 import javax.swing.event.TableModelListener;
 import java.awt.*;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -114,6 +123,7 @@ import static java.awt.event.KeyEvent.VK_MINUS;
 import static java.awt.event.KeyEvent.VK_PLUS;
 import static java.awt.event.KeyEvent.VK_RIGHT;
 import static java.awt.event.KeyEvent.VK_UP;
+import static java.lang.Double.NaN;
 import static java.lang.Integer.MAX_VALUE;
 import static java.lang.Math.max;
 import static java.lang.Thread.sleep;
@@ -126,10 +136,14 @@ import static javax.swing.event.TableModelEvent.DELETE;
 import static javax.swing.event.TableModelEvent.INSERT;
 import static javax.swing.event.TableModelEvent.UPDATE;
 import static org.mapsforge.core.graphics.Color.BLUE;
+import static org.mapsforge.core.graphics.Style.STROKE;
 import static org.mapsforge.core.util.LatLongUtils.zoomForBounds;
 import static org.mapsforge.core.util.MercatorProjection.calculateGroundResolution;
 import static org.mapsforge.core.util.MercatorProjection.getMapSize;
 import static org.mapsforge.map.scalebar.DefaultMapScaleBar.ScaleBarMode.SINGLE;
+import static slash.common.io.Directories.getApplicationDirectory;
+import static slash.common.io.Files.generateChecksum;
+import static slash.common.io.Transfer.UTF8_ENCODING;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.converter.gui.models.PositionColumns.DESCRIPTION_COLUMN_INDEX;
@@ -162,6 +176,9 @@ public class MapsforgeMapView implements MapView {
     private static final String CENTER_LATITUDE_PREFERENCE = "centerLatitude";
     private static final String CENTER_LONGITUDE_PREFERENCE = "centerLongitude";
     private static final String CENTER_ZOOM_PREFERENCE = "centerZoom";
+    private static final String TILE_CACHE_MEMORY_TILES_PREFERENCE = "tileCacheMemoryTiles";
+    private static final String TILE_CACHE_DISK_MEGABYTES_PREFERENCE = "tileCacheDiskMegaBytes";
+    private static final String TILE_CACHE_DIRECTORY_PREFERENCE = "tileCacheDirectory";
     private static final int SCROLL_DIFF = 100;
 
     private PositionsModel positionsModel;
@@ -401,46 +418,51 @@ public class MapsforgeMapView implements MapView {
             }
         });
 
-        this.trackUpdater = new TrackUpdater(positionsModel, new TrackOperation() {
-            public void add(List<PairWithLayer> pairWithLayers) {
-                internalAdd(pairWithLayers);
+        this.trackUpdater = new PolylineUpdater(positionsModel, new PolylineOperation() {
+            private TrackPolyline trackPolyline;
+
+            public void add(int index, List<NavigationPosition> positions) {
+                if (trackPolyline == null) {
+                    Paint paint = GRAPHIC_FACTORY.createPaint();
+                    paint.setColor(preferences.getInt(TRACK_LINE_COLOR_PREFERENCE, 0xFF0000FF));
+                    paint.setStrokeWidth(preferences.getInt(TRACK_LINE_WIDTH_PREFERENCE, 2));
+                    paint.setStyle(STROKE);
+                    trackPolyline = new TrackPolyline(GRAPHIC_FACTORY, paint, mapView.getModel().displayModel.getTileSize());
+                    mapView.addLayer(trackPolyline);
+                }
+                trackPolyline.insert(index, asLongitudes(positions), asLatitudes(positions));
             }
 
-            public void update(List<PairWithLayer> pairWithLayers) {
-                internalRemove(pairWithLayers);
-                internalAdd(pairWithLayers);
-                updateSelectionAfterUpdate(pairWithLayers);
+            public void update(int index, List<NavigationPosition> positions) {
+                trackPolyline.update(index, asLongitudes(positions), asLatitudes(positions));
+                selectionUpdater.updatedPositions(positions);
             }
 
-            public void remove(List<PairWithLayer> pairWithLayers) {
-                internalRemove(pairWithLayers);
-                updateSelectionAfterRemove(pairWithLayers);
+            public void remove(int index, List<NavigationPosition> positions) {
+                trackPolyline.remove(index, index + positions.size() - 1);
+                if (trackPolyline.getSize() == 0) {
+                    getLayerManager().getLayers().remove(trackPolyline);
+                    trackPolyline = null;
+                }
+                selectionUpdater.removedPositions(positions);
             }
 
-            private void internalAdd(List<PairWithLayer> pairWithLayers) {
-                Paint paint = GRAPHIC_FACTORY.createPaint();
-                paint.setColor(preferences.getInt(TRACK_LINE_COLOR_PREFERENCE, 0xFF0000FF));
-                paint.setStrokeWidth(preferences.getInt(TRACK_LINE_WIDTH_PREFERENCE, 2));
-                int tileSize = mapView.getModel().displayModel.getTileSize();
-                for (PairWithLayer pair : pairWithLayers) {
-                    if(!pair.hasCoordinates())
-                        continue;
-
-                    Line line = new Line(asLatLong(pair.getFirst()), asLatLong(pair.getSecond()), paint, tileSize);
-                    pair.setLayer(line);
-                    mapView.addLayer(line);
+            private double[] asLongitudes(List<NavigationPosition> positions) {
+                double[] longitudes = new double[positions.size()];
+                for (int i = 0; i < longitudes.length; i++) {
+                    NavigationPosition position = positions.get(i);
+                    longitudes[i] = position.hasCoordinates() ? position.getLongitude() : NaN;
                 }
+                return longitudes;
             }
 
-            private void internalRemove(List<PairWithLayer> pairWithLayers) {
-                for (PairWithLayer pairWithLayer : pairWithLayers) {
-                    Layer layer = pairWithLayer.getLayer();
-                    if (layer != null)
-                        getLayerManager().getLayers().remove(layer);
-                    else
-                        log.warning("Could not find layer for track pair " + pairWithLayer);
-                    pairWithLayer.setLayer(null);
+            private double[] asLatitudes(List<NavigationPosition> positions) {
+                double[] latitudes = new double[positions.size()];
+                for (int i = 0; i < latitudes.length; i++) {
+                    NavigationPosition position = positions.get(i);
+                    latitudes[i] = position.hasCoordinates() ? position.getLatitude() : NaN;
                 }
+                return latitudes;
             }
         });
 
@@ -651,21 +673,48 @@ public class MapsforgeMapView implements MapView {
     }
 
     private TileRendererLayer createTileRendererLayer(File map) {
-        TileRendererLayer tileRendererLayer = new TileRendererLayer(createTileCache(), new MapFile(map), mapView.getModel().mapViewPosition, true, true, GRAPHIC_FACTORY);
-        tileRendererLayer.setXmlRenderTheme(getMapManager().getAppliedThemeModel().getItem().getXmlRenderTheme());
+        LocalTheme theme = getMapManager().getAppliedThemeModel().getItem();
+        String key = createTileCacheKey(map.getName(), map.getAbsolutePath(), map.length(), map.lastModified(),
+                theme.getUrl(), getLastModified(theme.getUrl()));
+        TileRendererLayer tileRendererLayer = new TileRendererLayer(createTileCache(key), new MapFile(map), mapView.getModel().mapViewPosition, true, true, GRAPHIC_FACTORY);
+        tileRendererLayer.setXmlRenderTheme(theme.getXmlRenderTheme());
         return tileRendererLayer;
     }
 
     private TileDownloadLayer createTileDownloadLayer(TileSource tileSource) {
-        return new TileDownloadLayer(createTileCache(), mapView.getModel().mapViewPosition, tileSource, GRAPHIC_FACTORY);
+        String key = createTileCacheKey(tileSource.getClass().getSimpleName(), tileSource.getClass().getName());
+        return new TileDownloadLayer(createTileCache(key), mapView.getModel().mapViewPosition, tileSource, GRAPHIC_FACTORY);
     }
 
-    private TileCache createTileCache() {
-        // TODO think about replacing with file system cache that survives restarts
-        // File cacheDirectory = new File(System.getProperty("java.io.tmpdir"), "mapsforge");
-        // TileCache secondLevelTileCache = new FileSystemTileCache(1024, cacheDirectory, GRAPHIC_FACTORY);
-        // return new TwoLevelTileCache(firstLevelTileCache, secondLevelTileCache);
-        return new InMemoryTileCache(64);
+    private long getLastModified(String url) {
+        if (url == null || !url.startsWith("file:"))
+            return 0;
+        try {
+            return new File(new URI(url)).lastModified();
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    private String createTileCacheKey(String name, Object... versions) {
+        // a changed map file or theme results in another key and thus other tiles
+        String version = asList(versions).toString();
+        try {
+            return name.replaceAll("[^\\w\\-.]", "_") + "-" + generateChecksum(new ByteArrayInputStream(version.getBytes(UTF8_ENCODING)));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Cannot create tile cache key for " + name, e);
+        }
+    }
+
+    private TileCache createTileCache(String key) {
+        TileCache firstLevelTileCache = new InMemoryTileCache(preferences.getInt(TILE_CACHE_MEMORY_TILES_PREFERENCE, 64));
+        long diskMegaBytes = preferences.getLong(TILE_CACHE_DISK_MEGABYTES_PREFERENCE, 256);
+        if (diskMegaBytes <= 0)
+            return firstLevelTileCache;
+
+        File directory = new File(preferences.get(TILE_CACHE_DIRECTORY_PREFERENCE, getApplicationDirectory("tiles").getAbsolutePath()));
+        TileCache secondLevelTileCache = new PersistentTileCache(directory, key, diskMegaBytes * 1024 * 1024, GRAPHIC_FACTORY);
+        return new TwoLevelTileCache(firstLevelTileCache, secondLevelTileCache);
     }
 
     private void updateSelectionAfterUpdate(List<PairWithLayer> pairWithLayers) {
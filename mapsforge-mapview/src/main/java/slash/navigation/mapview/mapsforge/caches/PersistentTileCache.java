@@ -0,0 +1,263 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.caches;
+
+import org.mapsforge.core.graphics.CorruptedInputStreamException;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.layer.cache.TileCache;
+import org.mapsforge.map.layer.queue.Job;
+import org.mapsforge.map.model.common.Observable;
+import org.mapsforge.map.model.common.Observer;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+import static java.io.File.separator;
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Math.min;
+import static java.lang.String.format;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static slash.common.io.Directories.ensureDirectory;
+import static slash.common.io.Files.collectFiles;
+import static slash.common.io.Files.recursiveDelete;
+
+/**
+ * A {@link TileCache} that stores tiles in a directory below a root directory and survives restarts.
+ *
+ * Tiles are written behind by a background thread, the root directory is bounded by a number
+ * of bytes and the oldest tiles are evicted first. The key of the directory is expected to
+ * change when the map or the theme changes, so that outdated tiles are never read again.
+ *
+ * @author Christian Pesch
+ */
+
+public class PersistentTileCache implements TileCache {
+    private static final Logger log = Logger.getLogger(PersistentTileCache.class.getName());
+    private static final String FILE_EXTENSION = ".tile";
+    private static final int AVERAGE_TILE_SIZE = 16 * 1024;
+    private static final int MAXIMUM_PENDING_WRITES = 256;
+    private static final ExecutorService writer = newSingleThreadExecutor(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "TileCacheWriter");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
+    });
+
+    private final File rootDirectory;
+    private final File directory;
+    private final long maximumBytes;
+    private final GraphicFactory graphicFactory;
+    private final Map<Job, TileBitmap> pendingWrites = new HashMap<>();
+    private final Observable observable = new Observable();
+    private long currentBytes; // only accessed by the writer
+
+    public PersistentTileCache(File rootDirectory, String key, long maximumBytes, GraphicFactory graphicFactory) {
+        this.rootDirectory = rootDirectory;
+        this.directory = new File(rootDirectory, key);
+        this.maximumBytes = maximumBytes;
+        this.graphicFactory = graphicFactory;
+
+        writer.execute(new Runnable() {
+            public void run() {
+                currentBytes = calculateBytes(collectTiles());
+                evictIfNecessary();
+            }
+        });
+    }
+
+    private File getFile(Job job) {
+        Tile tile = job.tile;
+        return new File(directory, tile.zoomLevel + separator + tile.tileX + separator + tile.tileY + FILE_EXTENSION);
+    }
+
+    public boolean containsKey(Job job) {
+        synchronized (pendingWrites) {
+            if (pendingWrites.containsKey(job))
+                return true;
+        }
+        return getFile(job).isFile();
+    }
+
+    public TileBitmap get(Job job) {
+        synchronized (pendingWrites) {
+            TileBitmap bitmap = pendingWrites.get(job);
+            if (bitmap != null) {
+                bitmap.incrementRefCount();
+                return bitmap;
+            }
+        }
+
+        File file = getFile(job);
+        if (!file.isFile())
+            return null;
+
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            TileBitmap bitmap = graphicFactory.createTileBitmap(inputStream, job.tile.tileSize, job.hasAlpha);
+            bitmap.setTimestamp(file.lastModified());
+            return bitmap;
+        } catch (CorruptedInputStreamException | IOException e) {
+            log.warning(format("Cannot read tile %s: %s", file, e));
+            if (!file.delete())
+                log.warning(format("Cannot delete tile %s", file));
+            return null;
+        }
+    }
+
+    public TileBitmap getImmediately(Job job) {
+        return get(job);
+    }
+
+    public void put(final Job job, final TileBitmap bitmap) {
+        synchronized (pendingWrites) {
+            // it's a cache: rather drop tiles than queue up memory
+            if (pendingWrites.containsKey(job) || pendingWrites.size() >= MAXIMUM_PENDING_WRITES)
+                return;
+            bitmap.incrementRefCount();
+            pendingWrites.put(job, bitmap);
+        }
+
+        writer.execute(new Runnable() {
+            public void run() {
+                try {
+                    write(job, bitmap);
+                } finally {
+                    synchronized (pendingWrites) {
+                        pendingWrites.remove(job);
+                    }
+                    bitmap.decrementRefCount();
+                }
+            }
+        });
+        observable.notifyObservers();
+    }
+
+    private void write(Job job, TileBitmap bitmap) {
+        File file = getFile(job);
+        File temporary = new File(file.getParentFile(), file.getName() + ".tmp");
+        try {
+            ensureDirectory(file.getParentFile());
+            try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(temporary))) {
+                bitmap.compress(outputStream);
+            }
+
+            long previousBytes = file.length();
+            if (file.exists() && !file.delete())
+                throw new IOException(format("Cannot delete %s", file));
+            if (!temporary.renameTo(file))
+                throw new IOException(format("Cannot rename %s to %s", temporary, file));
+
+            currentBytes += file.length() - previousBytes;
+            evictIfNecessary();
+        } catch (IOException | IllegalArgumentException e) {
+            log.warning(format("Cannot write tile %s: %s", file, e));
+            if (temporary.exists() && !temporary.delete())
+                log.warning(format("Cannot delete %s", temporary));
+        }
+    }
+
+    private List<File> collectTiles() {
+        if (!rootDirectory.exists())
+            return new ArrayList<>();
+        return collectFiles(rootDirectory, FILE_EXTENSION);
+    }
+
+    private long calculateBytes(List<File> files) {
+        long bytes = 0;
+        for (File file : files)
+            bytes += file.length();
+        return bytes;
+    }
+
+    private void evictIfNecessary() {
+        if (currentBytes <= maximumBytes)
+            return;
+
+        List<File> files = collectTiles();
+        final Map<File, Long> lastModified = new HashMap<>(files.size());
+        for (File file : files)
+            lastModified.put(file, file.lastModified());
+        Collections.sort(files, new Comparator<File>() {
+            public int compare(File f1, File f2) {
+                return lastModified.get(f1).compareTo(lastModified.get(f2));
+            }
+        });
+
+        // evict down to three quarters to avoid scanning the directory with every write
+        long bytes = calculateBytes(files);
+        long targetBytes = maximumBytes / 4 * 3;
+        int evicted = 0;
+        for (File file : files) {
+            if (bytes <= targetBytes)
+                break;
+            long length = file.length();
+            if (file.delete()) {
+                bytes -= length;
+                evicted++;
+            }
+        }
+        currentBytes = bytes;
+        log.info(format("Evicted %d tiles from %s, %d bytes remain", evicted, rootDirectory, bytes));
+    }
+
+    public int getCapacity() {
+        return (int) min(maximumBytes / AVERAGE_TILE_SIZE, MAX_VALUE);
+    }
+
+    public int getCapacityFirstLevel() {
+        return getCapacity();
+    }
+
+    public void setWorkingSet(Set<Job> workingSet) {
+    }
+
+    public void purge() {
+        writer.execute(new Runnable() {
+            public void run() {
+                if (!directory.exists())
+                    return;
+                try {
+                    recursiveDelete(directory);
+                } catch (IOException e) {
+                    log.warning(format("Cannot purge %s: %s", directory, e));
+                }
+                currentBytes = calculateBytes(collectTiles());
+            }
+        });
+    }
+
+    public void destroy() {
+        // keep the tiles for the next start
+    }
+
+    public void addObserver(Observer observer) {
+        observable.addObserver(observer);
+    }
+
+    public void removeObserver(Observer observer) {
+        observable.removeObserver(observer);
+    }
+}
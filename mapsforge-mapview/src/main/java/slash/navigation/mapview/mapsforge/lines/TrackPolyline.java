@@ -0,0 +1,355 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.lines;
+
+import org.mapsforge.core.graphics.Canvas;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.graphics.Path;
+import org.mapsforge.core.model.BoundingBox;
+import org.mapsforge.core.model.Point;
+import org.mapsforge.map.layer.Layer;
+import slash.navigation.mapview.mapsforge.MapsforgeMapView;
+
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOf;
+import static org.mapsforge.core.util.MercatorProjection.*;
+
+/**
+ * A track of many positions on {@link MapsforgeMapView} that is drawn as a single path.
+ *
+ * The coordinates are kept in primitive arrays and edited in place. For every zoom level
+ * the positions are projected once; edits only project the edited positions and adjust the
+ * bounds of the chunks they fall into. Chunks of positions outside of the visible area are
+ * skipped and positions closer than a pixel are dropped while drawing.
+ * Missing coordinates are stored as {@link Double#NaN} and interrupt the path.
+ *
+ * @author Christian Pesch
+ */
+
+public class TrackPolyline extends Layer {
+    private static final int CHUNK_SIZE = 256;
+    private static final double SIMPLIFICATION_TOLERANCE = 1.0;
+    private static final int VIEWPORT_MARGIN = 16;
+    private static final byte NO_ZOOM_LEVEL = -1;
+
+    private final Path path;
+    private final Paint paint;
+    private final int tileSize;
+
+    private double[] longitudes = new double[16], latitudes = new double[16];
+    private int size;
+
+    private byte projectedZoomLevel = NO_ZOOM_LEVEL;
+    private long projectedMapSize;
+    // the projected positions, NaN for positions without coordinates
+    private double[] pixelXs = new double[16], pixelYs = new double[16];
+
+    // the index of the first position per chunk; chunks grow with inserts and are split when too large
+    private int[] chunkStarts = new int[4];
+    private int chunkCount;
+    // minimum x, minimum y, maximum x, maximum y per chunk of projected positions
+    private double[] chunkBounds = new double[16];
+
+    public TrackPolyline(GraphicFactory graphicFactory, Paint paint, int tileSize) {
+        this.path = graphicFactory.createPath();
+        this.paint = paint;
+        this.tileSize = tileSize;
+    }
+
+    public synchronized int getSize() {
+        return size;
+    }
+
+    public synchronized double getLongitude(int index) {
+        checkIndex(index);
+        return longitudes[index];
+    }
+
+    public synchronized double getLatitude(int index) {
+        checkIndex(index);
+        return latitudes[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " is not within 0 and " + size);
+    }
+
+    private boolean isProjected() {
+        return projectedZoomLevel != NO_ZOOM_LEVEL;
+    }
+
+    public synchronized void insert(int index, double[] longitudes, double[] latitudes) {
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index " + index + " is not within 0 and " + size);
+        int count = longitudes.length;
+        if (count == 0)
+            return;
+        if (size + count > this.longitudes.length) {
+            int capacity = max(size + count, this.longitudes.length * 2);
+            this.longitudes = copyOf(this.longitudes, capacity);
+            this.latitudes = copyOf(this.latitudes, capacity);
+            pixelXs = copyOf(pixelXs, capacity);
+            pixelYs = copyOf(pixelYs, capacity);
+        }
+        arraycopy(this.longitudes, index, this.longitudes, index + count, size - index);
+        arraycopy(this.latitudes, index, this.latitudes, index + count, size - index);
+        arraycopy(longitudes, 0, this.longitudes, index, count);
+        arraycopy(latitudes, 0, this.latitudes, index, count);
+        if (isProjected()) {
+            arraycopy(pixelXs, index, pixelXs, index + count, size - index);
+            arraycopy(pixelYs, index, pixelYs, index + count, size - index);
+        }
+
+        int chunk;
+        if (chunkCount == 0) {
+            insertChunk(0, 0);
+            chunk = 0;
+        } else {
+            // appending extends the last chunk
+            chunk = findChunk(min(index, size - 1));
+            for (int i = chunk + 1; i < chunkCount; i++)
+                chunkStarts[i] += count;
+        }
+        size += count;
+
+        if (isProjected())
+            project(index, index + count);
+        int chunks = splitChunk(chunk);
+        // the following chunk starts with the segment from the last position of the split chunk
+        updateBounds(chunk + chunks);
+        requestRedraw();
+    }
+
+    public synchronized void update(int index, double[] longitudes, double[] latitudes) {
+        int count = longitudes.length;
+        if (index < 0 || index + count > size)
+            throw new IndexOutOfBoundsException("Range " + index + " to " + (index + count) + " is not within 0 and " + size);
+        if (count == 0)
+            return;
+        arraycopy(longitudes, 0, this.longitudes, index, count);
+        arraycopy(latitudes, 0, this.latitudes, index, count);
+
+        if (isProjected()) {
+            project(index, index + count);
+            // includes the chunk that starts with the segment from the last updated position
+            int lastChunk = findChunk(min(index + count, size - 1));
+            for (int chunk = findChunk(index); chunk <= lastChunk; chunk++)
+                updateBounds(chunk);
+        }
+        requestRedraw();
+    }
+
+    public synchronized void remove(int firstIndex, int lastIndex) {
+        if (firstIndex < 0 || lastIndex >= size || firstIndex > lastIndex)
+            throw new IndexOutOfBoundsException("Range " + firstIndex + " to " + lastIndex + " is not within 0 and " + size);
+        int count = lastIndex - firstIndex + 1;
+        arraycopy(longitudes, lastIndex + 1, longitudes, firstIndex, size - lastIndex - 1);
+        arraycopy(latitudes, lastIndex + 1, latitudes, firstIndex, size - lastIndex - 1);
+        if (isProjected()) {
+            arraycopy(pixelXs, lastIndex + 1, pixelXs, firstIndex, size - lastIndex - 1);
+            arraycopy(pixelYs, lastIndex + 1, pixelYs, firstIndex, size - lastIndex - 1);
+        }
+        size -= count;
+
+        // move the chunks behind the removed range and drop the chunks that became empty
+        int chunks = 0;
+        for (int i = 0; i < chunkCount; i++) {
+            int start = chunkStarts[i];
+            start = start < firstIndex ? start : start <= lastIndex ? firstIndex : start - count;
+            if (start >= size)
+                break;
+            // a chunk that starts where its predecessor starts has replaced the emptied predecessor
+            if (chunks > 0 && chunkStarts[chunks - 1] == start)
+                chunks--;
+            chunkStarts[chunks] = start;
+            arraycopy(chunkBounds, i * 4, chunkBounds, chunks * 4, 4);
+            chunks++;
+        }
+        chunkCount = chunks;
+
+        if (size > 0) {
+            int chunk = findChunk(min(firstIndex, size - 1));
+            for (int i = max(chunk - 1, 0); i <= min(chunk + 1, chunkCount - 1); i++)
+                updateBounds(i);
+        }
+        requestRedraw();
+    }
+
+    public synchronized void clear() {
+        size = 0;
+        chunkCount = 0;
+        requestRedraw();
+    }
+
+    private int getChunkEnd(int chunk) {
+        return chunk + 1 < chunkCount ? chunkStarts[chunk + 1] : size;
+    }
+
+    /**
+     * @return the chunk that contains the position with the given index
+     */
+    private int findChunk(int index) {
+        int low = 0, high = chunkCount - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (chunkStarts[middle] <= index)
+                low = middle;
+            else
+                high = middle - 1;
+        }
+        return low;
+    }
+
+    private void insertChunk(int chunk, int start) {
+        if (chunkCount == chunkStarts.length) {
+            chunkStarts = copyOf(chunkStarts, chunkCount * 2);
+            chunkBounds = copyOf(chunkBounds, chunkCount * 2 * 4);
+        }
+        arraycopy(chunkStarts, chunk, chunkStarts, chunk + 1, chunkCount - chunk);
+        arraycopy(chunkBounds, chunk * 4, chunkBounds, (chunk + 1) * 4, (chunkCount - chunk) * 4);
+        chunkStarts[chunk] = start;
+        chunkCount++;
+    }
+
+    /**
+     * Splits a chunk that has grown beyond twice the chunk size and updates the bounds of the parts.
+     *
+     * @return the number of chunks the chunk has been split into
+     */
+    private int splitChunk(int chunk) {
+        int start = chunkStarts[chunk], end = getChunkEnd(chunk);
+        int chunks = 1;
+        if (end - start > 2 * CHUNK_SIZE) {
+            for (int next = start + CHUNK_SIZE; next < end; next += CHUNK_SIZE)
+                insertChunk(chunk + chunks++, next);
+        }
+        for (int i = chunk; i < chunk + chunks; i++)
+            updateBounds(i);
+        return chunks;
+    }
+
+    private void updateBounds(int chunk) {
+        if (!isProjected() || chunk >= chunkCount)
+            return;
+
+        // include the last position of the previous chunk to cover the connecting segment
+        int start = max(0, chunkStarts[chunk] - 1);
+        int end = getChunkEnd(chunk);
+        double minimumX = Double.MAX_VALUE, minimumY = Double.MAX_VALUE;
+        double maximumX = -Double.MAX_VALUE, maximumY = -Double.MAX_VALUE;
+        for (int i = start; i < end; i++) {
+            if (isNaN(pixelXs[i]))
+                continue;
+            minimumX = min(minimumX, pixelXs[i]);
+            minimumY = min(minimumY, pixelYs[i]);
+            maximumX = max(maximumX, pixelXs[i]);
+            maximumY = max(maximumY, pixelYs[i]);
+        }
+        chunkBounds[chunk * 4] = minimumX;
+        chunkBounds[chunk * 4 + 1] = minimumY;
+        chunkBounds[chunk * 4 + 2] = maximumX;
+        chunkBounds[chunk * 4 + 3] = maximumY;
+    }
+
+    private void project(int fromIndex, int toIndex) {
+        for (int i = fromIndex; i < toIndex; i++) {
+            if (isNaN(longitudes[i]) || isNaN(latitudes[i])) {
+                pixelXs[i] = NaN;
+                pixelYs[i] = NaN;
+            } else {
+                pixelXs[i] = longitudeToPixelX(longitudes[i], projectedMapSize);
+                pixelYs[i] = latitudeToPixelY(latitudes[i], projectedMapSize);
+            }
+        }
+    }
+
+    private void project(byte zoomLevel) {
+        projectedZoomLevel = zoomLevel;
+        projectedMapSize = getMapSize(zoomLevel, tileSize);
+        project(0, size);
+        for (int chunk = 0; chunk < chunkCount; chunk++)
+            updateBounds(chunk);
+    }
+
+    private boolean isVisible(int chunk, double minimumX, double minimumY, double maximumX, double maximumY) {
+        return chunkBounds[chunk * 4] <= maximumX && chunkBounds[chunk * 4 + 2] >= minimumX &&
+                chunkBounds[chunk * 4 + 1] <= maximumY && chunkBounds[chunk * 4 + 3] >= minimumY;
+    }
+
+    public synchronized void draw(BoundingBox boundingBox, byte zoomLevel, Canvas canvas, Point topLeftPoint) {
+        if (size < 2)
+            return;
+        if (zoomLevel != projectedZoomLevel)
+            project(zoomLevel);
+
+        double minimumX = topLeftPoint.x - VIEWPORT_MARGIN, minimumY = topLeftPoint.y - VIEWPORT_MARGIN;
+        double maximumX = topLeftPoint.x + canvas.getWidth() + VIEWPORT_MARGIN;
+        double maximumY = topLeftPoint.y + canvas.getHeight() + VIEWPORT_MARGIN;
+
+        path.clear();
+        boolean penDown = false;
+        double previousX = NaN, previousY = NaN;
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            if (!isVisible(chunk, minimumX, minimumY, maximumX, maximumY)) {
+                penDown = false;
+                continue;
+            }
+
+            int start = chunkStarts[chunk];
+            // start from the last position of the previous chunk if that one was skipped
+            int first = start > 0 && !penDown ? start - 1 : start;
+            int end = getChunkEnd(chunk);
+            for (int i = first; i < end; i++) {
+                double x = pixelXs[i], y = pixelYs[i];
+                if (isNaN(x)) {
+                    penDown = false;
+                    continue;
+                }
+
+                // drop positions closer than a pixel except for the last one before a gap
+                boolean last = i == size - 1 || isNaN(pixelXs[i + 1]);
+                if (penDown && !last &&
+                        abs(x - previousX) < SIMPLIFICATION_TOLERANCE && abs(y - previousY) < SIMPLIFICATION_TOLERANCE)
+                    continue;
+
+                float pathX = (float) (x - topLeftPoint.x);
+                float pathY = (float) (y - topLeftPoint.y);
+                if (penDown)
+                    path.lineTo(pathX, pathY);
+                else {
+                    path.moveTo(pathX, pathY);
+                    penDown = true;
+                }
+                previousX = x;
+                previousY = y;
+            }
+        }
+
+        if (!path.isEmpty())
+            canvas.drawPath(path, paint);
+    }
+}
@@ -0,0 +1,89 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.updater;
+
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.converter.gui.models.PositionsModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Math.min;
+
+/**
+ * Stores the current positions of a polyline and passes ranges of positions
+ * as {@link PolylineOperation}s.
+ * Used to edit a single polyline in place instead of a layer per pair of positions.
+ *
+ * @author Christian Pesch
+ * @see PolylineOperation
+ */
+
+public class PolylineUpdater implements EventMapUpdater {
+    private final PositionsModel positionsModel;
+    private final PolylineOperation polylineOperation;
+    private final List<NavigationPosition> positions = new ArrayList<>();
+
+    public PolylineUpdater(PositionsModel positionsModel, PolylineOperation polylineOperation) {
+        this.positionsModel = positionsModel;
+        this.polylineOperation = polylineOperation;
+    }
+
+    public void handleAdd(int firstRow, int lastRow) {
+        List<NavigationPosition> added = new ArrayList<>();
+        for (int i = firstRow; i <= lastRow; i++)
+            added.add(positionsModel.getPosition(i));
+        positions.addAll(firstRow, added);
+
+        if (!added.isEmpty())
+            polylineOperation.add(firstRow, added);
+    }
+
+    public void handleUpdate(int firstRow, int lastRow) {
+        // handle first to MAX_VALUE update events
+        int validLastRow = min(lastRow, positions.size() - 1);
+
+        List<NavigationPosition> updated = new ArrayList<>();
+        for (int i = firstRow; i <= validLastRow; i++) {
+            NavigationPosition position = positionsModel.getPosition(i);
+            positions.set(i, position);
+            updated.add(position);
+        }
+
+        if (!updated.isEmpty())
+            polylineOperation.update(firstRow, updated);
+    }
+
+    public void handleRemove(int firstRow, int lastRow) {
+        int validLastRow = min(lastRow, positions.size() - 1);
+        if (firstRow > validLastRow)
+            return;
+
+        List<NavigationPosition> range = positions.subList(firstRow, validLastRow + 1);
+        List<NavigationPosition> removed = new ArrayList<>(range);
+        range.clear();
+
+        polylineOperation.remove(firstRow, removed);
+    }
+
+    List<NavigationPosition> getPositions() {
+        return positions;
+    }
+}
@@ -0,0 +1,94 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.caches;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mapsforge.core.graphics.TileBitmap;
+import org.mapsforge.core.model.Tile;
+import org.mapsforge.map.layer.queue.Job;
+
+import java.io.File;
+import java.io.IOException;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.*;
+import static org.mapsforge.map.awt.graphics.AwtGraphicFactory.INSTANCE;
+import static slash.common.io.Files.recursiveDelete;
+
+public class PersistentTileCacheTest {
+    private File root;
+
+    @Before
+    public void setUp() throws IOException {
+        root = createTempFile("tiles", ".cache");
+        assertTrue(root.delete());
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (root.exists())
+            recursiveDelete(root);
+    }
+
+    private Job createJob(int tileX) {
+        return new Job(new Tile(tileX, 1, (byte) 10, 256), false);
+    }
+
+    private void put(PersistentTileCache cache, int count) throws InterruptedException {
+        for (int i = 0; i < count; i++) {
+            TileBitmap bitmap = INSTANCE.createTileBitmap(256, false);
+            bitmap.setBackgroundColor(0xFF000000 + i * 1000);
+            cache.put(createJob(i), bitmap);
+        }
+        // wait for the writer
+        Thread.sleep(1000);
+    }
+
+    @Test
+    public void testSurvivesRestart() throws InterruptedException {
+        put(new PersistentTileCache(root, "map", 1024 * 1024, INSTANCE), 3);
+
+        PersistentTileCache cache = new PersistentTileCache(root, "map", 1024 * 1024, INSTANCE);
+        assertTrue(cache.containsKey(createJob(2)));
+        TileBitmap bitmap = cache.get(createJob(2));
+        assertNotNull(bitmap);
+        assertEquals(256, bitmap.getWidth());
+        assertNull(cache.get(createJob(3)));
+    }
+
+    @Test
+    public void testOtherKeyDoesNotSeeTiles() throws InterruptedException {
+        put(new PersistentTileCache(root, "map", 1024 * 1024, INSTANCE), 1);
+
+        PersistentTileCache cache = new PersistentTileCache(root, "changed-map", 1024 * 1024, INSTANCE);
+        assertFalse(cache.containsKey(createJob(0)));
+    }
+
+    @Test
+    public void testEvictsOldestTiles() throws InterruptedException {
+        PersistentTileCache cache = new PersistentTileCache(root, "map", 8 * 1024, INSTANCE);
+        put(cache, 40);
+
+        assertFalse(cache.containsKey(createJob(0)));
+        assertTrue(cache.containsKey(createJob(39)));
+    }
+}
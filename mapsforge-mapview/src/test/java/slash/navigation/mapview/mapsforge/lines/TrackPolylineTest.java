@@ -0,0 +1,184 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.lines;
+
+import org.junit.Test;
+import org.mapsforge.core.graphics.Canvas;
+import org.mapsforge.core.graphics.FillRule;
+import org.mapsforge.core.graphics.GraphicFactory;
+import org.mapsforge.core.graphics.Paint;
+import org.mapsforge.core.graphics.Path;
+import org.mapsforge.core.model.Point;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Double.NaN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TrackPolylineTest {
+    private static final byte ZOOM_LEVEL = 14;
+    private final Random random = new Random(4711);
+
+    private static class RecordingPath implements Path {
+        private final List<String> operations = new ArrayList<>();
+
+        public void clear() {
+            operations.clear();
+        }
+
+        public void close() {
+        }
+
+        public boolean isEmpty() {
+            return operations.isEmpty();
+        }
+
+        public void lineTo(float x, float y) {
+            operations.add("L" + x + "," + y);
+        }
+
+        public void moveTo(float x, float y) {
+            operations.add("M" + x + "," + y);
+        }
+
+        public void setFillRule(FillRule fillRule) {
+        }
+    }
+
+    private RecordingPath path;
+
+    private TrackPolyline createPolyline() {
+        path = new RecordingPath();
+        GraphicFactory graphicFactory = mock(GraphicFactory.class);
+        when(graphicFactory.createPath()).thenReturn(path);
+        return new TrackPolyline(graphicFactory, mock(Paint.class), 256);
+    }
+
+    private List<String> draw(TrackPolyline polyline, Point topLeftPoint, int width, int height) {
+        Canvas canvas = mock(Canvas.class);
+        when(canvas.getWidth()).thenReturn(width);
+        when(canvas.getHeight()).thenReturn(height);
+        path.clear();
+        polyline.draw(null, ZOOM_LEVEL, canvas, topLeftPoint);
+        return new ArrayList<>(path.operations);
+    }
+
+    private List<String> drawAll(TrackPolyline polyline) {
+        return draw(polyline, new Point(0, 0), Integer.MAX_VALUE / 2, Integer.MAX_VALUE / 2);
+    }
+
+    private double[] randomLongitudes(int count) {
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++)
+            longitudes[i] = random.nextInt(20) == 0 ? NaN : 10.0 + random.nextDouble() * 0.5;
+        return longitudes;
+    }
+
+    private double[] randomLatitudes(int count) {
+        double[] latitudes = new double[count];
+        for (int i = 0; i < count; i++)
+            latitudes[i] = 50.0 + random.nextDouble() * 0.5;
+        return latitudes;
+    }
+
+    private TrackPolyline copy(TrackPolyline polyline) {
+        TrackPolyline copy = createPolyline();
+        double[] longitudes = new double[polyline.getSize()], latitudes = new double[polyline.getSize()];
+        for (int i = 0; i < longitudes.length; i++) {
+            longitudes[i] = polyline.getLongitude(i);
+            latitudes[i] = polyline.getLatitude(i);
+        }
+        copy.insert(0, longitudes, latitudes);
+        return copy;
+    }
+
+    private void assertDrawsLikeCopy(TrackPolyline polyline) {
+        RecordingPath edited = path;
+        List<String> expected = drawAll(copy(polyline));
+        path = edited;
+        assertEquals(expected, drawAll(polyline));
+    }
+
+    @Test
+    public void testEditsAfterProjectionDrawLikeNewPolyline() {
+        TrackPolyline polyline = createPolyline();
+        polyline.insert(0, randomLongitudes(2000), randomLatitudes(2000));
+        assertTrue(drawAll(polyline).size() > 0);
+
+        for (int i = 0; i < 200; i++) {
+            int size = polyline.getSize();
+            switch (random.nextInt(3)) {
+                case 0:
+                    int count = 1 + random.nextInt(random.nextBoolean() ? 5 : 800);
+                    polyline.insert(random.nextInt(size + 1), randomLongitudes(count), randomLatitudes(count));
+                    break;
+                case 1:
+                    int index = random.nextInt(size);
+                    count = 1 + random.nextInt(Math.min(size - index, 600));
+                    polyline.update(index, randomLongitudes(count), randomLatitudes(count));
+                    break;
+                default:
+                    if (size < 100)
+                        continue;
+                    index = random.nextInt(size);
+                    polyline.remove(index, index + random.nextInt(Math.min(size - index, 500)));
+            }
+            if (i % 10 == 0)
+                assertDrawsLikeCopy(polyline);
+        }
+        assertDrawsLikeCopy(polyline);
+    }
+
+    @Test
+    public void testRemoveAllAndInsertAgain() {
+        TrackPolyline polyline = createPolyline();
+        polyline.insert(0, randomLongitudes(1000), randomLatitudes(1000));
+        drawAll(polyline);
+        polyline.remove(0, 999);
+        assertEquals(0, polyline.getSize());
+        assertEquals(0, drawAll(polyline).size());
+
+        polyline.insert(0, new double[]{10.0, 10.1}, new double[]{50.0, 50.1});
+        assertEquals(2, drawAll(polyline).size());
+    }
+
+    @Test
+    public void testSkipsInvisibleChunks() {
+        TrackPolyline polyline = createPolyline();
+        int count = 4096;
+        double[] longitudes = new double[count], latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            longitudes[i] = 10.0 + i * 0.001;
+            latitudes[i] = 50.0;
+        }
+        polyline.insert(0, longitudes, latitudes);
+        List<String> all = drawAll(polyline);
+
+        // a viewport around the first positions only
+        List<String> visible = draw(polyline, new Point(0, 0), 1, 1);
+        assertEquals(0, visible.size());
+        assertTrue(all.size() > 1000);
+    }
+}
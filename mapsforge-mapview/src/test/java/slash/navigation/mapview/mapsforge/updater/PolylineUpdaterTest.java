@@ -0,0 +1,139 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.mapview.mapsforge.updater;
+
+import org.junit.Test;
+import slash.navigation.common.NavigationPosition;
+import slash.navigation.common.SimpleNavigationPosition;
+import slash.navigation.converter.gui.models.PositionsModel;
+
+import static java.lang.Integer.MAX_VALUE;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.*;
+
+public class PolylineUpdaterTest {
+    private NavigationPosition p1 = new SimpleNavigationPosition(1.0, 0.0);
+    private NavigationPosition p2 = new SimpleNavigationPosition(2.0, 0.0);
+    private NavigationPosition p3 = new SimpleNavigationPosition(3.0, 0.0);
+    private NavigationPosition p4 = new SimpleNavigationPosition(4.0, 0.0);
+
+    private PositionsModel createPositionsModel(NavigationPosition... positions) {
+        PositionsModel positionsModel = mock(PositionsModel.class);
+        for (int i = 0; i < positions.length; i++)
+            when(positionsModel.getPosition(i)).thenReturn(positions[i]);
+        when(positionsModel.getRowCount()).thenReturn(positions.length);
+        return positionsModel;
+    }
+
+    @Test
+    public void testInitiallyEmpty() {
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(createPositionsModel(), polylineOperation);
+        polylineUpdater.handleAdd(0, -1);
+
+        assertTrue(polylineUpdater.getPositions().isEmpty());
+        verify(polylineOperation, never()).add(anyInt(), anyListOf(NavigationPosition.class));
+    }
+
+    @Test
+    public void testAdd() {
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(createPositionsModel(p1, p2, p3), polylineOperation);
+        polylineUpdater.handleAdd(0, 2);
+
+        assertEquals(asList(p1, p2, p3), polylineUpdater.getPositions());
+        verify(polylineOperation, times(1)).add(0, asList(p1, p2, p3));
+    }
+
+    @Test
+    public void testInsertInBetween() {
+        PositionsModel positionsModel = createPositionsModel(p1, p3);
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(positionsModel, polylineOperation);
+        polylineUpdater.handleAdd(0, 1);
+
+        when(positionsModel.getPosition(1)).thenReturn(p2);
+        when(positionsModel.getPosition(2)).thenReturn(p3);
+        when(positionsModel.getRowCount()).thenReturn(3);
+        polylineUpdater.handleAdd(1, 1);
+
+        assertEquals(asList(p1, p2, p3), polylineUpdater.getPositions());
+        verify(polylineOperation, times(1)).add(1, singletonList(p2));
+    }
+
+    @Test
+    public void testUpdate() {
+        PositionsModel positionsModel = createPositionsModel(p1, p2, p3);
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(positionsModel, polylineOperation);
+        polylineUpdater.handleAdd(0, 2);
+
+        when(positionsModel.getPosition(1)).thenReturn(p4);
+        polylineUpdater.handleUpdate(1, 1);
+
+        assertEquals(asList(p1, p4, p3), polylineUpdater.getPositions());
+        verify(polylineOperation, times(1)).update(1, singletonList(p4));
+    }
+
+    @Test
+    public void testUpdateFirstToMaxValue() {
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(createPositionsModel(p1, p2), polylineOperation);
+        polylineUpdater.handleAdd(0, 1);
+        polylineUpdater.handleUpdate(0, MAX_VALUE);
+
+        verify(polylineOperation, times(1)).update(0, asList(p1, p2));
+    }
+
+    @Test
+    public void testRemove() {
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(createPositionsModel(p1, p2, p3, p4), polylineOperation);
+        polylineUpdater.handleAdd(0, 3);
+        polylineUpdater.handleRemove(1, 2);
+
+        assertEquals(asList(p1, p4), polylineUpdater.getPositions());
+        verify(polylineOperation, times(1)).remove(1, asList(p2, p3));
+    }
+
+    @Test
+    public void testRemoveAll() {
+        PolylineOperation polylineOperation = mock(PolylineOperation.class);
+
+        PolylineUpdater polylineUpdater = new PolylineUpdater(createPositionsModel(p1, p2), polylineOperation);
+        polylineUpdater.handleAdd(0, 1);
+        polylineUpdater.handleRemove(0, MAX_VALUE);
+        polylineUpdater.handleRemove(0, MAX_VALUE);
+
+        assertTrue(polylineUpdater.getPositions().isEmpty());
+        verify(polylineOperation, times(1)).remove(0, asList(p1, p2));
+    }
+}
@@ -0,0 +1,236 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static java.lang.Double.isNaN;
+import static java.lang.Double.parseDouble;
+import static java.lang.Math.abs;
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+
+/**
+ * Compares JMH results in CSV format with a baseline and reports the changes of the scores.
+ *
+ * A change is a regression or an improvement if it exceeds the threshold and the error
+ * intervals of both scores do not overlap. The operations per second of the throughput mode
+ * are better when higher, the times of the other modes and the secondary result for the
+ * allocated bytes per operation are better when lower. The exit code is 1 if there are regressions.
+ *
+ * <pre>
+ * java -jar benchmarks.jar GeodesyBenchmark RouteAlgorithmsBenchmark -rf csv -rff algorithms.csv
+ * java -cp benchmarks.jar slash.navigation.benchmark.BenchmarkComparison algorithms.csv
+ * java -cp benchmarks.jar slash.navigation.benchmark.BenchmarkComparison -threshold 5 algorithms.csv
+ * java -cp benchmarks.jar slash.navigation.benchmark.BenchmarkComparison -threshold 5 baseline.csv algorithms.csv
+ * </pre>
+ *
+ * Without a baseline file the results are compared with the algorithms baseline which is
+ * part of this module; it has been measured on a single machine and is only comparable
+ * with results from similar hardware. Update it when the hardware changes or after an
+ * intended change of the performance.
+ *
+ * @author Christian Pesch
+ */
+
+public class BenchmarkComparison {
+    static final String ALGORITHMS_BASELINE = "algorithms-baseline.csv";
+    private static final double DEFAULT_THRESHOLD = 10.0;
+    private static final String THRESHOLD_OPTION = "-threshold";
+    // the other results of the profilers vary too much between runs or have no error to compare them
+    private static final Set<String> COMPARED_SECONDARY_RESULTS = new HashSet<>(asList("gc.alloc.rate.norm"));
+
+    static class Score {
+        final String benchmark, parameters, mode, unit;
+        final double score, error;
+
+        Score(String benchmark, String parameters, String mode, double score, double error, String unit) {
+            this.benchmark = benchmark;
+            this.parameters = parameters;
+            this.mode = mode;
+            this.score = score;
+            this.error = error;
+            this.unit = unit;
+        }
+
+        String getKey() {
+            return benchmark + " " + parameters;
+        }
+
+        boolean isHigherBetter() {
+            return "thrpt".equals(mode) && !benchmark.contains(":");
+        }
+    }
+
+    static Map<String, Score> parse(InputStream inputStream) throws IOException {
+        Map<String, Score> result = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, UTF8_ENCODING))) {
+            String line = reader.readLine();
+            if (line == null)
+                return result;
+            List<String> header = split(line);
+            int benchmarkColumn = header.indexOf("Benchmark"), modeColumn = header.indexOf("Mode"),
+                    scoreColumn = header.indexOf("Score"), errorColumn = header.indexOf("Score Error (99.9%)"),
+                    unitColumn = header.indexOf("Unit");
+            if (benchmarkColumn == -1 || scoreColumn == -1)
+                throw new IOException("Not a JMH result in CSV format: " + line);
+
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().isEmpty())
+                    continue;
+                List<String> values = split(line);
+                StringBuilder parameters = new StringBuilder();
+                for (int i = 0; i < header.size(); i++) {
+                    String column = header.get(i);
+                    if (column.startsWith("Param: ") && i < values.size() && !values.get(i).isEmpty()) {
+                        if (parameters.length() > 0)
+                            parameters.append(",");
+                        parameters.append(column.substring("Param: ".length())).append("=").append(values.get(i));
+                    }
+                }
+                // shorten the benchmark and strip the marker JMH puts in front of the profiler results
+                String benchmark = values.get(benchmarkColumn).replace("slash.navigation.benchmark.", "").
+                        replaceAll(":[^A-Za-z]+", ":");
+                int colon = benchmark.indexOf(':');
+                if (colon != -1 && !COMPARED_SECONDARY_RESULTS.contains(benchmark.substring(colon + 1)))
+                    continue;
+                Score score = new Score(benchmark, parameters.toString(),
+                        modeColumn != -1 ? values.get(modeColumn) : null,
+                        parseDouble(values.get(scoreColumn)),
+                        errorColumn != -1 ? parseDouble(values.get(errorColumn)) : Double.NaN,
+                        unitColumn != -1 ? values.get(unitColumn) : "");
+                result.put(score.getKey(), score);
+            }
+        }
+        return result;
+    }
+
+    static List<String> split(String line) {
+        List<String> result = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"')
+                quoted = !quoted;
+            else if (c == ',' && !quoted) {
+                result.add(value.toString());
+                value.setLength(0);
+            } else
+                value.append(c);
+        }
+        result.add(value.toString());
+        return result;
+    }
+
+    /**
+     * @return the change in percent where a positive value is an improvement and a negative value a regression,
+     * or 0 if the change is below the threshold or within the errors of the scores
+     */
+    static double getSignificantChange(Score baseline, Score current, double threshold) {
+        if (baseline.score == 0.0)
+            return 0.0;
+        double change = (current.score - baseline.score) / baseline.score * 100.0;
+        if (!baseline.isHigherBetter())
+            change = -change;
+        if (abs(change) < threshold)
+            return 0.0;
+
+        double baselineError = isNaN(baseline.error) ? 0.0 : baseline.error;
+        double currentError = isNaN(current.error) ? 0.0 : current.error;
+        if (abs(current.score - baseline.score) <= baselineError + currentError)
+            return 0.0;
+        return change;
+    }
+
+    static int report(Map<String, Score> baselines, Map<String, Score> currents, double threshold, PrintStream out) {
+        int regressions = 0, improvements = 0, unchanged = 0, missing = 0;
+        out.println(format("%-64s %-28s %14s %14s %9s %-10s", "Benchmark", "Parameters", "Baseline", "Current", "Change", "Unit"));
+        for (Score current : currents.values()) {
+            Score baseline = baselines.get(current.getKey());
+            if (baseline == null) {
+                out.println(format("%-64s %-28s %14s %14.3f %9s %-10s", current.benchmark, current.parameters,
+                        "-", current.score, "new", current.unit));
+                continue;
+            }
+
+            double change = getSignificantChange(baseline, current, threshold);
+            String verdict = "";
+            if (change < 0.0) {
+                verdict = " REGRESSION";
+                regressions++;
+            } else if (change > 0.0) {
+                verdict = " improvement";
+                improvements++;
+            } else
+                unchanged++;
+            double difference = baseline.score != 0.0 ? (current.score - baseline.score) / baseline.score * 100.0 : 0.0;
+            out.println(format("%-64s %-28s %14.3f %14.3f %+8.1f%% %-10s%s", current.benchmark, current.parameters,
+                    baseline.score, current.score, difference, current.unit, verdict));
+        }
+        for (String key : baselines.keySet()) {
+            if (!currents.containsKey(key))
+                missing++;
+        }
+        out.println();
+        out.println(format("%d regressions, %d improvements, %d unchanged within %.1f%%, %d not measured",
+                regressions, improvements, unchanged, threshold, missing));
+        return regressions;
+    }
+
+    public static void main(String[] args) throws IOException {
+        double threshold = DEFAULT_THRESHOLD;
+        List<String> files = new ArrayList<>(asList(args));
+        int option = files.indexOf(THRESHOLD_OPTION);
+        if (option != -1 && option + 1 < files.size()) {
+            threshold = parseDouble(files.remove(option + 1));
+            files.remove(option);
+        }
+        if (files.size() < 1 || files.size() > 2 || files.contains(THRESHOLD_OPTION)) {
+            System.err.println("Usage: BenchmarkComparison [" + THRESHOLD_OPTION + " percent] [baseline.csv] results.csv");
+            System.exit(2);
+        }
+
+        Map<String, Score> baselines;
+        if (files.size() == 1) {
+            try (InputStream inputStream = BenchmarkComparison.class.getResourceAsStream(ALGORITHMS_BASELINE)) {
+                baselines = parse(inputStream);
+            }
+        } else
+            baselines = parse(new FileInputStream(files.get(0)));
+        Map<String, Score> currents = parse(new FileInputStream(files.get(files.size() - 1)));
+
+        int regressions = report(baselines, currents, threshold, System.out);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+}
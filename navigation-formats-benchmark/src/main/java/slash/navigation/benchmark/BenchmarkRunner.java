@@ -0,0 +1,52 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the format benchmarks with the JMH command line options given and reports
+ * the allocation rate and the peak heap usage in addition to the operations per second.
+ *
+ * The synthetic tracks have 1,000 and 100,000 positions by default; larger tracks up
+ * to some million positions need more than the 2 GB heap of the forked JVMs:
+ *
+ * <pre>
+ * java -jar navigation-formats-benchmark/target/benchmarks.jar
+ * java -jar benchmarks.jar ReadBenchmark -p format=Gpx11Format -p positions=5000000 -jvmArgsAppend -Xmx8g
+ * java -jar benchmarks.jar -rf json -rff results.json
+ * </pre>
+ *
+ * @author Christian Pesch
+ */
+
+public class BenchmarkRunner {
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().
+                parent(new CommandLineOptions(args)).
+                addProfiler(GCProfiler.class).
+                addProfiler(PeakHeapProfiler.class).
+                build()).run();
+    }
+}
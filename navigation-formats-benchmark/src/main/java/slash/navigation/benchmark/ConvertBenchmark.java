@@ -0,0 +1,104 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.ParserResult;
+import slash.navigation.benchmark.SyntheticTracks.NullOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static slash.navigation.base.NavigationFormatConverter.asFormat;
+import static slash.navigation.benchmark.SyntheticTracks.createFormat;
+import static slash.navigation.benchmark.SyntheticTracks.createInput;
+import static slash.navigation.benchmark.SyntheticTracks.getPositionCount;
+
+/**
+ * Measures a full conversion of synthetic tracks: reading the source format with the
+ * {@link NavigationFormatParser}, converting the route and writing the target format.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ConvertBenchmark {
+    @Param({"Gpx11Format>Kml22Format", "Kml22Format>Gpx11Format", "NmeaFormat>Gpx11Format", "Gpx11Format>Tcx2Format",
+            "Tcx2Format>Gpx11Format", "WintecWbt201Tk1Format>Gpx11Format", "Gpx10Format>Nmn6Format",
+            "ColumbusGpsProfessionalFormat>Kmz22Format", "Gpx11Format>MTP0809Format"})
+    public String conversion;
+
+    @Param({"1000", "100000"})
+    public int positions;
+
+    private NavigationFormatParser parser;
+    private List<NavigationFormat> sourceFormats;
+    private NavigationFormat targetFormat;
+    private byte[] input;
+
+    @Setup
+    public void setUp() throws Exception {
+        String[] formats = conversion.split(">");
+        if (formats.length != 2)
+            throw new IllegalArgumentException("Conversion " + conversion + " is not of the form source>target");
+
+        parser = new NavigationFormatParser(new NavigationFormatRegistry());
+        NavigationFormat sourceFormat = createFormat(formats[0]);
+        sourceFormats = singletonList(sourceFormat);
+        targetFormat = createFormat(formats[1]);
+        input = createInput(sourceFormat, positions);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public long convert() throws IOException {
+        ParserResult result = parser.read(new ByteArrayInputStream(input), sourceFormats);
+        if (!result.isSuccessful())
+            throw new IOException("Cannot read " + conversion);
+
+        BaseRoute route = asFormat(result.getTheRoute(), targetFormat);
+        NullOutputStream outputStream = new NullOutputStream();
+        targetFormat.write(route, outputStream, 0, getPositionCount(targetFormat, route.getPositionCount()));
+        return outputStream.getCount();
+    }
+}
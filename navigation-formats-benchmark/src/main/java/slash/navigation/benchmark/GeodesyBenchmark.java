@@ -0,0 +1,114 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import slash.navigation.common.DistanceAccuracy;
+import slash.navigation.gpx.GpxPosition;
+
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static slash.navigation.benchmark.TrackShapes.createPositions;
+import static slash.navigation.common.Bearing.calculateBearing;
+import static slash.navigation.common.DistanceAccuracy.Equirectangular;
+import static slash.navigation.common.DistanceAccuracy.Exact;
+import static slash.navigation.common.DistanceAccuracy.Spherical;
+
+/**
+ * Measures {@link slash.navigation.common.Bearing#calculateBearing} between all neighbours of a track
+ * and {@link slash.navigation.base.BaseNavigationPosition#calculateOrthogonalDistance} of all positions
+ * to the line from the first to the last position with each {@link DistanceAccuracy}.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class GeodesyBenchmark {
+    @Param({"straight", "zigzag", "noisy", "dateline", "pole"})
+    public String shape;
+
+    @Param({"1000", "10000"})
+    public int positions;
+
+    private List<GpxPosition> track;
+    private double[] longitudes, latitudes;
+
+    @Setup
+    public void setUp() {
+        track = createPositions(shape, positions);
+        longitudes = new double[track.size()];
+        latitudes = new double[track.size()];
+        for (int i = 0; i < track.size(); i++) {
+            longitudes[i] = track.get(i).getLongitude();
+            latitudes[i] = track.get(i).getLatitude();
+        }
+    }
+
+    @Benchmark
+    public double bearing() {
+        double distance = 0.0;
+        for (int i = 1; i < longitudes.length; i++)
+            distance += calculateBearing(longitudes[i - 1], latitudes[i - 1], longitudes[i], latitudes[i]).getDistance();
+        return distance;
+    }
+
+    private double orthogonalDistance(DistanceAccuracy accuracy) {
+        GpxPosition first = track.get(0), last = track.get(track.size() - 1);
+        double distance = 0.0;
+        for (int i = 1; i < track.size() - 1; i++) {
+            Double orthogonal = track.get(i).calculateOrthogonalDistance(first, last, accuracy);
+            if (orthogonal != null)
+                distance += orthogonal;
+        }
+        return distance;
+    }
+
+    @Benchmark
+    public double orthogonalDistanceExact() {
+        return orthogonalDistance(Exact);
+    }
+
+    @Benchmark
+    public double orthogonalDistanceSpherical() {
+        return orthogonalDistance(Spherical);
+    }
+
+    @Benchmark
+    public double orthogonalDistanceEquirectangular() {
+        return orthogonalDistance(Equirectangular);
+    }
+}
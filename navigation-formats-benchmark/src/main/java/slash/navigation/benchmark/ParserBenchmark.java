@@ -0,0 +1,110 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import slash.navigation.babel.BabelFormat;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.ParserResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static slash.navigation.benchmark.SyntheticTracks.createFormat;
+import static slash.navigation.benchmark.SyntheticTracks.createInput;
+
+/**
+ * Measures {@link NavigationFormatParser#read} for synthetic tracks, once with
+ * the detection of the format among all read formats and once with the format given.
+ *
+ * The GPSBabel formats are left out of the detection since they run an external process.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ParserBenchmark {
+    private static final Logger log = Logger.getLogger(ParserBenchmark.class.getName());
+
+    @Param({"Gpx11Format", "Kml22Format", "NmeaFormat", "Tcx2Format", "Nmn6Format", "ColumbusGpsProfessionalFormat",
+            "WintecWbt201Tk1Format", "MTP0809Format"})
+    public String format;
+
+    @Param({"1000", "100000"})
+    public int positions;
+
+    private NavigationFormatParser parser;
+    private List<NavigationFormat> detectFormats, formats;
+    private byte[] input;
+
+    @Setup
+    public void setUp() throws Exception {
+        NavigationFormatRegistry registry = new NavigationFormatRegistry();
+        parser = new NavigationFormatParser(registry);
+        detectFormats = new ArrayList<>();
+        for (NavigationFormat readFormat : registry.getReadFormats()) {
+            if (!(readFormat instanceof BabelFormat))
+                detectFormats.add(readFormat);
+        }
+
+        NavigationFormat navigationFormat = createFormat(format);
+        formats = singletonList(navigationFormat);
+        input = createInput(navigationFormat, positions);
+
+        ParserResult result = detect();
+        if (!result.isSuccessful())
+            throw new IllegalStateException("Cannot detect " + format);
+        if (!result.getFormat().getClass().equals(navigationFormat.getClass()))
+            log.warning("Detected " + result.getFormat().getName() + " instead of " + navigationFormat.getName());
+    }
+
+    @Benchmark
+    public ParserResult detect() throws IOException {
+        return parser.read(new ByteArrayInputStream(input), detectFormats);
+    }
+
+    @Benchmark
+    public ParserResult readWithFormat() throws IOException {
+        return parser.read(new ByteArrayInputStream(input), formats);
+    }
+}
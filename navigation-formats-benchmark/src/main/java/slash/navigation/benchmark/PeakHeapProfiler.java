@@ -0,0 +1,72 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+
+import java.lang.management.MemoryPoolMXBean;
+import java.util.Collection;
+
+import static java.lang.management.ManagementFactory.getMemoryPoolMXBeans;
+import static java.lang.management.MemoryType.HEAP;
+import static java.util.Collections.singletonList;
+import static org.openjdk.jmh.results.AggregationPolicy.MAX;
+
+/**
+ * Reports the sum of the peak usages of the heap memory pools during each iteration.
+ *
+ * The GC profiler of JMH only reports the allocation rate; the peaks show how much
+ * of a track a format holds in memory at once. Since the pools peak at different times,
+ * the sum is an upper bound of the peak usage of the whole heap. Use it with
+ * <code>-prof slash.navigation.benchmark.PeakHeapProfiler</code>.
+ *
+ * @author Christian Pesch
+ */
+
+public class PeakHeapProfiler implements InternalProfiler {
+    private static final double MEGABYTE = 1024.0 * 1024.0;
+
+    public String getDescription() {
+        return "Sum of the peak usages of the heap memory pools";
+    }
+
+    public void beforeIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams) {
+        for (MemoryPoolMXBean pool : getMemoryPoolMXBeans()) {
+            if (pool.getType() == HEAP)
+                pool.resetPeakUsage();
+        }
+    }
+
+    public Collection<? extends Result> afterIteration(BenchmarkParams benchmarkParams, IterationParams iterationParams,
+                                                       IterationResult result) {
+        long peaks = 0;
+        for (MemoryPoolMXBean pool : getMemoryPoolMXBeans()) {
+            if (pool.getType() == HEAP)
+                peaks += pool.getPeakUsage().getUsed();
+        }
+        return singletonList(new ScalarResult("heap.pools.peak.sum", peaks / MEGABYTE, "MB", MAX));
+    }
+}
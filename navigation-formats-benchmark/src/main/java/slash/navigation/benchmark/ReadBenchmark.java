@@ -0,0 +1,96 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.openjdk.jmh.annotations.Mode.Throughput;
+import static slash.navigation.benchmark.SyntheticTracks.createFormat;
+import static slash.navigation.benchmark.SyntheticTracks.createInput;
+import static slash.navigation.benchmark.SyntheticTracks.getPositionCount;
+
+/**
+ * Measures {@link NavigationFormat#read} of a single format for synthetic tracks.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Throughput)
+@OutputTimeUnit(SECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ReadBenchmark {
+    @Param({"Gpx10Format", "Gpx11Format", "Kml22Format", "Kmz22Format", "NmeaFormat", "Tcx2Format",
+            "Nmn6Format", "Nmn7Format", "ColumbusGpsProfessionalFormat", "WintecWbt201Tk1Format", "MTP0809Format"})
+    public String format;
+
+    @Param({"1000", "100000"})
+    public int positions;
+
+    private NavigationFormat navigationFormat;
+    private byte[] input;
+
+    @Setup
+    public void setUp() throws Exception {
+        navigationFormat = createFormat(format);
+        input = createInput(navigationFormat, positions);
+
+        // fail early instead of measuring a format which does not understand its input
+        int positionCount = 0;
+        for (BaseRoute route : readRoutes())
+            positionCount += route.getPositionCount();
+        int expected = getPositionCount(navigationFormat, positions);
+        if (positionCount < expected)
+            throw new IllegalStateException(format + " read only " + positionCount + " of " + expected + " positions");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BaseRoute> readRoutes() throws Exception {
+        ParserContext<BaseRoute> context = new ParserContextImpl<>();
+        navigationFormat.read(new ByteArrayInputStream(input), null, context);
+        return context.getRoutes();
+    }
+
+    @Benchmark
+    public void read(Blackhole blackhole) throws Exception {
+        blackhole.consume(readRoutes());
+    }
+}
@@ -0,0 +1,131 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.gpx.GpxRoute;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static org.openjdk.jmh.annotations.Mode.AverageTime;
+import static slash.navigation.base.RouteCalculations.getSignificantPositions;
+import static slash.navigation.benchmark.TrackShapes.createTrack;
+
+/**
+ * Measures the route algorithms behind the map and the saving of routes:
+ * {@link slash.navigation.base.RouteCalculations#getSignificantPositions},
+ * {@link slash.navigation.base.BaseRoute#getClosestPosition(double, double, double)},
+ * {@link slash.navigation.base.BaseRoute#removeDuplicates} and
+ * {@link slash.navigation.base.BaseRoute#ensureIncreasingTime}.
+ *
+ * @author Christian Pesch
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(AverageTime)
+@OutputTimeUnit(MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+public class RouteAlgorithmsBenchmark {
+    private static final int QUERY_COUNT = 100;
+    private static final double SIGNIFICANCE_THRESHOLD = 5.0;
+    private static final double CLOSEST_THRESHOLD = 50.0;
+
+    @Param({"straight", "zigzag", "noisy", "dateline", "pole"})
+    public String shape;
+
+    @Param({"1000", "10000"})
+    public int positions;
+
+    private GpxRoute route;
+    private double[] queryLongitudes, queryLatitudes;
+
+    @Setup
+    public void setUp() {
+        route = createTrack(shape, positions);
+
+        // query next to evenly spread positions like a mouse over the map does
+        queryLongitudes = new double[QUERY_COUNT];
+        queryLatitudes = new double[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            GpxPosition position = route.getPosition(i * (route.getPositionCount() - 1) / (QUERY_COUNT - 1));
+            queryLongitudes[i] = position.getLongitude() + 0.00001;
+            queryLatitudes[i] = position.getLatitude() + 0.00001;
+        }
+    }
+
+    /**
+     * Provides a fresh copy of the track for the algorithms which modify it.
+     */
+    @State(Scope.Thread)
+    public static class ModifiableTrack {
+        GpxRoute route;
+
+        @Setup(Level.Invocation)
+        public void setUp(RouteAlgorithmsBenchmark benchmark) {
+            List<GpxPosition> positions = new ArrayList<>(benchmark.route.getPositionCount());
+            for (GpxPosition position : benchmark.route.getPositions())
+                positions.add(new GpxPosition(position.getLongitude(), position.getLatitude(), position.getElevation(),
+                        position.getSpeed(), position.getTime(), position.getDescription()));
+            route = new GpxRoute(benchmark.route.getFormat(), benchmark.route.getCharacteristics(),
+                    benchmark.route.getName(), null, positions);
+        }
+    }
+
+    @Benchmark
+    public int[] significantPositions() {
+        return getSignificantPositions(route.getPositions(), SIGNIFICANCE_THRESHOLD);
+    }
+
+    @Benchmark
+    public int closestPosition() {
+        int result = 0;
+        for (int i = 0; i < QUERY_COUNT; i++)
+            result += route.getClosestPosition(queryLongitudes[i], queryLatitudes[i], CLOSEST_THRESHOLD);
+        return result;
+    }
+
+    @Benchmark
+    public int removeDuplicates(ModifiableTrack track) {
+        track.route.removeDuplicates();
+        return track.route.getPositionCount();
+    }
+
+    @Benchmark
+    public long ensureIncreasingTime(ModifiableTrack track) {
+        track.route.ensureIncreasingTime();
+        return track.route.getTime();
+    }
+}
@@ -0,0 +1,199 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.bcr.MTP0809Format;
+import slash.navigation.columbus.ColumbusGpsProfessionalFormat;
+import slash.navigation.gpx.Gpx10Format;
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.gpx.GpxRoute;
+import slash.navigation.kml.Kml22Format;
+import slash.navigation.kml.Kmz22Format;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmn.Nmn6Format;
+import slash.navigation.nmn.Nmn7Format;
+import slash.navigation.tcx.Tcx2Format;
+import slash.navigation.wbt.WintecWbt201Tk1Format;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.lang.Math.cos;
+import static java.lang.Math.min;
+import static java.lang.Math.round;
+import static java.lang.Math.sin;
+import static java.lang.Math.toRadians;
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+import static java.util.Calendar.DAY_OF_MONTH;
+import static java.util.Calendar.HOUR_OF_DAY;
+import static java.util.Calendar.MINUTE;
+import static java.util.Calendar.MONTH;
+import static java.util.Calendar.SECOND;
+import static java.util.Calendar.YEAR;
+import static slash.common.type.CompactCalendar.UTC;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.NavigationFormatConverter.asFormat;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+/**
+ * Creates the synthetic tracks the benchmarks read, write and convert.
+ *
+ * The tracks are a deterministic random walk around Hamburg with one position
+ * per second, an elevation and a speed, so every format has something to store.
+ *
+ * @author Christian Pesch
+ */
+
+class SyntheticTracks {
+    private static final Map<String, Class<? extends NavigationFormat>> FORMATS = new LinkedHashMap<>();
+    private static final long START_TIME = 1420070400000L; // 2015-01-01T00:00:00Z
+
+    static {
+        FORMATS.put("Gpx10Format", Gpx10Format.class);
+        FORMATS.put("Gpx11Format", Gpx11Format.class);
+        FORMATS.put("Kml22Format", Kml22Format.class);
+        FORMATS.put("Kmz22Format", Kmz22Format.class);
+        FORMATS.put("NmeaFormat", NmeaFormat.class);
+        FORMATS.put("Tcx2Format", Tcx2Format.class);
+        FORMATS.put("Nmn6Format", Nmn6Format.class);
+        FORMATS.put("Nmn7Format", Nmn7Format.class);
+        FORMATS.put("ColumbusGpsProfessionalFormat", ColumbusGpsProfessionalFormat.class);
+        FORMATS.put("WintecWbt201Tk1Format", WintecWbt201Tk1Format.class);
+        FORMATS.put("MTP0809Format", MTP0809Format.class);
+    }
+
+    static NavigationFormat createFormat(String name) {
+        Class<? extends NavigationFormat> formatClass = FORMATS.get(name);
+        if (formatClass == null)
+            throw new IllegalArgumentException("Unknown format " + name + ", use one of " + FORMATS.keySet());
+        try {
+            return formatClass.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot create format " + name + ": " + e, e);
+        }
+    }
+
+    static GpxRoute createTrack(int positionCount) {
+        Random random = new Random(positionCount);
+        List<GpxPosition> positions = new ArrayList<>(positionCount);
+        double longitude = 9.99, latitude = 53.55, elevation = 20.0, heading = 0.0;
+        for (int i = 0; i < positionCount; i++) {
+            heading += random.nextGaussian() * 10.0;
+            double speed = 20.0 + random.nextDouble() * 30.0;
+            double distance = speed / 3.6 / 111320.0;
+            latitude += distance * cos(toRadians(heading));
+            longitude += distance * sin(toRadians(heading)) / cos(toRadians(latitude));
+            elevation += random.nextGaussian();
+            positions.add(new GpxPosition(round7(longitude), round7(latitude), round1(elevation), round1(speed),
+                    fromMillis(START_TIME + i * 1000L), "Position " + (i + 1)));
+        }
+        return new Gpx11Format().createRoute(Track, "Synthetic track with " + positionCount + " positions", positions);
+    }
+
+    private static double round7(double value) {
+        return round(value * 10000000.0) / 10000000.0;
+    }
+
+    private static double round1(double value) {
+        return round(value * 10.0) / 10.0;
+    }
+
+    /**
+     * Formats like BCR hold only a few positions, thus their tracks are cut to their maximum
+     * just like the {@link slash.navigation.base.NavigationFormatParser} splits them when writing.
+     */
+    static int getPositionCount(NavigationFormat format, int positionCount) {
+        return min(positionCount, format.getMaximumPositionCount());
+    }
+
+    static BaseRoute createTrack(NavigationFormat format, int positionCount) throws IOException {
+        return asFormat(createTrack(getPositionCount(format, positionCount)), format);
+    }
+
+    @SuppressWarnings("unchecked")
+    static byte[] createInput(NavigationFormat format, int positionCount) throws IOException {
+        if (format instanceof WintecWbt201Tk1Format)
+            return createWintecTk1Input(createTrack(getPositionCount(format, positionCount)));
+
+        BaseRoute route = createTrack(format, positionCount);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.write(route, outputStream, 0, route.getPositionCount());
+        return outputStream.toByteArray();
+    }
+
+    /**
+     * The Wintec formats are read-only in RouteConverter, thus the log is
+     * assembled with the layout that WintecWbt201Tk1Format expects.
+     */
+    private static byte[] createWintecTk1Input(GpxRoute route) {
+        int headerSize = 1024, recordSize = 16;
+        List<GpxPosition> positions = route.getPositions();
+        ByteBuffer buffer = ByteBuffer.allocate(headerSize + positions.size() * recordSize).order(LITTLE_ENDIAN);
+        buffer.put("WintecLogFormat".getBytes());
+        buffer.putInt(140, headerSize + positions.size() * recordSize);
+        buffer.position(headerSize);
+
+        Calendar calendar = Calendar.getInstance(UTC);
+        for (int i = 0; i < positions.size(); i++) {
+            GpxPosition position = positions.get(i);
+            calendar.setTimeInMillis(position.getTime().getTimeInMillis());
+            int time = (calendar.get(YEAR) - 2000) << 26 | (calendar.get(MONTH) + 1) << 22 |
+                    calendar.get(DAY_OF_MONTH) << 17 | calendar.get(HOUR_OF_DAY) << 12 |
+                    calendar.get(MINUTE) << 6 | calendar.get(SECOND);
+            buffer.putShort((short) (i == 0 ? 1 : 0));
+            buffer.putInt(time);
+            buffer.putInt((int) round(position.getLatitude() * 10000000.0));
+            buffer.putInt((int) round(position.getLongitude() * 10000000.0));
+            buffer.putShort((short) round(position.getElevation()));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Swallows what the formats write so that only the formatting is measured.
+     */
+    static class NullOutputStream extends OutputStream {
+        private long count;
+
+        public void write(int b) {
+            count++;
+        }
+
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+}
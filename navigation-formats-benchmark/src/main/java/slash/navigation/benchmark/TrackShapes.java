@@ -0,0 +1,160 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.benchmark;
+
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.gpx.GpxRoute;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Math.asin;
+import static java.lang.Math.atan2;
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.Math.toDegrees;
+import static java.lang.Math.toRadians;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.common.Bearing.EARTH_RADIUS;
+
+/**
+ * Creates tracks with the shapes that stress the geodesy and route algorithms differently.
+ *
+ * <ul>
+ * <li>straight: a straight line which Douglas-Peucker reduces to its end points</li>
+ * <li>zigzag: switchbacks every 20 positions with many significant positions</li>
+ * <li>noisy: a GPS recording with jitter, standstills and positions without time</li>
+ * <li>dateline: a track which crosses the 180th meridian</li>
+ * <li>pole: a track across the north pole</li>
+ * </ul>
+ *
+ * @author Christian Pesch
+ */
+
+class TrackShapes {
+    static final String STRAIGHT = "straight";
+    static final String ZIGZAG = "zigzag";
+    static final String NOISY = "noisy";
+    static final String DATELINE = "dateline";
+    static final String POLE = "pole";
+
+    private static final long START_TIME = 1420070400000L; // 2015-01-01T00:00:00Z
+
+    static GpxRoute createTrack(String shape, int positionCount) {
+        return new GpxRoute(new Gpx11Format(), Track, shape, null, createPositions(shape, positionCount));
+    }
+
+    static List<GpxPosition> createPositions(String shape, int positionCount) {
+        switch (shape) {
+            case STRAIGHT:
+                return walk(9.99, 53.55, positionCount, 10.0, 0.0, 0, 0.0, 0, 0);
+            case ZIGZAG:
+                return walk(9.99, 53.55, positionCount, 10.0, 0.0, 20, 0.0, 0, 0);
+            case NOISY:
+                return walk(9.99, 53.55, positionCount, 10.0, 5.0, 0, 5.0, 20, 50);
+            case DATELINE:
+                return walk(179.0, 65.5, positionCount, 10.0, 0.0, 0, 0.0, 0, 0);
+            case POLE:
+                return crossPole(positionCount);
+            default:
+                throw new IllegalArgumentException("Unknown shape " + shape + ", use one of " + STRAIGHT + ", " +
+                        ZIGZAG + ", " + NOISY + ", " + DATELINE + " or " + POLE);
+        }
+    }
+
+    /**
+     * Walks eastwards from the given start.
+     *
+     * @param step            the distance between two positions in meters
+     * @param wobble          the standard deviation of the change of the heading in degrees
+     * @param switchback      the number of positions after which the heading turns by 90 degrees or 0
+     * @param noise           the standard deviation of the error of the positions in meters
+     * @param standstillEvery every how many positions the previous position is repeated or 0
+     * @param noTimeEvery     every how many positions the time is missing or 0
+     */
+    private static List<GpxPosition> walk(double longitude, double latitude, int positionCount, double step,
+                                          double wobble, int switchback, double noise,
+                                          int standstillEvery, int noTimeEvery) {
+        Random random = new Random(positionCount);
+        List<GpxPosition> result = new ArrayList<>(positionCount);
+        double heading = switchback > 0 ? 45.0 : 90.0;
+        for (int i = 0; i < positionCount; i++) {
+            if (standstillEvery > 0 && i > 0 && i % standstillEvery == 0) {
+                GpxPosition previous = result.get(i - 1);
+                result.add(createPosition(previous.getLongitude(), previous.getLatitude(), i, noTimeEvery));
+                continue;
+            }
+
+            if (switchback > 0 && i > 0 && i % switchback == 0)
+                heading = heading == 45.0 ? 135.0 : 45.0;
+            heading += random.nextGaussian() * wobble;
+
+            double[] next = move(longitude, latitude, heading, step);
+            longitude = next[0];
+            latitude = next[1];
+            double[] measured = noise > 0.0 ? move(longitude, latitude, random.nextDouble() * 360.0,
+                    random.nextGaussian() * noise) : next;
+            result.add(createPosition(measured[0], measured[1], i, noTimeEvery));
+        }
+        return result;
+    }
+
+    /**
+     * Follows the 0th meridian northwards across the pole and the 180th meridian southwards with 10 meter steps.
+     */
+    private static List<GpxPosition> crossPole(int positionCount) {
+        List<GpxPosition> result = new ArrayList<>(positionCount);
+        double step = toDegrees(10.0 / EARTH_RADIUS);
+        double angle = 90.0 - positionCount / 2 * step;
+        for (int i = 0; i < positionCount; i++) {
+            if (angle <= 90.0)
+                result.add(createPosition(0.0, angle, i, 0));
+            else
+                result.add(createPosition(180.0, 180.0 - angle, i, 0));
+            angle += step;
+        }
+        return result;
+    }
+
+    private static double[] move(double longitude, double latitude, double heading, double distance) {
+        double angularDistance = distance / EARTH_RADIUS;
+        double bearing = toRadians(heading);
+        double latitude1 = toRadians(latitude), longitude1 = toRadians(longitude);
+        double latitude2 = asin(sin(latitude1) * cos(angularDistance) + cos(latitude1) * sin(angularDistance) * cos(bearing));
+        double longitude2 = longitude1 + atan2(sin(bearing) * sin(angularDistance) * cos(latitude1),
+                cos(angularDistance) - sin(latitude1) * sin(latitude2));
+        double result = toDegrees(longitude2);
+        if (result > 180.0)
+            result -= 360.0;
+        else if (result <= -180.0)
+            result += 360.0;
+        return new double[]{result, toDegrees(latitude2)};
+    }
+
+    private static GpxPosition createPosition(double longitude, double latitude, int index, int noTimeEvery) {
+        boolean hasTime = noTimeEvery == 0 || index % noTimeEvery != noTimeEvery - 1;
+        return new GpxPosition(longitude, latitude, 20.0, null, hasTime ? fromMillis(START_TIME + index * 1000L) : null,
+                "Position " + (index + 1));
+    }
+}
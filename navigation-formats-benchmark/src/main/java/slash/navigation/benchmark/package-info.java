@@ -0,0 +1,5 @@
+/**
+ * The JMH benchmarks for reading, writing and converting navigation formats and for the
+ * geodesic calculations and route algorithms behind the map and the saving of files.
+ */
+package slash.navigation.benchmark;
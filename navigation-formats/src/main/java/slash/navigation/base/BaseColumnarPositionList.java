@@ -0,0 +1,746 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.common.type.CompactCalendar;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+import static java.lang.Double.isNaN;
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
+import static slash.navigation.base.BaseNavigationPosition.getPositionClass;
+import static slash.navigation.common.Geodesy.calculateVincentyDistance;
+
+/**
+ * A list of positions that stores the values of the positions in primitive
+ * columns with bitmaps for the <code>null</code> values instead of one object
+ * per position and value.
+ *
+ * The positions returned by the list are views on a {@link Row} of the columns.
+ * Changing a view changes the row. Adding a view of this list to this list references
+ * its row, adding any other position copies its values to a new row. Once more than
+ * half of the rows are no longer part of the list, they are compacted and the values
+ * of the removed rows move to their handles, so that removed views keep their values.
+ *
+ * Formats create the list while they read. It keeps the positions as objects until
+ * it contains {@link #setColumnarPositionThreshold(int) the threshold} of positions
+ * and moves them to columns then, so that the columns are filled while parsing.
+ *
+ * @author Christian Pesch
+ */
+
+public abstract class BaseColumnarPositionList<P extends BaseNavigationPosition> extends AbstractList<P> implements RandomAccess {
+    private static final int MINIMUM_ROWS_TO_COMPACT = 64;
+    private static volatile int columnarPositionThreshold = -1;
+
+    private final List<Column<?>> columns = new ArrayList<>();
+    private final DoubleColumn longitudes = addColumn(new DoubleColumn()), latitudes = addColumn(new DoubleColumn()),
+            elevations = addColumn(new DoubleColumn()), speeds = addColumn(new DoubleColumn()),
+            headings = addColumn(new DoubleColumn()), hdops = addColumn(new DoubleColumn()),
+            vdops = addColumn(new DoubleColumn()), pdops = addColumn(new DoubleColumn());
+    private final TimeColumn times = addColumn(new TimeColumn());
+    private final IntegerColumn satellites = addColumn(new IntegerColumn());
+    private final ObjectColumn<String> descriptions = addColumn(new ObjectColumn<String>());
+    private final ObjectColumn<WaypointType> waypointTypes = addColumn(new ObjectColumn<WaypointType>());
+    private final ObjectColumn<Object> origins = addColumn(new ObjectColumn<Object>());
+
+    private Row[] owners;
+    private int rowCount = 0;
+
+    private Row[] rows;
+    private int size = 0;
+
+    private List<P> objects;
+    private boolean storable = true;
+
+    /**
+     * Creates a list that keeps its positions as objects until it reaches the threshold.
+     */
+    protected BaseColumnarPositionList() {
+        this.objects = new ArrayList<>();
+        this.rows = new Row[10];
+        this.owners = new Row[10];
+    }
+
+    /**
+     * Creates an empty list that stores its positions in columns.
+     */
+    protected BaseColumnarPositionList(int initialCapacity) {
+        this.rows = new Row[max(initialCapacity, 10)];
+        this.owners = new Row[rows.length];
+    }
+
+    public static int getColumnarPositionThreshold() {
+        return columnarPositionThreshold;
+    }
+
+    /**
+     * Lists created by formats while reading store their positions in primitive columns
+     * once they contain at least the given number of positions. A negative threshold
+     * disables this.
+     *
+     * @param columnarPositionThreshold the minimum number of positions to store in columns
+     */
+    public static void setColumnarPositionThreshold(int columnarPositionThreshold) {
+        BaseColumnarPositionList.columnarPositionThreshold = columnarPositionThreshold;
+    }
+
+    static int grow(int capacity, int minimum) {
+        return max(minimum, capacity + (capacity >> 1) + 1);
+    }
+
+    /**
+     * A column of values with one value per row.
+     */
+    protected abstract static class Column<T> {
+        int id;
+
+        public abstract T get(int row);
+
+        public abstract void set(int row, T value);
+
+        void move(int from, int to) {
+            set(to, get(from));
+        }
+
+        /**
+         * Releases the memory of the rows from the given row count on.
+         */
+        abstract void truncate(int rowCount);
+    }
+
+    protected static class DoubleColumn extends Column<Double> {
+        private double[] values;
+        private final BitSet present = new BitSet();
+
+        public DoubleColumn() {
+        }
+
+        public boolean has(int row) {
+            return present.get(row);
+        }
+
+        public double value(int row) {
+            return values[row];
+        }
+
+        public Double get(int row) {
+            return present.get(row) ? values[row] : null;
+        }
+
+        public void set(int row, Double value) {
+            if (value == null) {
+                present.clear(row);
+                return;
+            }
+            if (values == null || row >= values.length)
+                values = values == null ? new double[grow(0, row + 1)] : Arrays.copyOf(values, grow(values.length, row + 1));
+            values[row] = value;
+            present.set(row);
+        }
+
+        void move(int from, int to) {
+            if (present.get(from)) {
+                values[to] = values[from];
+                present.set(to);
+            } else
+                present.clear(to);
+        }
+
+        void truncate(int rowCount) {
+            present.clear(rowCount, max(rowCount, present.length()));
+            if (values != null && values.length > rowCount)
+                values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    protected static class IntegerColumn extends Column<Integer> {
+        private int[] values;
+        private final BitSet present = new BitSet();
+
+        public Integer get(int row) {
+            return present.get(row) ? values[row] : null;
+        }
+
+        public void set(int row, Integer value) {
+            if (value == null) {
+                present.clear(row);
+                return;
+            }
+            if (values == null || row >= values.length)
+                values = values == null ? new int[grow(0, row + 1)] : Arrays.copyOf(values, grow(values.length, row + 1));
+            values[row] = value;
+            present.set(row);
+        }
+
+        void truncate(int rowCount) {
+            present.clear(rowCount, max(rowCount, present.length()));
+            if (values != null && values.length > rowCount)
+                values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    /**
+     * A column for times that stores the milliseconds and an index into the time zones of the column.
+     */
+    protected static class TimeColumn extends Column<CompactCalendar> {
+        private long[] times;
+        private short[] timeZones;
+        private final BitSet present = new BitSet();
+        private final List<String> timeZoneIds = new ArrayList<>();
+        private final Map<String, Short> timeZoneIndices = new HashMap<>();
+
+        public boolean has(int row) {
+            return present.get(row);
+        }
+
+        public long value(int row) {
+            return times[row];
+        }
+
+        public CompactCalendar get(int row) {
+            return present.get(row) ? fromMillisAndTimeZone(times[row], timeZoneIds.get(timeZones[row])) : null;
+        }
+
+        public void set(int row, CompactCalendar time) {
+            if (time == null) {
+                present.clear(row);
+                return;
+            }
+            if (times == null || row >= times.length) {
+                int capacity = grow(times != null ? times.length : 0, row + 1);
+                times = times == null ? new long[capacity] : Arrays.copyOf(times, capacity);
+                timeZones = timeZones == null ? new short[capacity] : Arrays.copyOf(timeZones, capacity);
+            }
+            times[row] = time.getTimeInMillis();
+            timeZones[row] = getTimeZoneIndex(time.getTimeZoneId());
+            present.set(row);
+        }
+
+        private short getTimeZoneIndex(String timeZoneId) {
+            Short index = timeZoneIndices.get(timeZoneId);
+            if (index == null) {
+                if (timeZoneIds.size() > Short.MAX_VALUE)
+                    throw new IllegalStateException("Too many time zones");
+                index = (short) timeZoneIds.size();
+                timeZoneIds.add(timeZoneId);
+                timeZoneIndices.put(timeZoneId, index);
+            }
+            return index;
+        }
+
+        void move(int from, int to) {
+            if (present.get(from)) {
+                times[to] = times[from];
+                timeZones[to] = timeZones[from];
+                present.set(to);
+            } else
+                present.clear(to);
+        }
+
+        void truncate(int rowCount) {
+            present.clear(rowCount, max(rowCount, present.length()));
+            if (times != null && times.length > rowCount) {
+                times = Arrays.copyOf(times, rowCount);
+                timeZones = Arrays.copyOf(timeZones, rowCount);
+            }
+        }
+    }
+
+    /**
+     * A column for values that are rare, which is only allocated once a row has a value.
+     */
+    protected static class ObjectColumn<T> extends Column<T> {
+        private Object[] values;
+
+        public ObjectColumn() {
+        }
+
+        @SuppressWarnings("unchecked")
+        public T get(int row) {
+            return values != null && row < values.length ? (T) values[row] : null;
+        }
+
+        public void set(int row, T value) {
+            if (value == null && (values == null || row >= values.length))
+                return;
+            if (values == null || row >= values.length)
+                values = values == null ? new Object[grow(0, row + 1)] : Arrays.copyOf(values, grow(values.length, row + 1));
+            values[row] = value;
+        }
+
+        void truncate(int rowCount) {
+            if (values != null && values.length > rowCount)
+                values = Arrays.copyOf(values, rowCount);
+        }
+    }
+
+    /**
+     * Registers a column whose values are moved when the rows are compacted.
+     */
+    protected <C extends Column<?>> C addColumn(C column) {
+        column.id = columns.size();
+        columns.add(column);
+        return column;
+    }
+
+    /**
+     * The handle of a row that the views on the row share. Once the row is removed from
+     * the list and the rows are compacted, the handle keeps the values of the row.
+     */
+    public static final class Row {
+        private final BaseColumnarPositionList<?> list;
+        private int index;
+        private Object[] values;
+
+        private Row(BaseColumnarPositionList<?> list) {
+            this.list = list;
+        }
+
+        @SuppressWarnings("unchecked")
+        public <T> T get(Column<T> column) {
+            return values != null ? (T) values[column.id] : column.get(index);
+        }
+
+        public <T> void set(Column<T> column, T value) {
+            if (values != null)
+                values[column.id] = value;
+            else
+                column.set(index, value);
+        }
+
+        public Double getLongitude() {
+            return get(list.longitudes);
+        }
+
+        public void setLongitude(Double longitude) {
+            set(list.longitudes, longitude);
+        }
+
+        public Double getLatitude() {
+            return get(list.latitudes);
+        }
+
+        public void setLatitude(Double latitude) {
+            set(list.latitudes, latitude);
+        }
+
+        public Double getElevation() {
+            return get(list.elevations);
+        }
+
+        public void setElevation(Double elevation) {
+            set(list.elevations, elevation);
+        }
+
+        public Double getSpeed() {
+            return get(list.speeds);
+        }
+
+        public void setSpeed(Double speed) {
+            set(list.speeds, speed);
+        }
+
+        public CompactCalendar getTime() {
+            return get(list.times);
+        }
+
+        public void setTime(CompactCalendar time) {
+            set(list.times, time);
+        }
+
+        public boolean hasTime() {
+            return values != null ? values[list.times.id] != null : list.times.has(index);
+        }
+
+        public String getDescription() {
+            return get(list.descriptions);
+        }
+
+        public void setDescription(String description) {
+            set(list.descriptions, description);
+        }
+
+        public Double getHeading() {
+            return get(list.headings);
+        }
+
+        public void setHeading(Double heading) {
+            set(list.headings, heading);
+        }
+
+        public Double getHdop() {
+            return get(list.hdops);
+        }
+
+        public void setHdop(Double hdop) {
+            set(list.hdops, hdop);
+        }
+
+        public Double getVdop() {
+            return get(list.vdops);
+        }
+
+        public void setVdop(Double vdop) {
+            set(list.vdops, vdop);
+        }
+
+        public Double getPdop() {
+            return get(list.pdops);
+        }
+
+        public void setPdop(Double pdop) {
+            set(list.pdops, pdop);
+        }
+
+        public Integer getSatellites() {
+            return get(list.satellites);
+        }
+
+        public void setSatellites(Integer satellites) {
+            set(list.satellites, satellites);
+        }
+
+        public WaypointType getWaypointType() {
+            return get(list.waypointTypes);
+        }
+
+        public void setWaypointType(WaypointType waypointType) {
+            set(list.waypointTypes, waypointType);
+        }
+
+        public Object getOrigin() {
+            return get(list.origins);
+        }
+
+        public void setOrigin(Object origin) {
+            set(list.origins, origin);
+        }
+    }
+
+    /**
+     * @return a view on the given row
+     */
+    protected abstract P createView(Row row);
+
+    /**
+     * @return the class of the positions whose values can be stored in the columns
+     */
+    protected abstract Class<P> getStorableClass();
+
+    /**
+     * Stores the values of the given position that are not part of every position.
+     */
+    protected abstract void appendValues(Row row, P position);
+
+    protected void appendWgs84Values(Row row, Wgs84Position position) {
+        row.setHeading(position.getHeading());
+        row.setHdop(position.getHdop());
+        row.setVdop(position.getVdop());
+        row.setPdop(position.getPdop());
+        row.setSatellites(position.getSatellites());
+        row.setWaypointType(position.getWaypointType());
+        row.setOrigin(position.getOrigin());
+    }
+
+    private boolean isStorable(P position) {
+        return getPositionClass(position) == getStorableClass();
+    }
+
+    private boolean isStorable(List<P> positions) {
+        for (P position : positions) {
+            if (!isStorable(position))
+                return false;
+        }
+        return true;
+    }
+
+    private int allocateRow(Row row) {
+        if (rowCount >= MINIMUM_ROWS_TO_COMPACT && rowCount >= 2 * size)
+            compact();
+        if (rowCount == owners.length)
+            owners = Arrays.copyOf(owners, grow(owners.length, rowCount + 1));
+        owners[rowCount] = row;
+        return rowCount++;
+    }
+
+    private Row appendRow(P position) {
+        Row row = new Row(this);
+        row.index = allocateRow(row);
+        row.setLongitude(position.getLongitude());
+        row.setLatitude(position.getLatitude());
+        row.setElevation(position.getElevation());
+        row.setSpeed(position.getSpeed());
+        row.setTime(position.getTime());
+        // copy the description without parsing it again
+        row.setDescription(position.getDescription());
+        appendValues(row, position);
+        return row;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void attachRow(Row row) {
+        int index = allocateRow(row);
+        for (Column<?> column : columns)
+            ((Column<Object>) column).set(index, row.values[column.id]);
+        row.values = null;
+        row.index = index;
+    }
+
+    private void detachRow(Row row) {
+        Object[] values = new Object[columns.size()];
+        for (Column<?> column : columns)
+            values[column.id] = column.get(row.index);
+        row.values = values;
+        row.index = -1;
+    }
+
+    /**
+     * Moves the rows of the list to the front of the columns and the values of
+     * the other rows to their handles.
+     */
+    private void compact() {
+        BitSet live = new BitSet(rowCount);
+        for (int i = 0; i < size; i++)
+            live.set(rows[i].index);
+
+        int count = 0;
+        for (int index = 0; index < rowCount; index++) {
+            Row row = owners[index];
+            if (!live.get(index)) {
+                detachRow(row);
+                continue;
+            }
+            if (index != count) {
+                for (Column<?> column : columns)
+                    column.move(index, count);
+                row.index = count;
+                owners[count] = row;
+            }
+            count++;
+        }
+
+        for (Column<?> column : columns)
+            column.truncate(count);
+        owners = Arrays.copyOf(owners, max(grow(count, count), 10));
+        rowCount = count;
+    }
+
+    private Row rowOf(P position) {
+        Row row = position.getColumnarRow();
+        if (row != null && row.list == this) {
+            if (row.values != null)
+                attachRow(row);
+            return row;
+        }
+        return appendRow(position);
+    }
+
+    /**
+     * @return true if the positions are stored in columns
+     */
+    public boolean isColumnar() {
+        return objects == null;
+    }
+
+    /**
+     * Moves the positions from objects to columns unless some of them have
+     * values that would be lost.
+     *
+     * @return true if the positions are stored in columns afterwards
+     */
+    public boolean useColumns() {
+        if (isColumnar())
+            return true;
+        if (!storable || !isStorable(objects)) {
+            storable = false;
+            return false;
+        }
+        List<P> positions = objects;
+        objects = null;
+        ensureCapacity(positions.size());
+        for (P position : positions)
+            rows[size++] = rowOf(position);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Keeps the positions as views on their rows since a position is added whose values would be lost.
+     */
+    private void useObjects() {
+        List<P> positions = new ArrayList<>(max(size, 10));
+        for (int i = 0; i < size; i++)
+            positions.add(createView(rows[i]));
+        objects = positions;
+        storable = false;
+        rows = new Row[0];
+        size = 0;
+    }
+
+    private void ensureCapacity(int minimum) {
+        if (minimum > rows.length)
+            rows = Arrays.copyOf(rows, grow(rows.length, minimum));
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+    }
+
+    public int size() {
+        return objects != null ? objects.size() : size;
+    }
+
+    public P get(int index) {
+        if (objects != null)
+            return objects.get(index);
+        checkIndex(index);
+        return createView(rows[index]);
+    }
+
+    public P set(int index, P position) {
+        if (objects == null && !isStorable(position))
+            useObjects();
+        if (objects != null)
+            return objects.set(index, position);
+        checkIndex(index);
+        P previous = createView(rows[index]);
+        rows[index] = rowOf(position);
+        return previous;
+    }
+
+    public void add(int index, P position) {
+        if (objects == null && !isStorable(position))
+            useObjects();
+        if (objects != null) {
+            objects.add(index, position);
+            modCount++;
+            int threshold = columnarPositionThreshold;
+            if (storable && threshold >= 0 && objects.size() >= threshold)
+                useColumns();
+            return;
+        }
+
+        if (index < 0 || index > size)
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        Row row = rowOf(position);
+        ensureCapacity(size + 1);
+        System.arraycopy(rows, index, rows, index + 1, size - index);
+        rows[index] = row;
+        size++;
+        modCount++;
+    }
+
+    public P remove(int index) {
+        if (objects != null) {
+            modCount++;
+            return objects.remove(index);
+        }
+        checkIndex(index);
+        P previous = createView(rows[index]);
+        System.arraycopy(rows, index + 1, rows, index, size - index - 1);
+        rows[--size] = null;
+        modCount++;
+        return previous;
+    }
+
+    public void clear() {
+        if (objects != null)
+            objects.clear();
+        Arrays.fill(rows, 0, size, null);
+        size = 0;
+        modCount++;
+    }
+
+    /**
+     * @return the number of rows in the columns including the rows that are no longer part of the list
+     */
+    int getRowCount() {
+        return rowCount;
+    }
+
+    private boolean hasCoordinates(int row) {
+        return longitudes.has(row) && latitudes.has(row);
+    }
+
+    // the calculations below require the positions to be stored in columns
+
+    public double getDistance(int startIndex, int endIndex) {
+        double result = 0;
+        for (int i = startIndex + 1; i <= endIndex; i++) {
+            int previous = rows[i - 1].index, next = rows[i].index;
+            if (!hasCoordinates(previous) || !hasCoordinates(next))
+                continue;
+            double distance = calculateVincentyDistance(longitudes.value(previous), latitudes.value(previous),
+                    longitudes.value(next), latitudes.value(next));
+            if (!isNaN(distance))
+                result += distance;
+        }
+        return result;
+    }
+
+    /**
+     * @return the time of the position at the given index in milliseconds or
+     * {@link CumulativeIndex#NO_TIME} if it has no time
+     */
+    long getTimeInMillis(int index) {
+        int row = rows[index].index;
+        return times.has(row) ? times.value(row) : CumulativeIndex.NO_TIME;
+    }
+
+    long getTimeDelta(int previousIndex, int nextIndex) {
+        int previous = rows[previousIndex].index, next = rows[nextIndex].index;
+        return times.has(previous) && times.has(next) ? times.value(next) - times.value(previous) : 0L;
+    }
+
+    private double getElevationDelta(int startIndex, int endIndex, boolean ascend) {
+        double result = 0;
+        for (int i = startIndex + 1; i <= endIndex; i++) {
+            int previous = rows[i - 1].index, next = rows[i].index;
+            if (!elevations.has(previous) || !elevations.has(next))
+                continue;
+            double elevation = elevations.value(next) - elevations.value(previous);
+            if (ascend && elevation > 0)
+                result += elevation;
+            else if (!ascend && elevation < 0)
+                result += abs(elevation);
+        }
+        return result;
+    }
+
+    public double getElevationAscend(int startIndex, int endIndex) {
+        return getElevationDelta(startIndex, endIndex, true);
+    }
+
+    public double getElevationDescend(int startIndex, int endIndex) {
+        return getElevationDelta(startIndex, endIndex, false);
+    }
+}
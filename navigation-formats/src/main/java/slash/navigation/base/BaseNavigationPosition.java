@@ -21,8 +21,11 @@
 package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.BaseColumnarPositionList.Row;
 import slash.navigation.bcr.BcrPosition;
 import slash.navigation.common.Bearing;
+import slash.navigation.common.DistanceAccuracy;
+import slash.navigation.common.Geodesy;
 import slash.navigation.common.NavigationPosition;
 import slash.navigation.fpl.GarminFlightPlanPosition;
 import slash.navigation.gopal.GoPalPosition;
@@ -39,8 +42,9 @@ import static java.lang.Double.isNaN;
 import static java.lang.Math.*;
 import static java.util.Calendar.*;
 import static slash.common.type.CompactCalendar.fromCalendar;
-import static slash.navigation.common.Bearing.EARTH_RADIUS;
 import static slash.navigation.common.Bearing.calculateBearing;
+import static slash.navigation.common.DistanceAccuracy.Exact;
+import static slash.navigation.common.Geodesy.calculateVincentyDistance;
 
 /**
  * The base of all navigation positions.
@@ -50,12 +54,32 @@ import static slash.navigation.common.Bearing.calculateBearing;
 
 public abstract class BaseNavigationPosition implements NavigationPosition {
 
+    /**
+     * @return the row that stores the values of this position if it is a view of
+     * a {@link BaseColumnarPositionList} or <code>null</code>
+     */
+    protected Row getColumnarRow() {
+        return null;
+    }
+
+    /**
+     * @return the class of the given object where views of a {@link BaseColumnarPositionList}
+     * are of the class of the positions they represent
+     */
+    protected static Class<?> getPositionClass(Object o) {
+        Class<?> result = o.getClass();
+        if (o instanceof BaseNavigationPosition && ((BaseNavigationPosition) o).getColumnarRow() != null)
+            result = result.getSuperclass();
+        return result;
+    }
+
     public boolean hasCoordinates() {
         return getLongitude() != null && getLatitude() != null;
     }
 
     public boolean hasTime() {
-        return getTime() != null;
+        Row row = getColumnarRow();
+        return row != null ? row.hasTime() : getTime() != null;
     }
 
     public boolean hasSpeed() {
@@ -79,8 +103,17 @@ public abstract class BaseNavigationPosition implements NavigationPosition {
 
     public Double calculateDistance(double longitude, double latitude) {
         if (hasCoordinates()) {
-            Bearing bearing = calculateBearing(getLongitude(), getLatitude(), longitude, latitude);
-            double distance = bearing.getDistance();
+            double distance = calculateVincentyDistance(getLongitude(), getLatitude(), longitude, latitude);
+            if (!isNaN(distance))
+                return distance;
+        }
+        return null;
+    }
+
+    public Double calculateDistance(NavigationPosition other, DistanceAccuracy accuracy) {
+        if (hasCoordinates() && other.hasCoordinates()) {
+            double distance = Geodesy.calculateDistance(accuracy, getLongitude(), getLatitude(),
+                    other.getLongitude(), other.getLatitude());
             if (!isNaN(distance))
                 return distance;
         }
@@ -110,13 +143,13 @@ public abstract class BaseNavigationPosition implements NavigationPosition {
     }
 
     public Double calculateOrthogonalDistance(NavigationPosition pointA, NavigationPosition pointB) {
+        return calculateOrthogonalDistance(pointA, pointB, Exact);
+    }
+
+    public Double calculateOrthogonalDistance(NavigationPosition pointA, NavigationPosition pointB, DistanceAccuracy accuracy) {
         if (hasCoordinates() && pointA.hasCoordinates() && pointB.hasCoordinates()) {
-            Bearing bearingAD = calculateBearing(pointA.getLongitude(), pointA.getLatitude(), getLongitude(), getLatitude());
-            Double distanceAtoD = bearingAD.getDistance();
-            double courseAtoD = toRadians(bearingAD.getAngle());
-            double courseAtoB = toRadians(pointA.calculateAngle(pointB));
-            return asin(sin(distanceAtoD / EARTH_RADIUS) *
-                    sin(courseAtoD - courseAtoB)) * EARTH_RADIUS;
+            return Geodesy.calculateOrthogonalDistance(accuracy, getLongitude(), getLatitude(),
+                    pointA.getLongitude(), pointA.getLatitude(), pointB.getLongitude(), pointB.getLatitude());
         }
         return null;
     }
@@ -127,11 +127,8 @@ import java.util.Comparator;
 import java.util.List;
 
 import static java.lang.Double.MAX_VALUE;
-import static java.lang.Math.abs;
-import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.util.Arrays.asList;
-import static java.util.Arrays.binarySearch;
 import static slash.common.io.Transfer.toArray;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromCalendar;
@@ -148,6 +145,9 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     private static final String REVERSE_ROUTE_NAME_POSTFIX = " (rev)";
     private F format;
     private RouteCharacteristics characteristics;
+    private final CumulativeIndex cumulativeIndex = new CumulativeIndex();
+    private final SpatialIndex spatialIndex = new SpatialIndex();
+    private final TimeIndex timeIndex = new TimeIndex();
 
     protected BaseRoute(F format, RouteCharacteristics characteristics) {
         this.format = format;
@@ -176,12 +176,51 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
 
     public abstract int getPositionCount();
 
+    /**
+     * @return true if the positions are stored in primitive columns, see {@link BaseColumnarPositionList}
+     */
+    public boolean isColumnar() {
+        List<P> positions = getPositions();
+        return positions instanceof BaseColumnarPositionList && ((BaseColumnarPositionList) positions).isColumnar();
+    }
+
+    /**
+     * Announces that the positions from the given index on have been changed, added or
+     * removed so that the cached distances, times and elevations from the start, the
+     * spatial index and the time index are calculated again. Changes by the methods of this route are announced automatically,
+     * changes of the values of positions have to be announced by their editor.
+     *
+     * @param fromIndex the index of the first changed position
+     */
+    public void invalidateFrom(int fromIndex) {
+        int positionCount = getPositionCount();
+        cumulativeIndex.invalidate(fromIndex, positionCount);
+        spatialIndex.invalidate(fromIndex, positionCount);
+        timeIndex.invalidate(fromIndex, positionCount);
+    }
+
+    /**
+     * Announces that the values of the positions from the first to the last index have
+     * been changed while no positions have been added or removed. Other than with
+     * {@link #invalidateFrom(int)} the spatial index moves only the changed positions.
+     *
+     * @param firstIndex the index of the first changed position
+     * @param lastIndex the index of the last changed position
+     */
+    public void invalidate(int firstIndex, int lastIndex) {
+        int positionCount = getPositionCount();
+        cumulativeIndex.invalidate(firstIndex, positionCount);
+        spatialIndex.update(getPositions(), firstIndex, lastIndex);
+        timeIndex.invalidate(firstIndex, positionCount);
+    }
+
     private void move(int index, int upOrDown) {
         List<P> positions = getPositions();
         P move = positions.get(index);
         P replace = positions.get(index + upOrDown);
         positions.set(index + upOrDown, move);
         positions.set(index, replace);
+        invalidateFrom(min(index, index + upOrDown));
     }
 
     public void top(int index, int topOffset) {
@@ -212,7 +251,9 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
 
     public P remove(int index) {
         List<P> positions = getPositions();
-        return positions.remove(index);
+        P result = positions.remove(index);
+        invalidateFrom(index);
+        return result;
     }
 
     /**
@@ -227,6 +268,7 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
             P next = positions.get(index);
             if (previous != null && (!next.hasCoordinates() || next.calculateDistance(previous) <= 0.0)) {
                 positions.remove(index);
+                invalidateFrom(index);
             } else
                 index++;
             previous = next;
@@ -243,8 +285,10 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
 
         List<P> positions = getPositions();
         P first = positions.get(0);
-        if (!first.hasTime())
+        if (!first.hasTime()) {
             first.setTime(fromCalendar(Calendar.getInstance(UTC)));
+            invalidateFrom(0);
+        }
 
         P previous = first;
         for (int i = 1; i < positions.size(); i++) {
@@ -256,18 +300,25 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
                 if (millis == null || millis < 1000)
                     millis = 1000L;
                 next.setTime(fromMillisAndTimeZone(previous.getTime().getTimeInMillis() + millis, previous.getTime().getTimeZoneId()));
+                invalidateFrom(i);
             }
             previous = next;
         }
     }
 
     public int[] getContainedPositions(BoundingBox boundingBox) {
-        List<Integer> result = new ArrayList<>();
         List<P> positions = getPositions();
-        for (int i = 0; i < positions.size(); i++) {
-            P position = positions.get(i);
+        int[] candidates = spatialIndex.getCandidates(positions,
+                boundingBox.getSouthWest().getLongitude(), boundingBox.getSouthWest().getLatitude(),
+                boundingBox.getNorthEast().getLongitude(), boundingBox.getNorthEast().getLatitude());
+        int count = candidates != null ? candidates.length : positions.size();
+
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int index = candidates != null ? candidates[i] : i;
+            P position = positions.get(index);
             if (position.hasCoordinates() && boundingBox.contains(position))
-                result.add(i);
+                result.add(index);
         }
         return toArray(result);
     }
@@ -307,34 +358,59 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
         double closestDistance = MAX_VALUE;
 
         List<P> positions = getPositions();
-        for (int i = 0; i < positions.size(); ++i) {
-            P position = positions.get(i);
+        int[] candidates = spatialIndex.getCandidates(positions, longitude, latitude, threshold);
+        int count = candidates != null ? candidates.length : positions.size();
+        for (int i = 0; i < count; ++i) {
+            int index = candidates != null ? candidates[i] : i;
+            P position = positions.get(index);
             Double distance = position.calculateDistance(longitude, latitude);
             if (distance != null && distance < closestDistance && distance <= threshold) {
                 closestDistance = distance;
-                closestIndex = i;
+                closestIndex = index;
             }
         }
         return closestIndex;
     }
 
     public int getClosestPosition(CompactCalendar time, long threshold) {
-        int closestIndex = -1;
-        long closestDistance = Long.MAX_VALUE;
+        return timeIndex.getClosestPosition(getPositions(), time.getTimeInMillis(), threshold);
+    }
 
-        List<P> positions = getPositions();
-        for (int i = 0; i < positions.size(); ++i) {
-            P position = positions.get(i);
-            if (!position.hasTime())
-                continue;
+    /**
+     * Finds the positions closest to the given times in one pass.
+     *
+     * @param sortedTimes the times in milliseconds in ascending order
+     * @param threshold the maximum difference in milliseconds
+     * @return the index of the closest position for each time or -1 if there is none within the threshold
+     */
+    public int[] getClosestPositions(long[] sortedTimes, long threshold) {
+        return timeIndex.getClosestPositions(getPositions(), sortedTimes, threshold);
+    }
 
-            long distance = abs(position.getTime().getTimeInMillis() - time.getTimeInMillis());
-            if (distance < closestDistance && distance <= threshold) {
-                closestDistance = distance;
-                closestIndex = i;
-            }
-        }
-        return closestIndex;
+    /**
+     * Interpolates the coordinates and the elevation between the positions before and after the given time.
+     *
+     * @param time the time to interpolate the position for
+     * @return a new position or null if the time is outside of the route or the surrounding positions
+     *         have no coordinates
+     */
+    public P getInterpolatedPosition(CompactCalendar time) {
+        long millis = time.getTimeInMillis();
+        int[] surrounding = timeIndex.getSurroundingPositions(getPositions(), millis);
+        if (surrounding == null)
+            return null;
+
+        P before = getPosition(surrounding[0]), after = getPosition(surrounding[1]);
+        if (!before.hasCoordinates() || !after.hasCoordinates())
+            return null;
+
+        long beforeMillis = before.getTime().getTimeInMillis(), afterMillis = after.getTime().getTimeInMillis();
+        double ratio = afterMillis > beforeMillis ? (double) (millis - beforeMillis) / (afterMillis - beforeMillis) : 0.0;
+        Double elevation = before.getElevation() != null && after.getElevation() != null ?
+                before.getElevation() + (after.getElevation() - before.getElevation()) * ratio : null;
+        return createPosition(before.getLongitude() + (after.getLongitude() - before.getLongitude()) * ratio,
+                before.getLatitude() + (after.getLatitude() - before.getLatitude()) * ratio,
+                elevation, null, time, null);
     }
 
     public P getPosition(int index) {
@@ -352,30 +428,7 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public long getTime() {
-        CompactCalendar minimum = null, maximum = null;
-        long totalTimeMilliSeconds = 0;
-        List<P> positions = getPositions();
-        P previous = null;
-        for (P next : positions) {
-            if (previous != null) {
-                Long time = previous.calculateTime(next);
-                if (time != null && time > 0)
-                    totalTimeMilliSeconds += time;
-            }
-
-            CompactCalendar calendar = next.getTime();
-            if (calendar == null)
-                continue;
-            if (minimum == null || calendar.before(minimum))
-                minimum = calendar;
-            if (maximum == null || calendar.after(maximum))
-                maximum = calendar;
-
-            previous = next;
-        }
-
-        long maxMinusMin = minimum != null ? maximum.getTimeInMillis() - minimum.getTimeInMillis() : 0;
-        return max(maxMinusMin, totalTimeMilliSeconds);
+        return cumulativeIndex.getTime(getPositions());
     }
 
     public double getDistance() {
@@ -383,147 +436,37 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
     }
 
     public double getDistance(int startIndex, int endIndex) {
-        double result = 0;
-        List<P> positions = getPositions();
-        NavigationPosition previous = null;
-        for (int i = startIndex; i <= endIndex; i++) {
-            NavigationPosition next = positions.get(i);
-            if (previous != null) {
-                Double distance = previous.calculateDistance(next);
-                if (distance != null)
-                    result += distance;
-            }
-            previous = next;
-        }
-        return result;
+        return cumulativeIndex.getDistance(getPositions(), startIndex, endIndex);
     }
 
     public double[] getDistancesFromStart(int startIndex, int endIndex) {
-        double[] result = new double[endIndex - startIndex + 1];
-        List<P> positions = getPositions();
-        int index = 0;
-        double distance = 0.0;
-        NavigationPosition previous = positions.size() > 0 ? positions.get(0) : null;
-        while (index <= endIndex) {
-            NavigationPosition next = positions.get(index);
-            if (previous != null) {
-                Double delta = previous.calculateDistance(next);
-                if (delta != null)
-                    distance += delta;
-                if (index >= startIndex)
-                    result[index - startIndex] = distance;
-            }
-            index++;
-            previous = next;
-        }
-        return result;
+        return cumulativeIndex.getDistancesFromStart(getPositions(), startIndex, endIndex);
     }
 
     public double[] getDistancesFromStart(int[] indices) {
-        double[] result = new double[indices.length];
-        if (indices.length > 0 && getPositionCount() > 0) {
-            Arrays.sort(indices);
-            int endIndex = min(indices[indices.length - 1], getPositionCount() - 1);
-
-            int index = 0;
-            double distance = 0.0;
-            List<P> positions = getPositions();
-            NavigationPosition previous = positions.get(0);
-            while (index <= endIndex) {
-                NavigationPosition next = positions.get(index);
-                if (previous != null) {
-                    Double delta = previous.calculateDistance(next);
-                    if (delta != null)
-                        distance += delta;
-                    int indexInIndices = binarySearch(indices, index);
-                    if (indexInIndices >= 0)
-                        result[indexInIndices] = distance;
-                }
-                index++;
-                previous = next;
-            }
-        }
-        return result;
+        if (indices.length == 0 || getPositionCount() == 0)
+            return new double[indices.length];
+        Arrays.sort(indices);
+        return cumulativeIndex.getDistancesFromStart(getPositions(), indices);
     }
 
     public long[] getTimesFromStart(int startIndex, int endIndex) {
-        long[] result = new long[endIndex - startIndex + 1];
-        List<P> positions = getPositions();
-        int index = 0;
-        long time = 0L;
-        NavigationPosition previous = positions.size() > 0 ? positions.get(0) : null;
-        while (index <= endIndex) {
-            NavigationPosition next = positions.get(index);
-            if (previous != null) {
-                Long delta = previous.calculateTime(next);
-                if (delta != null)
-                    time += delta;
-                if (index >= startIndex)
-                    result[index - startIndex] = time;
-            }
-            index++;
-            previous = next;
-        }
-        return result;
+        return cumulativeIndex.getTimesFromStart(getPositions(), startIndex, endIndex);
     }
 
     public long[] getTimesFromStart(int[] indices) {
-        long[] result = new long[indices.length];
-        if (indices.length > 0 && getPositionCount() > 0) {
-            Arrays.sort(indices);
-            int endIndex = min(indices[indices.length - 1], getPositionCount() - 1);
-
-            int index = 0;
-            long time = 0L;
-            List<P> positions = getPositions();
-            NavigationPosition previous = positions.get(0);
-            while (index <= endIndex) {
-                NavigationPosition next = positions.get(index);
-                if (previous != null) {
-                    Long delta = previous.calculateTime(next);
-                    if (delta != null)
-                        time += delta;
-                    int indexInIndices = binarySearch(indices, index);
-                    if (indexInIndices >= 0)
-                        result[indexInIndices] = time;
-                }
-                index++;
-                previous = next;
-            }
-        }
-        return result;
+        if (indices.length == 0 || getPositionCount() == 0)
+            return new long[indices.length];
+        Arrays.sort(indices);
+        return cumulativeIndex.getTimesFromStart(getPositions(), indices);
     }
 
     public double getElevationAscend(int startIndex, int endIndex) {
-        double result = 0;
-        List<P> positions = getPositions();
-        NavigationPosition previous = null;
-        for (int i = startIndex; i <= endIndex; i++) {
-            NavigationPosition next = positions.get(i);
-            if (previous != null) {
-                Double elevation = previous.calculateElevation(next);
-                if (elevation != null && elevation > 0)
-                    result += elevation;
-            }
-            previous = next;
-        }
-        return result;
+        return cumulativeIndex.getElevationAscend(getPositions(), startIndex, endIndex);
     }
 
     public double getElevationDescend(int startIndex, int endIndex) {
-        double result = 0;
-        List<P> positions = getPositions();
-        NavigationPosition previous = null;
-        for (int i = startIndex; i <= endIndex; i++) {
-            NavigationPosition next = positions.get(i);
-            if (previous != null) {
-                Double elevation = previous.calculateElevation(next);
-                if (elevation != null && elevation < 0)
-                    result += abs(elevation);
-            }
-            previous = next;
-        }
-        return result;
+        return cumulativeIndex.getElevationDescend(getPositions(), startIndex, endIndex);
     }
 
     public double getElevationDelta(int index) {
@@ -552,6 +495,7 @@ public abstract class BaseRoute<P extends BaseNavigationPosition, F extends Base
         for (int i = 0; i < positions.size(); i++) {
             existing.set(i, positions.get(i));
         }
+        invalidateFrom(0);
     }
 
     public void revert() {
@@ -0,0 +1,63 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.List;
+
+/**
+ * A {@link BaseColumnarPositionList} of {@link Wgs84Position}s.
+ *
+ * @author Christian Pesch
+ */
+
+public class ColumnarPositionList extends BaseColumnarPositionList<Wgs84Position> {
+    public ColumnarPositionList() {
+    }
+
+    public ColumnarPositionList(List<? extends Wgs84Position> positions) {
+        super(positions.size());
+        addAll(positions);
+    }
+
+    protected Wgs84Position createView(Row row) {
+        return new ColumnarPosition(row);
+    }
+
+    protected Class<Wgs84Position> getStorableClass() {
+        return Wgs84Position.class;
+    }
+
+    protected void appendValues(Row row, Wgs84Position position) {
+        appendWgs84Values(row, position);
+    }
+
+    private static class ColumnarPosition extends Wgs84Position {
+        private final Row row;
+
+        private ColumnarPosition(Row row) {
+            this.row = row;
+        }
+
+        protected Row getColumnarRow() {
+            return row;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.common.type.CompactCalendar;
+import slash.navigation.common.NavigationPosition;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static slash.navigation.base.BaseColumnarPositionList.grow;
+
+/**
+ * Caches the distance, time, ascend and descend from the first position to every
+ * position of a route. Only the prefix up to the first changed position remains
+ * valid after a change, the suffix is calculated again on demand.
+ *
+ * Ranges from the first position and times are answered from the sums. Other ranges
+ * add up the cached segments in the same order as before to return exactly the same
+ * values without calculating a single distance. The time of the route is answered from
+ * the minimum, maximum and summed up positive times between positions with a time.
+ *
+ * @author Christian Pesch
+ */
+
+class CumulativeIndex {
+    static final long NO_TIME = Long.MIN_VALUE;
+
+    private double[] distances = new double[0], ascends = new double[0], descends = new double[0];
+    private double[] distanceSegments = new double[0], ascendSegments = new double[0], descendSegments = new double[0];
+    private long[] times = new long[0];
+    private long[] positiveTimes = new long[0], minimumTimes = new long[0], maximumTimes = new long[0], lastTimes = new long[0];
+    private int validCount = 0, positionCount = 0;
+
+    /**
+     * Invalidates the values from the given index on.
+     *
+     * @param fromIndex the index of the first changed position
+     * @param positionCount the number of positions after the change
+     */
+    synchronized void invalidate(int fromIndex, int positionCount) {
+        this.validCount = min(validCount, max(fromIndex, 0));
+        this.positionCount = positionCount;
+    }
+
+    private void ensure(List<? extends NavigationPosition> positions, int endIndex) {
+        int size = positions.size();
+        // the positions have been changed without invalidation
+        if (size != positionCount) {
+            validCount = 0;
+            positionCount = size;
+        }
+        if (endIndex < validCount)
+            return;
+        if (endIndex >= size)
+            throw new IndexOutOfBoundsException("Index: " + endIndex + ", Size: " + size);
+
+        if (distances.length < size) {
+            int capacity = grow(distances.length, size);
+            distances = Arrays.copyOf(distances, capacity);
+            ascends = Arrays.copyOf(ascends, capacity);
+            descends = Arrays.copyOf(descends, capacity);
+            distanceSegments = Arrays.copyOf(distanceSegments, capacity);
+            ascendSegments = Arrays.copyOf(ascendSegments, capacity);
+            descendSegments = Arrays.copyOf(descendSegments, capacity);
+            times = Arrays.copyOf(times, capacity);
+            positiveTimes = Arrays.copyOf(positiveTimes, capacity);
+            minimumTimes = Arrays.copyOf(minimumTimes, capacity);
+            maximumTimes = Arrays.copyOf(maximumTimes, capacity);
+            lastTimes = Arrays.copyOf(lastTimes, capacity);
+        }
+
+        boolean columnar = positions instanceof BaseColumnarPositionList && ((BaseColumnarPositionList) positions).isColumnar();
+        BaseColumnarPositionList columns = columnar ? (BaseColumnarPositionList) positions : null;
+
+        int index = validCount;
+        if (index == 0) {
+            distances[0] = 0.0;
+            ascends[0] = 0.0;
+            descends[0] = 0.0;
+            times[0] = 0L;
+            setTimeSpan(0, columnar ? columns.getTimeInMillis(0) : getTimeInMillis(positions.get(0)));
+            index = 1;
+        }
+
+        if (columnar) {
+            for (; index <= endIndex; index++) {
+                set(index, columns.getDistance(index - 1, index), columns.getTimeDelta(index - 1, index),
+                        columns.getElevationAscend(index - 1, index), columns.getElevationDescend(index - 1, index));
+                setTimeSpan(index, columns.getTimeInMillis(index));
+            }
+            validCount = endIndex + 1;
+            return;
+        }
+
+        NavigationPosition previous = positions.get(index - 1);
+        for (; index <= endIndex; index++) {
+            NavigationPosition next = positions.get(index);
+            Double distance = previous.calculateDistance(next);
+            Long time = previous.calculateTime(next);
+            Double elevation = previous.calculateElevation(next);
+            set(index, distance != null ? distance : 0.0, time != null ? time : 0L,
+                    elevation != null && elevation > 0 ? elevation : 0.0,
+                    elevation != null && elevation < 0 ? abs(elevation) : 0.0);
+            setTimeSpan(index, getTimeInMillis(next));
+            previous = next;
+        }
+        validCount = endIndex + 1;
+    }
+
+    private static long getTimeInMillis(NavigationPosition position) {
+        CompactCalendar time = position.getTime();
+        return time != null ? time.getTimeInMillis() : NO_TIME;
+    }
+
+    private void setTimeSpan(int index, long time) {
+        long last = index > 0 ? lastTimes[index - 1] : NO_TIME;
+        long positive = index > 0 ? positiveTimes[index - 1] : 0L;
+        long minimum = index > 0 ? minimumTimes[index - 1] : NO_TIME;
+        long maximum = index > 0 ? maximumTimes[index - 1] : NO_TIME;
+        if (time != NO_TIME) {
+            // only positive times between subsequent positions with a time are summed up
+            if (last != NO_TIME && time > last)
+                positive += time - last;
+            if (minimum == NO_TIME || time < minimum)
+                minimum = time;
+            if (maximum == NO_TIME || time > maximum)
+                maximum = time;
+            last = time;
+        }
+        positiveTimes[index] = positive;
+        minimumTimes[index] = minimum;
+        maximumTimes[index] = maximum;
+        lastTimes[index] = last;
+    }
+
+    private void set(int index, double distance, long time, double ascend, double descend) {
+        distanceSegments[index] = distance;
+        ascendSegments[index] = ascend;
+        descendSegments[index] = descend;
+        distances[index] = distances[index - 1] + distance;
+        ascends[index] = ascends[index - 1] + ascend;
+        descends[index] = descends[index - 1] + descend;
+        times[index] = times[index - 1] + time;
+    }
+
+    private static double sum(double[] sums, double[] segments, int startIndex, int endIndex) {
+        if (startIndex <= 0)
+            return sums[endIndex];
+        double result = 0.0;
+        for (int i = startIndex + 1; i <= endIndex; i++)
+            result += segments[i];
+        return result;
+    }
+
+    synchronized double getDistance(List<? extends NavigationPosition> positions, int startIndex, int endIndex) {
+        if (endIndex <= startIndex)
+            return 0.0;
+        ensure(positions, endIndex);
+        return sum(distances, distanceSegments, startIndex, endIndex);
+    }
+
+    /**
+     * @return the maximum of the time from the earliest to the latest position and the
+     * summed up positive times between subsequent positions with a time in milliseconds
+     */
+    synchronized long getTime(List<? extends NavigationPosition> positions) {
+        int endIndex = positions.size() - 1;
+        if (endIndex < 0)
+            return 0L;
+        ensure(positions, endIndex);
+        long maxMinusMin = minimumTimes[endIndex] != NO_TIME ? maximumTimes[endIndex] - minimumTimes[endIndex] : 0L;
+        return max(maxMinusMin, positiveTimes[endIndex]);
+    }
+
+    synchronized double getElevationAscend(List<? extends NavigationPosition> positions, int startIndex, int endIndex) {
+        if (endIndex <= startIndex)
+            return 0.0;
+        ensure(positions, endIndex);
+        return sum(ascends, ascendSegments, startIndex, endIndex);
+    }
+
+    synchronized double getElevationDescend(List<? extends NavigationPosition> positions, int startIndex, int endIndex) {
+        if (endIndex <= startIndex)
+            return 0.0;
+        ensure(positions, endIndex);
+        return sum(descends, descendSegments, startIndex, endIndex);
+    }
+
+    synchronized double[] getDistancesFromStart(List<? extends NavigationPosition> positions, int startIndex, int endIndex) {
+        double[] result = new double[endIndex - startIndex + 1];
+        if (result.length > 0) {
+            ensure(positions, endIndex);
+            System.arraycopy(distances, startIndex, result, 0, result.length);
+        }
+        return result;
+    }
+
+    synchronized double[] getDistancesFromStart(List<? extends NavigationPosition> positions, int[] sortedIndices) {
+        double[] result = new double[sortedIndices.length];
+        int endIndex = min(sortedIndices[sortedIndices.length - 1], positions.size() - 1);
+        if (endIndex < 0)
+            return result;
+        ensure(positions, endIndex);
+        for (int i = 0; i < sortedIndices.length; i++) {
+            int index = sortedIndices[i];
+            if (index >= 0 && index <= endIndex)
+                result[i] = distances[index];
+        }
+        return result;
+    }
+
+    synchronized long[] getTimesFromStart(List<? extends NavigationPosition> positions, int startIndex, int endIndex) {
+        long[] result = new long[endIndex - startIndex + 1];
+        if (result.length > 0) {
+            ensure(positions, endIndex);
+            System.arraycopy(times, startIndex, result, 0, result.length);
+        }
+        return result;
+    }
+
+    synchronized long[] getTimesFromStart(List<? extends NavigationPosition> positions, int[] sortedIndices) {
+        long[] result = new long[sortedIndices.length];
+        int endIndex = min(sortedIndices[sortedIndices.length - 1], positions.size() - 1);
+        if (endIndex < 0)
+            return result;
+        ensure(positions, endIndex);
+        for (int i = 0; i < sortedIndices.length; i++) {
+            int index = sortedIndices[i];
+            if (index >= 0 && index <= endIndex)
+                result[i] = times[index];
+        }
+        return result;
+    }
+}
@@ -0,0 +1,79 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+/**
+ * The metrics of the attempt of a {@link NavigationFormat} to read a stream
+ * within a {@link NavigationFormatParser#read} operation.
+ *
+ * @author Christian Pesch
+ */
+
+public class FormatMetrics {
+    private final String format;
+    private final long nanos, bytes;
+    private final int routes, positions;
+    private final String exception;
+
+    FormatMetrics(String format, long nanos, long bytes, int routes, int positions, Exception exception) {
+        this.format = format;
+        this.nanos = nanos;
+        this.bytes = bytes;
+        this.routes = routes;
+        this.positions = positions;
+        this.exception = exception != null ? exception.getClass().getName() + ": " + exception.getMessage() : null;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * @return the number of bytes the format consumed from the stream
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getRoutes() {
+        return routes;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    /**
+     * @return the exception the format threw and the parser swallowed or null if there was none
+     */
+    public String getException() {
+        return exception;
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[format=" + getFormat() + ", nanos=" + getNanos() + ", bytes=" + getBytes() +
+                ", routes=" + getRoutes() + ", positions=" + getPositions() + ", exception=" + getException() + "]";
+    }
+}
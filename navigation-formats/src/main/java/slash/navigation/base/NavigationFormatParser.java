@@ -40,17 +40,25 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Logger;
 
 import static java.io.File.separatorChar;
+import static java.lang.Math.max;
 import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static slash.common.io.InputOutput.readBytes;
 import static slash.common.io.Transfer.ceiling;
 import static slash.common.type.CompactCalendar.UTC;
 import static slash.common.type.CompactCalendar.fromCalendar;
 import static slash.navigation.base.NavigationFormatConverter.asFormat;
 import static slash.navigation.base.NavigationFormatConverter.convertRoute;
+import static slash.navigation.base.NavigationFormatSniffer.SNIFF_BUFFER_SIZE;
 import static slash.navigation.base.RouteComments.*;
 import static slash.navigation.url.GoogleMapsUrlFormat.isGoogleMapsLinkUrl;
 import static slash.navigation.url.GoogleMapsUrlFormat.isGoogleMapsProfileUrl;
@@ -65,8 +73,15 @@ import static slash.navigation.url.MotoPlanerUrlFormat.isMotoPlanerUrl;
 public class NavigationFormatParser {
     private static final Logger log = Logger.getLogger(NavigationFormatParser.class.getName());
     private static final int READ_BUFFER_SIZE = 1024 * 1024;
+    private static final List<ParserMetricsListener> defaultMetricsListeners = new CopyOnWriteArrayList<>();
     private final NavigationFormatRegistry navigationFormatRegistry;
     private final List<NavigationFormatParserListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<NavigationFormatSkippingListener> skippingListeners = new CopyOnWriteArrayList<>();
+    private final List<ParserMetricsListener> metricsListeners = new CopyOnWriteArrayList<>();
+    private final NavigationFormatSniffer sniffer = new NavigationFormatSniffer();
+    private boolean sniffing = false;
+    private int probingParallelism = 1;
+    private ForkJoinPool probingPool;
 
     public NavigationFormatParser(NavigationFormatRegistry navigationFormatRegistry) {
         this.navigationFormatRegistry = navigationFormatRegistry;
@@ -76,6 +91,46 @@ public class NavigationFormatParser {
         return navigationFormatRegistry;
     }
 
+    public boolean isSniffing() {
+        return sniffing;
+    }
+
+    /**
+     * If the head of a stream has a conclusive signature, only the formats matching it are
+     * tried first. Formats of a higher priority that don't match the signature but would read
+     * the stream, too, are skipped then. Thus a sniffed read may return another format than
+     * the exhaustive loop over all formats in priority order. Sniffing is off by default.
+     *
+     * @param sniffing true to sniff the head of a stream before reading
+     */
+    public void setSniffing(boolean sniffing) {
+        this.sniffing = sniffing;
+    }
+
+    public int getProbingParallelism() {
+        return probingParallelism;
+    }
+
+    /**
+     * Formats that are not ruled out by sniffing are probed on a pool of the given number of threads
+     * if the parallelism is larger than 1. The listeners are then notified from the threads of the pool.
+     *
+     * @param probingParallelism the number of threads to probe formats
+     */
+    public synchronized void setProbingParallelism(int probingParallelism) {
+        this.probingParallelism = probingParallelism;
+        if (probingPool != null) {
+            probingPool.shutdown();
+            probingPool = null;
+        }
+    }
+
+    private synchronized ForkJoinPool getProbingPool() {
+        if (probingPool == null)
+            probingPool = new ForkJoinPool(probingParallelism);
+        return probingPool;
+    }
+
     public void addNavigationFileParserListener(NavigationFormatParserListener listener) {
         listeners.add(listener);
     }
@@ -84,6 +139,51 @@ public class NavigationFormatParser {
         listeners.remove(listener);
     }
 
+    public void addNavigationFormatSkippingListener(NavigationFormatSkippingListener listener) {
+        skippingListeners.add(listener);
+    }
+
+    public void removeNavigationFormatSkippingListener(NavigationFormatSkippingListener listener) {
+        skippingListeners.remove(listener);
+    }
+
+    public void addParserMetricsListener(ParserMetricsListener listener) {
+        metricsListeners.add(listener);
+    }
+
+    public void removeParserMetricsListener(ParserMetricsListener listener) {
+        metricsListeners.remove(listener);
+    }
+
+    /**
+     * Adds a listener for the metrics of all parsers, i.e. to collect statistics for the application.
+     */
+    public static void addDefaultParserMetricsListener(ParserMetricsListener listener) {
+        defaultMetricsListeners.add(listener);
+    }
+
+    public static void removeDefaultParserMetricsListener(ParserMetricsListener listener) {
+        defaultMetricsListeners.remove(listener);
+    }
+
+    private void notifyRead(ReadMetrics metrics) {
+        for (ParserMetricsListener listener : defaultMetricsListeners) {
+            listener.read(metrics);
+        }
+        for (ParserMetricsListener listener : metricsListeners) {
+            listener.read(metrics);
+        }
+    }
+
+    private void notifyWritten(WriteMetrics metrics) {
+        for (ParserMetricsListener listener : defaultMetricsListeners) {
+            listener.written(metrics);
+        }
+        for (ParserMetricsListener listener : metricsListeners) {
+            listener.written(metrics);
+        }
+    }
+
     private void notifyReading(NavigationFormat<BaseRoute> format) {
         for (NavigationFormatParserListener listener : listeners) {
             listener.reading(format);
@@ -97,45 +197,174 @@ public class NavigationFormatParser {
         return positionCounts;
     }
 
+    private int getPositionCount(List<BaseRoute> routes, int fromIndex) {
+        int positionCount = 0;
+        for (int i = fromIndex; i < routes.size(); i++)
+            positionCount += routes.get(i).getPositionCount();
+        return positionCount;
+    }
+
     @SuppressWarnings("unchecked")
-    private void internalRead(InputStream buffer, CompactCalendar startDate,
-                              List<NavigationFormat> formats, ParserContext context) throws IOException {
-        int routeCountBefore = context.getRoutes().size();
-        NavigationFormat firstSuccessfulFormat = null;
+    private void notifySkipping(Map<NavigationFormat, String> skipped) {
+        for (Map.Entry<NavigationFormat, String> entry : skipped.entrySet()) {
+            for (NavigationFormatSkippingListener listener : skippingListeners) {
+                listener.skipping(entry.getKey(), entry.getValue());
+            }
+        }
+    }
 
-        try {
-            for (NavigationFormat<BaseRoute> format : formats) {
-                notifyReading(format);
+    private SniffResult sniff(InputStream buffer, List<NavigationFormat> formats) throws IOException {
+        // stays within the buffer of the BufferedInputStream, thus reset() works for any mark() limit
+        byte[] head = new byte[SNIFF_BUFFER_SIZE];
+        int length = 0;
+        while (length < head.length) {
+            int count = buffer.read(head, length, head.length - length);
+            if (count == -1)
+                break;
+            length += count;
+        }
+        buffer.reset();
+        return sniffer.sniff(head, length, formats);
+    }
 
-                log.fine(format("Trying to read with %s", format));
-                try {
-                    format.read(buffer, startDate, context);
+    /**
+     * @return true if a route has been read or the stream cannot be read again
+     */
+    @SuppressWarnings("unchecked")
+    private boolean internalRead(CountingInputStream buffer, CompactCalendar startDate, List<NavigationFormat> formats,
+                                 ParserContext context, int routeCountBefore, List<NavigationFormat> successfulFormats,
+                                 ReadMetrics metrics) {
+        for (NavigationFormat<BaseRoute> format : formats) {
+            notifyReading(format);
+
+            log.fine(format("Trying to read with %s", format));
+            int routeCountBeforeFormat = context.getRoutes().size();
+            buffer.restart();
+            long start = nanoTime();
+            Exception exception = null;
+            try {
+                format.read(buffer, startDate, context);
 
-                    // if no route has been read, take the first that didn't throw an exception
-                    if (firstSuccessfulFormat == null)
-                        firstSuccessfulFormat = format;
-                } catch (Exception e) {
-                    log.severe(format("Error reading with %s: %s, %s", format, e.getClass(), e));
-                }
+                // if no route has been read, take the first that didn't throw an exception
+                successfulFormats.add(format);
+            } catch (Exception e) {
+                exception = e;
+                log.severe(format("Error reading with %s: %s, %s", format, e.getClass(), e));
+            }
+            metrics.addFormat(new FormatMetrics(format.getName(), nanoTime() - start, buffer.getConsumed(),
+                    context.getRoutes().size() - routeCountBeforeFormat,
+                    getPositionCount(context.getRoutes(), routeCountBeforeFormat), exception));
 
-                if (context.getRoutes().size() > routeCountBefore) {
-                    context.addFormat(format);
+            if (context.getRoutes().size() > routeCountBefore) {
+                context.addFormat(format);
+                return true;
+            }
+
+            try {
+                buffer.reset();
+            } catch (IOException e) {
+                log.severe("Cannot reset() stream to mark()");
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private NavigationFormat getFirstFormat(List<NavigationFormat> successfulFormats, List<NavigationFormat> formats) {
+        NavigationFormat result = null;
+        for (NavigationFormat format : successfulFormats) {
+            if (result == null || formats.indexOf(format) < formats.indexOf(result))
+                result = format;
+        }
+        return result;
+    }
+
+    /**
+     * @return true if a route has been read
+     */
+    @SuppressWarnings("unchecked")
+    private boolean probe(InputStream buffer, CompactCalendar startDate, List<NavigationFormat> formats,
+                          ParserContext context, List<NavigationFormat> successfulFormats,
+                          ReadMetrics metrics) throws IOException {
+        byte[] bytes = readBytes(buffer);
+        log.fine(format("Probing %d bytes with %d formats in parallel", bytes.length, formats.size()));
+
+        AtomicInteger bestIndex = new AtomicInteger(formats.size());
+        List<FormatProbe> probes = new ArrayList<>(formats.size());
+        ForkJoinPool pool = getProbingPool();
+        for (int i = 0; i < formats.size(); i++) {
+            FormatProbe probe = new FormatProbe(i, formats.get(i), bytes, startDate, bestIndex, metrics);
+            probes.add(probe);
+            pool.execute(probe);
+        }
+
+        // join in priority order: the first probe that read a route wins
+        try {
+            for (FormatProbe probe : probes) {
+                if (probe.getIndex() > bestIndex.get())
                     break;
+
+                boolean found = probe.join();
+                for (NavigationFormat<BaseRoute> format : probe.getContext().getFormats())
+                    context.addFormat(format);
+
+                if (found) {
+                    context.appendRoutes(probe.getContext().getRoutes());
+                    context.addFormat(probe.getFormat());
+                    return true;
                 }
+                if (probe.isSuccessful())
+                    successfulFormats.add(probe.getFormat());
+            }
+            return false;
+        } finally {
+            for (FormatProbe probe : probes)
+                probe.cancel(false);
+        }
+    }
 
-                try {
-                    buffer.reset();
-                } catch (IOException e) {
-                    log.severe("Cannot reset() stream to mark()");
-                    break;
+    @SuppressWarnings("unchecked")
+    private void internalRead(InputStream buffer, CompactCalendar startDate,
+                              List<NavigationFormat> formats, ParserContext context,
+                              ReadMetrics metrics) throws IOException {
+        internalRead(buffer, startDate, formats, context, false, metrics);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void internalRead(InputStream buffer, CompactCalendar startDate,
+                              List<NavigationFormat> formats, ParserContext context,
+                              boolean probeInParallel, ReadMetrics metrics) throws IOException {
+        int routeCountBefore = context.getRoutes().size();
+        List<NavigationFormat> successfulFormats = new ArrayList<>();
+        CountingInputStream counting = new CountingInputStream(buffer);
+
+        try {
+            List<NavigationFormat> remainingFormats = formats;
+            if (isSniffing()) {
+                long start = nanoTime();
+                SniffResult result = sniff(counting, formats);
+                metrics.addSniffNanos(nanoTime() - start);
+                if (result.isConclusive()) {
+                    log.fine(format("Found %s, trying %s", result.getSignature(), result.getCandidates()));
+                    notifySkipping(result.getSkipped());
+                    if (internalRead(counting, startDate, result.getCandidates(), context, routeCountBefore, successfulFormats, metrics))
+                        return;
+
+                    log.info(format("Found %s but no candidate format read a route, trying remaining formats", result.getSignature()));
+                    remainingFormats = new ArrayList<>(formats);
+                    remainingFormats.removeAll(result.getCandidates());
                 }
             }
+            if (probeInParallel && remainingFormats.size() > 1)
+                probe(counting, startDate, remainingFormats, context, successfulFormats, metrics);
+            else
+                internalRead(counting, startDate, remainingFormats, context, routeCountBefore, successfulFormats, metrics);
         } finally {
             buffer.close();
         }
 
-        if(context.getRoutes().size() == 0 && firstSuccessfulFormat != null)
-            context.addFormat(firstSuccessfulFormat);
+        if (context.getRoutes().size() == 0 && successfulFormats.size() > 0)
+            context.addFormat(getFirstFormat(successfulFormats, formats));
     }
 
     public ParserResult read(File source, List<NavigationFormat> formats) throws IOException {
@@ -144,7 +373,7 @@ public class NavigationFormatParser {
         NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(fis));
         buffer.mark((int) source.length() + 1);
         try {
-            return read(buffer, (int) source.length(), getStartDate(source), formats);
+            return read(buffer, source.getAbsolutePath(), (int) source.length(), getStartDate(source), formats);
         } finally {
             buffer.closeUnderlyingInputStream();
         }
@@ -186,29 +415,42 @@ public class NavigationFormatParser {
     @SuppressWarnings("unchecked")
     private void commentRoute(BaseRoute route) {
         commentPositions(route.getPositions());
+        // parsing the descriptions may have changed the elevations and times of the positions
+        route.invalidateFrom(0);
         commentRouteName(route);
     }
 
     @SuppressWarnings("unchecked")
-    private ParserResult createResult(ParserContext<BaseRoute> context) throws IOException {
+    private ParserResult createResult(ParserContext<BaseRoute> context, ReadMetrics metrics) throws IOException {
         List<BaseRoute> source = context.getRoutes();
         // if (source != null && source.size() > 0) {
         if (source != null && context.getFormats().size() > 0) {
             NavigationFormat format = determineFormat(source, context.getFormats().get(0));
+            long start = nanoTime();
             List<BaseRoute> destination = convertRoute(source, format);
+            metrics.setConvertNanos(nanoTime() - start);
             log.info("Detected '" + format.getName() + "' with " + destination.size() + " route(s) and " +
                     getPositionCounts(destination) + " positions");
             if(destination.size() == 0)
                 destination.add(format.createRoute(RouteCharacteristics.Route, null, new ArrayList<>()));
+            start = nanoTime();
             commentRoutes(destination);
+            metrics.setCommentNanos(nanoTime() - start);
+            metrics.setResult(format.getName(), destination.size(), getPositionCount(destination, 0));
             return new ParserResult(new FormatAndRoutes(format, destination));
         } else
             return new ParserResult(null);
     }
 
     private class InternalParserContext<R extends BaseRoute> extends ParserContextImpl<R> {
+        private final ReadMetrics metrics;
+
+        private InternalParserContext(ReadMetrics metrics) {
+            this.metrics = metrics;
+        }
+
         public void parse(InputStream inputStream, CompactCalendar startDate, String preferredExtension) throws IOException {
-            internalRead(inputStream, startDate, getNavigationFormatRegistry().getReadFormatsPreferredByExtension(preferredExtension), this);
+            internalRead(inputStream, startDate, getNavigationFormatRegistry().getReadFormatsPreferredByExtension(preferredExtension), this, metrics);
         }
 
         public void parse(String urlString) throws IOException {
@@ -220,22 +462,217 @@ public class NavigationFormatParser {
             NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(url.openStream()));
             buffer.mark(readBufferSize + 1);
             try {
-                internalRead(buffer, getStartDate(url), getNavigationFormatRegistry().getReadFormats(), this);
+                internalRead(buffer, getStartDate(url), getNavigationFormatRegistry().getReadFormats(), this, metrics);
             } finally {
                 buffer.closeUnderlyingInputStream();
             }
         }
     }
 
-    private ParserResult read(InputStream source, int readBufferSize, CompactCalendar startDate,
+    private class FormatProbe extends RecursiveTask<Boolean> {
+        private final int index;
+        private final NavigationFormat<BaseRoute> format;
+        private final byte[] bytes;
+        private final CompactCalendar startDate;
+        private final AtomicInteger bestIndex;
+        private final ReadMetrics metrics;
+        private final ParserContext<BaseRoute> context;
+        private boolean successful;
+
+        private FormatProbe(int index, NavigationFormat<BaseRoute> format, byte[] bytes,
+                            CompactCalendar startDate, AtomicInteger bestIndex, ReadMetrics metrics) {
+            this.index = index;
+            this.format = format;
+            this.bytes = bytes;
+            this.startDate = startDate;
+            this.bestIndex = bestIndex;
+            this.metrics = metrics;
+            this.context = new InternalParserContext<>(metrics);
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public NavigationFormat<BaseRoute> getFormat() {
+            return format;
+        }
+
+        public ParserContext<BaseRoute> getContext() {
+            return context;
+        }
+
+        public boolean isSuccessful() {
+            return successful;
+        }
+
+        private boolean isLoser() {
+            return bestIndex.get() < index;
+        }
+
+        private void checkLoser() throws IOException {
+            if (isLoser())
+                throw new InterruptedIOException("Format with higher priority already read a route");
+        }
+
+        protected Boolean compute() {
+            if (isLoser())
+                return false;
+
+            notifyReading(format);
+
+            log.fine(format("Probing with %s", format));
+            long start = nanoTime();
+            Exception exception = null;
+            ProbeInputStream inputStream = new ProbeInputStream();
+            try {
+                format.read(inputStream, startDate, context);
+                checkLoser();
+                successful = true;
+            } catch (Exception e) {
+                if (!isLoser()) {
+                    exception = e;
+                    log.severe(format("Error reading with %s: %s, %s", format, e.getClass(), e));
+                }
+            }
+            metrics.addFormat(new FormatMetrics(format.getName(), nanoTime() - start, inputStream.getConsumed(),
+                    context.getRoutes().size(), getPositionCount(context.getRoutes(), 0), exception));
+
+            boolean found = context.getRoutes().size() > 0;
+            if (found) {
+                int best = bestIndex.get();
+                while (index < best && !bestIndex.compareAndSet(best, index))
+                    best = bestIndex.get();
+            }
+            return found;
+        }
+
+        // every probe reads from its own stream but the bytes are shared
+        private class ProbeInputStream extends ByteArrayInputStream {
+            private int maximum;
+
+            private ProbeInputStream() {
+                super(bytes);
+            }
+
+            public synchronized int read() {
+                return isLoser() ? -1 : advance(super.read());
+            }
+
+            public synchronized int read(byte[] b, int off, int len) {
+                return isLoser() ? -1 : advance(super.read(b, off, len));
+            }
+
+            private int advance(int result) {
+                maximum = max(maximum, pos);
+                return result;
+            }
+
+            public void close() throws IOException {
+                checkLoser();
+            }
+
+            synchronized long getConsumed() {
+                return maximum;
+            }
+        }
+    }
+
+    /**
+     * Counts the bytes consumed from a stream since the last {@link #restart()} while taking the
+     * {@link #mark(int)} and {@link #reset()} of the formats into account.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+        private long position, markPosition, start, maximum;
+
+        private CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        public int read() throws IOException {
+            int result = super.read();
+            if (result != -1)
+                advance(1);
+            return result;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count > 0)
+                advance(count);
+            return count;
+        }
+
+        public long skip(long n) throws IOException {
+            long count = super.skip(n);
+            advance(count);
+            return count;
+        }
+
+        public synchronized void mark(int readlimit) {
+            super.mark(readlimit);
+            markPosition = position;
+        }
+
+        public synchronized void reset() throws IOException {
+            super.reset();
+            position = markPosition;
+        }
+
+        private void advance(long count) {
+            position += count;
+            if (position > maximum)
+                maximum = position;
+        }
+
+        void restart() {
+            start = maximum = position;
+        }
+
+        long getConsumed() {
+            return maximum - start;
+        }
+    }
+
+    private static class CountingOutputStream extends FilterOutputStream {
+        private long count;
+
+        private CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    private ParserResult read(InputStream source, String description, int readBufferSize, CompactCalendar startDate,
                               List<NavigationFormat> formats) throws IOException {
         log.fine("Reading '" + source + "' with a buffer of " + readBufferSize + " bytes by " + formats.size() + " formats");
-        NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(source));
+        long start = nanoTime();
+        ReadMetrics metrics = new ReadMetrics(description);
+        metrics.setBufferSize(readBufferSize + 1);
+        CountingInputStream counting = new CountingInputStream(source);
+        NotClosingUnderlyingInputStream buffer = new NotClosingUnderlyingInputStream(new BufferedInputStream(counting));
         buffer.mark(readBufferSize + 1);
         try {
-            ParserContext<BaseRoute> context = new InternalParserContext<>();
-            internalRead(buffer, startDate, formats, context);
-            return createResult(context);
+            ParserContext<BaseRoute> context = new InternalParserContext<>(metrics);
+            internalRead(buffer, startDate, formats, context, getProbingParallelism() > 1, metrics);
+            ParserResult result = createResult(context, metrics);
+            metrics.setBytes(counting.getConsumed());
+            metrics.setNanos(nanoTime() - start);
+            notifyRead(metrics);
+            return result;
         } finally {
             buffer.closeUnderlyingInputStream();
         }
@@ -246,11 +683,11 @@ public class NavigationFormatParser {
     }
 
     public ParserResult read(InputStream source) throws IOException {
-        return read(source, READ_BUFFER_SIZE, null, getNavigationFormatRegistry().getReadFormats());
+        return read(source, null, READ_BUFFER_SIZE, null, getNavigationFormatRegistry().getReadFormats());
     }
 
     public ParserResult read(InputStream source, List<NavigationFormat> formats) throws IOException {
-        return read(source, READ_BUFFER_SIZE, null, formats);
+        return read(source, null, READ_BUFFER_SIZE, null, formats);
     }
 
     private int getSize(URL url) throws IOException {
@@ -291,18 +728,18 @@ public class NavigationFormatParser {
             byte[] bytes = url.toExternalForm().getBytes();
             List<NavigationFormat> readFormats = new ArrayList<>(formats);
             readFormats.add(0, new GoogleMapsUrlFormat());
-            return read(new ByteArrayInputStream(bytes), bytes.length, null, readFormats);
+            return read(new ByteArrayInputStream(bytes), url.toExternalForm(), bytes.length, null, readFormats);
 
         } else if (isMotoPlanerUrl(url)) {
             byte[] bytes = url.toExternalForm().getBytes();
             List<NavigationFormat> readFormats = new ArrayList<>(formats);
             readFormats.add(0, new MotoPlanerUrlFormat());
-            return read(new ByteArrayInputStream(bytes), bytes.length, null, readFormats);
+            return read(new ByteArrayInputStream(bytes), url.toExternalForm(), bytes.length, null, readFormats);
         }
 
         int readBufferSize = getSize(url);
         log.info("Reading '" + url + "' with a buffer of " + readBufferSize + " bytes");
-        return read(url.openStream(), readBufferSize, getStartDate(url), formats);
+        return read(url.openStream(), url.toExternalForm(), readBufferSize, getStartDate(url), formats);
     }
 
     public ParserResult read(URL url) throws IOException {
@@ -321,9 +758,14 @@ public class NavigationFormatParser {
                        ParserCallback parserCallback,
                        OutputStream... targets) throws IOException {
         log.info("Writing '" + format.getName() + "' position lists with 1 route and " + route.getPositionCount() + " positions");
+        long start = nanoTime();
+        WriteMetrics metrics = new WriteMetrics(format.getName());
 
         BaseRoute routeToWrite = asFormat(route, format);
+        long commentStart = nanoTime();
+        metrics.addConvertNanos(commentStart - start);
         commentRoute(routeToWrite);
+        metrics.addCommentNanos(nanoTime() - commentStart);
         preprocessRoute(routeToWrite, format, duplicateFirstPosition, parserCallback);
 
         int positionsToWrite = routeToWrite.getPositionCount();
@@ -339,16 +781,26 @@ public class NavigationFormatParser {
         }
 
         int startIndex = 0;
+        long bytes = 0;
         for (int i = 0; i < targets.length; i++) {
-            OutputStream target = targets[i];
+            CountingOutputStream target = new CountingOutputStream(targets[i]);
             int endIndex = min(startIndex + writeInOneChunk, positionsToWrite);
             renameRoute(route, routeToWrite, startIndex, endIndex, i, targets);
+            long writeStart = nanoTime();
             format.write(routeToWrite, target, startIndex, endIndex);
+            metrics.addWriteNanos(nanoTime() - writeStart);
+            bytes += target.getCount();
             log.info("Wrote position list from " + startIndex + " to " + endIndex);
             startIndex += writeInOneChunk;
         }
 
         postProcessRoute(routeToWrite, format, duplicateFirstPosition);
+
+        metrics.addRoute(positionsToWrite);
+        metrics.setFiles(targets.length);
+        metrics.setBytes(bytes);
+        metrics.setNanos(nanoTime() - start);
+        notifyWritten(metrics);
     }
 
     public void write(BaseRoute route, NavigationFormat format, File target) throws IOException {
@@ -408,18 +860,33 @@ public class NavigationFormatParser {
         log.info("Writing '" + format.getName() + "' with with " + routes.size() + " routes and " +
                 getPositionCounts(routes) + " positions");
 
+        long start = nanoTime();
+        WriteMetrics metrics = new WriteMetrics(format.getName());
+
         List<BaseRoute> routesToWrite = new ArrayList<>(routes.size());
         for (BaseRoute route : routes) {
+            long convertStart = nanoTime();
             BaseRoute routeToWrite = asFormat(route, format);
+            long commentStart = nanoTime();
+            metrics.addConvertNanos(commentStart - convertStart);
             commentRoute(routeToWrite);
+            metrics.addCommentNanos(nanoTime() - commentStart);
             preprocessRoute(routeToWrite, format, false, null);
             routesToWrite.add(routeToWrite);
             postProcessRoute(routeToWrite, format, false);
+            metrics.addRoute(routeToWrite.getPositionCount());
         }
 
-        try (OutputStream outputStream = new FileOutputStream(target)) {
+        try (CountingOutputStream outputStream = new CountingOutputStream(new FileOutputStream(target))) {
+            long writeStart = nanoTime();
             format.write(routesToWrite, outputStream);
+            metrics.addWriteNanos(nanoTime() - writeStart);
+            metrics.setFiles(1);
+            metrics.setBytes(outputStream.getCount());
             log.info("Wrote '" + target.getAbsolutePath() + "'");
         }
+
+        metrics.setNanos(nanoTime() - start);
+        notifyWritten(metrics);
     }
 }
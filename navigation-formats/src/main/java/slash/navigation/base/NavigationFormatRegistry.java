@@ -73,6 +73,8 @@ import java.util.List;
 
 import static java.util.Arrays.asList;
 import static java.util.Arrays.sort;
+import static slash.common.helpers.JAXBHelper.initializeContexts;
+import static slash.navigation.gpx.GpxUtil.GPX_11_CONTEXT_CLASSES;
 
 /**
  * Managed the navigation formats.
@@ -290,4 +292,30 @@ public class NavigationFormatRegistry {
         }
         return formats;
     }
+
+    /**
+     * Builds the JAXB contexts of the XML formats on a background thread, the formats that
+     * are read and written most often and the most expensive KML contexts first.
+     *
+     * @return the thread that builds the contexts
+     */
+    public Thread initializeBindings() {
+        List<Class<?>[]> classes = new ArrayList<>();
+        classes.add(GPX_11_CONTEXT_CLASSES);
+        classes.add(new Class<?>[]{slash.navigation.kml.binding22.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.gpx.binding10.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.tcx.binding2.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.kml.binding22beta.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.kml.binding21.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.tcx.binding1.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.gopal.binding5.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.gopal.binding3.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.klicktel.binding.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.kml.binding20.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.nmn.binding7.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.lmx.binding.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.viamichelin.binding.ObjectFactory.class});
+        classes.add(new Class<?>[]{slash.navigation.fpl.binding.ObjectFactory.class});
+        return initializeContexts(classes);
+    }
 }
@@ -0,0 +1,39 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+/**
+ * Interface for the formats that a {@link NavigationFormatParser} skips after sniffing
+ *
+ * @author Christian Pesch
+ */
+
+public interface NavigationFormatSkippingListener {
+    /**
+     * Called before the candidate formats of a conclusive sniff are read for every
+     * format that is ruled out. If none of the candidates reads a route, the skipped
+     * formats are read afterwards and reported to the {@link NavigationFormatParserListener}.
+     *
+     * @param format the format that is skipped
+     * @param reason why the format is skipped
+     */
+    void skipping(NavigationFormat<BaseRoute> format, String reason);
+}
@@ -0,0 +1,287 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.navigation.fpl.GarminFlightPlanFormat;
+import slash.navigation.gopal.GoPal3RouteFormat;
+import slash.navigation.gopal.GoPal5RouteFormat;
+import slash.navigation.gopal.GoPal7RouteFormat;
+import slash.navigation.gpx.Gpx10Format;
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.klicktel.KlickTelRouteFormat;
+import slash.navigation.kml.*;
+import slash.navigation.lmx.NokiaLandmarkExchangeFormat;
+import slash.navigation.nmea.MagellanExploristFormat;
+import slash.navigation.nmea.MagellanRouteFormat;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.nmn.Nmn7Format;
+import slash.navigation.simple.NavilinkFormat;
+import slash.navigation.tcx.Tcx1Format;
+import slash.navigation.tcx.Tcx2Format;
+import slash.navigation.viamichelin.ViaMichelinFormat;
+import slash.navigation.wbt.WintecWbt201Tk1Format;
+import slash.navigation.wbt.WintecWbt201Tk2Format;
+import slash.navigation.zip.ZipFormat;
+
+import java.nio.charset.Charset;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static slash.navigation.gpx.GpxUtil.GPX_10_NAMESPACE_URI;
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+import static slash.navigation.kml.KmlUtil.*;
+import static slash.navigation.lmx.NokiaLandmarkExchangeUtil.LMX_NAMESPACE_URI;
+
+/**
+ * Classifies the first bytes of a stream by magic bytes, XML root elements and namespaces
+ * and line prefixes to find the few {@link NavigationFormat}s that are able to read it.
+ *
+ * @author Christian Pesch
+ */
+
+public class NavigationFormatSniffer {
+    public static final int SNIFF_BUFFER_SIZE = 4 * 1024;
+    private static final Charset ISO_LATIN1 = Charset.forName("ISO-8859-1");
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final Charset UTF16BE = Charset.forName("UTF-16BE");
+    private static final Charset UTF16LE = Charset.forName("UTF-16LE");
+    private static final Pattern ATTRIBUTE_PATTERN = Pattern.compile("([\\w:.\\-]+)\\s*=\\s*(\"[^\"]*\"|'[^']*')");
+
+    private static final Signature ZIP_ARCHIVE = new Signature("ZIP archive", KmzFormat.class, ZipFormat.class);
+    private static final Signature WINTEC_TK1 = new Signature("Wintec TK1 header", WintecWbt201Tk1Format.class);
+    private static final Signature WINTEC_TK2 = new Signature("Wintec TK2 header", WintecWbt201Tk2Format.class);
+    private static final Signature NAVILINK = new Signature("Navilink header", NavilinkFormat.class);
+    private static final Signature NMEA = new Signature("NMEA sentence", NmeaFormat.class);
+    private static final Signature MAGELLAN_NMEA = new Signature("Magellan NMEA sentence",
+            MagellanExploristFormat.class, MagellanRouteFormat.class);
+
+    private static final Map<String, Signature> XML_NAMESPACES = new HashMap<>();
+    private static final Map<String, Signature> XML_ROOT_ELEMENTS = new HashMap<>();
+
+    static {
+        addNamespace(GPX_10_NAMESPACE_URI, Gpx10Format.class);
+        addNamespace(GPX_11_NAMESPACE_URI, Gpx11Format.class);
+        addNamespace(KML_20_NAMESPACE_URI, Kml20Format.class);
+        addNamespace(KML_21_NAMESPACE_URI, Kml21Format.class);
+        addNamespace(KML_22_BETA_NAMESPACE_URI, Kml22BetaFormat.class);
+        addNamespace(KML_22_NAMESPACE_URI, Kml22Format.class);
+        addNamespace("http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v1", Tcx1Format.class);
+        addNamespace("http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2", Tcx2Format.class);
+        addNamespace(LMX_NAMESPACE_URI, NokiaLandmarkExchangeFormat.class);
+        addNamespace("http://www8.garmin.com/xmlschemas/FlightPlan/v1", GarminFlightPlanFormat.class);
+
+        addRootElement("Tour", GoPal7RouteFormat.class, GoPal5RouteFormat.class);
+        addRootElement("tour", GoPal3RouteFormat.class);
+        addRootElement("Route", Nmn7Format.class);
+        addRootElement("kDRoute", KlickTelRouteFormat.class);
+        addRootElement("poi_list", ViaMichelinFormat.class);
+        addRootElement("itinerary", ViaMichelinFormat.class);
+    }
+
+    private static void addNamespace(String namespaceUri, Class<?>... formatClasses) {
+        XML_NAMESPACES.put(namespaceUri, new Signature("XML namespace " + namespaceUri, formatClasses));
+    }
+
+    private static void addRootElement(String localName, Class<?>... formatClasses) {
+        XML_ROOT_ELEMENTS.put(localName, new Signature("XML root element <" + localName + ">", formatClasses));
+    }
+
+    /**
+     * Classifies the given head of a stream and partitions the given formats into the candidates,
+     * which are worth trying in the order of the given list, and the formats that are skipped.
+     *
+     * @param buffer the first bytes of the stream
+     * @param length the number of valid bytes in the buffer
+     * @param formats the formats in priority order
+     * @return a conclusive result if a signature matches at least one of the given formats
+     */
+    public SniffResult sniff(byte[] buffer, int length, List<NavigationFormat> formats) {
+        Signature signature = sniffSignature(buffer, length);
+        if (signature == null)
+            return new SniffResult(formats);
+
+        List<NavigationFormat> candidates = new ArrayList<>();
+        Map<NavigationFormat, String> skipped = new LinkedHashMap<>();
+        for (NavigationFormat format : formats) {
+            if (signature.matches(format))
+                candidates.add(format);
+            else
+                skipped.put(format, "Found " + signature.getDescription());
+        }
+        if (candidates.size() == 0)
+            return new SniffResult(formats);
+        return new SniffResult(signature.getDescription(), candidates, skipped);
+    }
+
+    private Signature sniffSignature(byte[] buffer, int length) {
+        if (length <= 0)
+            return null;
+
+        Signature signature = sniffBinary(buffer, length);
+        if (signature != null)
+            return signature;
+
+        String text = decode(buffer, length);
+        signature = sniffXml(text);
+        if (signature != null)
+            return signature;
+        return sniffNmea(text);
+    }
+
+    private boolean startsWith(byte[] buffer, int length, String prefix, boolean ignoreCase) {
+        if (length < prefix.length())
+            return false;
+        String head = new String(buffer, 0, prefix.length(), ISO_LATIN1);
+        return ignoreCase ? head.equalsIgnoreCase(prefix) : head.equals(prefix);
+    }
+
+    private Signature sniffBinary(byte[] buffer, int length) {
+        if (length >= 4 && buffer[0] == 'P' && buffer[1] == 'K' && buffer[2] == 3 && buffer[3] == 4)
+            return ZIP_ARCHIVE;
+        if (startsWith(buffer, length, "WintecLogFormat", false))
+            return WINTEC_TK1;
+        if (startsWith(buffer, length, "WintecLogTk2", true))
+            return WINTEC_TK2;
+        if (length >= 7 && buffer[2] == (byte) 0xA0 && buffer[3] == (byte) 0xA2 && buffer[6] == (byte) 0xFD)
+            return NAVILINK;
+        return null;
+    }
+
+    private String decode(byte[] buffer, int length) {
+        if (length >= 3 && buffer[0] == (byte) 0xEF && buffer[1] == (byte) 0xBB && buffer[2] == (byte) 0xBF)
+            return new String(buffer, 3, length - 3, UTF8);
+        if (length >= 2 && buffer[0] == (byte) 0xFE && buffer[1] == (byte) 0xFF)
+            return new String(buffer, 2, length - 2, UTF16BE);
+        if (length >= 2 && buffer[0] == (byte) 0xFF && buffer[1] == (byte) 0xFE)
+            return new String(buffer, 2, length - 2, UTF16LE);
+        if (length >= 2 && buffer[0] == 0 && buffer[1] == '<')
+            return new String(buffer, 0, length, UTF16BE);
+        if (length >= 2 && buffer[0] == '<' && buffer[1] == 0)
+            return new String(buffer, 0, length, UTF16LE);
+        return new String(buffer, 0, length, ISO_LATIN1);
+    }
+
+    private int skipWhitespace(String text, int index) {
+        while (index < text.length() && Character.isWhitespace(text.charAt(index)))
+            index++;
+        return index;
+    }
+
+    private Signature sniffXml(String text) {
+        int index = skipWhitespace(text, 0);
+        while (index < text.length()) {
+            if (!text.startsWith("<", index))
+                return null;
+
+            int end;
+            if (text.startsWith("<?", index)) {
+                end = text.indexOf("?>", index);
+                if (end == -1)
+                    return null;
+                index = end + 2;
+
+            } else if (text.startsWith("<!--", index)) {
+                end = text.indexOf("-->", index);
+                if (end == -1)
+                    return null;
+                index = end + 3;
+
+            } else if (text.startsWith("<!", index)) {
+                end = text.indexOf('>', index);
+                int subset = text.indexOf('[', index);
+                if (subset != -1 && subset < end) {
+                    int subsetEnd = text.indexOf(']', subset);
+                    end = subsetEnd != -1 ? text.indexOf('>', subsetEnd) : -1;
+                }
+                if (end == -1)
+                    return null;
+                index = end + 1;
+
+            } else {
+                end = text.indexOf('>', index);
+                if (end == -1)
+                    return null;
+                return sniffRootElement(text.substring(index + 1, end));
+            }
+            index = skipWhitespace(text, index);
+        }
+        return null;
+    }
+
+    private Signature sniffRootElement(String startTag) {
+        int nameEnd = 0;
+        while (nameEnd < startTag.length() && !Character.isWhitespace(startTag.charAt(nameEnd)) &&
+                startTag.charAt(nameEnd) != '/')
+            nameEnd++;
+        String qualifiedName = startTag.substring(0, nameEnd);
+        int colon = qualifiedName.indexOf(':');
+        String prefix = colon != -1 ? qualifiedName.substring(0, colon) : null;
+        String localName = qualifiedName.substring(colon + 1);
+
+        String namespaceAttribute = prefix != null ? "xmlns:" + prefix : "xmlns";
+        String namespaceUri = null;
+        Matcher matcher = ATTRIBUTE_PATTERN.matcher(startTag.substring(nameEnd));
+        while (matcher.find()) {
+            if (matcher.group(1).equals(namespaceAttribute)) {
+                String value = matcher.group(2);
+                namespaceUri = value.substring(1, value.length() - 1).trim();
+                break;
+            }
+        }
+
+        if (namespaceUri != null && namespaceUri.length() > 0)
+            return XML_NAMESPACES.get(namespaceUri);
+        return XML_ROOT_ELEMENTS.get(localName);
+    }
+
+    private Signature sniffNmea(String text) {
+        int index = skipWhitespace(text, 0);
+        if (text.startsWith("$GP", index))
+            return NMEA;
+        if (text.startsWith("$PMGN", index))
+            return MAGELLAN_NMEA;
+        return null;
+    }
+
+    private static class Signature {
+        private final String description;
+        private final List<Class<?>> formatClasses;
+
+        private Signature(String description, Class<?>... formatClasses) {
+            this.description = description;
+            this.formatClasses = asList(formatClasses);
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public boolean matches(NavigationFormat format) {
+            for (Class<?> formatClass : formatClasses) {
+                if (formatClass.isInstance(format))
+                    return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.logging.Logger;
+
+import static slash.common.io.Transfer.UTF8_ENCODING;
+
+/**
+ * Writes the {@link ReadMetrics} and {@link WriteMetrics} of {@link NavigationFormatParser}s
+ * as one JSON object per line to analyze them later.
+ *
+ * @author Christian Pesch
+ */
+
+public class ParserMetricsLog implements ParserMetricsListener, Closeable {
+    private static final Logger log = Logger.getLogger(ParserMetricsLog.class.getName());
+    private final Writer writer;
+
+    public ParserMetricsLog(Writer writer) {
+        this.writer = writer;
+    }
+
+    public ParserMetricsLog(File file) throws IOException {
+        this(new OutputStreamWriter(new FileOutputStream(file, true), UTF8_ENCODING));
+    }
+
+    public void read(ReadMetrics metrics) {
+        write(toJson(metrics));
+    }
+
+    public void written(WriteMetrics metrics) {
+        write(toJson(metrics));
+    }
+
+    private synchronized void write(String line) {
+        try {
+            writer.write(line);
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            log.warning("Cannot write parser metrics: " + e);
+        }
+    }
+
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    static String toJson(ReadMetrics metrics) {
+        StringBuilder buffer = new StringBuilder("{");
+        append(buffer, "type", "read");
+        append(buffer, "time", metrics.getTime());
+        append(buffer, "source", metrics.getSource());
+        append(buffer, "format", metrics.getFormat());
+        append(buffer, "routes", metrics.getRoutes());
+        append(buffer, "positions", metrics.getPositions());
+        append(buffer, "bytes", metrics.getBytes());
+        append(buffer, "bufferSize", metrics.getBufferSize());
+        append(buffer, "nanos", metrics.getNanos());
+        append(buffer, "sniffNanos", metrics.getSniffNanos());
+        append(buffer, "convertNanos", metrics.getConvertNanos());
+        append(buffer, "commentNanos", metrics.getCommentNanos());
+        appendName(buffer, "formats");
+        buffer.append('[');
+        for (FormatMetrics format : metrics.getFormats()) {
+            if (buffer.charAt(buffer.length() - 1) != '[')
+                buffer.append(',');
+            buffer.append('{');
+            append(buffer, "format", format.getFormat());
+            append(buffer, "nanos", format.getNanos());
+            append(buffer, "bytes", format.getBytes());
+            append(buffer, "routes", format.getRoutes());
+            append(buffer, "positions", format.getPositions());
+            append(buffer, "exception", format.getException());
+            buffer.append('}');
+        }
+        return buffer.append("]}").toString();
+    }
+
+    static String toJson(WriteMetrics metrics) {
+        StringBuilder buffer = new StringBuilder("{");
+        append(buffer, "type", "write");
+        append(buffer, "time", metrics.getTime());
+        append(buffer, "format", metrics.getFormat());
+        append(buffer, "routes", metrics.getRoutes());
+        append(buffer, "positions", metrics.getPositions());
+        append(buffer, "files", metrics.getFiles());
+        append(buffer, "bytes", metrics.getBytes());
+        append(buffer, "nanos", metrics.getNanos());
+        append(buffer, "convertNanos", metrics.getConvertNanos());
+        append(buffer, "commentNanos", metrics.getCommentNanos());
+        append(buffer, "writeNanos", metrics.getWriteNanos());
+        return buffer.append('}').toString();
+    }
+
+    private static void appendName(StringBuilder buffer, String name) {
+        char last = buffer.charAt(buffer.length() - 1);
+        if (last != '{')
+            buffer.append(',');
+        appendString(buffer, name);
+        buffer.append(':');
+    }
+
+    private static void append(StringBuilder buffer, String name, long value) {
+        appendName(buffer, name);
+        buffer.append(value);
+    }
+
+    private static void append(StringBuilder buffer, String name, String value) {
+        appendName(buffer, name);
+        if (value != null)
+            appendString(buffer, value);
+        else
+            buffer.append("null");
+    }
+
+    private static void appendString(StringBuilder buffer, String value) {
+        buffer.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    buffer.append("\\\"");
+                    break;
+                case '\\':
+                    buffer.append("\\\\");
+                    break;
+                case '\n':
+                    buffer.append("\\n");
+                    break;
+                case '\r':
+                    buffer.append("\\r");
+                    break;
+                case '\t':
+                    buffer.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                        buffer.append(String.format("\\u%04x", (int) c));
+                    else
+                        buffer.append(c);
+            }
+        }
+        buffer.append('"');
+    }
+}
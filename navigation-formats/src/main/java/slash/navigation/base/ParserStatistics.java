@@ -0,0 +1,201 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.lang.Math.max;
+import static java.lang.management.ManagementFactory.getPlatformMBeanServer;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Sums up the {@link ReadMetrics} and {@link WriteMetrics} of {@link NavigationFormatParser}s
+ * and exposes them via JMX to find the formats and sources that dominate the cost of conversions.
+ *
+ * @author Christian Pesch
+ */
+
+public class ParserStatistics implements ParserStatisticsMXBean, ParserMetricsListener {
+    public static final String OBJECT_NAME = "slash.navigation:type=ParserStatistics";
+    private static final int SLOWEST_READS_COUNT = 10;
+
+    private long readCount, readNanos, bytesRead, positionsRead, swallowedExceptions, maximumBufferSize,
+            sniffNanos, convertNanos, commentNanos;
+    private long writeCount, writeNanos, bytesWritten, positionsWritten;
+    private final Map<String, Long> readNanosByFormat = new HashMap<>(), probingNanosByFormat = new HashMap<>(),
+            swallowedExceptionsByFormat = new HashMap<>(), writeNanosByFormat = new HashMap<>();
+    private final List<ReadMetrics> slowestReads = new ArrayList<>();
+
+    public void register() throws JMException {
+        getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+    }
+
+    public void unregister() throws JMException {
+        getPlatformMBeanServer().unregisterMBean(new ObjectName(OBJECT_NAME));
+    }
+
+    private static void add(Map<String, Long> map, String key, long value) {
+        Long previous = map.get(key);
+        map.put(key, previous != null ? previous + value : value);
+    }
+
+    private static long toMillis(long nanos) {
+        return NANOSECONDS.toMillis(nanos);
+    }
+
+    private static Map<String, Long> toMillis(Map<String, Long> nanos) {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, Long> entry : nanos.entrySet())
+            result.put(entry.getKey(), toMillis(entry.getValue()));
+        return result;
+    }
+
+    public synchronized void read(ReadMetrics metrics) {
+        readCount++;
+        readNanos += metrics.getNanos();
+        bytesRead += metrics.getBytes();
+        positionsRead += metrics.getPositions();
+        maximumBufferSize = max(maximumBufferSize, metrics.getBufferSize());
+        sniffNanos += metrics.getSniffNanos();
+        convertNanos += metrics.getConvertNanos();
+        commentNanos += metrics.getCommentNanos();
+        if (metrics.getFormat() != null)
+            add(readNanosByFormat, metrics.getFormat(), metrics.getNanos());
+
+        for (FormatMetrics format : metrics.getFormats()) {
+            add(probingNanosByFormat, format.getFormat(), format.getNanos());
+            if (format.getException() != null) {
+                swallowedExceptions++;
+                add(swallowedExceptionsByFormat, format.getFormat(), 1);
+            }
+        }
+
+        int index = 0;
+        while (index < slowestReads.size() && slowestReads.get(index).getNanos() >= metrics.getNanos())
+            index++;
+        if (index < SLOWEST_READS_COUNT) {
+            slowestReads.add(index, metrics);
+            if (slowestReads.size() > SLOWEST_READS_COUNT)
+                slowestReads.remove(SLOWEST_READS_COUNT);
+        }
+    }
+
+    public synchronized void written(WriteMetrics metrics) {
+        writeCount++;
+        writeNanos += metrics.getNanos();
+        bytesWritten += metrics.getBytes();
+        positionsWritten += metrics.getPositions();
+        add(writeNanosByFormat, metrics.getFormat(), metrics.getNanos());
+    }
+
+    public synchronized long getReadCount() {
+        return readCount;
+    }
+
+    public synchronized long getReadMillis() {
+        return toMillis(readNanos);
+    }
+
+    public synchronized long getBytesRead() {
+        return bytesRead;
+    }
+
+    public synchronized long getPositionsRead() {
+        return positionsRead;
+    }
+
+    public synchronized long getSwallowedExceptions() {
+        return swallowedExceptions;
+    }
+
+    public synchronized long getMaximumBufferSize() {
+        return maximumBufferSize;
+    }
+
+    public synchronized long getSniffMillis() {
+        return toMillis(sniffNanos);
+    }
+
+    public synchronized long getConvertMillis() {
+        return toMillis(convertNanos);
+    }
+
+    public synchronized long getCommentMillis() {
+        return toMillis(commentNanos);
+    }
+
+    public synchronized Map<String, Long> getReadMillisByFormat() {
+        return toMillis(readNanosByFormat);
+    }
+
+    public synchronized Map<String, Long> getProbingMillisByFormat() {
+        return toMillis(probingNanosByFormat);
+    }
+
+    public synchronized Map<String, Long> getSwallowedExceptionsByFormat() {
+        return new TreeMap<>(swallowedExceptionsByFormat);
+    }
+
+    public synchronized List<String> getSlowestReads() {
+        List<String> result = new ArrayList<>(slowestReads.size());
+        for (ReadMetrics metrics : slowestReads)
+            result.add(toMillis(metrics.getNanos()) + " ms: " + metrics.getSource() + " as " + metrics.getFormat() +
+                    " with " + metrics.getPositions() + " positions from " + metrics.getBytes() + " bytes");
+        return result;
+    }
+
+    public synchronized long getWriteCount() {
+        return writeCount;
+    }
+
+    public synchronized long getWriteMillis() {
+        return toMillis(writeNanos);
+    }
+
+    public synchronized long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public synchronized long getPositionsWritten() {
+        return positionsWritten;
+    }
+
+    public synchronized Map<String, Long> getWriteMillisByFormat() {
+        return toMillis(writeNanosByFormat);
+    }
+
+    public synchronized void reset() {
+        readCount = readNanos = bytesRead = positionsRead = swallowedExceptions = maximumBufferSize = 0;
+        sniffNanos = convertNanos = commentNanos = 0;
+        writeCount = writeNanos = bytesWritten = positionsWritten = 0;
+        readNanosByFormat.clear();
+        probingNanosByFormat.clear();
+        swallowedExceptionsByFormat.clear();
+        writeNanosByFormat.clear();
+        slowestReads.clear();
+    }
+}
@@ -0,0 +1,54 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The JMX interface of the {@link ParserStatistics}.
+ *
+ * @author Christian Pesch
+ */
+
+public interface ParserStatisticsMXBean {
+    long getReadCount();
+    long getReadMillis();
+    long getBytesRead();
+    long getPositionsRead();
+    long getSwallowedExceptions();
+    long getMaximumBufferSize();
+    long getSniffMillis();
+    long getConvertMillis();
+    long getCommentMillis();
+    Map<String, Long> getReadMillisByFormat();
+    Map<String, Long> getProbingMillisByFormat();
+    Map<String, Long> getSwallowedExceptionsByFormat();
+    List<String> getSlowestReads();
+
+    long getWriteCount();
+    long getWriteMillis();
+    long getBytesWritten();
+    long getPositionsWritten();
+    Map<String, Long> getWriteMillisByFormat();
+
+    void reset();
+}
@@ -0,0 +1,166 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.synchronizedList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The metrics of a {@link NavigationFormatParser#read} operation.
+ *
+ * @author Christian Pesch
+ */
+
+public class ReadMetrics {
+    private final String source;
+    private final long time = System.currentTimeMillis();
+    private final List<FormatMetrics> formats = synchronizedList(new ArrayList<FormatMetrics>());
+    private int bufferSize, routes, positions;
+    private long bytes, sniffNanos, convertNanos, commentNanos, nanos;
+    private String format;
+
+    ReadMetrics(String source) {
+        this.source = source;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * @return the milliseconds since the epoch when the read started
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the size of the buffer that is marked to reset the stream for the next format
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * @return the number of bytes read from the source
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the formats that tried to read the source in the order of their attempts
+     */
+    public List<FormatMetrics> getFormats() {
+        synchronized (formats) {
+            return unmodifiableList(new ArrayList<>(formats));
+        }
+    }
+
+    void addFormat(FormatMetrics metrics) {
+        formats.add(metrics);
+    }
+
+    public int getSwallowedExceptions() {
+        int result = 0;
+        for (FormatMetrics metrics : getFormats()) {
+            if (metrics.getException() != null)
+                result++;
+        }
+        return result;
+    }
+
+    /**
+     * @return the name of the detected format or null if no format could read the source
+     */
+    public String getFormat() {
+        return format;
+    }
+
+    public int getRoutes() {
+        return routes;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    void setResult(String format, int routes, int positions) {
+        this.format = format;
+        this.routes = routes;
+        this.positions = positions;
+    }
+
+    public long getSniffNanos() {
+        return sniffNanos;
+    }
+
+    void addSniffNanos(long sniffNanos) {
+        this.sniffNanos += sniffNanos;
+    }
+
+    /**
+     * @return the time to convert the routes to the detected format
+     */
+    public long getConvertNanos() {
+        return convertNanos;
+    }
+
+    void setConvertNanos(long convertNanos) {
+        this.convertNanos = convertNanos;
+    }
+
+    /**
+     * @return the time to comment the positions and routes
+     */
+    public long getCommentNanos() {
+        return commentNanos;
+    }
+
+    void setCommentNanos(long commentNanos) {
+        this.commentNanos = commentNanos;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[source=" + getSource() + ", format=" + getFormat() +
+                ", routes=" + getRoutes() + ", positions=" + getPositions() + ", bytes=" + getBytes() +
+                ", nanos=" + getNanos() + ", formats=" + getFormats().size() + "]";
+    }
+}
@@ -21,14 +21,32 @@
 package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
+import slash.navigation.common.DistanceAccuracy;
 import slash.navigation.common.NavigationPosition;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import static java.lang.Double.NaN;
+import static java.lang.Double.POSITIVE_INFINITY;
+import static java.lang.Double.isNaN;
 import static java.lang.Math.abs;
-import static java.lang.System.arraycopy;
+import static java.lang.Math.asin;
+import static java.lang.Math.cos;
+import static java.lang.Math.min;
+import static java.lang.Math.sin;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+import static java.util.concurrent.ForkJoinTask.inForkJoinPool;
 import static slash.common.io.Transfer.isEmpty;
 import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.common.DistanceAccuracy.Exact;
+import static slash.navigation.common.DistanceAccuracy.Spherical;
+import static slash.navigation.common.Geodesy.MEAN_EARTH_RADIUS;
+import static slash.navigation.common.Geodesy.calculateOrthogonalDistance;
 
 /**
  * Provides {@link NavigationPosition} calculation functionality.
@@ -37,34 +55,169 @@ import static slash.common.type.CompactCalendar.fromMillis;
  */
 
 public class RouteCalculations {
-    private static int[] douglasPeuckerSimplify(List<? extends NavigationPosition> positions, int from, int to, double threshold) {
-        // find the point with the maximum distance
-        NavigationPosition pointA = positions.get(from);
-        NavigationPosition pointB = positions.get(to);
-        int maximumDistanceIndex = -1;
-        double maximumDistance = 0.0;
-        for (int i = from + 1; i < to; i++) {
-            NavigationPosition position = positions.get(i);
-            if (position.hasCoordinates()) {
-                double distance = abs(position.calculateOrthogonalDistance(pointA, pointB));
+    private static final int MINIMUM_PARALLEL_RANGE = 16384;
+    private static ForkJoinPool forkJoinPool;
+
+    private static synchronized ForkJoinPool getForkJoinPool() {
+        if (forkJoinPool == null)
+            forkJoinPool = new ForkJoinPool();
+        return forkJoinPool;
+    }
+
+    /**
+     * Splits the ranges between two positions at the position with the maximum orthogonal
+     * distance as long as it is greater than the threshold. Processes the ranges from a stack
+     * instead of recursively and forks large ranges to the pool. The ranges are disjoint,
+     * thus every position is written by one task only.
+     */
+    private static class DouglasPeuckerTask extends RecursiveAction {
+        private final double[] longitudes, latitudes, vectors, significances;
+        private final double threshold;
+        private final DistanceAccuracy accuracy;
+        private int[] ranges = new int[32];
+        private double[] maximums = new double[16];
+        private int rangeCount = 0;
+        private double maximumDistance;
+
+        DouglasPeuckerTask(double[] longitudes, double[] latitudes, double[] vectors, double[] significances,
+                           double threshold, DistanceAccuracy accuracy, int from, int to, double maximum) {
+            this.longitudes = longitudes;
+            this.latitudes = latitudes;
+            this.vectors = vectors;
+            this.significances = significances;
+            this.threshold = threshold;
+            this.accuracy = accuracy;
+            push(from, to, maximum);
+        }
+
+        private void push(int from, int to, double maximum) {
+            if (rangeCount == maximums.length) {
+                ranges = Arrays.copyOf(ranges, ranges.length * 2);
+                maximums = Arrays.copyOf(maximums, maximums.length * 2);
+            }
+            ranges[rangeCount * 2] = from;
+            ranges[rangeCount * 2 + 1] = to;
+            maximums[rangeCount] = maximum;
+            rangeCount++;
+        }
+
+        private void split(int from, int to, double maximum, List<DouglasPeuckerTask> forks) {
+            if (to - from < 2)
+                return;
+            if (to - from > MINIMUM_PARALLEL_RANGE && inForkJoinPool()) {
+                DouglasPeuckerTask task = new DouglasPeuckerTask(longitudes, latitudes, vectors, significances,
+                        threshold, accuracy, from, to, maximum);
+                task.fork();
+                forks.add(task);
+            } else
+                push(from, to, maximum);
+        }
+
+        private int findMaximumDistanceIndex(int from, int to) {
+            int maximumDistanceIndex = -1;
+            maximumDistance = 0.0;
+
+            if (vectors != null) {
+                // the scalar product with the normal of the great circle through A and B
+                // grows with the orthogonal distance, see Geodesy#calculateOrthogonalDistance
+                int a = from * 3, b = to * 3;
+                double x = vectors[a + 1] * vectors[b + 2] - vectors[a + 2] * vectors[b + 1];
+                double y = vectors[a + 2] * vectors[b] - vectors[a] * vectors[b + 2];
+                double z = vectors[a] * vectors[b + 1] - vectors[a + 1] * vectors[b];
+                double length = sqrt(x * x + y * y + z * z);
+                if (length > 0.0) {
+                    double maximumProduct = 0.0;
+                    for (int i = from + 1; i < to; i++) {
+                        if (isNaN(longitudes[i]))
+                            continue;
+                        int d = i * 3;
+                        double product = abs(vectors[d] * x + vectors[d + 1] * y + vectors[d + 2] * z);
+                        if (product > maximumProduct) {
+                            maximumProduct = product;
+                            maximumDistanceIndex = i;
+                        }
+                    }
+                    maximumDistance = asin(min(maximumProduct / length, 1.0)) * MEAN_EARTH_RADIUS;
+                    return maximumDistanceIndex;
+                }
+            }
+
+            double longitudeA = longitudes[from], latitudeA = latitudes[from];
+            double longitudeB = longitudes[to], latitudeB = latitudes[to];
+            for (int i = from + 1; i < to; i++) {
+                if (isNaN(longitudes[i]))
+                    continue;
+                double distance = abs(calculateOrthogonalDistance(accuracy, longitudes[i], latitudes[i],
+                        longitudeA, latitudeA, longitudeB, latitudeB));
                 if (distance > maximumDistance) {
                     maximumDistance = distance;
                     maximumDistanceIndex = i;
                 }
             }
+            return maximumDistanceIndex;
+        }
+
+        protected void compute() {
+            List<DouglasPeuckerTask> forks = new ArrayList<>();
+            while (rangeCount > 0) {
+                rangeCount--;
+                int from = ranges[rangeCount * 2], to = ranges[rangeCount * 2 + 1];
+                double maximum = maximums[rangeCount];
+
+                // find the point with the maximum distance
+                if (isNaN(longitudes[from]) || isNaN(longitudes[to]))
+                    continue;
+                int maximumDistanceIndex = findMaximumDistanceIndex(from, to);
+
+                // if maximum distance is greater than threshold, simplify both sides
+                if ((maximumDistanceIndex != -1) && (maximumDistance > threshold)) {
+                    // a position is significant only as long as the range it splits exists
+                    double significance = min(maximumDistance, maximum);
+                    significances[maximumDistanceIndex] = significance;
+                    split(from, maximumDistanceIndex, significance, forks);
+                    split(maximumDistanceIndex, to, significance, forks);
+                }
+            }
+            for (DouglasPeuckerTask fork : forks)
+                fork.join();
         }
+    }
+
+    private static double[] calculateSignificances(List<? extends NavigationPosition> positions, double threshold,
+                                                   DistanceAccuracy accuracy) {
+        int count = positions.size();
+        double[] longitudes = new double[count], latitudes = new double[count];
+        for (int i = 0; i < count; i++) {
+            NavigationPosition position = positions.get(i);
+            boolean hasCoordinates = position.hasCoordinates();
+            longitudes[i] = hasCoordinates ? position.getLongitude() : NaN;
+            latitudes[i] = hasCoordinates ? position.getLatitude() : NaN;
+        }
+
+        double[] vectors = null;
+        if (accuracy == Spherical) {
+            vectors = new double[count * 3];
+            for (int i = 0; i < count; i++) {
+                double phi = toRadians(latitudes[i]), lambda = toRadians(longitudes[i]), cosPhi = cos(phi);
+                vectors[i * 3] = cosPhi * cos(lambda);
+                vectors[i * 3 + 1] = cosPhi * sin(lambda);
+                vectors[i * 3 + 2] = sin(phi);
+            }
+        }
+
+        double[] significances = new double[count];
+        if (count == 0)
+            return significances;
+        significances[0] = POSITIVE_INFINITY;
+        significances[count - 1] = POSITIVE_INFINITY;
 
-        // if maximum distance is greater than threshold, recursively simplify
-        if ((maximumDistanceIndex != -1) && (maximumDistance > threshold)) {
-            int[] res1 = douglasPeuckerSimplify(positions, from, maximumDistanceIndex, threshold);
-            int[] res2 = douglasPeuckerSimplify(positions, maximumDistanceIndex, to, threshold);
-
-            int[] result = new int[res1.length - 1 + res2.length];
-            arraycopy(res1, 0, result, 0, res1.length - 1);
-            arraycopy(res2, 0, result, res1.length - 1, res2.length);
-            return result;
-        } else
-            return new int[]{from, to};
+        DouglasPeuckerTask task = new DouglasPeuckerTask(longitudes, latitudes, vectors, significances,
+                threshold, accuracy, 0, count - 1, POSITIVE_INFINITY);
+        if (count > MINIMUM_PARALLEL_RANGE)
+            getForkJoinPool().invoke(task);
+        else
+            task.invoke();
+        return significances;
     }
 
     /**
@@ -74,15 +227,31 @@ public class RouteCalculations {
      *
      * @param positions the original list of positions
      * @param threshold determines the threshold for significance in meter
+     * @param accuracy the accuracy of the orthogonal distances
      * @return an array of indices to the original list of positions with the significant positions
      */
+    public static int[] getSignificantPositions(List<? extends NavigationPosition> positions, double threshold,
+                                                DistanceAccuracy accuracy) {
+        double[] significances = calculateSignificances(positions, threshold, accuracy);
+        return new SignificanceRanks(significances).getSignificantPositionsByScanning(threshold);
+    }
+
     public static int[] getSignificantPositions(List<? extends NavigationPosition> positions, double threshold) {
-        if (positions.size() == 0)
-            return new int[0];
-        else if (positions.size() == 1)
-            return new int[]{0};
-        else
-            return douglasPeuckerSimplify(positions, 0, positions.size() - 1, threshold);
+        return getSignificantPositions(positions, threshold, Exact);
+    }
+
+    /**
+     * Calculates the threshold up to which each position is significant with the
+     * Douglas-Peucker-Algorithm once to select the significant positions for any
+     * threshold later.
+     *
+     * @param positions the original list of positions
+     * @param accuracy the accuracy of the orthogonal distances
+     * @return the significance of the positions
+     */
+    public static SignificanceRanks getSignificanceRanks(List<? extends NavigationPosition> positions,
+                                                         DistanceAccuracy accuracy) {
+        return new SignificanceRanks(calculateSignificances(positions, 0.0, accuracy));
     }
 
     @SuppressWarnings("unused")
@@ -249,6 +249,8 @@ public abstract class RouteComments {
 
         for (BaseRoute<BaseNavigationPosition, BaseNavigationFormat> route : routes) {
             commentPositions(route.getPositions());
+            // the elevations and times of the positions may have changed
+            route.invalidateFrom(0);
         }
     }
 
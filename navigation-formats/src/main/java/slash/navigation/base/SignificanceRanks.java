@@ -0,0 +1,129 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.Arrays;
+
+import static java.lang.Float.floatToIntBits;
+import static java.lang.Math.max;
+
+/**
+ * Holds the threshold in meter up to which each position of a list is significant
+ * for the Douglas-Peucker-Algorithm. The significant positions for any threshold are
+ * selected without calculating a single distance.
+ *
+ * @author Christian Pesch
+ * @see RouteCalculations#getSignificanceRanks
+ */
+
+public class SignificanceRanks {
+    private final double[] significances;
+    private long[] ranks;
+
+    SignificanceRanks(double[] significances) {
+        this.significances = significances;
+    }
+
+    public int getPositionCount() {
+        return significances.length;
+    }
+
+    /**
+     * Returns the threshold in meter up to which the position is significant,
+     * infinite for the first and the last position and 0.0 for positions that
+     * are never significant.
+     *
+     * @param index the index of the position
+     * @return the threshold in meter up to which the position is significant
+     */
+    public double getSignificance(int index) {
+        return significances[index];
+    }
+
+    /**
+     * Returns the same significant positions as
+     * {@link RouteCalculations#getSignificantPositions(java.util.List, double)}
+     * by testing every position.
+     *
+     * @param threshold determines the threshold for significance in meter
+     * @return an array of indices of the significant positions in ascending order
+     */
+    public int[] getSignificantPositionsByScanning(double threshold) {
+        double minimum = max(threshold, 0.0);
+        int count = 0;
+        for (double significance : significances) {
+            if (significance > minimum)
+                count++;
+        }
+
+        int[] result = new int[count];
+        int index = 0;
+        for (int i = 0; i < significances.length; i++) {
+            if (significances[i] > minimum)
+                result[index++] = i;
+        }
+        return result;
+    }
+
+    private static long rankKey(double significance, int index) {
+        // the bits of positive floats sort like their values
+        return (long) floatToIntBits((float) significance) << 32 | index;
+    }
+
+    private synchronized long[] getRanks() {
+        if (ranks == null) {
+            long[] keys = new long[significances.length];
+            for (int i = 0; i < keys.length; i++)
+                keys[i] = rankKey(significances[i], i);
+            Arrays.sort(keys);
+            ranks = keys;
+        }
+        return ranks;
+    }
+
+    /**
+     * Returns the same significant positions as
+     * {@link RouteCalculations#getSignificantPositions(java.util.List, double)}
+     * by looking only at the positions that are significant for the threshold.
+     *
+     * @param threshold determines the threshold for significance in meter
+     * @return an array of indices of the significant positions in ascending order
+     */
+    public int[] getSignificantPositions(double threshold) {
+        double minimum = max(threshold, 0.0);
+        long[] ranks = getRanks();
+        int first = Arrays.binarySearch(ranks, rankKey(minimum, 0));
+        if (first < 0)
+            first = -first - 1;
+
+        // rounding to float may add positions of the same significance
+        int[] result = new int[ranks.length - first];
+        int count = 0;
+        for (int i = first; i < ranks.length; i++) {
+            int index = (int) ranks[i];
+            if (significances[index] > minimum)
+                result[count++] = index;
+        }
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+}
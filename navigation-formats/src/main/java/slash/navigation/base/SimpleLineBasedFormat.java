@@ -24,7 +24,6 @@ import slash.common.type.CompactCalendar;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.ArrayList;
 import java.util.List;
 
 import static java.lang.String.format;
@@ -48,7 +47,7 @@ public abstract class SimpleLineBasedFormat<R extends SimpleRoute> extends Simpl
     }
 
     public void read(BufferedReader reader, CompactCalendar startDate, String encoding, ParserContext<R> context) throws IOException {
-        List<Wgs84Position> positions = new ArrayList<>();
+        List<Wgs84Position> positions = new ColumnarPositionList();
 
         int lineCount = 0;
         while (true) {
@@ -0,0 +1,68 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The result of the sniffing of the {@link NavigationFormatSniffer}.
+ *
+ * @author Christian Pesch
+ */
+
+public class SniffResult {
+    private final String signature;
+    private final List<NavigationFormat> candidates;
+    private final Map<NavigationFormat, String> skipped;
+
+    public SniffResult(String signature, List<NavigationFormat> candidates, Map<NavigationFormat, String> skipped) {
+        this.signature = signature;
+        this.candidates = candidates;
+        this.skipped = skipped;
+    }
+
+    public SniffResult(List<NavigationFormat> formats) {
+        this(null, formats, new LinkedHashMap<NavigationFormat, String>());
+    }
+
+    public boolean isConclusive() {
+        return signature != null;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public List<NavigationFormat> getCandidates() {
+        return candidates;
+    }
+
+    public Map<NavigationFormat, String> getSkipped() {
+        return skipped;
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[signature=" + getSignature() + ", candidates=" + getCandidates() +
+                ", skipped=" + getSkipped().size() + "]";
+    }
+}
@@ -0,0 +1,323 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.navigation.common.NavigationPosition;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.cos;
+import static java.lang.Math.floor;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.lang.Math.sqrt;
+import static java.lang.Math.toRadians;
+import static slash.navigation.common.Geodesy.calculateEquirectangularDistance;
+import static slash.navigation.base.BaseColumnarPositionList.grow;
+
+/**
+ * Sorts the positions of a route into a grid of cells to find the candidates for
+ * closest position and bounding box queries without looking at every position.
+ * Like the {@link CumulativeIndex} only the prefix up to the first added or removed
+ * position remains valid after a change, the suffix is added again on demand. Positions
+ * whose coordinates changed are moved to their new cells only.
+ *
+ * The grid prunes only, the callers test the candidates exactly.
+ *
+ * @author Christian Pesch
+ */
+
+class SpatialIndex {
+    static final int MINIMUM_POSITION_COUNT = 256;
+    private static final int POSITIONS_PER_CELL = 8;
+    private static final double MINIMUM_CELL_SIZE = 0.000001;
+    // less than the meters of a degree of latitude and of longitude at the equator on the WGS-84 ellipsoid
+    private static final double METERS_PER_DEGREE = 110000.0;
+    // see DistanceAccuracy.Equirectangular
+    private static final double MAXIMUM_EQUIRECTANGULAR_DISTANCE = 100000.0, MAXIMUM_EQUIRECTANGULAR_LATITUDE = 80.0,
+            EQUIRECTANGULAR_ERROR = 0.006;
+
+    private static final long NO_KEY = Long.MIN_VALUE;
+
+    private final Map<Long, Cell> cells = new HashMap<>();
+    // the key of the cell of every position or NO_KEY
+    private long[] keys = new long[0];
+    private double cellSize;
+    private int validCount = 0, positionCount = 0;
+
+    /**
+     * Invalidates the positions from the given index on.
+     *
+     * @param fromIndex the index of the first changed position
+     * @param positionCount the number of positions after the change
+     */
+    synchronized void invalidate(int fromIndex, int positionCount) {
+        int index = max(fromIndex, 0);
+        if (index < validCount) {
+            if (index == 0)
+                cells.clear();
+            else
+                trim(index);
+            validCount = index;
+        }
+        this.positionCount = positionCount;
+    }
+
+    /**
+     * Moves the positions from the first to the last index to the cells of their
+     * changed coordinates.
+     *
+     * @param positions the positions of the route
+     * @param firstIndex the index of the first changed position
+     * @param lastIndex the index of the last changed position
+     */
+    synchronized void update(List<? extends NavigationPosition> positions, int firstIndex, int lastIndex) {
+        // the positions have been added or removed, ensure() starts again
+        if (positions.size() != positionCount)
+            return;
+
+        int endIndex = min(lastIndex, validCount - 1);
+        for (int i = max(firstIndex, 0); i <= endIndex; i++) {
+            long key = key(positions.get(i));
+            long previousKey = keys[i];
+            if (key == previousKey)
+                continue;
+
+            if (previousKey != NO_KEY) {
+                Cell cell = cells.get(previousKey);
+                cell.remove(i);
+                if (cell.size == 0)
+                    cells.remove(previousKey);
+            }
+            if (key != NO_KEY)
+                getCell(key).insert(i);
+            keys[i] = key;
+        }
+    }
+
+    private void trim(int fromIndex) {
+        for (Iterator<Cell> iterator = cells.values().iterator(); iterator.hasNext(); ) {
+            Cell cell = iterator.next();
+            cell.trim(fromIndex);
+            if (cell.size == 0)
+                iterator.remove();
+        }
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private int cell(double degrees) {
+        return (int) floor(degrees / cellSize);
+    }
+
+    private long key(NavigationPosition position) {
+        return position.hasCoordinates() ? key(cell(position.getLongitude()), cell(position.getLatitude())) : NO_KEY;
+    }
+
+    private Cell getCell(long key) {
+        Cell cell = cells.get(key);
+        if (cell == null) {
+            cell = new Cell();
+            cells.put(key, cell);
+        }
+        return cell;
+    }
+
+    private void calculateCellSize(List<? extends NavigationPosition> positions) {
+        double minimumLongitude = Double.MAX_VALUE, maximumLongitude = -Double.MAX_VALUE,
+                minimumLatitude = Double.MAX_VALUE, maximumLatitude = -Double.MAX_VALUE;
+        int count = 0;
+        for (NavigationPosition position : positions) {
+            if (!position.hasCoordinates())
+                continue;
+            minimumLongitude = min(minimumLongitude, position.getLongitude());
+            maximumLongitude = max(maximumLongitude, position.getLongitude());
+            minimumLatitude = min(minimumLatitude, position.getLatitude());
+            maximumLatitude = max(maximumLatitude, position.getLatitude());
+            count++;
+        }
+        if (count == 0) {
+            cellSize = 1.0;
+            return;
+        }
+
+        // areas are covered by square cells, tracks along a line by cells along the line
+        double width = maximumLongitude - minimumLongitude, height = maximumLatitude - minimumLatitude;
+        double cellCount = max((double) count / POSITIONS_PER_CELL, 1.0);
+        cellSize = max(max(sqrt(width * height / cellCount), max(width, height) / cellCount), MINIMUM_CELL_SIZE);
+    }
+
+    private void ensure(List<? extends NavigationPosition> positions) {
+        int size = positions.size();
+        // the positions have been changed without invalidation
+        if (size != positionCount) {
+            cells.clear();
+            validCount = 0;
+            positionCount = size;
+        }
+        if (validCount == size)
+            return;
+
+        if (validCount == 0)
+            calculateCellSize(positions);
+        if (keys.length < size)
+            keys = Arrays.copyOf(keys, grow(keys.length, size));
+
+        for (int i = validCount; i < size; i++) {
+            long key = key(positions.get(i));
+            keys[i] = key;
+            if (key != NO_KEY)
+                getCell(key).add(i);
+        }
+        validCount = size;
+    }
+
+    private int[] collect(double minimumLongitude, double minimumLatitude,
+                          double maximumLongitude, double maximumLatitude) {
+        int minimumX = cell(minimumLongitude), maximumX = cell(maximumLongitude);
+        int minimumY = cell(minimumLatitude), maximumY = cell(maximumLatitude);
+        Cell result = new Cell();
+        if (minimumX > maximumX || minimumY > maximumY)
+            return new int[0];
+
+        if ((double) (maximumX - minimumX + 1) * (maximumY - minimumY + 1) > cells.size()) {
+            // the area covers more cells than there are
+            for (Map.Entry<Long, Cell> entry : cells.entrySet()) {
+                long key = entry.getKey();
+                int x = (int) (key >> 32), y = (int) key;
+                if (x >= minimumX && x <= maximumX && y >= minimumY && y <= maximumY)
+                    result.addAll(entry.getValue());
+            }
+        } else {
+            for (int x = minimumX; x <= maximumX; x++) {
+                for (int y = minimumY; y <= maximumY; y++) {
+                    Cell cell = cells.get(key(x, y));
+                    if (cell != null)
+                        result.addAll(cell);
+                }
+            }
+        }
+
+        int[] indices = Arrays.copyOf(result.indices, result.size);
+        Arrays.sort(indices);
+        return indices;
+    }
+
+    /**
+     * Returns the indices of the positions that may be within the given distance
+     * in ascending order or null if all positions have to be examined.
+     */
+    synchronized int[] getCandidates(List<? extends NavigationPosition> positions,
+                                     double longitude, double latitude, double distance) {
+        if (positions.size() < MINIMUM_POSITION_COUNT)
+            return null;
+
+        double latitudeDelta = distance / METERS_PER_DEGREE;
+        double cosLatitude = cos(toRadians(min(abs(latitude) + latitudeDelta, 90.0)));
+        if (cosLatitude < 0.01)
+            return null;
+        double longitudeDelta = latitudeDelta / cosLatitude;
+        // the area crosses the date line
+        if (longitude - longitudeDelta < -180.0 || longitude + longitudeDelta > 180.0)
+            return null;
+
+        ensure(positions);
+        int[] candidates = collect(longitude - longitudeDelta, latitude - latitudeDelta,
+                longitude + longitudeDelta, latitude + latitudeDelta);
+        if (distance > MAXIMUM_EQUIRECTANGULAR_DISTANCE || abs(latitude) + latitudeDelta > MAXIMUM_EQUIRECTANGULAR_LATITUDE)
+            return candidates;
+
+        // skip the candidates that are farther away even with the error of the projection
+        double maximumDistance = distance * (1.0 + EQUIRECTANGULAR_ERROR) + 1.0;
+        int count = 0;
+        for (int index : candidates) {
+            NavigationPosition position = positions.get(index);
+            if (calculateEquirectangularDistance(longitude, latitude, position.getLongitude(), position.getLatitude()) <= maximumDistance)
+                candidates[count++] = index;
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+
+    /**
+     * Returns the indices of the positions that may be within the given area
+     * in ascending order or null if all positions have to be examined.
+     */
+    synchronized int[] getCandidates(List<? extends NavigationPosition> positions,
+                                     double minimumLongitude, double minimumLatitude,
+                                     double maximumLongitude, double maximumLatitude) {
+        if (positions.size() < MINIMUM_POSITION_COUNT)
+            return null;
+
+        ensure(positions);
+        return collect(minimumLongitude, minimumLatitude, maximumLongitude, maximumLatitude);
+    }
+
+    private static class Cell {
+        private int[] indices = new int[POSITIONS_PER_CELL];
+        private int size = 0;
+
+        void add(int index) {
+            if (size == indices.length)
+                indices = Arrays.copyOf(indices, grow(indices.length, size + 1));
+            indices[size++] = index;
+        }
+
+        void addAll(Cell cell) {
+            if (size + cell.size > indices.length)
+                indices = Arrays.copyOf(indices, grow(indices.length, size + cell.size));
+            System.arraycopy(cell.indices, 0, indices, size, cell.size);
+            size += cell.size;
+        }
+
+        void insert(int index) {
+            int position = Arrays.binarySearch(indices, 0, size, index);
+            if (position >= 0)
+                return;
+            position = -position - 1;
+            if (size == indices.length)
+                indices = Arrays.copyOf(indices, grow(indices.length, size + 1));
+            System.arraycopy(indices, position, indices, position + 1, size - position);
+            indices[position] = index;
+            size++;
+        }
+
+        void remove(int index) {
+            int position = Arrays.binarySearch(indices, 0, size, index);
+            if (position < 0)
+                return;
+            System.arraycopy(indices, position + 1, indices, position, size - position - 1);
+            size--;
+        }
+
+        void trim(int fromIndex) {
+            // indices are added in ascending order
+            while (size > 0 && indices[size - 1] >= fromIndex)
+                size--;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import slash.common.type.CompactCalendar;
+import slash.navigation.common.NavigationPosition;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static slash.navigation.base.BaseColumnarPositionList.grow;
+
+/**
+ * Sorts the times of the positions of a route to find the position closest to a time
+ * with a binary search. Positions with the same time are sorted by their index.
+ * Like the {@link CumulativeIndex} only the entries before the first changed position
+ * remain valid after a change, the others are sorted again on demand and merged.
+ *
+ * @author Christian Pesch
+ */
+
+class TimeIndex {
+    private long[] times = new long[0];
+    private int[] indices = new int[0];
+    private int count = 0, validCount = 0, positionCount = 0;
+
+    /**
+     * Invalidates the times from the given index on.
+     *
+     * @param fromIndex the index of the first changed position
+     * @param positionCount the number of positions after the change
+     */
+    synchronized void invalidate(int fromIndex, int positionCount) {
+        this.validCount = min(validCount, max(fromIndex, 0));
+        this.positionCount = positionCount;
+    }
+
+    private void ensure(List<? extends NavigationPosition> positions) {
+        int size = positions.size();
+        // the positions have been changed without invalidation
+        if (size != positionCount) {
+            validCount = 0;
+            positionCount = size;
+        }
+        if (validCount == size)
+            return;
+
+        // keep the entries of the unchanged positions
+        int keptCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (indices[i] < validCount) {
+                times[keptCount] = times[i];
+                indices[keptCount] = indices[i];
+                keptCount++;
+            }
+        }
+
+        long[] addedTimes = new long[size - validCount];
+        int[] addedIndices = new int[size - validCount];
+        int addedCount = 0;
+        boolean sorted = true;
+        for (int i = validCount; i < size; i++) {
+            CompactCalendar time = positions.get(i).getTime();
+            if (time == null)
+                continue;
+            addedTimes[addedCount] = time.getTimeInMillis();
+            addedIndices[addedCount] = i;
+            if (addedCount > 0 && addedTimes[addedCount] < addedTimes[addedCount - 1])
+                sorted = false;
+            addedCount++;
+        }
+        if (!sorted)
+            sort(addedTimes, addedIndices, addedCount);
+
+        // the kept entries have smaller indices than the added ones
+        long[] mergedTimes = new long[grow(times.length, keptCount + addedCount)];
+        int[] mergedIndices = new int[mergedTimes.length];
+        int kept = 0, added = 0, merged = 0;
+        while (kept < keptCount || added < addedCount) {
+            if (added == addedCount || kept < keptCount && times[kept] <= addedTimes[added]) {
+                mergedTimes[merged] = times[kept];
+                mergedIndices[merged++] = indices[kept++];
+            } else {
+                mergedTimes[merged] = addedTimes[added];
+                mergedIndices[merged++] = addedIndices[added++];
+            }
+        }
+        times = mergedTimes;
+        indices = mergedIndices;
+        count = merged;
+        validCount = size;
+    }
+
+    private static void sort(long[] times, int[] indices, int count) {
+        // a stable merge sort keeps positions with the same time in the order of their index
+        long[] sourceTimes = times, targetTimes = new long[count];
+        int[] sourceIndices = indices, targetIndices = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int from = 0; from < count; from += 2 * width) {
+                int middle = min(from + width, count), to = min(from + 2 * width, count);
+                int left = from, right = middle, target = from;
+                while (left < middle || right < to) {
+                    if (right == to || left < middle && sourceTimes[left] <= sourceTimes[right]) {
+                        targetTimes[target] = sourceTimes[left];
+                        targetIndices[target++] = sourceIndices[left++];
+                    } else {
+                        targetTimes[target] = sourceTimes[right];
+                        targetIndices[target++] = sourceIndices[right++];
+                    }
+                }
+            }
+            long[] swapTimes = sourceTimes;
+            sourceTimes = targetTimes;
+            targetTimes = swapTimes;
+            int[] swapIndices = sourceIndices;
+            sourceIndices = targetIndices;
+            targetIndices = swapIndices;
+        }
+        if (sourceTimes != times) {
+            System.arraycopy(sourceTimes, 0, times, 0, count);
+            System.arraycopy(sourceIndices, 0, indices, 0, count);
+        }
+    }
+
+    private int lowerBound(long time) {
+        int low = 0, high = count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (times[middle] < time)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+
+    private int getClosestEntry(int entry, long time, long threshold) {
+        int result = -1;
+        long closestDistance = Long.MAX_VALUE;
+        if (entry > 0) {
+            // the first position with the time before
+            int first = entry - 1;
+            while (first > 0 && times[first - 1] == times[entry - 1])
+                first--;
+            closestDistance = time - times[first];
+            result = indices[first];
+        }
+        if (entry < count) {
+            long distance = times[entry] - time;
+            if (distance < closestDistance || distance == closestDistance && indices[entry] < result) {
+                closestDistance = distance;
+                result = indices[entry];
+            }
+        }
+        return closestDistance <= threshold ? result : -1;
+    }
+
+    synchronized int getClosestPosition(List<? extends NavigationPosition> positions, long time, long threshold) {
+        ensure(positions);
+        return getClosestEntry(lowerBound(time), time, threshold);
+    }
+
+    synchronized int[] getClosestPositions(List<? extends NavigationPosition> positions, long[] sortedTimes, long threshold) {
+        ensure(positions);
+        int[] result = new int[sortedTimes.length];
+        int entry = 0;
+        for (int i = 0; i < sortedTimes.length; i++) {
+            long time = sortedTimes[i];
+            if (i > 0 && time < sortedTimes[i - 1])
+                throw new IllegalArgumentException("Times are not sorted at index " + i);
+            while (entry < count && times[entry] < time)
+                entry++;
+            result[i] = getClosestEntry(entry, time, threshold);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the indices of the positions with the last time before or at and the
+     * first time at or after the given time or null if the time is outside of the route.
+     */
+    synchronized int[] getSurroundingPositions(List<? extends NavigationPosition> positions, long time) {
+        ensure(positions);
+        int entry = lowerBound(time);
+        if (entry < count && times[entry] == time)
+            return new int[]{indices[entry], indices[entry]};
+        if (entry == 0 || entry == count)
+            return null;
+        return new int[]{indices[entry - 1], indices[entry]};
+    }
+}
@@ -21,6 +21,7 @@
 package slash.navigation.base;
 
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.BaseColumnarPositionList.Row;
 import slash.navigation.gpx.GpxPosition;
 import slash.navigation.itn.TomTomPosition;
 import slash.navigation.nmea.NmeaPosition;
@@ -43,6 +44,9 @@ public class Wgs84Position extends BaseNavigationPosition {
     private CompactCalendar time;
     private Object origin;
 
+    protected Wgs84Position() {
+    }
+
     public Wgs84Position(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
         this(longitude, latitude, elevation, speed, time, description, null);
     }
@@ -58,27 +62,42 @@ public class Wgs84Position extends BaseNavigationPosition {
     }
 
     public Double getLongitude() {
-        return longitude;
+        Row row = getColumnarRow();
+        return row != null ? row.getLongitude() : longitude;
     }
 
     public void setLongitude(Double longitude) {
-        this.longitude = longitude;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setLongitude(longitude);
+        else
+            this.longitude = longitude;
     }
 
     public Double getLatitude() {
-        return latitude;
+        Row row = getColumnarRow();
+        return row != null ? row.getLatitude() : latitude;
     }
 
     public void setLatitude(Double latitude) {
-        this.latitude = latitude;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setLatitude(latitude);
+        else
+            this.latitude = latitude;
     }
 
     public String getDescription() {
-        return description;
+        Row row = getColumnarRow();
+        return row != null ? row.getDescription() : description;
     }
 
     public void setDescription(String description) {
-        this.description = description;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setDescription(description);
+        else
+            this.description = description;
         if (description == null)
             return;
 
@@ -86,83 +105,130 @@ public class Wgs84Position extends BaseNavigationPosition {
     }
 
     public Double getElevation() {
-        return elevation;
+        Row row = getColumnarRow();
+        return row != null ? row.getElevation() : elevation;
     }
 
     public void setElevation(Double elevation) {
-        this.elevation = elevation;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setElevation(elevation);
+        else
+            this.elevation = elevation;
     }
 
     public Double getSpeed() {
-        return speed;
+        Row row = getColumnarRow();
+        return row != null ? row.getSpeed() : speed;
     }
 
     public void setSpeed(Double speed) {
-        this.speed = speed;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setSpeed(speed);
+        else
+            this.speed = speed;
     }
 
     public CompactCalendar getTime() {
-        return time;
+        Row row = getColumnarRow();
+        return row != null ? row.getTime() : time;
     }
 
     public void setTime(CompactCalendar time) {
-        this.time = time;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setTime(time);
+        else
+            this.time = time;
     }
 
 
     public WaypointType getWaypointType() {
-        return waypointType;
+        Row row = getColumnarRow();
+        return row != null ? row.getWaypointType() : waypointType;
     }
 
     public void setWaypointType(WaypointType waypointType) {
-        this.waypointType = waypointType;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setWaypointType(waypointType);
+        else
+            this.waypointType = waypointType;
     }
 
     public Double getHeading() {
-        return heading;
+        Row row = getColumnarRow();
+        return row != null ? row.getHeading() : heading;
     }
 
     public void setHeading(Double heading) {
-        this.heading = heading;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setHeading(heading);
+        else
+            this.heading = heading;
     }
 
     public Double getHdop() {
-        return hdop;
+        Row row = getColumnarRow();
+        return row != null ? row.getHdop() : hdop;
     }
 
     public void setHdop(Double hdop) {
-        this.hdop = hdop;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setHdop(hdop);
+        else
+            this.hdop = hdop;
     }
 
     public Double getVdop() {
-        return vdop;
+        Row row = getColumnarRow();
+        return row != null ? row.getVdop() : vdop;
     }
 
     public void setVdop(Double vdop) {
-        this.vdop = vdop;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setVdop(vdop);
+        else
+            this.vdop = vdop;
     }
 
     public Double getPdop() {
-        return pdop;
+        Row row = getColumnarRow();
+        return row != null ? row.getPdop() : pdop;
     }
 
     public void setPdop(Double pdop) {
-        this.pdop = pdop;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setPdop(pdop);
+        else
+            this.pdop = pdop;
     }
 
     public Integer getSatellites() {
-        return satellites;
+        Row row = getColumnarRow();
+        return row != null ? row.getSatellites() : satellites;
     }
 
     public void setSatellites(Integer satellites) {
-        this.satellites = satellites;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setSatellites(satellites);
+        else
+            this.satellites = satellites;
     }
 
     public/* for tests */ Object getOrigin() {
-        return origin;
+        Row row = getColumnarRow();
+        return row != null ? row.getOrigin() : origin;
     }
 
     public <T> T getOrigin(Class<T> resultClass) {
+        Object origin = getOrigin();
         if (resultClass.isInstance(origin))
             return resultClass.cast(origin);
         else
@@ -170,7 +236,11 @@ public class Wgs84Position extends BaseNavigationPosition {
     }
 
     public/* for ImageFormat */ void setOrigin(Object origin) {
-        this.origin = origin;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setOrigin(origin);
+        else
+            this.origin = origin;
     }
 
     public GpxPosition asGpxPosition() {
@@ -205,34 +275,34 @@ public class Wgs84Position extends BaseNavigationPosition {
 
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || getPositionClass(this) != getPositionClass(o)) return false;
 
         Wgs84Position that = (Wgs84Position) o;
 
-        return !(description != null ? !description.equals(that.description) : that.description != null) &&
+        return !(getDescription() != null ? !getDescription().equals(that.getDescription()) : that.getDescription() != null) &&
                 !(getElevation() != null ? !getElevation().equals(that.getElevation()) : that.getElevation() != null) &&
-                !(heading != null ? !heading.equals(that.heading) : that.heading != null) &&
-                !(latitude != null ? !latitude.equals(that.latitude) : that.latitude != null) &&
-                !(longitude != null ? !longitude.equals(that.longitude) : that.longitude != null) &&
+                !(getHeading() != null ? !getHeading().equals(that.getHeading()) : that.getHeading() != null) &&
+                !(getLatitude() != null ? !getLatitude().equals(that.getLatitude()) : that.getLatitude() != null) &&
+                !(getLongitude() != null ? !getLongitude().equals(that.getLongitude()) : that.getLongitude() != null) &&
                 !(hasTime() ? !getTime().equals(that.getTime()) : that.hasTime()) &&
-                !(hdop != null ? !hdop.equals(that.hdop) : that.hdop != null) &&
-                !(pdop != null ? !pdop.equals(that.pdop) : that.pdop != null) &&
-                !(vdop != null ? !vdop.equals(that.vdop) : that.vdop != null) &&
-                !(satellites != null ? !satellites.equals(that.satellites) : that.satellites != null);
+                !(getHdop() != null ? !getHdop().equals(that.getHdop()) : that.getHdop() != null) &&
+                !(getPdop() != null ? !getPdop().equals(that.getPdop()) : that.getPdop() != null) &&
+                !(getVdop() != null ? !getVdop().equals(that.getVdop()) : that.getVdop() != null) &&
+                !(getSatellites() != null ? !getSatellites().equals(that.getSatellites()) : that.getSatellites() != null);
     }
 
     public int hashCode() {
         int result;
-        result = (longitude != null ? longitude.hashCode() : 0);
-        result = 31 * result + (latitude != null ? latitude.hashCode() : 0);
+        result = (getLongitude() != null ? getLongitude().hashCode() : 0);
+        result = 31 * result + (getLatitude() != null ? getLatitude().hashCode() : 0);
         result = 31 * result + (getElevation() != null ? getElevation().hashCode() : 0);
-        result = 31 * result + (heading != null ? heading.hashCode() : 0);
-        result = 31 * result + (description != null ? description.hashCode() : 0);
+        result = 31 * result + (getHeading() != null ? getHeading().hashCode() : 0);
+        result = 31 * result + (getDescription() != null ? getDescription().hashCode() : 0);
         result = 31 * result + (hasTime() ? getTime().hashCode() : 0);
-        result = 31 * result + (hdop != null ? hdop.hashCode() : 0);
-        result = 31 * result + (pdop != null ? pdop.hashCode() : 0);
-        result = 31 * result + (vdop != null ? vdop.hashCode() : 0);
-        result = 31 * result + (satellites != null ? satellites.hashCode() : 0);
+        result = 31 * result + (getHdop() != null ? getHdop().hashCode() : 0);
+        result = 31 * result + (getPdop() != null ? getPdop().hashCode() : 0);
+        result = 31 * result + (getVdop() != null ? getVdop().hashCode() : 0);
+        result = 31 * result + (getSatellites() != null ? getSatellites().hashCode() : 0);
         return result;
     }
 }
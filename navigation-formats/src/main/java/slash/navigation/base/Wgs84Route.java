@@ -24,6 +24,8 @@ import slash.common.type.CompactCalendar;
 
 import java.util.List;
 
+import static slash.navigation.base.BaseNavigationPosition.getPositionClass;
+
 /**
  * Represents a Wgs84 route.
  *
@@ -38,4 +40,27 @@ public class Wgs84Route extends SimpleRoute<Wgs84Position, SimpleFormat> {
     public Wgs84Position createPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
         return new Wgs84Position(longitude, latitude, elevation, speed, time, description);
     }
+
+    /**
+     * Stores the positions of this route in a {@link ColumnarPositionList} unless
+     * some of them are subclasses of {@link Wgs84Position} whose values would be lost.
+     *
+     * @return true if the positions are stored in columns afterwards
+     */
+    public boolean useColumnarPositions() {
+        if (isColumnar())
+            return true;
+        if (positions instanceof ColumnarPositionList) {
+            if (!((ColumnarPositionList) positions).useColumns())
+                return false;
+        } else {
+            for (Wgs84Position position : positions) {
+                if (getPositionClass(position) != Wgs84Position.class)
+                    return false;
+            }
+            positions = new ColumnarPositionList(positions);
+        }
+        invalidateFrom(0);
+        return true;
+    }
 }
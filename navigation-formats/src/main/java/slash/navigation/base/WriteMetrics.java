@@ -0,0 +1,125 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+/**
+ * The metrics of a {@link NavigationFormatParser#write} operation.
+ *
+ * @author Christian Pesch
+ */
+
+public class WriteMetrics {
+    private final String format;
+    private final long time = System.currentTimeMillis();
+    private int routes, positions, files;
+    private long bytes, convertNanos, commentNanos, writeNanos, nanos;
+
+    WriteMetrics(String format) {
+        this.format = format;
+    }
+
+    public String getFormat() {
+        return format;
+    }
+
+    /**
+     * @return the milliseconds since the epoch when the write started
+     */
+    public long getTime() {
+        return time;
+    }
+
+    public int getRoutes() {
+        return routes;
+    }
+
+    public int getPositions() {
+        return positions;
+    }
+
+    void addRoute(int positions) {
+        this.routes++;
+        this.positions += positions;
+    }
+
+    public int getFiles() {
+        return files;
+    }
+
+    void setFiles(int files) {
+        this.files = files;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return the time to convert the routes to the format
+     */
+    public long getConvertNanos() {
+        return convertNanos;
+    }
+
+    void addConvertNanos(long convertNanos) {
+        this.convertNanos += convertNanos;
+    }
+
+    /**
+     * @return the time to comment the positions and routes
+     */
+    public long getCommentNanos() {
+        return commentNanos;
+    }
+
+    void addCommentNanos(long commentNanos) {
+        this.commentNanos += commentNanos;
+    }
+
+    /**
+     * @return the time the format spent writing the routes
+     */
+    public long getWriteNanos() {
+        return writeNanos;
+    }
+
+    void addWriteNanos(long writeNanos) {
+        this.writeNanos += writeNanos;
+    }
+
+    public long getNanos() {
+        return nanos;
+    }
+
+    void setNanos(long nanos) {
+        this.nanos = nanos;
+    }
+
+    public String toString() {
+        return getClass().getSimpleName() + "[format=" + getFormat() + ", routes=" + getRoutes() +
+                ", positions=" + getPositions() + ", files=" + getFiles() + ", bytes=" + getBytes() +
+                ", nanos=" + getNanos() + "]";
+    }
+}
@@ -20,6 +20,11 @@
 
 package slash.navigation.base;
 
+import slash.common.io.NotClosingUnderlyingInputStream;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 
 /**
@@ -30,11 +35,31 @@ import java.util.List;
 
 public abstract class XmlNavigationFormat<R extends BaseRoute> extends BaseNavigationFormat<R> {
     public static final String HEADER_LINE = "<!-- " + GENERATED_BY + " -->\n";
+    private static final int UNMARSHAL_MARK_LIMIT = 8 * 1024 * 1024;
 
     public int getMaximumPositionCount() {
         return UNLIMITED_MAXIMUM_POSITION_COUNT;
     }
 
+    /**
+     * Keeps the first bytes of the source to unmarshal the document with JAXB if it cannot be streamed.
+     * The source itself is not marked since the {@link NavigationFormatParser} relies on its mark.
+     */
+    protected static BufferedInputStream markForUnmarshal(InputStream source) {
+        BufferedInputStream buffer = new BufferedInputStream(new NotClosingUnderlyingInputStream(source));
+        buffer.mark(UNMARSHAL_MARK_LIMIT);
+        return buffer;
+    }
+
+    protected static void resetForUnmarshal(BufferedInputStream buffer) throws IOException {
+        try {
+            buffer.reset();
+        } catch (IOException e) {
+            throw new IOException("Cannot unmarshal documents larger than " + UNMARSHAL_MARK_LIMIT +
+                    " bytes that cannot be streamed: " + e.getMessage(), e);
+        }
+    }
+
     protected String asDescription(List<String> strings) {
         StringBuilder buffer = new StringBuilder();
         if (strings != null) {
@@ -33,33 +33,19 @@ import static slash.common.io.Transfer.ISO_LATIN1_ENCODING;
 class GoPalUtil {
     private static final String GOPAL_NAMESPACE_URI = "";
 
-    private static Unmarshaller newUnmarshaller3() {
-        return newUnmarshaller(newContext(slash.navigation.gopal.binding3.ObjectFactory.class));
+    private static JAXBContext newContext3() {
+        return newContext(slash.navigation.gopal.binding3.ObjectFactory.class);
     }
 
-    private static Marshaller newMarshaller3() {
-        Marshaller marshaller = newMarshaller(newContext(slash.navigation.gopal.binding3.ObjectFactory.class));
-        try {
-            marshaller.setProperty(JAXB_ENCODING, ISO_LATIN1_ENCODING);
-        } catch (PropertyException e) {
-            // intentionally left empty
-        }
-        return marshaller;
-    }
-
-    private static Unmarshaller newUnmarshaller5() {
-        return newUnmarshaller(newContext(slash.navigation.gopal.binding5.ObjectFactory.class));
-    }
-
-    private static Marshaller newMarshaller5() {
-        return newMarshaller(newContext(slash.navigation.gopal.binding5.ObjectFactory.class));
+    private static JAXBContext newContext5() {
+        return newContext(slash.navigation.gopal.binding5.ObjectFactory.class);
     }
 
 
     public static slash.navigation.gopal.binding3.Tour unmarshal3(InputStream in) throws JAXBException {
         slash.navigation.gopal.binding3.Tour result = null;
         try {
-            result = (slash.navigation.gopal.binding3.Tour) newUnmarshaller3().unmarshal(in);
+            result = (slash.navigation.gopal.binding3.Tour) unmarshal(newContext3(), in);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
         }
@@ -69,7 +55,7 @@ class GoPalUtil {
     public static slash.navigation.gopal.binding5.Tour unmarshal5(InputStream in) throws JAXBException {
         slash.navigation.gopal.binding5.Tour result = null;
         try {
-            result = (slash.navigation.gopal.binding5.Tour) newUnmarshaller5().unmarshal(in);
+            result = (slash.navigation.gopal.binding5.Tour) unmarshal(newContext5(), in);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
         }
@@ -79,10 +65,13 @@ class GoPalUtil {
 
     public static void marshal3(slash.navigation.gopal.binding3.Tour tour, OutputStream out) throws JAXBException {
         try {
+            Marshaller marshaller = acquireMarshaller(newContext3());
             try {
-                newMarshaller3().marshal(new JAXBElement<>(new QName(GOPAL_NAMESPACE_URI, "tour"), slash.navigation.gopal.binding3.Tour.class, tour), out);
+                marshaller.setProperty(JAXB_ENCODING, ISO_LATIN1_ENCODING);
+                marshaller.marshal(new JAXBElement<>(new QName(GOPAL_NAMESPACE_URI, "tour"), slash.navigation.gopal.binding3.Tour.class, tour), out);
             }
             finally {
+                releaseMarshaller(newContext3(), marshaller);
                 out.flush();
                 out.close();
             }
@@ -94,7 +83,7 @@ class GoPalUtil {
     public static void marshal5(slash.navigation.gopal.binding5.Tour tour, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller5().marshal(new JAXBElement<>(new QName(GOPAL_NAMESPACE_URI, "Tour"), slash.navigation.gopal.binding5.Tour.class, tour), out);
+                marshal(newContext5(), new JAXBElement<>(new QName(GOPAL_NAMESPACE_URI, "Tour"), slash.navigation.gopal.binding5.Tour.class, tour), out);
             }
             finally {
                 out.flush();
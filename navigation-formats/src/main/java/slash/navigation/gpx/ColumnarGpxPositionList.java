@@ -0,0 +1,68 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import slash.navigation.base.BaseColumnarPositionList;
+
+/**
+ * A {@link BaseColumnarPositionList} of {@link GpxPosition}s which the
+ * GPS Exchange Formats fill while they read.
+ *
+ * @author Christian Pesch
+ */
+
+public class ColumnarGpxPositionList extends BaseColumnarPositionList<GpxPosition> {
+    private final ObjectColumn<String> reasons = addColumn(new ObjectColumn<String>());
+
+    protected GpxPosition createView(Row row) {
+        return new ColumnarGpxPosition(row);
+    }
+
+    protected Class<GpxPosition> getStorableClass() {
+        return GpxPosition.class;
+    }
+
+    protected void appendValues(Row row, GpxPosition position) {
+        appendWgs84Values(row, position);
+        row.set(reasons, position.getReason());
+    }
+
+    private class ColumnarGpxPosition extends GpxPosition {
+        private final Row row;
+
+        private ColumnarGpxPosition(Row row) {
+            this.row = row;
+        }
+
+        protected Row getColumnarRow() {
+            return row;
+        }
+
+        protected void setDescriptionAndReason(String description, String reason) {
+            row.setDescription(description);
+            row.set(reasons, reason);
+        }
+
+        public String getReason() {
+            return row.get(reasons);
+        }
+    }
+}
@@ -20,13 +20,16 @@
 
 package slash.navigation.gpx;
 
-import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.RouteCharacteristics;
+import slash.navigation.gpx.binding10.BoundsType;
 import slash.navigation.gpx.binding10.Gpx;
 import slash.navigation.gpx.binding10.ObjectFactory;
 
 import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
@@ -39,7 +42,7 @@ import static slash.common.io.Transfer.*;
 import static slash.navigation.base.RouteCharacteristics.*;
 import static slash.navigation.common.NavigationConversion.*;
 import static slash.navigation.common.UnitConversion.kmhToMs;
-import static slash.navigation.gpx.GpxUtil.marshal10;
+import static slash.navigation.gpx.GpxUtil.GPX_10_NAMESPACE_URI;
 import static slash.navigation.gpx.GpxUtil.unmarshal10;
 
 /**
@@ -65,25 +68,334 @@ public class Gpx10Format extends GpxFormat {
         return "GPS Exchange Format " + VERSION + " (*" + getExtension() + ")";
     }
 
+    String getNamespaceUri() {
+        return GPX_10_NAMESPACE_URI;
+    }
+
+    private boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond(Gpx gpx) {
+        return gpx.getCreator() != null &&
+                ("Mobile Action http://www.mobileaction.com/".equals(gpx.getCreator()) ||
+                 "Holux Utility".equals(gpx.getCreator()));
+    }
+
     void process(Gpx gpx, ParserContext<GpxRoute> context) {
         if (gpx == null || !VERSION.equals(gpx.getVersion()))
             return;
 
-        boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond = gpx.getCreator() != null &&
-                ("Mobile Action http://www.mobileaction.com/".equals(gpx.getCreator()) ||
-                 "Holux Utility".equals(gpx.getCreator()));
-        GpxRoute wayPointsAsRoute = extractWayPoints(gpx, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+        boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond = hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond(gpx);
+        GpxRoute wayPointsAsRoute = extractWayPoints(gpx, extractWayPoints(gpx.getWpt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
         if (wayPointsAsRoute != null)
             context.appendRoute(wayPointsAsRoute);
         context.appendRoutes(extractRoutes(gpx, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
         context.appendRoutes(extractTracks(gpx, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<GpxRoute> context) throws Exception {
+    void unmarshal(InputStream source, ParserContext<GpxRoute> context) throws JAXBException {
         Gpx gpx = unmarshal10(source);
         process(gpx, context);
     }
 
+    List<GpxRoute> read(GpxStreamReader reader) throws XMLStreamException {
+        reader.startDocument("gpx");
+        if (!VERSION.equals(reader.getAttribute("version")))
+            throw reader.unsupported();
+
+        ObjectFactory objectFactory = new ObjectFactory();
+        Gpx gpx = objectFactory.createGpx();
+        gpx.setVersion(VERSION);
+        gpx.setCreator(reader.getAttribute("creator"));
+        boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond = hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond(gpx);
+
+        List<GpxPosition> wayPoints = new ArrayList<>();
+        List<GpxRoute> routes = new ArrayList<>();
+        List<GpxRoute> tracks = new ArrayList<>();
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "name":
+                    gpx.setName(reader.getText());
+                    break;
+                case "desc":
+                    gpx.setDesc(reader.getText());
+                    break;
+                case "author":
+                    gpx.setAuthor(reader.getText());
+                    break;
+                case "email":
+                    gpx.setEmail(reader.getText());
+                    break;
+                case "url":
+                    gpx.setUrl(reader.getText());
+                    break;
+                case "urlname":
+                    gpx.setUrlname(reader.getText());
+                    break;
+                case "time":
+                    gpx.setTime(reader.getDateTime());
+                    break;
+                case "keywords":
+                    gpx.setKeywords(reader.getText());
+                    break;
+                case "bounds":
+                    BoundsType boundsType = objectFactory.createBoundsType();
+                    boundsType.setMinlat(reader.getDecimalAttribute("minlat"));
+                    boundsType.setMinlon(reader.getDecimalAttribute("minlon"));
+                    boundsType.setMaxlat(reader.getDecimalAttribute("maxlat"));
+                    boundsType.setMaxlon(reader.getDecimalAttribute("maxlon"));
+                    gpx.setBounds(boundsType);
+                    reader.skipElement();
+                    break;
+                case "wpt":
+                    wayPoints.add(readPosition(reader, "wpt", hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                case "rte":
+                    routes.add(readRoute(reader, gpx, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                case "trk":
+                    GpxRoute track = readTrack(reader, gpx, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+                    if (track.getPositionCount() > 0)
+                        tracks.add(track);
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+        reader.endDocument();
+
+        List<GpxRoute> result = new ArrayList<>();
+        GpxRoute wayPointsAsRoute = extractWayPoints(gpx, wayPoints);
+        if (wayPointsAsRoute != null)
+            result.add(wayPointsAsRoute);
+        result.addAll(routes);
+        result.addAll(tracks);
+        return result;
+    }
+
+    private GpxRoute readRoute(GpxStreamReader reader, Gpx gpx, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        Gpx.Rte rte = new ObjectFactory().createGpxRte();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "name":
+                    rte.setName(reader.getText());
+                    break;
+                case "cmt":
+                    rte.setCmt(reader.getText());
+                    break;
+                case "desc":
+                    rte.setDesc(reader.getText());
+                    break;
+                case "src":
+                    rte.setSrc(reader.getText());
+                    break;
+                case "url":
+                    rte.setUrl(reader.getText());
+                    break;
+                case "urlname":
+                    rte.setUrlname(reader.getText());
+                    break;
+                case "number":
+                    rte.setNumber(reader.getInteger());
+                    break;
+                case "rtept":
+                    positions.add(readPosition(reader, "rtept", hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+        return new GpxRoute(this, Route, rte.getName(), asDescription(rte.getDesc()), positions, gpx, rte);
+    }
+
+    private GpxRoute readTrack(GpxStreamReader reader, Gpx gpx, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        Gpx.Trk trk = new ObjectFactory().createGpxTrk();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "name":
+                    trk.setName(reader.getText());
+                    break;
+                case "cmt":
+                    trk.setCmt(reader.getText());
+                    break;
+                case "desc":
+                    trk.setDesc(reader.getText());
+                    break;
+                case "src":
+                    trk.setSrc(reader.getText());
+                    break;
+                case "url":
+                    trk.setUrl(reader.getText());
+                    break;
+                case "urlname":
+                    trk.setUrlname(reader.getText());
+                    break;
+                case "number":
+                    trk.setNumber(reader.getInteger());
+                    break;
+                case "trkseg":
+                    while (reader.nextElement()) {
+                        if (!"trkpt".equals(reader.getName()))
+                            throw reader.unsupported();
+                        positions.add(readPosition(reader, "trkpt", hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    }
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+        return new GpxRoute(this, Track, trk.getName(), asDescription(trk.getDesc()), positions, gpx, trk);
+    }
+
+    /**
+     * Reads the standard elements of a wpt, rtept or trkpt and keeps a JAXB origin only
+     * if an element that a position does not hold has to survive for writing.
+     */
+    private GpxPosition readPosition(GpxStreamReader reader, String elementName, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        Gpx.Wpt wpt = new ObjectFactory().createGpxWpt();
+        wpt.setLat(reader.getDecimalAttribute("lat"));
+        wpt.setLon(reader.getDecimalAttribute("lon"));
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "ele":
+                    wpt.setEle(reader.getDecimal());
+                    break;
+                case "time":
+                    wpt.setTime(reader.getDateTime());
+                    break;
+                case "course":
+                    wpt.setCourse(reader.getDecimal());
+                    break;
+                case "speed":
+                    wpt.setSpeed(reader.getDecimal());
+                    break;
+                case "magvar":
+                    wpt.setMagvar(reader.getDecimal());
+                    break;
+                case "geoidheight":
+                    wpt.setGeoidheight(reader.getDecimal());
+                    break;
+                case "name":
+                    wpt.setName(reader.getText());
+                    break;
+                case "cmt":
+                    wpt.setCmt(reader.getText());
+                    break;
+                case "desc":
+                    wpt.setDesc(reader.getText());
+                    break;
+                case "src":
+                    wpt.setSrc(reader.getText());
+                    break;
+                case "url":
+                    wpt.setUrl(reader.getText());
+                    break;
+                case "urlname":
+                    wpt.setUrlname(reader.getText());
+                    break;
+                case "sym":
+                    wpt.setSym(reader.getText());
+                    break;
+                case "type":
+                    wpt.setType(reader.getText());
+                    break;
+                case "fix":
+                    wpt.setFix(reader.getText());
+                    break;
+                case "sat":
+                    wpt.setSat(reader.getInteger());
+                    break;
+                case "hdop":
+                    wpt.setHdop(reader.getDecimal());
+                    break;
+                case "vdop":
+                    wpt.setVdop(reader.getDecimal());
+                    break;
+                case "pdop":
+                    wpt.setPdop(reader.getDecimal());
+                    break;
+                case "ageofdgpsdata":
+                    wpt.setAgeofdgpsdata(reader.getDecimal());
+                    break;
+                case "dgpsid":
+                    wpt.setDgpsid(reader.getInt());
+                    break;
+                default:
+                    // extensions are left to JAXB
+                    throw reader.unsupported();
+            }
+        }
+
+        String description = "wpt".equals(elementName) ? asWayPointDescription(wpt.getName(), wpt.getDesc()) : asDescription(wpt.getName(), wpt.getDesc());
+        Object origin = null;
+        if (hasOriginValues(wpt, description))
+            origin = "wpt".equals(elementName) ? wpt : "rtept".equals(elementName) ? asRtept(wpt) : asTrkpt(wpt);
+        return new GpxPosition(wpt.getLon(), wpt.getLat(), wpt.getEle(), getSpeed(wpt.getSpeed(), wpt.getCmt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), formatDouble(wpt.getCourse()), parseXMLTime(wpt.getTime()), description, wpt.getHdop(), wpt.getPdop(), wpt.getVdop(), wpt.getSat(), origin);
+    }
+
+    private boolean hasOriginValues(Gpx.Wpt wpt, String description) {
+        return wpt.getCmt() != null || wpt.getSrc() != null || wpt.getUrl() != null || wpt.getUrlname() != null ||
+                wpt.getSym() != null || wpt.getType() != null || wpt.getFix() != null ||
+                wpt.getMagvar() != null || wpt.getGeoidheight() != null || wpt.getAgeofdgpsdata() != null || wpt.getDgpsid() != null ||
+                // writing takes the desc from the origin
+                trim(wpt.getDesc()) != null && asDesc(description) == null;
+    }
+
+    private Gpx.Rte.Rtept asRtept(Gpx.Wpt wpt) {
+        Gpx.Rte.Rtept rtept = new ObjectFactory().createGpxRteRtept();
+        rtept.setLat(wpt.getLat());
+        rtept.setLon(wpt.getLon());
+        rtept.setEle(wpt.getEle());
+        rtept.setTime(wpt.getTime());
+        rtept.setCourse(wpt.getCourse());
+        rtept.setSpeed(wpt.getSpeed());
+        rtept.setMagvar(wpt.getMagvar());
+        rtept.setGeoidheight(wpt.getGeoidheight());
+        rtept.setName(wpt.getName());
+        rtept.setCmt(wpt.getCmt());
+        rtept.setDesc(wpt.getDesc());
+        rtept.setSrc(wpt.getSrc());
+        rtept.setUrl(wpt.getUrl());
+        rtept.setUrlname(wpt.getUrlname());
+        rtept.setSym(wpt.getSym());
+        rtept.setType(wpt.getType());
+        rtept.setFix(wpt.getFix());
+        rtept.setSat(wpt.getSat());
+        rtept.setHdop(wpt.getHdop());
+        rtept.setVdop(wpt.getVdop());
+        rtept.setPdop(wpt.getPdop());
+        rtept.setAgeofdgpsdata(wpt.getAgeofdgpsdata());
+        rtept.setDgpsid(wpt.getDgpsid());
+        return rtept;
+    }
+
+    private Gpx.Trk.Trkseg.Trkpt asTrkpt(Gpx.Wpt wpt) {
+        Gpx.Trk.Trkseg.Trkpt trkpt = new ObjectFactory().createGpxTrkTrksegTrkpt();
+        trkpt.setLat(wpt.getLat());
+        trkpt.setLon(wpt.getLon());
+        trkpt.setEle(wpt.getEle());
+        trkpt.setTime(wpt.getTime());
+        trkpt.setCourse(wpt.getCourse());
+        trkpt.setSpeed(wpt.getSpeed());
+        trkpt.setMagvar(wpt.getMagvar());
+        trkpt.setGeoidheight(wpt.getGeoidheight());
+        trkpt.setName(wpt.getName());
+        trkpt.setCmt(wpt.getCmt());
+        trkpt.setDesc(wpt.getDesc());
+        trkpt.setSrc(wpt.getSrc());
+        trkpt.setUrl(wpt.getUrl());
+        trkpt.setUrlname(wpt.getUrlname());
+        trkpt.setSym(wpt.getSym());
+        trkpt.setType(wpt.getType());
+        trkpt.setFix(wpt.getFix());
+        trkpt.setSat(wpt.getSat());
+        trkpt.setHdop(wpt.getHdop());
+        trkpt.setVdop(wpt.getVdop());
+        trkpt.setPdop(wpt.getPdop());
+        trkpt.setAgeofdgpsdata(wpt.getAgeofdgpsdata());
+        trkpt.setDgpsid(wpt.getDgpsid());
+        return trkpt;
+    }
+
     private List<GpxRoute> extractRoutes(Gpx gpx, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
         List<GpxRoute> result = new ArrayList<>();
 
@@ -98,10 +410,9 @@ public class Gpx10Format extends GpxFormat {
         return result;
     }
 
-    private GpxRoute extractWayPoints(Gpx gpx, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
+    private GpxRoute extractWayPoints(Gpx gpx, List<GpxPosition> positions) {
         String name = gpx.getName();
         List<String> descriptions = asDescription(gpx.getDesc());
-        List<GpxPosition> positions = extractWayPoints(gpx.getWpt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
         return positions.size() == 0 ? null : new GpxRoute(this, isTripmasterTrack(positions) ? Track : Waypoints, name, descriptions, positions, gpx);
     }
 
@@ -127,7 +438,7 @@ public class Gpx10Format extends GpxFormat {
     }
 
     private List<GpxPosition> extractRoute(Gpx.Rte rte, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         if (rte != null) {
             for (Gpx.Rte.Rtept rtept : rte.getRtept()) {
                 positions.add(new GpxPosition(rtept.getLon(), rtept.getLat(), rtept.getEle(), getSpeed(rtept.getSpeed(), rtept.getCmt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), formatDouble(rtept.getCourse()), parseXMLTime(rtept.getTime()), asDescription(rtept.getName(), rtept.getDesc()), rtept.getHdop(), rtept.getPdop(), rtept.getVdop(), rtept.getSat(), rtept));
@@ -137,7 +448,7 @@ public class Gpx10Format extends GpxFormat {
     }
 
     private List<GpxPosition> extractWayPoints(List<Gpx.Wpt> wpts, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         for (Gpx.Wpt wpt : wpts) {
             positions.add(new GpxPosition(wpt.getLon(), wpt.getLat(), wpt.getEle(), getSpeed(wpt.getSpeed(), wpt.getCmt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), formatDouble(wpt.getCourse()), parseXMLTime(wpt.getTime()), asWayPointDescription(wpt.getName(), wpt.getDesc()), wpt.getHdop(), wpt.getPdop(), wpt.getVdop(), wpt.getSat(), wpt));
         }
@@ -145,7 +456,7 @@ public class Gpx10Format extends GpxFormat {
     }
 
     private List<GpxPosition> extractTrack(Gpx.Trk trk, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         if (trk != null) {
             for (Gpx.Trk.Trkseg trkSeg : trk.getTrkseg()) {
                 for (Gpx.Trk.Trkseg.Trkpt trkPt : trkSeg.getTrkpt()) {
@@ -180,129 +491,201 @@ public class Gpx10Format extends GpxFormat {
                 "Heading: " + formatHeadingAsString(heading);
     }
 
-    private List<Gpx.Wpt> createWayPoints(GpxRoute route, int startIndex, int endIndex) {
-        ObjectFactory objectFactory = new ObjectFactory();
-        List<Gpx.Wpt> wpts = new ArrayList<>();
-        List<GpxPosition> positions = route.getPositions();
-        for (int i = startIndex; i < endIndex; i++) {
-            GpxPosition position = positions.get(i);
-            BigDecimal latitude = formatPosition(position.getLatitude());
-            BigDecimal longitude = formatPosition(position.getLongitude());
-            if(latitude == null || longitude == null)
-                continue;
-            Gpx.Wpt wpt = position.getOrigin(Gpx.Wpt.class);
-            if (wpt == null || !reuseReadObjectsForWriting)
-                wpt = objectFactory.createGpxWpt();
-            wpt.setLat(latitude);
-            wpt.setLon(longitude);
-            wpt.setTime(isWriteTime() ? formatXMLTime(position.getTime()) : null);
-            wpt.setEle(isWriteElevation() ? formatElevation(position.getElevation()) : null);
-            wpt.setCourse(isWriteHeading() ? formatHeading(position.getHeading()) : null);
-            wpt.setSpeed(isWriteSpeed() && position.getSpeed() != null ? formatBigDecimal(kmhToMs(position.getSpeed()), 3) : null);
+    private Gpx.Wpt createWpt(GpxPosition position) {
+        BigDecimal latitude = formatPosition(position.getLatitude());
+        BigDecimal longitude = formatPosition(position.getLongitude());
+        if (latitude == null || longitude == null)
+            return null;
+        Gpx.Wpt wpt = position.getOrigin(Gpx.Wpt.class);
+        if (wpt == null || !reuseReadObjectsForWriting)
+            wpt = new ObjectFactory().createGpxWpt();
+        wpt.setLat(latitude);
+        wpt.setLon(longitude);
+        wpt.setTime(isWriteTime() ? formatXMLTime(position.getTime()) : null);
+        wpt.setEle(isWriteElevation() ? formatElevation(position.getElevation()) : null);
+        wpt.setCourse(isWriteHeading() ? formatHeading(position.getHeading()) : null);
+        wpt.setSpeed(isWriteSpeed() && position.getSpeed() != null ? formatBigDecimal(kmhToMs(position.getSpeed()), 3) : null);
+        if (isWriteSpeed() && reuseReadObjectsForWriting)
+            wpt.setCmt(formatSpeed(wpt.getCmt(), position.getSpeed()));
+        if (isWriteHeading() && reuseReadObjectsForWriting)
+            wpt.setCmt(addHeading(wpt.getCmt(), position.getHeading()));
+        wpt.setName(isWriteName() ? splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()) : null);
+        wpt.setDesc(isWriteName() && splitNameAndDesc ? asDesc(position.getDescription(), wpt.getDesc()) : null);
+        wpt.setHdop(isWriteAccuracy() && position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
+        wpt.setPdop(isWriteAccuracy() && position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
+        wpt.setVdop(isWriteAccuracy() && position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
+        wpt.setSat(isWriteAccuracy() && position.getSatellites() != null ? formatInt(position.getSatellites()) : null);
+        return wpt;
+    }
+
+    private Gpx.Rte.Rtept createRtept(GpxPosition position) {
+        BigDecimal latitude = formatPosition(position.getLatitude());
+        BigDecimal longitude = formatPosition(position.getLongitude());
+        if (latitude == null || longitude == null)
+            return null;
+        Gpx.Rte.Rtept rtept = position.getOrigin(Gpx.Rte.Rtept.class);
+        if (rtept == null || !reuseReadObjectsForWriting)
+            rtept = new ObjectFactory().createGpxRteRtept();
+        rtept.setLat(latitude);
+        rtept.setLon(longitude);
+        rtept.setTime(isWriteTime() ? formatXMLTime(position.getTime()) : null);
+        rtept.setEle(isWriteElevation() ? formatElevation(position.getElevation()) : null);
+        rtept.setCourse(isWriteHeading() ? formatHeading(position.getHeading()) : null);
+        rtept.setSpeed(isWriteSpeed() && position.getSpeed() != null ? formatBigDecimal(kmhToMs(position.getSpeed()), 3) : null);
+        if (isWriteSpeed() && reuseReadObjectsForWriting)
+            rtept.setCmt(formatSpeed(rtept.getCmt(), position.getSpeed()));
+        if (isWriteHeading() && reuseReadObjectsForWriting)
+            rtept.setCmt(addHeading(rtept.getCmt(), position.getHeading()));
+        rtept.setName(isWriteName() ? splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()) : null);
+        rtept.setDesc(isWriteName() && splitNameAndDesc ? asDesc(position.getDescription(), rtept.getDesc()) : null);
+        rtept.setHdop(isWriteAccuracy() && position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
+        rtept.setPdop(isWriteAccuracy() && position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
+        rtept.setVdop(isWriteAccuracy() && position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
+        rtept.setSat(isWriteAccuracy() && position.getSatellites() != null ? formatInt(position.getSatellites()) : null);
+        return rtept;
+    }
+
+    private Gpx.Trk.Trkseg.Trkpt createTrkpt(GpxPosition position) {
+        BigDecimal latitude = formatPosition(position.getLatitude());
+        BigDecimal longitude = formatPosition(position.getLongitude());
+        if (latitude == null || longitude == null)
+            return null;
+        Gpx.Trk.Trkseg.Trkpt trkpt = position.getOrigin(Gpx.Trk.Trkseg.Trkpt.class);
+        if (trkpt == null || !reuseReadObjectsForWriting)
+            trkpt = new ObjectFactory().createGpxTrkTrksegTrkpt();
+        trkpt.setLat(latitude);
+        trkpt.setLon(longitude);
+        trkpt.setTime(isWriteTime() ? formatXMLTime(position.getTime()) : null);
+        trkpt.setEle(isWriteElevation() ? formatElevation(position.getElevation()) : null);
+        trkpt.setCourse(isWriteHeading() ? formatHeading(position.getHeading()) : null);
+        trkpt.setSpeed(isWriteSpeed() && position.getSpeed() != null ?
+                formatBigDecimal(kmhToMs(position.getSpeed()), 3) : null);
+        trkpt.setName(isWriteName() ? splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()) : null);
+        trkpt.setDesc(isWriteName() && splitNameAndDesc ? asDesc(position.getDescription(), trkpt.getDesc()) : null);
+        trkpt.setHdop(isWriteAccuracy() && position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
+        trkpt.setPdop(isWriteAccuracy() && position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
+        trkpt.setVdop(isWriteAccuracy() && position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
+        trkpt.setSat(isWriteAccuracy() && position.getSatellites() != null ? formatInt(position.getSatellites()) : null);
+        return trkpt;
+    }
+
+    private void writePosition(GpxStreamWriter writer, String elementName, GpxPosition position, boolean writeComment) throws XMLStreamException {
+        // writes what createWpt(), createRtept() and createTrkpt() set on a new object
+        BigDecimal latitude = formatPosition(position.getLatitude());
+        BigDecimal longitude = formatPosition(position.getLongitude());
+        if (latitude == null || longitude == null)
+            return;
+        writer.startElement(elementName);
+        writer.writeAttribute("lat", latitude);
+        writer.writeAttribute("lon", longitude);
+        if (isWriteElevation())
+            writer.writeElement("ele", formatElevation(position.getElevation()));
+        if (isWriteTime())
+            writer.writeTime("time", position.getTime());
+        if (isWriteHeading())
+            writer.writeElement("course", formatHeading(position.getHeading()));
+        if (isWriteSpeed() && position.getSpeed() != null)
+            writer.writeElement("speed", formatBigDecimal(kmhToMs(position.getSpeed()), 3));
+        if (isWriteName())
+            writer.writeElement("name", splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()));
+        if (writeComment) {
+            String comment = null;
             if (isWriteSpeed() && reuseReadObjectsForWriting)
-                wpt.setCmt(formatSpeed(wpt.getCmt(), position.getSpeed()));
+                comment = formatSpeed(comment, position.getSpeed());
             if (isWriteHeading() && reuseReadObjectsForWriting)
-                wpt.setCmt(addHeading(wpt.getCmt(), position.getHeading()));
-            wpt.setName(isWriteName() ? splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()) : null);
-            wpt.setDesc(isWriteName() && splitNameAndDesc ? asDesc(position.getDescription(), wpt.getDesc()) : null);
-            wpt.setHdop(isWriteAccuracy() && position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
-            wpt.setPdop(isWriteAccuracy() && position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
-            wpt.setVdop(isWriteAccuracy() && position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
-            wpt.setSat(isWriteAccuracy() && position.getSatellites() != null ? formatInt(position.getSatellites()) : null);
-            wpts.add(wpt);
+                comment = addHeading(comment, position.getHeading());
+            writer.writeElement("cmt", comment);
+        }
+        if (isWriteName() && splitNameAndDesc)
+            writer.writeElement("desc", asDesc(position.getDescription(), null));
+        if (isWriteAccuracy()) {
+            writer.writeElement("sat", formatInt(position.getSatellites()));
+            writer.writeElement("hdop", formatBigDecimal(position.getHdop(), 6));
+            writer.writeElement("vdop", formatBigDecimal(position.getVdop(), 6));
+            writer.writeElement("pdop", formatBigDecimal(position.getPdop(), 6));
         }
-        return wpts;
+        writer.endElement();
     }
 
-    private List<Gpx.Rte> createRoute(GpxRoute route, int startIndex, int endIndex) {
-        ObjectFactory objectFactory = new ObjectFactory();
-        List<Gpx.Rte> rtes = new ArrayList<>();
+    private boolean hasOrigin(GpxPosition position, Class<?> type) {
+        return reuseReadObjectsForWriting && position.getOrigin(type) != null;
+    }
 
+    private void writeWayPoints(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
+        List<GpxPosition> positions = route.getPositions();
+        for (int i = startIndex; i < endIndex; i++) {
+            GpxPosition position = positions.get(i);
+            if (hasOrigin(position, Gpx.Wpt.class))
+                writer.marshal(new QName(GPX_10_NAMESPACE_URI, "wpt"), Gpx.Wpt.class, createWpt(position));
+            else
+                writePosition(writer, "wpt", position, true);
+        }
+    }
+
+    private void writeRoute(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
         Gpx.Rte rte = route.getOrigin(Gpx.Rte.class);
         if (rte != null && reuseReadObjectsForWriting)
             rte.getRtept().clear();
         else
-            rte = objectFactory.createGpxRte();
-
+            rte = new ObjectFactory().createGpxRte();
         if (isWriteMetaData()) {
             rte.setName(asRouteName(route.getName()));
             rte.setDesc(asDescription(route.getDescription()));
         }
-        rtes.add(rte);
+
+        writer.startElement("rte");
+        writer.writeElement("name", rte.getName());
+        writer.writeElement("cmt", rte.getCmt());
+        writer.writeElement("desc", rte.getDesc());
+        writer.writeElement("src", rte.getSrc());
+        writer.writeElement("url", rte.getUrl());
+        writer.writeElement("urlname", rte.getUrlname());
+        writer.writeElement("number", rte.getNumber());
+        for (Object any : rte.getAny())
+            writer.writeAny(any);
         List<GpxPosition> positions = route.getPositions();
         for (int i = startIndex; i < endIndex; i++) {
             GpxPosition position = positions.get(i);
-            BigDecimal latitude = formatPosition(position.getLatitude());
-            BigDecimal longitude = formatPosition(position.getLongitude());
-            if(latitude == null || longitude == null)
-                continue;
-            Gpx.Rte.Rtept rtept = position.getOrigin(Gpx.Rte.Rtept.class);
-            if (rtept == null || !reuseReadObjectsForWriting)
-                rtept = objectFactory.createGpxRteRtept();
-            rtept.setLat(latitude);
-            rtept.setLon(longitude);
-            rtept.setTime(isWriteTime() ? formatXMLTime(position.getTime()) : null);
-            rtept.setEle(isWriteElevation() ? formatElevation(position.getElevation()) : null);
-            rtept.setCourse(isWriteHeading() ? formatHeading(position.getHeading()) : null);
-            rtept.setSpeed(isWriteSpeed() && position.getSpeed() != null ? formatBigDecimal(kmhToMs(position.getSpeed()), 3) : null);
-            if (isWriteSpeed() && reuseReadObjectsForWriting)
-                rtept.setCmt(formatSpeed(rtept.getCmt(), position.getSpeed()));
-            if (isWriteHeading() && reuseReadObjectsForWriting)
-                rtept.setCmt(addHeading(rtept.getCmt(), position.getHeading()));
-            rtept.setName(isWriteName() ? splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()) : null);
-            rtept.setDesc(isWriteName() && splitNameAndDesc ? asDesc(position.getDescription(), rtept.getDesc()) : null);
-            rtept.setHdop(isWriteAccuracy() && position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
-            rtept.setPdop(isWriteAccuracy() && position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
-            rtept.setVdop(isWriteAccuracy() && position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
-            rtept.setSat(isWriteAccuracy() && position.getSatellites() != null ? formatInt(position.getSatellites()) : null);
-            rte.getRtept().add(rtept);
+            if (hasOrigin(position, Gpx.Rte.Rtept.class))
+                writer.marshal(new QName(GPX_10_NAMESPACE_URI, "rtept"), Gpx.Rte.Rtept.class, createRtept(position));
+            else
+                writePosition(writer, "rtept", position, true);
         }
-        return rtes;
+        writer.endElement();
     }
 
-    private List<Gpx.Trk> createTrack(GpxRoute route, int startIndex, int endIndex) {
-        ObjectFactory objectFactory = new ObjectFactory();
-        List<Gpx.Trk> trks = new ArrayList<>();
-
+    private void writeTrack(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
         Gpx.Trk trk = route.getOrigin(Gpx.Trk.class);
         if (trk != null && reuseReadObjectsForWriting)
             trk.getTrkseg().clear();
         else
-            trk = objectFactory.createGpxTrk();
-
+            trk = new ObjectFactory().createGpxTrk();
         if (isWriteMetaData()) {
             trk.setName(asRouteName(route.getName()));
             trk.setDesc(asDescription(route.getDescription()));
         }
-        trks.add(trk);
-        Gpx.Trk.Trkseg trkseg = objectFactory.createGpxTrkTrkseg();
+
+        writer.startElement("trk");
+        writer.writeElement("name", trk.getName());
+        writer.writeElement("cmt", trk.getCmt());
+        writer.writeElement("desc", trk.getDesc());
+        writer.writeElement("src", trk.getSrc());
+        writer.writeElement("url", trk.getUrl());
+        writer.writeElement("urlname", trk.getUrlname());
+        writer.writeElement("number", trk.getNumber());
+        for (Object any : trk.getAny())
+            writer.writeAny(any);
+        writer.startElement("trkseg");
         List<GpxPosition> positions = route.getPositions();
         for (int i = startIndex; i < endIndex; i++) {
             GpxPosition position = positions.get(i);
-            BigDecimal latitude = formatPosition(position.getLatitude());
-            BigDecimal longitude = formatPosition(position.getLongitude());
-            if(latitude == null || longitude == null)
-                continue;
-            Gpx.Trk.Trkseg.Trkpt trkpt = position.getOrigin(Gpx.Trk.Trkseg.Trkpt.class);
-            if (trkpt == null || !reuseReadObjectsForWriting)
-                trkpt = objectFactory.createGpxTrkTrksegTrkpt();
-            trkpt.setLat(latitude);
-            trkpt.setLon(longitude);
-            trkpt.setTime(isWriteTime() ? formatXMLTime(position.getTime()) : null);
-            trkpt.setEle(isWriteElevation() ? formatElevation(position.getElevation()) : null);
-            trkpt.setCourse(isWriteHeading() ? formatHeading(position.getHeading()) : null);
-            trkpt.setSpeed(isWriteSpeed() && position.getSpeed() != null ?
-                    formatBigDecimal(kmhToMs(position.getSpeed()), 3) : null);
-            trkpt.setName(isWriteName() ? splitNameAndDesc ? asName(position.getDescription()) : trim(position.getDescription()) : null);
-            trkpt.setDesc(isWriteName() && splitNameAndDesc ? asDesc(position.getDescription(), trkpt.getDesc()) : null);
-            trkpt.setHdop(isWriteAccuracy() && position.getHdop() != null ? formatBigDecimal(position.getHdop(), 6) : null);
-            trkpt.setPdop(isWriteAccuracy() && position.getPdop() != null ? formatBigDecimal(position.getPdop(), 6) : null);
-            trkpt.setVdop(isWriteAccuracy() && position.getVdop() != null ? formatBigDecimal(position.getVdop(), 6) : null);
-            trkpt.setSat(isWriteAccuracy() && position.getSatellites() != null ? formatInt(position.getSatellites()) : null);
-            trkseg.getTrkpt().add(trkpt);
+            if (hasOrigin(position, Gpx.Trk.Trkseg.Trkpt.class))
+                writer.marshal(new QName(GPX_10_NAMESPACE_URI, "trkpt"), Gpx.Trk.Trkseg.Trkpt.class, createTrkpt(position));
+            else
+                writePosition(writer, "trkpt", position, false);
         }
-        trk.getTrkseg().add(trkseg);
-        return trks;
+        writer.endElement();
+        writer.endElement();
     }
 
     private Gpx recycleGpx(GpxRoute route) {
@@ -322,80 +705,112 @@ public class Gpx10Format extends GpxFormat {
         }
     }
 
-    private Gpx createGpx(GpxRoute route, int startIndex, int endIndex, List<RouteCharacteristics> characteristics) {
+    private void writeHeader(GpxStreamWriter writer, Gpx gpx) throws XMLStreamException {
+        writer.startDocument(VERSION, GENERATED_BY);
+        writer.writeElement("name", gpx.getName());
+        writer.writeElement("desc", gpx.getDesc());
+        writer.writeElement("author", gpx.getAuthor());
+        writer.writeElement("email", gpx.getEmail());
+        writer.writeElement("url", gpx.getUrl());
+        writer.writeElement("urlname", gpx.getUrlname());
+        writer.writeElement("time", gpx.getTime());
+        writer.writeElement("keywords", gpx.getKeywords());
+        BoundsType bounds = gpx.getBounds();
+        if (bounds != null) {
+            writer.startElement("bounds");
+            writer.writeAttribute("minlat", bounds.getMinlat());
+            writer.writeAttribute("minlon", bounds.getMinlon());
+            writer.writeAttribute("maxlat", bounds.getMaxlat());
+            writer.writeAttribute("maxlon", bounds.getMaxlon());
+            writer.endElement();
+        }
+    }
+
+    private void writeFooter(GpxStreamWriter writer, Gpx gpx) throws XMLStreamException {
+        for (Object any : gpx.getAny())
+            writer.writeAny(any);
+        writer.endDocument();
+    }
+
+    public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex) {
+        write(route, target, startIndex, endIndex, asList(Route, Track, Waypoints));
+    }
+
+    public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex, List<RouteCharacteristics> characteristics) {
         Gpx gpx = recycleGpx(route);
         if (gpx == null || !reuseReadObjectsForWriting)
             gpx = new ObjectFactory().createGpx();
-        gpx.setCreator(GENERATED_BY);
-        gpx.setVersion(VERSION);
-
         for (RouteCharacteristics characteristic : characteristics) {
             switch (characteristic) {
-                case Route:
-                    gpx.getRte().addAll(createRoute(route, startIndex, endIndex));
-                    break;
-                case Track:
-                    gpx.getTrk().addAll(createTrack(route, startIndex, endIndex));
-                    break;
                 case Waypoints:
                     createMetaData(route, gpx);
-                    gpx.getWpt().addAll(createWayPoints(route, startIndex, endIndex));
+                    break;
+                case Route:
+                case Track:
                     break;
                 default:
                     throw new IllegalArgumentException("Unknown RouteCharacteristics " + characteristic);
             }
         }
-        return gpx;
+
+        try (GpxStreamWriter writer = new GpxStreamWriter(target, GPX_10_NAMESPACE_URI)) {
+            writeHeader(writer, gpx);
+            for (RouteCharacteristics characteristic : characteristics) {
+                if (characteristic.equals(Waypoints))
+                    writeWayPoints(writer, route, startIndex, endIndex);
+            }
+            for (RouteCharacteristics characteristic : characteristics) {
+                if (characteristic.equals(Route))
+                    writeRoute(writer, route, startIndex, endIndex);
+            }
+            for (RouteCharacteristics characteristic : characteristics) {
+                if (characteristic.equals(Track))
+                    writeTrack(writer, route, startIndex, endIndex);
+            }
+            writeFooter(writer, gpx);
+        } catch (XMLStreamException | IOException e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
-    private Gpx createGpx(List<GpxRoute> routes) {
-        ObjectFactory objectFactory = new ObjectFactory();
+    public void write(List<GpxRoute> routes, OutputStream target) {
         Gpx gpx = null;
-        for(GpxRoute route : routes) {
+        for (GpxRoute route : routes) {
             gpx = recycleGpx(route);
-            if(gpx != null)
+            if (gpx != null)
                 break;
         }
         if (gpx == null || !reuseReadObjectsForWriting)
-            gpx = objectFactory.createGpx();
-        gpx.setCreator(GENERATED_BY);
-        gpx.setVersion(VERSION);
-
+            gpx = new ObjectFactory().createGpx();
         for (GpxRoute route : routes) {
             switch (route.getCharacteristics()) {
                 case Waypoints:
                     createMetaData(route, gpx);
-                    gpx.getWpt().addAll(createWayPoints(route, 0, route.getPositionCount()));
                     break;
                 case Route:
-                    gpx.getRte().addAll(createRoute(route, 0, route.getPositionCount()));
-                    break;
                 case Track:
-                    gpx.getTrk().addAll(createTrack(route, 0, route.getPositionCount()));
                     break;
                 default:
                     throw new IllegalArgumentException("Unknown RouteCharacteristics " + route.getCharacteristics());
             }
         }
-        return gpx;
-    }
-
-    public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex) {
-        write(route, target, startIndex, endIndex, asList(Route, Track, Waypoints));
-    }
-
-    public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex, List<RouteCharacteristics> characteristics) {
-        try {
-            marshal10(createGpx(route, startIndex, endIndex, characteristics), target);
-        } catch (JAXBException e) {
-            throw new IllegalArgumentException(e);
-        }
-    }
 
-    public void write(List<GpxRoute> routes, OutputStream target) {
-        try {
-            marshal10(createGpx(routes), target);
-        } catch (JAXBException e) {
+        try (GpxStreamWriter writer = new GpxStreamWriter(target, GPX_10_NAMESPACE_URI)) {
+            writeHeader(writer, gpx);
+            for (GpxRoute route : routes) {
+                if (route.getCharacteristics().equals(Waypoints))
+                    writeWayPoints(writer, route, 0, route.getPositionCount());
+            }
+            for (GpxRoute route : routes) {
+                if (route.getCharacteristics().equals(Route))
+                    writeRoute(writer, route, 0, route.getPositionCount());
+            }
+            for (GpxRoute route : routes) {
+                if (route.getCharacteristics().equals(Track))
+                    writeTrack(writer, route, 0, route.getPositionCount());
+            }
+            writeFooter(writer, gpx);
+        } catch (XMLStreamException | IOException e) {
             throw new IllegalArgumentException(e);
         }
     }
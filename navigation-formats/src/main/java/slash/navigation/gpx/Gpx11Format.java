@@ -22,7 +22,6 @@ package slash.navigation.gpx;
 
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
-import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
 import slash.navigation.gpx.binding11.*;
 import slash.navigation.gpx.garmin3.AutoroutePointT;
@@ -32,6 +31,9 @@ import slash.navigation.gpx.trip1.ViaPointExtensionT;
 
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLStreamException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.math.BigDecimal;
@@ -43,7 +45,8 @@ import static slash.common.io.Transfer.formatDouble;
 import static slash.common.io.Transfer.*;
 import static slash.navigation.base.RouteCharacteristics.*;
 import static slash.navigation.common.NavigationConversion.*;
-import static slash.navigation.gpx.GpxUtil.marshal11;
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+import static slash.navigation.gpx.GpxUtil.TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI;
 import static slash.navigation.gpx.GpxUtil.unmarshal11;
 
 /**
@@ -54,54 +57,306 @@ import static slash.navigation.gpx.GpxUtil.unmarshal11;
 
 public class Gpx11Format extends GpxFormat {
     static final String VERSION = "1.1";
+    private static final QName TREKBUDDY_SPEED = new QName(TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI, "speed");
+    private static final QName TREKBUDDY_COURSE = new QName(TREKBUDDY_EXTENSIONS_0984_NAMESPACE_URI, "course");
 
     public String getName() {
         return "GPS Exchange Format " + VERSION + " (*" + getExtension() + ")";
     }
 
+    String getNamespaceUri() {
+        return GPX_11_NAMESPACE_URI;
+    }
+
+    private boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond(GpxType gpxType) {
+        return gpxType.getCreator() != null &&
+                ("Whatever".equals(gpxType.getCreator()));
+    }
+
     void process(GpxType gpxType, ParserContext<GpxRoute> context) {
         if (gpxType == null || !VERSION.equals(gpxType.getVersion()))
             return;
 
-        boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond = gpxType.getCreator() != null &&
-                ("Whatever".equals(gpxType.getCreator()));
-        GpxRoute wayPointsAsRoute = extractWayPoints(gpxType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+        boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond = hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond(gpxType);
+        GpxRoute wayPointsAsRoute = extractWayPoints(gpxType, extractWayPoints(gpxType.getWpt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
         if (wayPointsAsRoute != null)
             context.appendRoute(wayPointsAsRoute);
         context.appendRoutes(extractRoutes(gpxType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
         context.appendRoutes(extractTracks(gpxType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<GpxRoute> context) throws Exception {
+    void unmarshal(InputStream source, ParserContext<GpxRoute> context) throws JAXBException {
         GpxType gpxType = unmarshal11(source);
         process(gpxType, context);
     }
 
-    private List<GpxRoute> extractRoutes(GpxType gpxType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
+    List<GpxRoute> read(GpxStreamReader reader) throws XMLStreamException {
+        reader.startDocument("gpx");
+        if (!VERSION.equals(reader.getAttribute("version")))
+            throw reader.unsupported();
+
+        GpxType gpxType = new ObjectFactory().createGpxType();
+        gpxType.setVersion(VERSION);
+        gpxType.setCreator(reader.getAttribute("creator"));
+        boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond = hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond(gpxType);
+
+        List<GpxPosition> wayPoints = new ArrayList<>();
+        List<GpxRoute> routes = new ArrayList<>();
+        List<GpxRoute> tracks = new ArrayList<>();
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "metadata":
+                    gpxType.setMetadata(reader.unmarshal(MetadataType.class));
+                    break;
+                case "wpt":
+                    wayPoints.add(readPosition(reader, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                case "rte":
+                    routes.addAll(readRoute(reader, gpxType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                case "trk":
+                    tracks.add(readTrack(reader, gpxType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                case "extensions":
+                    gpxType.setExtensions(reader.unmarshal(ExtensionsType.class));
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+        reader.endDocument();
+
         List<GpxRoute> result = new ArrayList<>();
+        GpxRoute wayPointsAsRoute = extractWayPoints(gpxType, wayPoints);
+        if (wayPointsAsRoute != null)
+            result.add(wayPointsAsRoute);
+        result.addAll(routes);
+        result.addAll(tracks);
+        return result;
+    }
 
-        for (RteType rteType : gpxType.getRte()) {
-            String name = rteType.getName();
-            String desc = rteType.getDesc();
-            List<String> descriptions = asDescription(desc);
-            List<GpxPosition> positions = extractRoute(rteType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
-            result.add(new GpxRoute(this, Route, name, descriptions, positions, gpxType, rteType));
+    private List<GpxRoute> readRoute(GpxStreamReader reader, GpxType gpxType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        RteType rteType = new ObjectFactory().createRteType();
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "name":
+                    rteType.setName(reader.getText());
+                    break;
+                case "cmt":
+                    rteType.setCmt(reader.getText());
+                    break;
+                case "desc":
+                    rteType.setDesc(reader.getText());
+                    break;
+                case "src":
+                    rteType.setSrc(reader.getText());
+                    break;
+                case "link":
+                    rteType.getLink().add(reader.unmarshal(LinkType.class));
+                    break;
+                case "number":
+                    rteType.setNumber(reader.getInteger());
+                    break;
+                case "type":
+                    rteType.setType(reader.getText());
+                    break;
+                case "extensions":
+                    rteType.setExtensions(reader.unmarshal(ExtensionsType.class));
+                    break;
+                case "rtept":
+                    rteType.getRtept().add(readWptType(reader));
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+
+        List<GpxRoute> result = extractRoutes(gpxType, rteType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+        for (GpxRoute route : result) {
+            for (GpxPosition position : route.getPositions())
+                releaseOrigin(position);
+        }
+        // the route points are kept by the positions that need them for writing
+        rteType.getRtept().clear();
+        return result;
+    }
 
-            // Garmin Extensions v3
-            if (rteType.getExtensions() != null && rteType.getExtensions().getAny().size() > 0) {
-                List<GpxPosition> extendedPositions = extractRouteWithGarminExtensions(rteType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
-                result.add(new GpxRoute(this, Track, name, descriptions, extendedPositions, gpxType, rteType));
+    private GpxRoute readTrack(GpxStreamReader reader, GpxType gpxType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        TrkType trkType = new ObjectFactory().createTrkType();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "name":
+                    trkType.setName(reader.getText());
+                    break;
+                case "cmt":
+                    trkType.setCmt(reader.getText());
+                    break;
+                case "desc":
+                    trkType.setDesc(reader.getText());
+                    break;
+                case "src":
+                    trkType.setSrc(reader.getText());
+                    break;
+                case "link":
+                    trkType.getLink().add(reader.unmarshal(LinkType.class));
+                    break;
+                case "number":
+                    trkType.setNumber(reader.getInteger());
+                    break;
+                case "type":
+                    trkType.setType(reader.getText());
+                    break;
+                case "extensions":
+                    trkType.setExtensions(reader.unmarshal(ExtensionsType.class));
+                    break;
+                case "trkseg":
+                    readTrackSegment(reader, positions, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+                    break;
+                default:
+                    throw reader.unsupported();
             }
         }
+        return new GpxRoute(this, Track, trkType.getName(), asDescription(trkType.getDesc()), positions, gpxType, trkType);
+    }
+
+    private void readTrackSegment(GpxStreamReader reader, List<GpxPosition> positions, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "trkpt":
+                    positions.add(readPosition(reader, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+                    break;
+                case "extensions":
+                    // segments are not written again
+                    reader.skipElement();
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+    }
+
+    private GpxPosition readPosition(GpxStreamReader reader, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) throws XMLStreamException {
+        GpxPosition position = createPosition(readWptType(reader), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+        releaseOrigin(position);
+        return position;
+    }
+
+    private WptType readWptType(GpxStreamReader reader) throws XMLStreamException {
+        WptType wptType = new ObjectFactory().createWptType();
+        wptType.setLat(reader.getDecimalAttribute("lat"));
+        wptType.setLon(reader.getDecimalAttribute("lon"));
+        while (reader.nextElement()) {
+            switch (reader.getName()) {
+                case "ele":
+                    wptType.setEle(reader.getDecimal());
+                    break;
+                case "time":
+                    wptType.setTime(reader.getDateTime());
+                    break;
+                case "magvar":
+                    wptType.setMagvar(reader.getDecimal());
+                    break;
+                case "geoidheight":
+                    wptType.setGeoidheight(reader.getDecimal());
+                    break;
+                case "name":
+                    wptType.setName(reader.getText());
+                    break;
+                case "cmt":
+                    wptType.setCmt(reader.getText());
+                    break;
+                case "desc":
+                    wptType.setDesc(reader.getText());
+                    break;
+                case "src":
+                    wptType.setSrc(reader.getText());
+                    break;
+                case "link":
+                    wptType.getLink().add(reader.unmarshal(LinkType.class));
+                    break;
+                case "sym":
+                    wptType.setSym(reader.getText());
+                    break;
+                case "type":
+                    wptType.setType(reader.getText());
+                    break;
+                case "fix":
+                    wptType.setFix(reader.getText());
+                    break;
+                case "sat":
+                    wptType.setSat(reader.getInteger());
+                    break;
+                case "hdop":
+                    wptType.setHdop(reader.getDecimal());
+                    break;
+                case "vdop":
+                    wptType.setVdop(reader.getDecimal());
+                    break;
+                case "pdop":
+                    wptType.setPdop(reader.getDecimal());
+                    break;
+                case "ageofdgpsdata":
+                    wptType.setAgeofdgpsdata(reader.getDecimal());
+                    break;
+                case "dgpsid":
+                    wptType.setDgpsid(reader.getInt());
+                    break;
+                case "extensions":
+                    wptType.setExtensions(reader.unmarshal(ExtensionsType.class));
+                    break;
+                default:
+                    throw reader.unsupported();
+            }
+        }
+        return wptType;
+    }
+
+    /**
+     * Drops the origin of a position that holds every value that writing would take from it.
+     */
+    private void releaseOrigin(GpxPosition position) {
+        WptType wptType = position.getOrigin(WptType.class);
+        if (wptType == null)
+            return;
+        if (wptType.getMagvar() == null && wptType.getGeoidheight() == null && wptType.getCmt() == null &&
+                wptType.getSrc() == null && wptType.getLink().isEmpty() && wptType.getSym() == null &&
+                wptType.getType() == null && wptType.getFix() == null && wptType.getAgeofdgpsdata() == null &&
+                wptType.getDgpsid() == null && wptType.getExtensions() == null &&
+                (trim(wptType.getDesc()) == null || asDesc(position.getDescription()) != null))
+            position.setOrigin(null);
+    }
+
+    private List<GpxRoute> extractRoutes(GpxType gpxType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
+        List<GpxRoute> result = new ArrayList<>();
+        for (RteType rteType : gpxType.getRte()) {
+            result.addAll(extractRoutes(gpxType, rteType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
+        }
+        return result;
+    }
+
+    private List<GpxRoute> extractRoutes(GpxType gpxType, RteType rteType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
+        List<GpxRoute> result = new ArrayList<>();
+
+        String name = rteType.getName();
+        String desc = rteType.getDesc();
+        List<String> descriptions = asDescription(desc);
+        List<GpxPosition> positions = extractRoute(rteType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+        result.add(new GpxRoute(this, Route, name, descriptions, positions, gpxType, rteType));
+
+        // Garmin Extensions v3
+        if (rteType.getExtensions() != null && rteType.getExtensions().getAny().size() > 0) {
+            List<GpxPosition> extendedPositions = extractRouteWithGarminExtensions(rteType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
+            result.add(new GpxRoute(this, Track, name, descriptions, extendedPositions, gpxType, rteType));
+        }
 
         return result;
     }
 
-    private GpxRoute extractWayPoints(GpxType gpxType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
+    private GpxRoute extractWayPoints(GpxType gpxType, List<GpxPosition> positions) {
         String name = gpxType.getMetadata() != null ? gpxType.getMetadata().getName() : null;
         String desc = gpxType.getMetadata() != null ? gpxType.getMetadata().getDesc() : null;
         List<String> descriptions = asDescription(desc);
-        List<GpxPosition> positions = extractWayPoints(gpxType.getWpt(), hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond);
         return positions.size() == 0 ? null : new GpxRoute(this, Waypoints, name, descriptions, positions, gpxType);
     }
 
@@ -119,21 +374,25 @@ public class Gpx11Format extends GpxFormat {
         return result;
     }
 
+    private GpxPosition createPosition(WptType wptType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
+        return new GpxPosition(wptType.getLon(), wptType.getLat(), wptType.getEle(), getSpeed(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), getHeading(wptType), parseXMLTime(wptType.getTime()), asDescription(wptType.getName(), wptType.getDesc()), wptType.getHdop(), wptType.getPdop(), wptType.getVdop(), wptType.getSat(), wptType);
+    }
+
     private List<GpxPosition> extractRoute(RteType rteType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         if (rteType != null) {
             for (WptType wptType : rteType.getRtept()) {
-                positions.add(new GpxPosition(wptType.getLon(), wptType.getLat(), wptType.getEle(), getSpeed(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), getHeading(wptType), parseXMLTime(wptType.getTime()), asDescription(wptType.getName(), wptType.getDesc()), wptType.getHdop(), wptType.getPdop(), wptType.getVdop(), wptType.getSat(), wptType));
+                positions.add(createPosition(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
             }
         }
         return positions;
     }
 
     private List<GpxPosition> extractRouteWithGarminExtensions(RteType rteType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         if (rteType != null) {
             for (WptType wptType : rteType.getRtept()) {
-                positions.add(new GpxPosition(wptType.getLon(), wptType.getLat(), wptType.getEle(), getSpeed(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), getHeading(wptType), parseXMLTime(wptType.getTime()), asDescription(wptType.getName(), wptType.getDesc()), wptType.getHdop(), wptType.getPdop(), wptType.getVdop(), wptType.getSat(), wptType));
+                positions.add(createPosition(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
 
                 ExtensionsType extensions = wptType.getExtensions();
                 if (extensions != null) {
@@ -155,19 +414,19 @@ public class Gpx11Format extends GpxFormat {
     }
 
     private List<GpxPosition> extractWayPoints(List<WptType> wptTypes, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         for (WptType wptType : wptTypes) {
-            positions.add(new GpxPosition(wptType.getLon(), wptType.getLat(), wptType.getEle(), getSpeed(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), getHeading(wptType), parseXMLTime(wptType.getTime()), asDescription(wptType.getName(), wptType.getDesc()), wptType.getHdop(), wptType.getPdop(), wptType.getVdop(), wptType.getSat(), wptType));
+            positions.add(createPosition(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
         }
         return positions;
     }
 
     private List<GpxPosition> extractTrack(TrkType trkType, boolean hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond) {
-        List<GpxPosition> positions = new ArrayList<>();
+        List<GpxPosition> positions = new ColumnarGpxPositionList();
         if (trkType != null) {
             for (TrksegType trkSegType : trkType.getTrkseg()) {
                 for (WptType wptType : trkSegType.getTrkpt()) {
-                    positions.add(new GpxPosition(wptType.getLon(), wptType.getLat(), wptType.getEle(), getSpeed(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond), getHeading(wptType), parseXMLTime(wptType.getTime()), asDescription(wptType.getName(), wptType.getDesc()), wptType.getHdop(), wptType.getPdop(), wptType.getVdop(), wptType.getSat(), wptType));
+                    positions.add(createPosition(wptType, hasSpeedInKiloMeterPerHourInsteadOfMeterPerSecond));
                 }
             }
         }
@@ -409,72 +668,171 @@ public class Gpx11Format extends GpxFormat {
         return wptType;
     }
 
-    private List<WptType> createWayPoints(GpxRoute route, int startIndex, int endIndex) {
-        List<WptType> wptTypes = new ArrayList<>();
-        List<GpxPosition> positions = route.getPositions();
-        for (int i = startIndex; i < endIndex; i++) {
-            GpxPosition position = positions.get(i);
+    private void writeLinks(GpxStreamWriter writer, List<LinkType> linkTypes) throws XMLStreamException {
+        for (LinkType linkType : linkTypes) {
+            writer.startElement("link");
+            writer.writeAttribute("href", linkType.getHref());
+            writer.writeElement("text", linkType.getText());
+            writer.writeElement("type", linkType.getType());
+            writer.endElement();
+        }
+    }
+
+    private void writeExtensions(GpxStreamWriter writer, ExtensionsType extensionsType) throws XMLStreamException {
+        if (extensionsType == null)
+            return;
+        writer.startElement("extensions");
+        for (Object any : extensionsType.getAny())
+            writer.writeAny(any);
+        writer.endElement();
+    }
+
+    private void writeWptType(GpxStreamWriter writer, String elementName, WptType wptType) throws XMLStreamException {
+        writer.startElement(elementName);
+        writer.writeAttribute("lat", wptType.getLat());
+        writer.writeAttribute("lon", wptType.getLon());
+        writer.writeElement("ele", wptType.getEle());
+        writer.writeElement("time", wptType.getTime());
+        writer.writeElement("magvar", wptType.getMagvar());
+        writer.writeElement("geoidheight", wptType.getGeoidheight());
+        writer.writeElement("name", wptType.getName());
+        writer.writeElement("cmt", wptType.getCmt());
+        writer.writeElement("desc", wptType.getDesc());
+        writer.writeElement("src", wptType.getSrc());
+        writeLinks(writer, wptType.getLink());
+        writer.writeElement("sym", wptType.getSym());
+        writer.writeElement("type", wptType.getType());
+        writer.writeElement("fix", wptType.getFix());
+        writer.writeElement("sat", wptType.getSat());
+        writer.writeElement("hdop", wptType.getHdop());
+        writer.writeElement("vdop", wptType.getVdop());
+        writer.writeElement("pdop", wptType.getPdop());
+        writer.writeElement("ageofdgpsdata", wptType.getAgeofdgpsdata());
+        writer.writeElement("dgpsid", wptType.getDgpsid());
+        writeExtensions(writer, wptType.getExtensions());
+        writer.endElement();
+    }
+
+    void writePosition(GpxStreamWriter writer, String elementName, GpxPosition position) throws XMLStreamException {
+        // positions read with extensions keep them in their origin
+        if (position.getOrigin(WptType.class) != null) {
             WptType wptType = createWptType(position);
             if (wptType != null)
-                wptTypes.add(wptType);
+                writeWptType(writer, elementName, wptType);
+            return;
+        }
+
+        // writes what createWptType() sets on a new WptType
+        BigDecimal latitude = formatPosition(position.getLatitude());
+        BigDecimal longitude = formatPosition(position.getLongitude());
+        if (latitude == null || longitude == null)
+            return;
+        writer.startElement(elementName);
+        writer.writeAttribute("lat", latitude);
+        writer.writeAttribute("lon", longitude);
+        if (isWriteElevation())
+            writer.writeElement("ele", formatElevation(position.getElevation()));
+        if (isWriteTime())
+            writer.writeTime("time", position.getTime());
+        if (isWriteName()) {
+            writer.writeElement("name", asName(position.getDescription()));
+            writer.writeElement("desc", asDesc(position.getDescription(), null));
+        }
+        if (isWriteAccuracy()) {
+            writer.writeElement("sat", formatInt(position.getSatellites()));
+            writer.writeElement("hdop", formatBigDecimal(position.getHdop(), 6));
+            writer.writeElement("vdop", formatBigDecimal(position.getVdop(), 6));
+            writer.writeElement("pdop", formatBigDecimal(position.getPdop(), 6));
         }
-        return wptTypes;
+        Double speed = isWriteSpeed() ? position.getSpeed() : null;
+        Double heading = isWriteHeading() ? position.getHeading() : null;
+        if (speed != null || heading != null) {
+            writer.startElement("extensions");
+            writer.writeElement(TREKBUDDY_SPEED, formatSpeed(asMs(speed)));
+            writer.writeElement(TREKBUDDY_COURSE, formatHeading(heading));
+            writer.endElement();
+        }
+        writer.endElement();
     }
 
-    private List<RteType> createRoute(GpxRoute route, int startIndex, int endIndex) {
-        ObjectFactory objectFactory = new ObjectFactory();
-        List<RteType> rteTypes = new ArrayList<>();
+    private void writeWayPoints(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
+        List<GpxPosition> positions = route.getPositions();
+        for (int i = startIndex; i < endIndex; i++)
+            writePosition(writer, "wpt", positions.get(i));
+    }
+
+    private void writeRoute(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
         RteType rteType = route.getOrigin(RteType.class);
         if (rteType != null)
             rteType.getRtept().clear();
         else
-            rteType = objectFactory.createRteType();
+            rteType = new ObjectFactory().createRteType();
         if (isWriteMetaData()) {
             rteType.setName(asRouteName(route.getName()));
             rteType.setDesc(asDescription(route.getDescription()));
         }
-        rteTypes.add(rteType);
+
+        writer.startElement("rte");
+        writer.writeElement("name", rteType.getName());
+        writer.writeElement("cmt", rteType.getCmt());
+        writer.writeElement("desc", rteType.getDesc());
+        writer.writeElement("src", rteType.getSrc());
+        writeLinks(writer, rteType.getLink());
+        writer.writeElement("number", rteType.getNumber());
+        writer.writeElement("type", rteType.getType());
+        writeExtensions(writer, rteType.getExtensions());
         List<GpxPosition> positions = route.getPositions();
         for (int i = startIndex; i < endIndex; i++) {
             GpxPosition position = positions.get(i);
-            WptType wptType = createWptType(position);
-            if (wptType != null) {
-                rteType.getRtept().add(wptType);
-
-                if (isWriteTrip()) {
+            if (isWriteTrip()) {
+                WptType wptType = createWptType(position);
+                if (wptType != null) {
                     if (i == startIndex || i == endIndex - 1)
                         setViaPoint(wptType);
                     else
                         setShapingPoint(wptType);
+                    writeWptType(writer, "rtept", wptType);
                 }
-            }
+            } else
+                writePosition(writer, "rtept", position);
         }
-        return rteTypes;
+        writer.endElement();
     }
 
-    private List<TrkType> createTrack(GpxRoute route, int startIndex, int endIndex) {
-        ObjectFactory objectFactory = new ObjectFactory();
-        List<TrkType> trkTypes = new ArrayList<>();
+    void startTrack(GpxStreamWriter writer, String name) throws XMLStreamException {
+        writer.startDocument(VERSION, GENERATED_BY);
+        writer.startElement("trk");
+        if (isWriteMetaData())
+            writer.writeElement("name", asRouteName(name));
+        writer.startElement("trkseg");
+    }
+
+    private void writeTrack(GpxStreamWriter writer, GpxRoute route, int startIndex, int endIndex) throws XMLStreamException {
         TrkType trkType = route.getOrigin(TrkType.class);
         if (trkType != null)
             trkType.getTrkseg().clear();
         else
-            trkType = objectFactory.createTrkType();
+            trkType = new ObjectFactory().createTrkType();
         if (isWriteMetaData()) {
             trkType.setName(asRouteName(route.getName()));
             trkType.setDesc(asDescription(route.getDescription()));
         }
-        trkTypes.add(trkType);
-        TrksegType trksegType = objectFactory.createTrksegType();
+
+        writer.startElement("trk");
+        writer.writeElement("name", trkType.getName());
+        writer.writeElement("cmt", trkType.getCmt());
+        writer.writeElement("desc", trkType.getDesc());
+        writer.writeElement("src", trkType.getSrc());
+        writeLinks(writer, trkType.getLink());
+        writer.writeElement("number", trkType.getNumber());
+        writer.writeElement("type", trkType.getType());
+        writeExtensions(writer, trkType.getExtensions());
+        writer.startElement("trkseg");
         List<GpxPosition> positions = route.getPositions();
-        for (int i = startIndex; i < endIndex; i++) {
-            GpxPosition position = positions.get(i);
-            WptType wptType = createWptType(position);
-            if (wptType != null)
-                trksegType.getTrkpt().add(wptType);
-        }
-        trkType.getTrkseg().add(trksegType);
-        return trkTypes;
+        for (int i = startIndex; i < endIndex; i++)
+            writePosition(writer, "trkpt", positions.get(i));
+        writer.endElement();
+        writer.endElement();
     }
 
     private GpxType recycleGpxType(GpxRoute route) {
@@ -501,27 +859,27 @@ public class Gpx11Format extends GpxFormat {
         return metadataType;
     }
 
-    private GpxType createGpxType(GpxRoute route, int startIndex, int endIndex) {
-        ObjectFactory objectFactory = new ObjectFactory();
-
+    public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex) {
         GpxType gpxType = recycleGpxType(route);
         if (gpxType == null)
-            gpxType = objectFactory.createGpxType();
-        gpxType.setCreator(GENERATED_BY);
-        gpxType.setVersion(VERSION);
-
+            gpxType = new ObjectFactory().createGpxType();
         if (route.getCharacteristics().equals(Waypoints))
             gpxType.setMetadata(createMetaData(route, gpxType));
 
-        gpxType.getWpt().addAll(createWayPoints(route, startIndex, endIndex));
-        gpxType.getRte().addAll(createRoute(route, startIndex, endIndex));
-        gpxType.getTrk().addAll(createTrack(route, startIndex, endIndex));
-        return gpxType;
+        try (GpxStreamWriter writer = new GpxStreamWriter(target, GPX_11_NAMESPACE_URI)) {
+            writer.startDocument(VERSION, GENERATED_BY);
+            writer.marshal(new QName(GPX_11_NAMESPACE_URI, "metadata"), MetadataType.class, gpxType.getMetadata());
+            writeWayPoints(writer, route, startIndex, endIndex);
+            writeRoute(writer, route, startIndex, endIndex);
+            writeTrack(writer, route, startIndex, endIndex);
+            writeExtensions(writer, gpxType.getExtensions());
+            writer.endDocument();
+        } catch (XMLStreamException | IOException e) {
+            throw new IllegalArgumentException(e);
+        }
     }
 
-    private GpxType createGpxType(List<GpxRoute> routes) {
-        ObjectFactory objectFactory = new ObjectFactory();
-
+    public void write(List<GpxRoute> routes, OutputStream target) {
         GpxType gpxType = null;
         for (GpxRoute route : routes) {
             gpxType = recycleGpxType(route);
@@ -529,41 +887,38 @@ public class Gpx11Format extends GpxFormat {
                 break;
         }
         if (gpxType == null)
-            gpxType = objectFactory.createGpxType();
-        gpxType.setCreator(GENERATED_BY);
-        gpxType.setVersion(VERSION);
-
+            gpxType = new ObjectFactory().createGpxType();
         for (GpxRoute route : routes) {
             switch (route.getCharacteristics()) {
                 case Waypoints:
                     gpxType.setMetadata(createMetaData(route, gpxType));
-                    gpxType.getWpt().addAll(createWayPoints(route, 0, route.getPositionCount()));
                     break;
                 case Route:
-                    gpxType.getRte().addAll(createRoute(route, 0, route.getPositionCount()));
-                    break;
                 case Track:
-                    gpxType.getTrk().addAll(createTrack(route, 0, route.getPositionCount()));
                     break;
                 default:
                     throw new IllegalArgumentException("Unknown RouteCharacteristics " + route.getCharacteristics());
             }
         }
-        return gpxType;
-    }
-
-    public void write(GpxRoute route, OutputStream target, int startIndex, int endIndex) {
-        try {
-            marshal11(createGpxType(route, startIndex, endIndex), target);
-        } catch (JAXBException e) {
-            throw new IllegalArgumentException(e);
-        }
-    }
 
-    public void write(List<GpxRoute> routes, OutputStream target) {
-        try {
-            marshal11(createGpxType(routes), target);
-        } catch (JAXBException e) {
+        try (GpxStreamWriter writer = new GpxStreamWriter(target, GPX_11_NAMESPACE_URI)) {
+            writer.startDocument(VERSION, GENERATED_BY);
+            writer.marshal(new QName(GPX_11_NAMESPACE_URI, "metadata"), MetadataType.class, gpxType.getMetadata());
+            for (GpxRoute route : routes) {
+                if (route.getCharacteristics().equals(Waypoints))
+                    writeWayPoints(writer, route, 0, route.getPositionCount());
+            }
+            for (GpxRoute route : routes) {
+                if (route.getCharacteristics().equals(Route))
+                    writeRoute(writer, route, 0, route.getPositionCount());
+            }
+            for (GpxRoute route : routes) {
+                if (route.getCharacteristics().equals(Track))
+                    writeTrack(writer, route, 0, route.getPositionCount());
+            }
+            writeExtensions(writer, gpxType.getExtensions());
+            writer.endDocument();
+        } catch (XMLStreamException | IOException e) {
             throw new IllegalArgumentException(e);
         }
     }
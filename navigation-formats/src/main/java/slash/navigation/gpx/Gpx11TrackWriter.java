@@ -0,0 +1,75 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import slash.navigation.base.BaseNavigationPosition;
+import slash.navigation.base.PositionSink;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+
+/**
+ * Writes a GPS Exchange Format 1.1 document with a single track whose positions
+ * are received one after another. The positions are written with the same elements
+ * and extensions as {@link Gpx11Format} writes them.
+ *
+ * @author Christian Pesch
+ */
+
+public class Gpx11TrackWriter implements PositionSink<BaseNavigationPosition>, Closeable {
+    private final Gpx11Format format;
+    private final GpxStreamWriter writer;
+
+    public Gpx11TrackWriter(Gpx11Format format, OutputStream target, String name) throws IOException {
+        this.format = format;
+        try {
+            this.writer = new GpxStreamWriter(target, GPX_11_NAMESPACE_URI);
+            format.startTrack(writer, name);
+        } catch (XMLStreamException e) {
+            target.close();
+            throw new IOException("Cannot write GPX header: " + e, e);
+        }
+    }
+
+    public void accept(BaseNavigationPosition position) throws IOException {
+        try {
+            format.writePosition(writer, "trkpt", position.asGpxPosition());
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write position: " + e, e);
+        }
+    }
+
+    public void close() throws IOException {
+        try {
+            writer.endElement(); // trkseg
+            writer.endElement(); // trk
+            writer.endDocument();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot write end of GPX document: " + e, e);
+        } finally {
+            writer.close();
+        }
+    }
+}
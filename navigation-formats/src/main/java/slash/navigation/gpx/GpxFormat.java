@@ -20,12 +20,19 @@
 
 package slash.navigation.gpx;
 
+import slash.common.type.CompactCalendar;
 import slash.navigation.base.MultipleRoutesFormat;
+import slash.navigation.base.ParserContext;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.base.XmlNavigationFormat;
 import slash.navigation.common.NavigationPosition;
 
+import javax.xml.bind.JAXBException;
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.InputStream;
 import java.util.List;
+import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -42,6 +49,7 @@ import static slash.navigation.common.UnitConversion.msToKmh;
 
 public abstract class GpxFormat extends XmlNavigationFormat<GpxRoute> implements MultipleRoutesFormat<GpxRoute> {
     private static final Preferences preferences = Preferences.userNodeForPackage(GpxFormat.class);
+    private static final Logger log = Logger.getLogger(GpxFormat.class.getName());
     static final Pattern TRIPMASTER_REASON_PATTERN = Pattern.compile("(Punkt|Richtung \\d+|Abstand \\d+|Dur. \\d+:\\d+:\\d+|Course \\d+|Dist. \\d+) (-|:) (.+)");
     private static final Pattern TRIPMASTER_SPEED_PATTERN = Pattern.compile("[^-\\d\\.]*([-\\d\\.]+)\\s*(K|k)m/h.*");
     private static final Pattern QSTARTZ_SPEED_PATTERN = Pattern.compile(".*Speed[^-\\d\\.]*([-\\d\\.]+)(K|k)m/h.*Course[^\\d\\.]*([\\d]+).*");
@@ -64,6 +72,34 @@ public abstract class GpxFormat extends XmlNavigationFormat<GpxRoute> implements
         return new GpxRoute(this, characteristics, name, null, (List<GpxPosition>) positions);
     }
 
+    abstract String getNamespaceUri();
+
+    /**
+     * Creates the routes while walking through the document.
+     *
+     * @throws XMLStreamException if the document contains content that only JAXB can read
+     */
+    abstract List<GpxRoute> read(GpxStreamReader reader) throws XMLStreamException;
+
+    abstract void unmarshal(InputStream source, ParserContext<GpxRoute> context) throws JAXBException;
+
+    public void read(InputStream source, CompactCalendar startDate, ParserContext<GpxRoute> context) throws Exception {
+        BufferedInputStream buffer = markForUnmarshal(source);
+        List<GpxRoute> routes = null;
+        try (GpxStreamReader reader = new GpxStreamReader(buffer, getNamespaceUri())) {
+            routes = read(reader);
+        } catch (XMLStreamException e) {
+            log.fine("Cannot stream " + getName() + ", unmarshalling with JAXB: " + e.getMessage());
+        }
+
+        if (routes != null)
+            context.appendRoutes(routes);
+        else {
+            resetForUnmarshal(buffer);
+            unmarshal(buffer, context);
+        }
+    }
+
     protected String asDescription(List<String> strings) {
         if (strings == null)
             return null;
@@ -46,6 +46,9 @@ import static slash.navigation.gpx.GpxFormat.TRIPMASTER_REASON_PATTERN;
 public class GpxPosition extends Wgs84Position {
     private String reason;
 
+    protected GpxPosition() {
+    }
+
     public GpxPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
         this(longitude, latitude, elevation, speed, time, description, null);
     }
@@ -69,22 +72,21 @@ public class GpxPosition extends Wgs84Position {
     }
 
     public void setDescription(String description) {
-        this.description = description;
-        this.reason = null;
+        setDescriptionAndReason(description, null);
         if (description == null)
             return;
 
         parseDescription(this, description);
 
         // TODO move this logic up
-        Matcher matcher = TRIPMASTER_REASON_PATTERN.matcher(this.description);
+        Matcher matcher = TRIPMASTER_REASON_PATTERN.matcher(getDescription());
         if (matcher.matches()) {
-            this.reason = trim(matcher.group(1));
-            this.description = trim(matcher.group(3));
+            String reason = trim(matcher.group(1));
+            setDescriptionAndReason(trim(matcher.group(3)), reason);
 
             Double heading = parseTripmasterHeading(reason);
             if (heading != null)
-                this.heading = heading;
+                setHeading(heading);
         } /* TODO think about how to solve this with that much errors
           else {
             matcher = GpxFormat.TRIPMASTER_DESCRIPTION_PATTERN.matcher(description);
@@ -95,8 +97,13 @@ public class GpxPosition extends Wgs84Position {
         } */
     }
 
+    protected void setDescriptionAndReason(String description, String reason) {
+        this.description = description;
+        this.reason = reason;
+    }
+
     public String getCity() {
-        return description;
+        return getDescription();
     }
 
     public String getReason() {
@@ -131,34 +138,34 @@ public class GpxPosition extends Wgs84Position {
 
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || getPositionClass(this) != getPositionClass(o)) return false;
 
         GpxPosition that = (GpxPosition) o;
 
-        return !(description != null ? !description.equals(that.description) : that.description != null) &&
+        return !(getDescription() != null ? !getDescription().equals(that.getDescription()) : that.getDescription() != null) &&
                 !(getElevation() != null ? !getElevation().equals(that.getElevation()) : that.getElevation() != null) &&
-                !(heading != null ? !heading.equals(that.heading) : that.heading != null) &&
-                !(latitude != null ? !latitude.equals(that.latitude) : that.latitude != null) &&
-                !(longitude != null ? !longitude.equals(that.longitude) : that.longitude != null) &&
+                !(getHeading() != null ? !getHeading().equals(that.getHeading()) : that.getHeading() != null) &&
+                !(getLatitude() != null ? !getLatitude().equals(that.getLatitude()) : that.getLatitude() != null) &&
+                !(getLongitude() != null ? !getLongitude().equals(that.getLongitude()) : that.getLongitude() != null) &&
                 !(hasTime() ? !getTime().equals(that.getTime()) : that.hasTime()) &&
-                !(hdop != null ? !hdop.equals(that.hdop) : that.hdop != null) &&
-                !(pdop != null ? !pdop.equals(that.pdop) : that.pdop != null) &&
-                !(vdop != null ? !vdop.equals(that.vdop) : that.vdop != null) &&
-                !(satellites != null ? !satellites.equals(that.satellites) : that.satellites != null);
+                !(getHdop() != null ? !getHdop().equals(that.getHdop()) : that.getHdop() != null) &&
+                !(getPdop() != null ? !getPdop().equals(that.getPdop()) : that.getPdop() != null) &&
+                !(getVdop() != null ? !getVdop().equals(that.getVdop()) : that.getVdop() != null) &&
+                !(getSatellites() != null ? !getSatellites().equals(that.getSatellites()) : that.getSatellites() != null);
     }
 
     public int hashCode() {
         int result;
-        result = (longitude != null ? longitude.hashCode() : 0);
-        result = 31 * result + (latitude != null ? latitude.hashCode() : 0);
+        result = (getLongitude() != null ? getLongitude().hashCode() : 0);
+        result = 31 * result + (getLatitude() != null ? getLatitude().hashCode() : 0);
         result = 31 * result + (getElevation() != null ? getElevation().hashCode() : 0);
-        result = 31 * result + (heading != null ? heading.hashCode() : 0);
-        result = 31 * result + (description != null ? description.hashCode() : 0);
+        result = 31 * result + (getHeading() != null ? getHeading().hashCode() : 0);
+        result = 31 * result + (getDescription() != null ? getDescription().hashCode() : 0);
         result = 31 * result + (hasTime() ? getTime().hashCode() : 0);
-        result = 31 * result + (hdop != null ? hdop.hashCode() : 0);
-        result = 31 * result + (pdop != null ? pdop.hashCode() : 0);
-        result = 31 * result + (vdop != null ? vdop.hashCode() : 0);
-        result = 31 * result + (satellites != null ? satellites.hashCode() : 0);
+        result = 31 * result + (getHdop() != null ? getHdop().hashCode() : 0);
+        result = 31 * result + (getPdop() != null ? getPdop().hashCode() : 0);
+        result = 31 * result + (getVdop() != null ? getVdop().hashCode() : 0);
+        result = 31 * result + (getSatellites() != null ? getSatellites().hashCode() : 0);
         return result;
     }
 }
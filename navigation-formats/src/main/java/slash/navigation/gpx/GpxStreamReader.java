@@ -0,0 +1,216 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.datatype.DatatypeConfigurationException;
+import javax.xml.datatype.DatatypeFactory;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+import static slash.common.io.Transfer.trim;
+import static slash.navigation.gpx.GpxUtil.GPX_10_NAMESPACE_URI;
+import static slash.navigation.gpx.GpxUtil.newUnmarshaller10;
+import static slash.navigation.gpx.GpxUtil.newUnmarshaller11;
+
+/**
+ * Walks through a GPS Exchange Format document with a {@link XMLStreamReader} and
+ * converts texts and attributes like JAXB does. Every content it doesn't understand
+ * raises a {@link XMLStreamException} which lets the formats fall back to JAXB.
+ *
+ * @author Christian Pesch
+ */
+
+class GpxStreamReader implements Closeable {
+    private static final XMLInputFactory inputFactory = createInputFactory();
+    private static DatatypeFactory datatypeFactory = null;
+
+    private final XMLStreamReader reader;
+    private final String namespaceUri;
+    private Unmarshaller unmarshaller;
+    private boolean unconsumed = false;
+
+    GpxStreamReader(InputStream source, String namespaceUri) throws XMLStreamException {
+        this.reader = inputFactory.createXMLStreamReader(source);
+        this.namespaceUri = namespaceUri;
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    private static synchronized DatatypeFactory getDatatypeFactory() throws XMLStreamException {
+        if (datatypeFactory == null) {
+            try {
+                datatypeFactory = DatatypeFactory.newInstance();
+            } catch (DatatypeConfigurationException e) {
+                throw new XMLStreamException("Cannot create datatype factory: " + e, e);
+            }
+        }
+        return datatypeFactory;
+    }
+
+    /**
+     * Moves to the root element and checks its name and namespace.
+     */
+    void startDocument(String localName) throws XMLStreamException {
+        if (reader.nextTag() != START_ELEMENT || !localName.equals(getName()))
+            throw unsupported();
+    }
+
+    /**
+     * Reads behind the end of the root element to report the same errors as JAXB.
+     */
+    void endDocument() throws XMLStreamException {
+        while (reader.hasNext())
+            reader.next();
+    }
+
+    /**
+     * Moves to the next child element of the current element.
+     *
+     * @return true if positioned on the start of the next child, false if positioned
+     * on the end of the current element
+     */
+    boolean nextElement() throws XMLStreamException {
+        int event = reader.getEventType();
+        if (unconsumed) {
+            unconsumed = false;
+            if (event == CHARACTERS && !reader.isWhiteSpace())
+                throw unsupported();
+            if (event != START_ELEMENT && event != END_ELEMENT)
+                event = reader.nextTag();
+        } else
+            event = reader.nextTag();
+        return event == START_ELEMENT;
+    }
+
+    /**
+     * @return the local name of the current element if it is in the namespace of the document
+     */
+    String getName() {
+        return namespaceUri.equals(reader.getNamespaceURI()) ? reader.getLocalName() : "";
+    }
+
+    String getAttribute(String localName) {
+        return reader.getAttributeValue(null, localName);
+    }
+
+    BigDecimal getDecimalAttribute(String localName) throws XMLStreamException {
+        return parseDecimal(getAttribute(localName));
+    }
+
+    String getText() throws XMLStreamException {
+        return reader.getElementText();
+    }
+
+    BigDecimal getDecimal() throws XMLStreamException {
+        return parseDecimal(getText());
+    }
+
+    BigInteger getInteger() throws XMLStreamException {
+        String text = trim(getText());
+        try {
+            return text != null ? new BigInteger(text) : null;
+        } catch (NumberFormatException e) {
+            throw unsupported();
+        }
+    }
+
+    Integer getInt() throws XMLStreamException {
+        String text = trim(getText());
+        try {
+            return text != null ? Integer.valueOf(text) : null;
+        } catch (NumberFormatException e) {
+            throw unsupported();
+        }
+    }
+
+    XMLGregorianCalendar getDateTime() throws XMLStreamException {
+        String text = trim(getText());
+        try {
+            return text != null ? getDatatypeFactory().newXMLGregorianCalendar(text) : null;
+        } catch (IllegalArgumentException e) {
+            throw unsupported();
+        }
+    }
+
+    /**
+     * Unmarshals the current element and its children with JAXB.
+     */
+    <T> T unmarshal(Class<T> type) throws XMLStreamException {
+        try {
+            if (unmarshaller == null)
+                unmarshaller = GPX_10_NAMESPACE_URI.equals(namespaceUri) ? newUnmarshaller10() : newUnmarshaller11();
+            T result = unmarshaller.unmarshal(reader, type).getValue();
+            // JAXB leaves the reader behind the end of the element
+            unconsumed = true;
+            return result;
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Cannot unmarshal " + type.getSimpleName() + ": " + e, reader.getLocation(), e);
+        }
+    }
+
+    void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT)
+                depth++;
+            else if (event == END_ELEMENT)
+                depth--;
+        }
+    }
+
+    XMLStreamException unsupported() {
+        String name = reader.isStartElement() || reader.isEndElement() ? reader.getName().toString() : "event " + reader.getEventType();
+        return new XMLStreamException("Unsupported content " + name, reader.getLocation());
+    }
+
+    private BigDecimal parseDecimal(String string) throws XMLStreamException {
+        String text = trim(string);
+        try {
+            return text != null ? new BigDecimal(text) : null;
+        } catch (NumberFormatException e) {
+            throw unsupported();
+        }
+    }
+
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // intentionally left empty
+        }
+    }
+}
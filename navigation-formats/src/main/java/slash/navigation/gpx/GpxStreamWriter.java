@@ -0,0 +1,416 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import slash.common.type.CompactCalendar;
+import slash.navigation.gpx.binding10.Gpx;
+import slash.navigation.gpx.binding11.GpxType;
+
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.bind.annotation.XmlNs;
+import javax.xml.bind.annotation.XmlSchema;
+import javax.xml.datatype.XMLGregorianCalendar;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import javax.xml.transform.dom.DOMResult;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import static javax.xml.XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
+import static org.w3c.dom.Node.CDATA_SECTION_NODE;
+import static org.w3c.dom.Node.COMMENT_NODE;
+import static org.w3c.dom.Node.ELEMENT_NODE;
+import static org.w3c.dom.Node.TEXT_NODE;
+import static slash.common.helpers.JAXBHelper.isFormattedOutput;
+import static slash.common.io.Transfer.formatXMLTime;
+import static slash.common.io.Transfer.isReduceTimeToSecondPrecision;
+import static slash.navigation.gpx.GpxUtil.GPX_10_NAMESPACE_URI;
+import static slash.navigation.gpx.GpxUtil.newMarshaller10;
+import static slash.navigation.gpx.GpxUtil.newMarshaller11;
+
+/**
+ * Writes a GPS Exchange Format document with a {@link XMLStreamWriter} and prints
+ * numbers and times like JAXB does. Times are formatted into a reused buffer, bound
+ * objects from the origins of the routes and positions are marshalled with JAXB.
+ *
+ * @author Christian Pesch
+ */
+
+class GpxStreamWriter implements Closeable {
+    private static final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final long MILLISECONDS_PER_DAY = 24 * 60 * 60 * 1000L;
+
+    private final Writer output;
+    private final XMLStreamWriter writer;
+    private final String namespaceUri;
+    private final boolean formattedOutput = isFormattedOutput();
+    private final boolean reduceTimeToSecondPrecision = isReduceTimeToSecondPrecision();
+    private final char[] time = new char[24];
+    private char[] indentation = new char[0];
+    private Marshaller marshaller;
+    private int depth = 0, verbatim = 0, prefixCount = 0;
+    private boolean endedElement = false;
+
+    GpxStreamWriter(OutputStream target, String namespaceUri) throws XMLStreamException {
+        this.output = new BufferedWriter(new OutputStreamWriter(target, UTF8));
+        this.writer = outputFactory.createXMLStreamWriter(output);
+        this.namespaceUri = namespaceUri;
+    }
+
+    /**
+     * Writes the XML declaration and the root element with the namespaces of the binding.
+     */
+    void startDocument(String version, String creator) throws XMLStreamException {
+        try {
+            output.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+            if (formattedOutput)
+                output.write('\n');
+        } catch (IOException e) {
+            throw new XMLStreamException("Cannot write declaration: " + e, e);
+        }
+
+        startElement("", "gpx", namespaceUri);
+        writer.writeDefaultNamespace(namespaceUri);
+        writer.setDefaultNamespace(namespaceUri);
+        Class<?> binding = GPX_10_NAMESPACE_URI.equals(namespaceUri) ? Gpx.class : GpxType.class;
+        XmlSchema schema = binding.getPackage().getAnnotation(XmlSchema.class);
+        if (schema != null) {
+            for (XmlNs xmlNs : schema.xmlns()) {
+                if (xmlNs.prefix().length() == 0)
+                    continue;
+                writer.writeNamespace(xmlNs.prefix(), xmlNs.namespaceURI());
+                writer.setPrefix(xmlNs.prefix(), xmlNs.namespaceURI());
+            }
+        }
+        writeAttribute("version", version);
+        writeAttribute("creator", creator);
+    }
+
+    void endDocument() throws XMLStreamException {
+        endElement();
+        writer.writeEndDocument();
+        writer.flush();
+        if (formattedOutput) {
+            try {
+                output.write('\n');
+            } catch (IOException e) {
+                throw new XMLStreamException("Cannot write end of document: " + e, e);
+            }
+        }
+    }
+
+    void startElement(String localName) throws XMLStreamException {
+        startElement("", localName, namespaceUri);
+    }
+
+    private void startElement(String prefix, String localName, String namespaceUri) throws XMLStreamException {
+        if (depth > 0)
+            indent();
+        writer.writeStartElement(prefix, localName, namespaceUri);
+        depth++;
+        endedElement = false;
+    }
+
+    void endElement() throws XMLStreamException {
+        depth--;
+        if (endedElement)
+            indent();
+        writer.writeEndElement();
+        endedElement = true;
+    }
+
+    private void indent() throws XMLStreamException {
+        if (!formattedOutput || verbatim > 0)
+            return;
+        int length = 1 + depth * 4;
+        if (indentation.length < length) {
+            indentation = new char[length * 2];
+            Arrays.fill(indentation, ' ');
+            indentation[0] = '\n';
+        }
+        writer.writeCharacters(indentation, 0, length);
+    }
+
+    private String print(Object value) {
+        if (value instanceof BigDecimal)
+            return ((BigDecimal) value).toPlainString();
+        if (value instanceof XMLGregorianCalendar)
+            return ((XMLGregorianCalendar) value).toXMLFormat();
+        return value.toString();
+    }
+
+    void writeAttribute(String localName, Object value) throws XMLStreamException {
+        if (value != null)
+            writer.writeAttribute(localName, print(value));
+    }
+
+    /**
+     * Writes an element of the document namespace with the given text unless it is null.
+     */
+    void writeElement(String localName, Object value) throws XMLStreamException {
+        writeElement("", localName, namespaceUri, value);
+    }
+
+    /**
+     * Writes an element of the given namespace with the given text unless it is null.
+     */
+    void writeElement(QName name, Object value) throws XMLStreamException {
+        if (value == null)
+            return;
+        startElementInNamespace(name.getNamespaceURI(), name.getLocalPart(), name.getPrefix());
+        writer.writeCharacters(print(value));
+        endElement();
+    }
+
+    /**
+     * Starts an element with the prefix bound to the namespace or declares one.
+     */
+    private void startElementInNamespace(String namespaceUri, String localName, String preferredPrefix) throws XMLStreamException {
+        if (namespaceUri == null)
+            namespaceUri = "";
+        String prefix = writer.getNamespaceContext().getPrefix(namespaceUri);
+        boolean declare = prefix == null;
+        if (declare)
+            prefix = namespaceUri.length() == 0 ? "" : createPrefix(preferredPrefix);
+
+        startElement(prefix, localName, namespaceUri);
+        if (declare) {
+            if (prefix.length() == 0)
+                writer.writeDefaultNamespace(namespaceUri);
+            else
+                writer.writeNamespace(prefix, namespaceUri);
+            writer.setPrefix(prefix, namespaceUri);
+        }
+    }
+
+    private void writeElement(String prefix, String localName, String namespaceUri, Object value) throws XMLStreamException {
+        if (value == null)
+            return;
+        startElement(prefix, localName, namespaceUri);
+        writer.writeCharacters(print(value));
+        endElement();
+    }
+
+    /**
+     * Writes the time like {@link XMLGregorianCalendar#toXMLFormat()} of
+     * {@link slash.common.io.Transfer#formatXMLTime(CompactCalendar)} without creating it.
+     */
+    void writeTime(String localName, CompactCalendar value) throws XMLStreamException {
+        if (value == null)
+            return;
+        if (!"UTC".equals(value.getTimeZoneId()) || !formatTime(value.getTimeInMillis())) {
+            writeElement(localName, formatXMLTime(value, reduceTimeToSecondPrecision));
+            return;
+        }
+        startElement(localName);
+        writer.writeCharacters(time, 0, reduceTimeToSecondPrecision ? 20 : 24);
+        endElement();
+    }
+
+    private boolean formatTime(long millis) {
+        long days = millis / MILLISECONDS_PER_DAY;
+        long millisOfDay = millis % MILLISECONDS_PER_DAY;
+        if (millisOfDay < 0) {
+            days--;
+            millisOfDay += MILLISECONDS_PER_DAY;
+        }
+
+        // civil date of the proleptic Gregorian calendar counted from 0000-03-01
+        long dayOfEra = days + 719468;
+        if (dayOfEra < 0)
+            return false;
+        long era = dayOfEra / 146097;
+        long dayOfEraCycle = dayOfEra - era * 146097;
+        long yearOfEra = (dayOfEraCycle - dayOfEraCycle / 1460 + dayOfEraCycle / 36524 - dayOfEraCycle / 146096) / 365;
+        long dayOfYear = dayOfEraCycle - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        long monthOfYear = (5 * dayOfYear + 2) / 153;
+        int day = (int) (dayOfYear - (153 * monthOfYear + 2) / 5 + 1);
+        int month = (int) (monthOfYear < 10 ? monthOfYear + 3 : monthOfYear - 9);
+        long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        // the Julian calendar applies before the Gregorian cutover
+        if (year < 1583 || year > 9999)
+            return false;
+
+        int millisecond = (int) millisOfDay;
+        appendDigits(0, (int) year, 4);
+        time[4] = '-';
+        appendDigits(5, month, 2);
+        time[7] = '-';
+        appendDigits(8, day, 2);
+        time[10] = 'T';
+        appendDigits(11, millisecond / 3600000, 2);
+        time[13] = ':';
+        appendDigits(14, millisecond / 60000 % 60, 2);
+        time[16] = ':';
+        appendDigits(17, millisecond / 1000 % 60, 2);
+        if (reduceTimeToSecondPrecision)
+            time[19] = 'Z';
+        else {
+            time[19] = '.';
+            appendDigits(20, millisecond % 1000, 3);
+            time[23] = 'Z';
+        }
+        return true;
+    }
+
+    private void appendDigits(int offset, int value, int digits) {
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            time[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    /**
+     * Writes the content of an any element: a DOM element from parsing or a bound object.
+     */
+    void writeAny(Object any) throws XMLStreamException {
+        if (any instanceof Element)
+            writeNode((Element) any);
+        else if (any instanceof JAXBElement) {
+            JAXBElement<?> element = (JAXBElement<?>) any;
+            Object value = element.getValue();
+            if (value instanceof String || value instanceof Number)
+                writeElement(element.getName(), value);
+            else
+                marshal(element);
+        }
+    }
+
+    /**
+     * Marshals a bound object with JAXB and copies the result into the document.
+     */
+    <T> void marshal(QName name, Class<T> type, T value) throws XMLStreamException {
+        if (value != null)
+            marshal(new JAXBElement<>(name, type, value));
+    }
+
+    private void marshal(JAXBElement<?> element) throws XMLStreamException {
+        try {
+            if (marshaller == null)
+                marshaller = GPX_10_NAMESPACE_URI.equals(namespaceUri) ? newMarshaller10() : newMarshaller11();
+            DOMResult result = new DOMResult();
+            marshaller.marshal(element, result);
+            writeNode(((Document) result.getNode()).getDocumentElement());
+        } catch (JAXBException e) {
+            throw new XMLStreamException("Cannot marshal " + element.getName() + ": " + e, e);
+        }
+    }
+
+    private void writeNode(Element element) throws XMLStreamException {
+        String localName = element.getLocalName() != null ? element.getLocalName() : element.getNodeName();
+        startElementInNamespace(element.getNamespaceURI(), localName, element.getPrefix());
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++)
+            writeNode((Attr) attributes.item(i));
+
+        NodeList children = element.getChildNodes();
+        boolean hasElements = false, hasText = false;
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == ELEMENT_NODE)
+                hasElements = true;
+            else if (isText(child) && child.getNodeValue().trim().length() > 0)
+                hasText = true;
+        }
+        // indentation would change mixed content
+        boolean mixed = hasElements && hasText;
+        if (mixed)
+            verbatim++;
+        for (int i = 0; i < children.getLength(); i++) {
+            Node child = children.item(i);
+            if (child.getNodeType() == ELEMENT_NODE)
+                writeNode((Element) child);
+            else if (isText(child)) {
+                // the indentation replaces the whitespace between elements
+                if (!hasElements || mixed) {
+                    writer.writeCharacters(child.getNodeValue());
+                    endedElement = false;
+                }
+            } else if (child.getNodeType() == COMMENT_NODE)
+                writer.writeComment(child.getNodeValue());
+        }
+        endElement();
+        if (mixed)
+            verbatim--;
+    }
+
+    private boolean isText(Node node) {
+        return node.getNodeType() == TEXT_NODE || node.getNodeType() == CDATA_SECTION_NODE;
+    }
+
+    private void writeNode(Attr attribute) throws XMLStreamException {
+        String attributeNamespaceUri = attribute.getNamespaceURI();
+        String localName = attribute.getLocalName() != null ? attribute.getLocalName() : attribute.getName();
+        if (XMLNS_ATTRIBUTE_NS_URI.equals(attributeNamespaceUri) || localName.equals("xmlns"))
+            return;
+        if (attributeNamespaceUri == null || attributeNamespaceUri.length() == 0) {
+            writer.writeAttribute(localName, attribute.getValue());
+            return;
+        }
+
+        String prefix = writer.getNamespaceContext().getPrefix(attributeNamespaceUri);
+        if (prefix == null || prefix.length() == 0) {
+            prefix = createPrefix(attribute.getPrefix());
+            writer.writeNamespace(prefix, attributeNamespaceUri);
+            writer.setPrefix(prefix, attributeNamespaceUri);
+        }
+        writer.writeAttribute(prefix, attributeNamespaceUri, localName, attribute.getValue());
+    }
+
+    private String createPrefix(String prefix) {
+        if (prefix != null && prefix.length() > 0) {
+            String boundNamespaceUri = writer.getNamespaceContext().getNamespaceURI(prefix);
+            if (boundNamespaceUri == null || boundNamespaceUri.length() == 0)
+                return prefix;
+        }
+        return "ns" + (++prefixCount);
+    }
+
+    public void close() throws IOException {
+        try {
+            writer.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Cannot close writer: " + e, e);
+        } finally {
+            output.flush();
+            output.close();
+        }
+    }
+}
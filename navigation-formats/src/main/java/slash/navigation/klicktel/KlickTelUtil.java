@@ -30,32 +30,21 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 
-import static slash.common.helpers.JAXBHelper.JAXB_IMPL_HEADER;
-import static slash.common.helpers.JAXBHelper.newContext;
+import static slash.common.helpers.JAXBHelper.*;
 import static slash.navigation.base.XmlNavigationFormat.HEADER_LINE;
 
 class KlickTelUtil {
     private static final String KLICKTEL_NAMESPACE_URI = "";
 
-    private static Unmarshaller newUnmarshaller() {
-        return JAXBHelper.newUnmarshaller(newContext(ObjectFactory.class));
-    }
-
-    private static Marshaller newMarshaller() {
-        Marshaller marshaller = JAXBHelper.newMarshaller(newContext(ObjectFactory.class));
-        try {
-            marshaller.setProperty(JAXB_IMPL_HEADER, HEADER_LINE);
-        } catch (PropertyException e) {
-            // intentionally left empty
-        }
-        return marshaller;
+    private static JAXBContext newContext() {
+        return JAXBHelper.newContext(ObjectFactory.class);
     }
 
 
     public static KDRoute unmarshal(InputStream in) throws JAXBException {
         KDRoute result = null;
         try {
-            result = (KDRoute) newUnmarshaller().unmarshal(in);
+            result = (KDRoute) JAXBHelper.unmarshal(newContext(), in);
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
         }
@@ -65,10 +54,17 @@ class KlickTelUtil {
 
     public static void marshal(KDRoute route, OutputStream out) throws JAXBException {
         try {
+            Marshaller marshaller = acquireMarshaller(newContext());
             try {
-                newMarshaller().marshal(new JAXBElement<>(new QName(KLICKTEL_NAMESPACE_URI, "kDRoute"), KDRoute.class, route), out);
+                try {
+                    marshaller.setProperty(JAXB_IMPL_HEADER, HEADER_LINE);
+                } catch (PropertyException e) {
+                    // intentionally left empty
+                }
+                marshaller.marshal(new JAXBElement<>(new QName(KLICKTEL_NAMESPACE_URI, "kDRoute"), KDRoute.class, route), out);
             }
             finally {
+                releaseMarshaller(newContext(), marshaller);
                 out.flush();
                 out.close();
             }
@@ -0,0 +1,56 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.kml;
+
+import slash.navigation.base.BaseColumnarPositionList;
+
+/**
+ * A {@link BaseColumnarPositionList} of {@link KmlPosition}s which the
+ * Google Earth formats fill while they read.
+ *
+ * @author Christian Pesch
+ */
+
+public class ColumnarKmlPositionList extends BaseColumnarPositionList<KmlPosition> {
+    protected KmlPosition createView(Row row) {
+        return new ColumnarKmlPosition(row);
+    }
+
+    protected Class<KmlPosition> getStorableClass() {
+        return KmlPosition.class;
+    }
+
+    protected void appendValues(Row row, KmlPosition position) {
+        appendWgs84Values(row, position);
+    }
+
+    private static class ColumnarKmlPosition extends KmlPosition {
+        private final Row row;
+
+        private ColumnarKmlPosition(Row row) {
+            this.row = row;
+        }
+
+        protected Row getColumnarRow() {
+            return row;
+        }
+    }
+}
@@ -46,7 +46,11 @@ public class GarbleKml21Format extends Kml21Format implements GarbleNavigationFo
         return false;
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    String getStreamingNamespaceUri() {
+        return null;
+    }
+
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         try (InputStreamReader reader = new InputStreamReader(source)) {
             KmlType kmlType = unmarshal21(reader);
             process(kmlType, startDate, context);
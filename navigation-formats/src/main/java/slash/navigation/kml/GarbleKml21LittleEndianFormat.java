@@ -47,7 +47,11 @@ public class GarbleKml21LittleEndianFormat extends Kml21Format implements Garble
         return false;
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    String getStreamingNamespaceUri() {
+        return null;
+    }
+
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         try (InputStreamReader reader = new InputStreamReader(source, UTF16LE_ENCODING)) {
             KmlType kmlType = unmarshal21(reader);
             process(kmlType, startDate, context);
@@ -46,7 +46,11 @@ public class GarbleKml22BetaFormat extends Kml22BetaFormat implements GarbleNavi
         return false;
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    String getStreamingNamespaceUri() {
+        return null;
+    }
+
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         try (InputStreamReader reader = new InputStreamReader(source)) {
             KmlType kmlType = unmarshal22Beta(reader);
             process(kmlType, startDate, context);
@@ -62,7 +62,17 @@ public class Igo8RouteFormat extends Kml22Format {
         if (kmlType == null || kmlType.getAbstractFeatureGroup() == null)
             return;
         extractTracks(kmlType, startDate, context);
+        keepIgoRoute(context);
+    }
+
+    protected void process(KmlFeature kml, CompactCalendar startDate, ParserContext<KmlRoute> context) throws IOException {
+        if (kml.getFeatures().size() == 0)
+            return;
+        super.process(kml, startDate, context);
+        keepIgoRoute(context);
+    }
 
+    private void keepIgoRoute(ParserContext<KmlRoute> context) {
         List<KmlRoute> routes = context.getRoutes();
         context.removeRoutes();
         if (routes != null && routes.size() == 1) {
@@ -56,7 +56,7 @@ public class Kml20Format extends KmlFormat {
         return "Google Earth 3 (*" + getExtension() + ")";
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         Object o = unmarshal20(source);
         if (o instanceof Kml) {
             Kml kml = (Kml) o;
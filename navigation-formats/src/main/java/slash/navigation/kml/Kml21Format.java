@@ -38,6 +38,7 @@ import static slash.common.io.Transfer.trim;
 import static slash.common.type.ISO8601.formatDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.kml.KmlUtil.KML_21_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal21;
 import static slash.navigation.kml.KmlUtil.unmarshal21;
 
@@ -53,7 +54,11 @@ public class Kml21Format extends KmlFormat {
         return "Google Earth 4 (*" + getExtension() + ")";
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    String getStreamingNamespaceUri() {
+        return KML_21_NAMESPACE_URI;
+    }
+
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         KmlType kmlType = unmarshal21(source);
         process(kmlType, startDate, context);
     }
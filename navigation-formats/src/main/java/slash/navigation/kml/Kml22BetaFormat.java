@@ -39,6 +39,7 @@ import static slash.common.io.Transfer.trim;
 import static slash.common.type.ISO8601.formatDate;
 import static slash.navigation.base.RouteCharacteristics.Track;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.kml.KmlUtil.KML_22_BETA_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal22Beta;
 import static slash.navigation.kml.KmlUtil.unmarshal22Beta;
 
@@ -54,7 +55,11 @@ public class Kml22BetaFormat extends KmlFormat {
         return "Google Earth 4.2 (*" + getExtension() + ")";
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    String getStreamingNamespaceUri() {
+        return KML_22_BETA_NAMESPACE_URI;
+    }
+
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         KmlType kmlType = unmarshal22Beta(source);
         process(kmlType, startDate, context);
     }
@@ -50,6 +50,7 @@ import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.common.Bearing.EARTH_RADIUS;
 import static slash.navigation.common.NavigationConversion.formatPositionAsString;
 import static slash.navigation.common.PositionParser.parseExtensionPositions;
+import static slash.navigation.kml.KmlUtil.KML_22_NAMESPACE_URI;
 import static slash.navigation.kml.KmlUtil.marshal22;
 import static slash.navigation.kml.KmlUtil.unmarshal22;
 import static slash.navigation.kml.binding22.UnitsEnumType.FRACTION;
@@ -68,7 +69,11 @@ public class Kml22Format extends KmlFormat {
         return "Google Earth 5 (*" + getExtension() + ")";
     }
 
-    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+    String getStreamingNamespaceUri() {
+        return KML_22_NAMESPACE_URI;
+    }
+
+    void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
         KmlType kmlType = unmarshal22(source);
         process(kmlType, startDate, context);
     }
@@ -79,6 +84,15 @@ public class Kml22Format extends KmlFormat {
         extractTracks(kmlType, startDate, context);
     }
 
+    boolean isIgnoredPlacemark(KmlFeature placemark) {
+        return placemark.getPositions() == null;
+    }
+
+    boolean isIgnoredFolder(String name) {
+        // ignore speed and marks folders
+        return name != null && (name.equals(SPEED) || name.equals(MARKS));
+    }
+
     @SuppressWarnings({"UnusedDeclaration", "unchecked"})
     private <T> List<JAXBElement<T>> find(List<JAXBElement<? extends AbstractFeatureType>> elements, String name, Class<T> resultClass) {
         List<JAXBElement<T>> result = new ArrayList<>();
@@ -705,4 +719,4 @@ public class Kml22Format extends KmlFormat {
             throw new IllegalArgumentException(e);
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.kml;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Represents a kml, Document, Folder, Placemark or NetworkLink element with the
+ * properties that the Google Earth formats extract, as read by a {@link KmlStreamReader}.
+ *
+ * @author Christian Pesch
+ */
+
+class KmlFeature {
+    static final String KML = "kml";
+    static final String DOCUMENT = "Document";
+    static final String FOLDER = "Folder";
+    static final String PLACEMARK = "Placemark";
+    static final String NETWORK_LINK = "NetworkLink";
+
+    private final String type;
+    private String name, description, time;
+    private List<KmlPosition> positions;
+    private final List<String> links = new ArrayList<>();
+    private final List<KmlFeature> features = new ArrayList<>();
+
+    KmlFeature(String type) {
+        this.type = type;
+    }
+
+    String getType() {
+        return type;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    void setName(String name) {
+        this.name = name;
+    }
+
+    String getDescription() {
+        return description;
+    }
+
+    void setDescription(String description) {
+        this.description = description;
+    }
+
+    String getTime() {
+        return time;
+    }
+
+    void setTime(String time) {
+        this.time = time;
+    }
+
+    /**
+     * @return the positions of the geometry or null if the placemark has no geometry
+     */
+    List<KmlPosition> getPositions() {
+        return positions;
+    }
+
+    void setPositions(List<KmlPosition> positions) {
+        this.positions = positions;
+    }
+
+    List<String> getLinks() {
+        return links;
+    }
+
+    List<KmlFeature> getFeatures() {
+        return features;
+    }
+
+    List<KmlFeature> getFeatures(String type) {
+        List<KmlFeature> result = new ArrayList<>();
+        for (KmlFeature feature : features) {
+            if (type.equals(feature.getType()))
+                result.add(feature);
+        }
+        return result;
+    }
+}
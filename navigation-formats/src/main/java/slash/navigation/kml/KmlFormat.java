@@ -21,11 +21,17 @@
 package slash.navigation.kml;
 
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.ParserContext;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.NavigationPosition;
 
+import javax.xml.stream.XMLStreamException;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.text.ParseException;
 import java.util.*;
+import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -40,6 +46,7 @@ import static slash.navigation.base.RouteCharacteristics.*;
 import static slash.navigation.common.NavigationConversion.formatElevationAsString;
 import static slash.navigation.common.NavigationConversion.formatPositionAsString;
 import static slash.navigation.common.PositionParser.parsePositions;
+import static slash.navigation.kml.KmlFeature.*;
 
 /**
  * The base of all Google Earth formats.
@@ -48,6 +55,7 @@ import static slash.navigation.common.PositionParser.parsePositions;
  */
 
 public abstract class KmlFormat extends BaseKmlFormat {
+    private static final Logger log = Logger.getLogger(KmlFormat.class.getName());
     static final Preferences preferences = Preferences.userNodeForPackage(KmlFormat.class);
 
     static final String WAYPOINTS = "Waypoints";
@@ -75,6 +83,125 @@ public abstract class KmlFormat extends BaseKmlFormat {
         return new KmlRoute(this, characteristics, name, null, (List<KmlPosition>) positions);
     }
 
+    /**
+     * @return the namespace of the documents that are read with a {@link KmlStreamReader}
+     * or null if the format reads its documents with JAXB only
+     */
+    String getStreamingNamespaceUri() {
+        return null;
+    }
+
+    abstract void unmarshal(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception;
+
+    public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+        if (getStreamingNamespaceUri() == null) {
+            unmarshal(source, startDate, context);
+            return;
+        }
+
+        BufferedInputStream buffer = markForUnmarshal(source);
+        KmlFeature kml = stream(buffer);
+        if (kml != null)
+            process(kml, startDate, context);
+        else {
+            resetForUnmarshal(buffer);
+            unmarshal(buffer, startDate, context);
+        }
+    }
+
+    /**
+     * Reads the document with a {@link KmlStreamReader}.
+     *
+     * @return the kml element or null if the document contains content that only JAXB can read
+     */
+    KmlFeature stream(InputStream source) {
+        try (KmlStreamReader reader = new KmlStreamReader(source, this)) {
+            return reader.read();
+        } catch (XMLStreamException e) {
+            log.fine("Cannot stream " + getName() + ", unmarshalling with JAXB: " + e.getMessage());
+            return null;
+        }
+    }
+
+    protected void process(KmlFeature kml, CompactCalendar startDate, ParserContext<KmlRoute> context) throws IOException {
+        List<KmlFeature> features = kml.getFeatures();
+        if (features.size() == 0)
+            return;
+
+        KmlFeature feature = features.get(features.size() - 1);
+        if (PLACEMARK.equals(feature.getType())) {
+            String placemarkName = asDescription(trim(feature.getName()), trim(feature.getDescription()));
+
+            List<KmlPosition> positions = getPositions(feature);
+            CompactCalendar time = parseTime(feature.getTime());
+            for (KmlPosition position : positions) {
+                enrichPosition(position, time, placemarkName, feature.getDescription(), startDate);
+            }
+            context.appendRoute(new KmlRoute(this, Waypoints, placemarkName, null, positions));
+        } else
+            extractTracks(trim(feature.getName()), trim(feature.getDescription()), feature, startDate, context);
+    }
+
+    private List<KmlPosition> getPositions(KmlFeature placemark) {
+        List<KmlPosition> positions = placemark.getPositions();
+        return positions != null ? positions : new ArrayList<KmlPosition>();
+    }
+
+    private void extractTracks(String name, String description, KmlFeature container, CompactCalendar startDate, ParserContext<KmlRoute> context) throws IOException {
+        List<KmlPosition> waypoints = new ArrayList<>();
+        for (KmlFeature placemark : container.getFeatures(PLACEMARK)) {
+            if (isIgnoredPlacemark(placemark))
+                continue;
+
+            String placemarkName = asDescription(trim(placemark.getName()), trim(placemark.getDescription()));
+            List<KmlPosition> positions = getPositions(placemark);
+            if (positions.size() == 1) {
+                // all placemarks with one position form one waypoint route
+                KmlPosition wayPoint = positions.get(0);
+                enrichPosition(wayPoint, parseTime(placemark.getTime()), placemarkName, placemark.getDescription(), startDate);
+                waypoints.add(wayPoint);
+            } else {
+                // each placemark with more than one position is one track
+                String routeName = concatPath(name, asName(placemarkName));
+                List<String> routeDescription = asDescription(placemark.getDescription() != null ? placemark.getDescription() : description);
+                RouteCharacteristics characteristics = parseCharacteristics(routeName, Track);
+                context.appendRoute(new KmlRoute(this, characteristics, routeName, routeDescription, positions));
+            }
+        }
+        if (waypoints.size() > 0) {
+            RouteCharacteristics characteristics = parseCharacteristics(name, Waypoints);
+            context.prependRoute(new KmlRoute(this, characteristics, name, asDescription(description), waypoints));
+        }
+
+        for (KmlFeature networkLink : container.getFeatures(NETWORK_LINK)) {
+            for (String url : networkLink.getLinks())
+                context.parse(url);
+        }
+
+        for (KmlFeature folder : container.getFeatures(FOLDER)) {
+            if (!isIgnoredFolder(trim(folder.getName())))
+                extractTracks(concatPath(name, folder.getName()), description, folder, startDate, context);
+        }
+
+        for (KmlFeature document : container.getFeatures(DOCUMENT)) {
+            extractTracks(concatPath(name, document.getName()), description, document, startDate, context);
+        }
+    }
+
+    /**
+     * @return true if a placemark of a folder or document is not extracted
+     */
+    boolean isIgnoredPlacemark(KmlFeature placemark) {
+        return false;
+    }
+
+    /**
+     * @return true if a folder with the given name is not extracted
+     */
+    boolean isIgnoredFolder(String name) {
+        return false;
+    }
+
     protected KmlPosition asKmlPosition(NavigationPosition position) {
         return new KmlPosition(position.getLongitude(), position.getLatitude(), position.getElevation(), null, null, position.getDescription());
     }
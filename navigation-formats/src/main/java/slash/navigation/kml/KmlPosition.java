@@ -31,6 +31,9 @@ import slash.navigation.base.Wgs84Position;
 
 public class KmlPosition extends Wgs84Position {
 
+    protected KmlPosition() {
+    }
+
     public KmlPosition(Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
         super(longitude, latitude, elevation, speed, time, description);
     }
@@ -41,24 +44,24 @@ public class KmlPosition extends Wgs84Position {
 
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || getPositionClass(this) != getPositionClass(o)) return false;
 
         KmlPosition that = (KmlPosition) o;
 
         return !(getElevation() != null ? !getElevation().equals(that.getElevation()) : that.getElevation() != null) &&
-                !(description != null ? !description.equals(that.description) : that.description != null) &&
-                !(latitude != null ? !latitude.equals(that.latitude) : that.latitude != null) &&
-                !(longitude != null ? !longitude.equals(that.longitude) : that.longitude != null) &&
+                !(getDescription() != null ? !getDescription().equals(that.getDescription()) : that.getDescription() != null) &&
+                !(getLatitude() != null ? !getLatitude().equals(that.getLatitude()) : that.getLatitude() != null) &&
+                !(getLongitude() != null ? !getLongitude().equals(that.getLongitude()) : that.getLongitude() != null) &&
                 !(hasTime() ? !getTime().equals(that.getTime()) : that.hasTime());
     }
 
     public int hashCode() {
         int result;
-        result = (longitude != null ? longitude.hashCode() : 0);
-        result = 31 * result + (latitude != null ? latitude.hashCode() : 0);
+        result = (getLongitude() != null ? getLongitude().hashCode() : 0);
+        result = 31 * result + (getLatitude() != null ? getLatitude().hashCode() : 0);
         result = 31 * result + (getElevation() != null ? getElevation().hashCode() : 0);
         result = 31 * result + (hasTime() ? getTime().hashCode() : 0);
-        result = 31 * result + (description != null ? description.hashCode() : 0);
+        result = 31 * result + (getDescription() != null ? getDescription().hashCode() : 0);
         return result;
     }
 }
@@ -0,0 +1,464 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.kml;
+
+import slash.common.type.CompactCalendar;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.Closeable;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+import static slash.navigation.kml.KmlFeature.*;
+import static slash.navigation.kml.KmlUtil.ATOM_2005_NAMESPACE_URI;
+import static slash.navigation.kml.KmlUtil.KML_21_NAMESPACE_URI;
+import static slash.navigation.kml.KmlUtil.KML_22_EXT_NAMESPACE_URI;
+import static slash.navigation.kml.KmlUtil.KML_22_NAMESPACE_URI;
+
+/**
+ * Walks through a Google Earth 4 and 5 document with a {@link XMLStreamReader} and collects
+ * the {@link KmlFeature}s the formats extract routes from. The coordinates are scanned
+ * chunk by chunk into {@link KmlPosition}s without building strings. Every content it
+ * doesn't understand raises a {@link XMLStreamException} which lets the formats fall back to JAXB.
+ *
+ * @author Christian Pesch
+ */
+
+class KmlStreamReader implements Closeable {
+    private static final XMLInputFactory inputFactory = createInputFactory();
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+    private static final long MAXIMUM_EXACT_MANTISSA = 1L << 53;
+
+    private final XMLStreamReader reader;
+    private final KmlFormat format;
+    private final String namespaceUri;
+    private final boolean kml21, kml22;
+
+    private char[] number = new char[32];
+    private int numberLength = 0;
+    private final Double[] values = new Double[3];
+    private int valueCount = 0;
+    private boolean afterComma = false;
+
+    KmlStreamReader(InputStream source, KmlFormat format) throws XMLStreamException {
+        this.reader = inputFactory.createXMLStreamReader(source);
+        this.format = format;
+        this.namespaceUri = format.getStreamingNamespaceUri();
+        this.kml21 = KML_21_NAMESPACE_URI.equals(namespaceUri);
+        this.kml22 = KML_22_NAMESPACE_URI.equals(namespaceUri);
+    }
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // deliver long coordinates in chunks instead of one string
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Reads the document.
+     *
+     * @return the kml element with the features in the order of the document
+     */
+    KmlFeature read() throws XMLStreamException {
+        if (reader.nextTag() != START_ELEMENT || !KML.equals(getName()))
+            throw unsupported();
+
+        KmlFeature kml = new KmlFeature(KML);
+        while (reader.nextTag() == START_ELEMENT) {
+            String name = getName();
+            switch (name) {
+                case DOCUMENT:
+                case FOLDER:
+                case PLACEMARK:
+                    kml.getFeatures().add(readFeature(new KmlFeature(name)));
+                    break;
+                case "gx:Tour":
+                    throw unsupported();
+                default:
+                    skipElement();
+            }
+        }
+
+        // read behind the end of the root element to report the same errors as JAXB
+        while (reader.hasNext())
+            reader.next();
+        return kml;
+    }
+
+    private KmlFeature readFeature(KmlFeature feature) throws XMLStreamException {
+        boolean container = DOCUMENT.equals(feature.getType()) || FOLDER.equals(feature.getType());
+        boolean networkLink = NETWORK_LINK.equals(feature.getType());
+        String atomLink = null;
+
+        while (reader.nextTag() == START_ELEMENT) {
+            String name = getName();
+            switch (name) {
+                case "name":
+                    feature.setName(reader.getElementText());
+                    break;
+                case "description":
+                    feature.setDescription(reader.getElementText());
+                    break;
+                case "TimeStamp":
+                    feature.setTime(readChildText("when"));
+                    break;
+                case "TimeSpan":
+                    feature.setTime(readChildText("begin"));
+                    break;
+                case DOCUMENT:
+                case FOLDER:
+                case PLACEMARK:
+                case NETWORK_LINK:
+                    if (container)
+                        feature.getFeatures().add(readFeature(new KmlFeature(name)));
+                    else
+                        skipElement();
+                    break;
+                case "Url":
+                    if (networkLink)
+                        feature.getLinks().add(readChildText("href"));
+                    else
+                        skipElement();
+                    break;
+                case "Link":
+                    if (networkLink && !kml21)
+                        feature.getLinks().add(readChildText("href"));
+                    else
+                        skipElement();
+                    break;
+                case "atom:link":
+                    if (networkLink && !kml21)
+                        atomLink = reader.getAttributeValue(null, "href");
+                    skipElement();
+                    break;
+                default:
+                    if (PLACEMARK.equals(feature.getType()) && isGeometry(name)) {
+                        List<KmlPosition> positions = new ColumnarKmlPositionList();
+                        readGeometry(name, positions);
+                        feature.setPositions(positions);
+                    } else
+                        skipElement();
+            }
+        }
+
+        if (atomLink != null)
+            feature.getLinks().add(0, atomLink);
+        return feature;
+    }
+
+    private boolean isGeometry(String name) {
+        switch (name) {
+            case "Point":
+            case "LineString":
+            case "LinearRing":
+            case "Polygon":
+            case "MultiGeometry":
+            case "Model":
+                return true;
+            case "gx:Track":
+            case "gx:MultiTrack":
+                return kml22;
+            default:
+                return false;
+        }
+    }
+
+    private void readGeometry(String name, List<KmlPosition> positions) throws XMLStreamException {
+        switch (name) {
+            case "Point":
+            case "LineString":
+                while (reader.nextTag() == START_ELEMENT) {
+                    if ("coordinates".equals(getName()))
+                        readCoordinates(positions, false);
+                    else
+                        skipElement();
+                }
+                break;
+            case "MultiGeometry":
+                while (reader.nextTag() == START_ELEMENT) {
+                    String child = getName();
+                    if (isGeometry(child))
+                        readGeometry(child, positions);
+                    else
+                        skipElement();
+                }
+                break;
+            case "gx:MultiTrack":
+                while (reader.nextTag() == START_ELEMENT) {
+                    if ("gx:Track".equals(getName()))
+                        readTrack(positions);
+                    else
+                        skipElement();
+                }
+                break;
+            case "gx:Track":
+                readTrack(positions);
+                break;
+            default:
+                skipElement();
+        }
+    }
+
+    private void readTrack(List<KmlPosition> positions) throws XMLStreamException {
+        int first = positions.size();
+        List<String> whens = new ArrayList<>();
+        while (reader.nextTag() == START_ELEMENT) {
+            switch (getName()) {
+                case "when":
+                    whens.add(reader.getElementText());
+                    break;
+                case "gx:coord":
+                    readCoordinates(positions, true);
+                    break;
+                default:
+                    skipElement();
+            }
+        }
+
+        for (int i = 0; i < whens.size() && first + i < positions.size(); i++) {
+            CompactCalendar time = format.parseTime(whens.get(i));
+            if (time != null)
+                positions.get(first + i).setTime(time);
+        }
+    }
+
+    private String readChildText(String localName) throws XMLStreamException {
+        String result = null;
+        while (reader.nextTag() == START_ELEMENT) {
+            if (localName.equals(getName()))
+                result = reader.getElementText();
+            else
+                skipElement();
+        }
+        return result;
+    }
+
+    /**
+     * Scans the text of the current element into positions. Coordinates are tuples of
+     * longitude, latitude and an optional elevation separated by commas, extension
+     * coordinates are triples separated by whitespace.
+     */
+    private void readCoordinates(List<KmlPosition> positions, boolean extension) throws XMLStreamException {
+        numberLength = 0;
+        valueCount = 0;
+        afterComma = false;
+
+        while (true) {
+            switch (reader.next()) {
+                case CHARACTERS:
+                case CDATA:
+                case SPACE:
+                    scan(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength(), positions, extension);
+                    break;
+                case COMMENT:
+                case PROCESSING_INSTRUCTION:
+                    break;
+                case END_ELEMENT:
+                    endCoordinates(positions, extension);
+                    return;
+                default:
+                    throw unsupported();
+            }
+        }
+    }
+
+    private void scan(char[] characters, int start, int length, List<KmlPosition> positions, boolean extension) throws XMLStreamException {
+        for (int i = start, end = start + length; i < end; i++) {
+            char c = characters[i];
+            if ((c >= '0' && c <= '9') || c == '.' || c == '-' || c == '+' || c == 'E') {
+                if (numberLength == number.length)
+                    number = Arrays.copyOf(number, numberLength * 2);
+                number[numberLength++] = c;
+                continue;
+            }
+
+            if (numberLength > 0)
+                endNumber(positions, extension);
+            if (c == ',') {
+                if (!extension) {
+                    if (valueCount == 0 || valueCount == 3 || afterComma)
+                        throw unsupported();
+                    afterComma = true;
+                }
+            } else if (c != ' ' && c != '\n' && c != '\r' && c != '\t')
+                throw unsupported();
+        }
+    }
+
+    private void endNumber(List<KmlPosition> positions, boolean extension) throws XMLStreamException {
+        Double value = parseNumber();
+        if (extension) {
+            values[valueCount++] = value;
+            if (valueCount == 3)
+                addPosition(positions);
+        } else if (afterComma) {
+            values[valueCount++] = value;
+            afterComma = false;
+        } else {
+            // a number after whitespace starts the next tuple
+            if (valueCount == 1)
+                throw unsupported();
+            if (valueCount > 1)
+                addPosition(positions);
+            values[valueCount++] = value;
+        }
+    }
+
+    private void endCoordinates(List<KmlPosition> positions, boolean extension) throws XMLStreamException {
+        if (numberLength > 0)
+            endNumber(positions, extension);
+        if (extension ? valueCount > 0 : afterComma || valueCount == 1)
+            throw unsupported();
+        if (valueCount > 1)
+            addPosition(positions);
+    }
+
+    private void addPosition(List<KmlPosition> positions) {
+        positions.add(new KmlPosition(values[0], values[1], valueCount > 2 ? values[2] : null, null, null, null));
+        valueCount = 0;
+    }
+
+    /**
+     * Parses the collected number. Up to 18 significant digits and a power of ten
+     * up to 22 are computed exactly, everything else is left to {@link Double#parseDouble}.
+     */
+    private Double parseNumber() throws XMLStreamException {
+        char[] chars = number;
+        int length = numberLength;
+        numberLength = 0;
+
+        int i = 0;
+        boolean negative = false;
+        if (chars[0] == '-' || chars[0] == '+') {
+            negative = chars[0] == '-';
+            i++;
+        }
+
+        long mantissa = 0;
+        int digits = 0, exponent = 0;
+        boolean hasDigits = false, exact = true;
+        for (; i < length && chars[i] >= '0' && chars[i] <= '9'; i++) {
+            hasDigits = true;
+            int digit = chars[i] - '0';
+            if (digits < 18) {
+                mantissa = mantissa * 10 + digit;
+                if (mantissa != 0)
+                    digits++;
+            } else {
+                exponent++;
+                if (digit != 0)
+                    exact = false;
+            }
+        }
+        if (i < length && chars[i] == '.') {
+            i++;
+            for (; i < length && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                hasDigits = true;
+                int digit = chars[i] - '0';
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + digit;
+                    if (mantissa != 0)
+                        digits++;
+                    exponent--;
+                } else if (digit != 0)
+                    exact = false;
+            }
+        }
+        if (!hasDigits)
+            throw unsupported();
+
+        if (i < length && chars[i] == 'E') {
+            i++;
+            boolean negativeExponent = false;
+            if (i < length && (chars[i] == '-' || chars[i] == '+')) {
+                negativeExponent = chars[i] == '-';
+                i++;
+            }
+            int start = i, value = 0;
+            for (; i < length && chars[i] >= '0' && chars[i] <= '9'; i++) {
+                if (value < 10000)
+                    value = value * 10 + chars[i] - '0';
+            }
+            if (i == start)
+                throw unsupported();
+            exponent += negativeExponent ? -value : value;
+        }
+        if (i != length)
+            throw unsupported();
+
+        if (exact && mantissa < MAXIMUM_EXACT_MANTISSA && exponent >= -22 && exponent <= 22) {
+            // both operands are exact doubles, thus the result is correctly rounded
+            double value = exponent < 0 ? mantissa / POWERS_OF_TEN[-exponent] : mantissa * POWERS_OF_TEN[exponent];
+            return negative ? -value : value;
+        }
+        return Double.parseDouble(new String(chars, 0, length));
+    }
+
+    /**
+     * @return the local name of the current element if it is in the namespace of the document,
+     * prefixed with gx: or atom: for the extension and atom namespaces
+     */
+    private String getName() {
+        String uri = reader.getNamespaceURI();
+        if (namespaceUri.equals(uri))
+            return reader.getLocalName();
+        if (KML_22_EXT_NAMESPACE_URI.equals(uri))
+            return "gx:" + reader.getLocalName();
+        if (ATOM_2005_NAMESPACE_URI.equals(uri))
+            return "atom:" + reader.getLocalName();
+        return "";
+    }
+
+    private void skipElement() throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == START_ELEMENT)
+                depth++;
+            else if (event == END_ELEMENT)
+                depth--;
+        }
+    }
+
+    private XMLStreamException unsupported() {
+        String name = reader.isStartElement() || reader.isEndElement() ? reader.getName().toString() : "event " + reader.getEventType();
+        return new XMLStreamException("Unsupported content " + name, reader.getLocation());
+    }
+
+    public void close() {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            // intentionally left empty
+        }
+    }
+}
@@ -26,10 +26,12 @@ import slash.navigation.base.ParserContext;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.NavigationPosition;
 
+import java.io.BufferedInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Logger;
 import java.util.zip.CRC32;
@@ -70,17 +72,71 @@ public abstract class KmzFormat extends BaseKmlFormat {
     }
 
     public void read(InputStream source, CompactCalendar startDate, ParserContext<KmlRoute> context) throws Exception {
+        if (delegate.getStreamingNamespaceUri() == null) {
+            unmarshal(source, null, startDate, context);
+            return;
+        }
+
+        // the compressed bytes are kept to unmarshal the entries that cannot be streamed
+        BufferedInputStream buffer = markForUnmarshal(source);
+
+        List<ZipEntry> entries = new ArrayList<>();
+        List<KmlFeature> kmls = new ArrayList<>();
+        boolean streamed = true;
+        try (ZipInputStream zip = new ZipInputStream(new NotClosingUnderlyingInputStream(buffer))) {
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                if (entry.isDirectory())
+                    continue;
+
+                KmlFeature kml = delegate.stream(new NotClosingUnderlyingInputStream(zip));
+                entries.add(entry);
+                kmls.add(kml);
+                streamed &= kml != null;
+                zip.closeEntry();
+            }
+        }
+
+        if (streamed) {
+            for (int i = 0; i < kmls.size(); i++)
+                process(entries.get(i), kmls.get(i), startDate, context);
+        } else {
+            resetForUnmarshal(buffer);
+            unmarshal(buffer, kmls, startDate, context);
+        }
+    }
+
+    private void process(ZipEntry entry, KmlFeature kml, CompactCalendar startDate, ParserContext<KmlRoute> context) {
+        try {
+            delegate.process(kml, startDate, context);
+        } catch (Exception e) {
+            log.info(format("Error reading %s with %s: %s, %s", entry, delegate, e.getClass(), e));
+        }
+    }
+
+    /**
+     * Unmarshals the entries with JAXB except for those that have already been streamed.
+     *
+     * @param kmls the streamed entries, null for entries that cannot be streamed
+     */
+    private void unmarshal(InputStream source, List<KmlFeature> kmls, CompactCalendar startDate, ParserContext<KmlRoute> context) throws IOException {
         try (ZipInputStream zip = new ZipInputStream(source)) {
             ZipEntry entry;
+            int index = 0;
             while ((entry = zip.getNextEntry()) != null) {
                 if(entry.isDirectory())
                     continue;
 
-                try {
-                    delegate.read(new NotClosingUnderlyingInputStream(zip), startDate, context);
-                }
-                catch(Exception e) {
-                    log.info(format("Error reading %s with %s: %s, %s", entry, delegate, e.getClass(), e));
+                KmlFeature kml = kmls != null ? kmls.get(index++) : null;
+                if (kml != null)
+                    process(entry, kml, startDate, context);
+                else {
+                    try {
+                        delegate.unmarshal(new NotClosingUnderlyingInputStream(zip), startDate, context);
+                    }
+                    catch(Exception e) {
+                        log.info(format("Error reading %s with %s: %s, %s", entry, delegate, e.getClass(), e));
+                    }
                 }
                 zip.closeEntry();
             }
@@ -22,16 +22,18 @@ package slash.navigation.nmea;
 
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
+import slash.navigation.base.PositionSink;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.base.SimpleFormat;
 
 import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.text.DecimalFormat;
 import java.text.NumberFormat;
 import java.text.ParseException;
-import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.List;
@@ -41,6 +43,7 @@ import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import static java.util.Locale.US;
+import static slash.common.io.Transfer.ISO_LATIN1_ENCODING;
 import static slash.common.io.Transfer.isEmpty;
 import static slash.common.io.Transfer.trim;
 import static slash.common.type.CompactCalendar.*;
@@ -70,21 +73,30 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     private static final String DATE_FORMAT = "ddMMyy";
     private static final String PRECISE_TIME_FORMAT = "HHmmss.SSS";
     private static final String TIME_FORMAT = "HHmmss";
-    private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-    private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-    static {
-        int maximumFractionDigits = preferences.getInt("positionMaximumFractionDigits", 4);
-        LONGITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LONGITUDE_NUMBER_FORMAT.setMinimumFractionDigits(4);
-        LONGITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LONGITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(5);
-        LATITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LATITUDE_NUMBER_FORMAT.setMinimumFractionDigits(4);
-        LATITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LATITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(4);
-        LATITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(4);
-    }
+    private static final int MAXIMUM_FRACTION_DIGITS = preferences.getInt("positionMaximumFractionDigits", 4);
+    // formats are read in parallel and NumberFormat is not thread-safe
+    private static final ThreadLocal<NumberFormat> LONGITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(4);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(5);
+            format.setMaximumIntegerDigits(5);
+            return format;
+        }
+    };
+    private static final ThreadLocal<NumberFormat> LATITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(4);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(4);
+            format.setMaximumIntegerDigits(4);
+            return format;
+        }
+    };
 
     public BaseNmeaFormat() {
         this.log = Logger.getLogger(getClass().getName());
@@ -103,8 +115,36 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     }
 
     public void read(BufferedReader reader, CompactCalendar startDate, String encoding, ParserContext<NmeaRoute> context) throws IOException {
-        List<NmeaPosition> positions = new ArrayList<>();
+        final List<NmeaPosition> positions = new ColumnarNmeaPositionList();
+        boolean valid = read(reader, startDate, new PositionSink<NmeaPosition>() {
+            public void accept(NmeaPosition position) {
+                positions.add(position);
+            }
+        });
+
+        if (valid && positions.size() > 0)
+            context.appendRoute(createRoute(getCharacteristics(), null, positions));
+    }
+
+    /**
+     * Reads the positions from the given stream and hands them to the sink as soon
+     * as no more sentences are merged into them. Since only the last position is kept,
+     * logs of any size are read with constant memory.
+     *
+     * @param source the stream to read from
+     * @param startDate the date for positions with a time but without a date
+     * @param sink the sink for the positions
+     * @return false if the stream contains lines that are not NMEA-like
+     * and the positions given to the sink are not valid for this format
+     * @throws IOException if the stream cannot be read or the sink fails
+     */
+    public boolean read(InputStream source, CompactCalendar startDate, PositionSink<? super NmeaPosition> sink) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(source, ISO_LATIN1_ENCODING))) {
+            return read(reader, startDate, sink);
+        }
+    }
 
+    boolean read(BufferedReader reader, CompactCalendar startDate, PositionSink<? super NmeaPosition> sink) throws IOException {
         CompactCalendar originalStartDate = startDate;
         int lineCount = 0;
         NmeaPosition previous = null;
@@ -125,7 +165,9 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
                         position.setStartDate(startDate);
 
                     if (haveDifferentLongitudeAndLatitude(previous, position) || haveDifferentTime(previous, position) && !validStartDate) {
-                        positions.add(position);
+                        // the previous position is complete since nothing is merged into it anymore
+                        if (previous != null)
+                            sink.accept(previous);
                         previous = position;
                     } else {
                         mergePositions(previous, position, originalStartDate);
@@ -134,12 +176,13 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
             } else {
                 // exception for Mobile Navigator 6: accept that the first line may be garbled
                 if (lineCount++ > getGarbleCount())
-                    return;
+                    return false;
             }
         }
 
-        if (positions.size() > 0)
-            context.appendRoute(createRoute(getCharacteristics(), null, positions));
+        if (previous != null)
+            sink.accept(previous);
+        return true;
     }
 
     boolean haveDifferentLongitudeAndLatitude(NmeaPosition predecessor, NmeaPosition successor) {
@@ -290,13 +333,13 @@ public abstract class BaseNmeaFormat extends SimpleFormat<NmeaRoute> {
     protected String formatLongitude(Double longitude) {
         if (longitude == null)
             return "";
-        return LONGITUDE_NUMBER_FORMAT.format(longitude);
+        return LONGITUDE_NUMBER_FORMAT.get().format(longitude);
     }
 
     protected String formatLatitude(Double latitude) {
         if (latitude == null)
             return "";
-        return LATITUDE_NUMBER_FORMAT.format(latitude);
+        return LATITUDE_NUMBER_FORMAT.get().format(latitude);
     }
 
     protected void writeSentence(PrintWriter writer, String sentence) {
@@ -0,0 +1,100 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.nmea;
+
+import slash.navigation.base.BaseColumnarPositionList;
+import slash.navigation.common.Orientation;
+import slash.navigation.common.ValueAndOrientation;
+
+import static slash.navigation.common.UnitConversion.nmea2degrees;
+
+/**
+ * A {@link BaseColumnarPositionList} of {@link NmeaPosition}s which the
+ * NMEA formats fill while they read. The coordinates are stored as read
+ * and in degrees for the calculations.
+ *
+ * @author Christian Pesch
+ */
+
+public class ColumnarNmeaPositionList extends BaseColumnarPositionList<NmeaPosition> {
+    private final DoubleColumn longitudeValues = addColumn(new DoubleColumn()), latitudeValues = addColumn(new DoubleColumn());
+    private final ObjectColumn<Orientation> longitudeOrientations = addColumn(new ObjectColumn<Orientation>()),
+            latitudeOrientations = addColumn(new ObjectColumn<Orientation>());
+
+    protected NmeaPosition createView(Row row) {
+        return new ColumnarNmeaPosition(row);
+    }
+
+    protected Class<NmeaPosition> getStorableClass() {
+        return NmeaPosition.class;
+    }
+
+    protected void appendValues(Row row, NmeaPosition position) {
+        setValueAndOrientation(row, longitudeValues, longitudeOrientations, position.getLongitudeAsValueAndOrientation());
+        setValueAndOrientation(row, latitudeValues, latitudeOrientations, position.getLatitudeAsValueAndOrientation());
+        row.setHeading(position.getHeading());
+        row.setHdop(position.getHdop());
+        row.setVdop(position.getVdop());
+        row.setPdop(position.getPdop());
+        row.setSatellites(position.getSatellites());
+    }
+
+    private static ValueAndOrientation getValueAndOrientation(Row row, DoubleColumn values, ObjectColumn<Orientation> orientations) {
+        Double value = row.get(values);
+        return value != null ? new ValueAndOrientation(value, row.get(orientations)) : null;
+    }
+
+    private static void setValueAndOrientation(Row row, DoubleColumn values, ObjectColumn<Orientation> orientations,
+                                               ValueAndOrientation valueAndOrientation) {
+        row.set(values, valueAndOrientation != null ? valueAndOrientation.getValue() : null);
+        row.set(orientations, valueAndOrientation != null ? valueAndOrientation.getOrientation() : null);
+    }
+
+    private class ColumnarNmeaPosition extends NmeaPosition {
+        private final Row row;
+
+        private ColumnarNmeaPosition(Row row) {
+            this.row = row;
+        }
+
+        protected Row getColumnarRow() {
+            return row;
+        }
+
+        public ValueAndOrientation getLongitudeAsValueAndOrientation() {
+            return getValueAndOrientation(row, longitudeValues, longitudeOrientations);
+        }
+
+        public void setLongitudeAsValueAndOrientation(ValueAndOrientation longitude) {
+            setValueAndOrientation(row, longitudeValues, longitudeOrientations, longitude);
+            row.setLongitude(nmea2degrees(longitude));
+        }
+
+        public ValueAndOrientation getLatitudeAsValueAndOrientation() {
+            return getValueAndOrientation(row, latitudeValues, latitudeOrientations);
+        }
+
+        public void setLatitudeAsValueAndOrientation(ValueAndOrientation latitude) {
+            setValueAndOrientation(row, latitudeValues, latitudeOrientations, latitude);
+            row.setLatitude(nmea2degrees(latitude));
+        }
+    }
+}
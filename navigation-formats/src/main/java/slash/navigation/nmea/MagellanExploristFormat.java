@@ -38,15 +38,17 @@ public class MagellanExploristFormat extends BaseNmeaFormat {
                     "(\\d*)" +                      // Date, ddmmyy
                     END_OF_LINE);
 
-    private static final NumberFormat ALTITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-
-    static {
-        ALTITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        ALTITUDE_NUMBER_FORMAT.setMinimumFractionDigits(0);
-        ALTITUDE_NUMBER_FORMAT.setMaximumFractionDigits(0);
-        ALTITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(6);
-        ALTITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(6);
-    }
+    private static final ThreadLocal<NumberFormat> ALTITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(Locale.US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(0);
+            format.setMaximumFractionDigits(0);
+            format.setMinimumIntegerDigits(6);
+            format.setMaximumIntegerDigits(6);
+            return format;
+        }
+    };
 
     public String getExtension() {
         return ".log";
@@ -91,7 +93,7 @@ public class MagellanExploristFormat extends BaseNmeaFormat {
     private String formatAltitude(Double aDouble) {
         if (aDouble == null)
             return "0";
-        return ALTITUDE_NUMBER_FORMAT.format(aDouble);
+        return ALTITUDE_NUMBER_FORMAT.get().format(aDouble);
     }
 
     protected void writePosition(NmeaPosition position, PrintWriter writer) {
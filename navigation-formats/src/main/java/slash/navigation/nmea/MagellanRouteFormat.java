@@ -49,22 +49,29 @@ import static slash.navigation.base.RouteCharacteristics.Route;
 public class MagellanRouteFormat extends BaseNmeaFormat {
     private static final Preferences preferences = Preferences.userNodeForPackage(MagellanRouteFormat.class);
 
-    private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-    private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-
-    static {
-        int maximumFractionDigits = preferences.getInt("magellanPositionMaximumFractionDigits", 5);
-        LONGITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LONGITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LONGITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(5);
-        LATITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LATITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LATITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LATITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(4);
-        LATITUDE_NUMBER_FORMAT.setMaximumIntegerDigits(4);
-    }
+    private static final int MAXIMUM_FRACTION_DIGITS = preferences.getInt("magellanPositionMaximumFractionDigits", 5);
+    private static final ThreadLocal<NumberFormat> LONGITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(Locale.US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(5);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(5);
+            format.setMaximumIntegerDigits(5);
+            return format;
+        }
+    };
+    private static final ThreadLocal<NumberFormat> LATITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(Locale.US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(5);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(4);
+            format.setMaximumIntegerDigits(4);
+            return format;
+        }
+    };
 
     private static final String HEADER_LINE = "$PMGNFMT,%RTE,NUM_MSG,ID,FLAG,NUM,NAME,WPT_NAME1,ICON1,WPT_NAME2,ICON2,CHKSUM ?%WPL,LAT,HEMI,LON,HEMI,ALT,UNIT,NAME,MSG,ICON,CHKSUM,%META,ASCII";
 
@@ -124,13 +131,13 @@ public class MagellanRouteFormat extends BaseNmeaFormat {
     protected String formatLongitude(Double longitude) {
         if (longitude == null)
             return "";
-        return LONGITUDE_NUMBER_FORMAT.format(longitude);
+        return LONGITUDE_NUMBER_FORMAT.get().format(longitude);
     }
 
     protected String formatLatitude(Double latitude) {
         if (latitude == null)
             return "";
-        return LATITUDE_NUMBER_FORMAT.format(latitude);
+        return LATITUDE_NUMBER_FORMAT.get().format(latitude);
     }
 
     String formatRouteName(String name) {
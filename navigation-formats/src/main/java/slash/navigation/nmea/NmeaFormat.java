@@ -50,15 +50,18 @@ import static slash.navigation.common.UnitConversion.nauticMilesToKiloMeter;
 public class NmeaFormat extends BaseNmeaFormat {
     private static final Preferences preferences = Preferences.userNodeForPackage(NmeaFormat.class);
 
-    private static final NumberFormat ALTITUDE_AND_SPEED_NUMBER_FORMAT = DecimalFormat.getNumberInstance(US);
-    static {
-        int maximumFractionDigits = preferences.getInt("altitudeSpeedMaximumFractionDigits", 1);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setGroupingUsed(false);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMinimumFractionDigits(1);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMinimumIntegerDigits(1);
-        ALTITUDE_AND_SPEED_NUMBER_FORMAT.setMaximumIntegerDigits(6);
-    }
+    private static final int MAXIMUM_FRACTION_DIGITS = preferences.getInt("altitudeSpeedMaximumFractionDigits", 1);
+    private static final ThreadLocal<NumberFormat> ALTITUDE_AND_SPEED_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(1);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(1);
+            format.setMaximumIntegerDigits(6);
+            return format;
+        }
+    };
 
     private static final String DAY_FORMAT = "dd";
     private static final String MONTH_FORMAT = "MM";
@@ -303,19 +306,19 @@ public class NmeaFormat extends BaseNmeaFormat {
     private String formatAltitude(Double altitude) {
         if (altitude == null)
             return "";
-        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.format(altitude);
+        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.get().format(altitude);
     }
 
     private String formatSpeed(Double speed) {
         if (speed == null)
             return "";
-        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.format(speed);
+        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.get().format(speed);
     }
 
     private String formatAccuracy(Double accuracy) {
         if (accuracy == null)
             return "";
-        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.format(accuracy);
+        return ALTITUDE_AND_SPEED_NUMBER_FORMAT.get().format(accuracy);
     }
 
     protected void writePosition(NmeaPosition position, PrintWriter writer) {
@@ -21,6 +21,7 @@
 package slash.navigation.nmea;
 
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.BaseColumnarPositionList.Row;
 import slash.navigation.base.BaseNavigationPosition;
 import slash.navigation.base.Wgs84Position;
 import slash.navigation.common.Orientation;
@@ -45,6 +46,9 @@ public class NmeaPosition extends BaseNavigationPosition {
     private Double speed;
     private CompactCalendar time;
 
+    protected NmeaPosition() {
+    }
+
     public NmeaPosition(Double longitude, String eastOrWest, Double latitude, String northOrSouth, Double elevation, Double speed, Double heading, CompactCalendar time, String description) {
         this(null, null, elevation, speed, time, description);
         this.longitude = longitude != null ? new ValueAndOrientation(longitude, Orientation.fromValue(eastOrWest)) : null;
@@ -62,51 +66,73 @@ public class NmeaPosition extends BaseNavigationPosition {
     }
 
     public Double getLongitude() {
-        return nmea2degrees(getLongitudeAsValueAndOrientation());
+        Row row = getColumnarRow();
+        return row != null ? row.getLongitude() : nmea2degrees(getLongitudeAsValueAndOrientation());
     }
 
     public void setLongitude(Double longitude) {
-        this.longitude = longitude2nmea(longitude);
+        setLongitudeAsValueAndOrientation(longitude2nmea(longitude));
     }
 
     public Double getLatitude() {
-        return nmea2degrees(getLatitudeAsValueAndOrientation());
+        Row row = getColumnarRow();
+        return row != null ? row.getLatitude() : nmea2degrees(getLatitudeAsValueAndOrientation());
     }
 
     public void setLatitude(Double latitude) {
-        this.latitude = latitude2nmea(latitude);
+        setLatitudeAsValueAndOrientation(latitude2nmea(latitude));
     }
 
     public String getDescription() {
-        return description;
+        Row row = getColumnarRow();
+        return row != null ? row.getDescription() : description;
     }
 
     public void setDescription(String description) {
-        this.description = description;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setDescription(description);
+        else
+            this.description = description;
     }
 
     public Double getElevation() {
-        return elevation;
+        Row row = getColumnarRow();
+        return row != null ? row.getElevation() : elevation;
     }
 
     public void setElevation(Double elevation) {
-        this.elevation = elevation;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setElevation(elevation);
+        else
+            this.elevation = elevation;
     }
 
     public Double getSpeed() {
-        return speed;
+        Row row = getColumnarRow();
+        return row != null ? row.getSpeed() : speed;
     }
 
     public void setSpeed(Double speed) {
-        this.speed = speed;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setSpeed(speed);
+        else
+            this.speed = speed;
     }
 
     public CompactCalendar getTime() {
-        return time;
+        Row row = getColumnarRow();
+        return row != null ? row.getTime() : time;
     }
 
     public void setTime(CompactCalendar time) {
-        this.time = time;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setTime(time);
+        else
+            this.time = time;
     }
 
     public ValueAndOrientation getLongitudeAsValueAndOrientation() {
@@ -126,43 +152,68 @@ public class NmeaPosition extends BaseNavigationPosition {
     }
 
     public Double getHeading() {
-        return heading;
+        Row row = getColumnarRow();
+        return row != null ? row.getHeading() : heading;
     }
 
     public void setHeading(Double heading) {
-        this.heading = heading;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setHeading(heading);
+        else
+            this.heading = heading;
     }
 
-   public Double getHdop() {
-        return hdop;
+    public Double getHdop() {
+        Row row = getColumnarRow();
+        return row != null ? row.getHdop() : hdop;
     }
 
     public void setHdop(Double hdop) {
-        this.hdop = hdop;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setHdop(hdop);
+        else
+            this.hdop = hdop;
     }
 
     public Double getVdop() {
-        return vdop;
+        Row row = getColumnarRow();
+        return row != null ? row.getVdop() : vdop;
     }
 
     public void setVdop(Double vdop) {
-        this.vdop = vdop;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setVdop(vdop);
+        else
+            this.vdop = vdop;
     }
 
     public Double getPdop() {
-        return pdop;
+        Row row = getColumnarRow();
+        return row != null ? row.getPdop() : pdop;
     }
 
     public void setPdop(Double pdop) {
-        this.pdop = pdop;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setPdop(pdop);
+        else
+            this.pdop = pdop;
     }
 
     public Integer getSatellites() {
-        return satellites;
+        Row row = getColumnarRow();
+        return row != null ? row.getSatellites() : satellites;
     }
 
     public void setSatellites(Integer satellites) {
-        this.satellites = satellites;
+        Row row = getColumnarRow();
+        if (row != null)
+            row.setSatellites(satellites);
+        else
+            this.satellites = satellites;
     }
 
 
@@ -199,33 +250,33 @@ public class NmeaPosition extends BaseNavigationPosition {
 
     public boolean equals(Object o) {
         if (this == o) return true;
-        if (o == null || getClass() != o.getClass()) return false;
+        if (o == null || getPositionClass(this) != getPositionClass(o)) return false;
 
         NmeaPosition that = (NmeaPosition) o;
 
-        return !(description != null ? !description.equals(that.description) : that.description != null) &&
+        return !(getDescription() != null ? !getDescription().equals(that.getDescription()) : that.getDescription() != null) &&
                 !(getElevation() != null ? !getElevation().equals(that.getElevation()) : that.getElevation() != null) &&
-                !(heading != null ? !heading.equals(that.heading) : that.heading != null) &&
-                !(latitude != null ? !latitude.equals(that.latitude) : that.latitude != null) &&
-                !(longitude != null ? !longitude.equals(that.longitude) : that.longitude != null) &&
+                !(getHeading() != null ? !getHeading().equals(that.getHeading()) : that.getHeading() != null) &&
+                !(getLatitudeAsValueAndOrientation() != null ? !getLatitudeAsValueAndOrientation().equals(that.getLatitudeAsValueAndOrientation()) : that.getLatitudeAsValueAndOrientation() != null) &&
+                !(getLongitudeAsValueAndOrientation() != null ? !getLongitudeAsValueAndOrientation().equals(that.getLongitudeAsValueAndOrientation()) : that.getLongitudeAsValueAndOrientation() != null) &&
                 !(hasTime() ? !getTime().equals(that.getTime()) : that.hasTime()) &&
-                !(hdop != null ? !hdop.equals(that.hdop) : that.hdop != null) &&
-                !(pdop != null ? !pdop.equals(that.pdop) : that.pdop != null) &&
-                !(vdop != null ? !vdop.equals(that.vdop) : that.vdop != null) &&
-                !(satellites != null ? !satellites.equals(that.satellites) : that.satellites != null);    }
+                !(getHdop() != null ? !getHdop().equals(that.getHdop()) : that.getHdop() != null) &&
+                !(getPdop() != null ? !getPdop().equals(that.getPdop()) : that.getPdop() != null) &&
+                !(getVdop() != null ? !getVdop().equals(that.getVdop()) : that.getVdop() != null) &&
+                !(getSatellites() != null ? !getSatellites().equals(that.getSatellites()) : that.getSatellites() != null);    }
 
     public int hashCode() {
         int result;
-        result = (longitude != null ? longitude.hashCode() : 0);
-        result = 31 * result + (latitude != null ? latitude.hashCode() : 0);
+        result = (getLongitudeAsValueAndOrientation() != null ? getLongitudeAsValueAndOrientation().hashCode() : 0);
+        result = 31 * result + (getLatitudeAsValueAndOrientation() != null ? getLatitudeAsValueAndOrientation().hashCode() : 0);
         result = 31 * result + (getElevation() != null ? getElevation().hashCode() : 0);
-        result = 31 * result + (heading != null ? heading.hashCode() : 0);
-        result = 31 * result + (description != null ? description.hashCode() : 0);
+        result = 31 * result + (getHeading() != null ? getHeading().hashCode() : 0);
+        result = 31 * result + (getDescription() != null ? getDescription().hashCode() : 0);
         result = 31 * result + (hasTime() ? getTime().hashCode() : 0);
-        result = 31 * result + (hdop != null ? hdop.hashCode() : 0);
-        result = 31 * result + (pdop != null ? pdop.hashCode() : 0);
-        result = 31 * result + (vdop != null ? vdop.hashCode() : 0);
-        result = 31 * result + (satellites != null ? satellites.hashCode() : 0);
+        result = 31 * result + (getHdop() != null ? getHdop().hashCode() : 0);
+        result = 31 * result + (getPdop() != null ? getPdop().hashCode() : 0);
+        result = 31 * result + (getVdop() != null ? getVdop().hashCode() : 0);
+        result = 31 * result + (getSatellites() != null ? getSatellites().hashCode() : 0);
         return result;
     }
 }
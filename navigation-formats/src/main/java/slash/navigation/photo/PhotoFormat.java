@@ -124,8 +124,16 @@ public class PhotoFormat extends SimpleFormat<Wgs84Route> {
     private static final Logger log = Logger.getLogger(PhotoFormat.class.getName());
     private static final String DATE_FORMAT = "yyyy:MM:dd";
     private static final String DATE_TIME_FORMAT = "yyyy:MM:dd HH:mm:ss";
-    private static final DecimalFormat XX_FORMAT = new DecimalFormat("00");
-    private static final DecimalFormat XXXX_FORMAT = new DecimalFormat("0000");
+    private static final ThreadLocal<DecimalFormat> XX_FORMAT = new ThreadLocal<DecimalFormat>() {
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat("00");
+        }
+    };
+    private static final ThreadLocal<DecimalFormat> XXXX_FORMAT = new ThreadLocal<DecimalFormat>() {
+        protected DecimalFormat initialValue() {
+            return new DecimalFormat("0000");
+        }
+    };
     private static final int READ_BUFFER_SIZE = 32 * 1024;
 
     public String getName() {
@@ -458,9 +466,9 @@ public class PhotoFormat extends SimpleFormat<Wgs84Route> {
                             RationalNumber.valueOf(calendar.get(HOUR_OF_DAY)),
                             RationalNumber.valueOf(calendar.get(MINUTE)),
                             RationalNumber.valueOf(calendar.get(SECOND)));
-                    String dateStamp = XXXX_FORMAT.format(calendar.get(YEAR)) + ":" +
-                            XX_FORMAT.format(calendar.get(MONTH) + 1) + ":" +
-                            XX_FORMAT.format(calendar.get(DAY_OF_MONTH));
+                    String dateStamp = XXXX_FORMAT.get().format(calendar.get(YEAR)) + ":" +
+                            XX_FORMAT.get().format(calendar.get(MONTH) + 1) + ":" +
+                            XX_FORMAT.get().format(calendar.get(DAY_OF_MONTH));
                     gpsDirectory.add(GPS_TAG_GPS_DATE_STAMP, dateStamp);
                 }
 
@@ -60,20 +60,27 @@ public class HaicomLoggerFormat extends SimpleLineBasedFormat<SimpleRoute> {
     private static final String DATE_AND_TIME_FORMAT = "yy/MM/dd HH:mm:ss";
     private static final String DATE_FORMAT = "yy/MM/dd";
     private static final String TIME_FORMAT = "HH:mm:ss";
-    private static final NumberFormat LONGITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-    private static final NumberFormat LATITUDE_NUMBER_FORMAT = DecimalFormat.getNumberInstance(Locale.US);
-
-    static {
-        int maximumFractionDigits = preferences.getInt("haicomPositionMaximumFractionDigits", 5);
-        LONGITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LONGITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LONGITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LONGITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(1);
-        LATITUDE_NUMBER_FORMAT.setGroupingUsed(false);
-        LATITUDE_NUMBER_FORMAT.setMinimumFractionDigits(5);
-        LATITUDE_NUMBER_FORMAT.setMaximumFractionDigits(maximumFractionDigits);
-        LATITUDE_NUMBER_FORMAT.setMinimumIntegerDigits(1);
-    }
+    private static final int MAXIMUM_FRACTION_DIGITS = preferences.getInt("haicomPositionMaximumFractionDigits", 5);
+    private static final ThreadLocal<NumberFormat> LONGITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(Locale.US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(5);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(1);
+            return format;
+        }
+    };
+    private static final ThreadLocal<NumberFormat> LATITUDE_NUMBER_FORMAT = new ThreadLocal<NumberFormat>() {
+        protected NumberFormat initialValue() {
+            NumberFormat format = DecimalFormat.getNumberInstance(Locale.US);
+            format.setGroupingUsed(false);
+            format.setMinimumFractionDigits(5);
+            format.setMaximumFractionDigits(MAXIMUM_FRACTION_DIGITS);
+            format.setMinimumIntegerDigits(1);
+            return format;
+        }
+    };
 
     private static final Pattern LINE_PATTERN = Pattern.
             compile("^" +
@@ -149,13 +156,13 @@ public class HaicomLoggerFormat extends SimpleLineBasedFormat<SimpleRoute> {
     String formatLongitude(Double aDouble) {
         if (aDouble == null)
             return "";
-        return LONGITUDE_NUMBER_FORMAT.format(aDouble);
+        return LONGITUDE_NUMBER_FORMAT.get().format(aDouble);
     }
 
     String formatLatitude(Double aDouble) {
         if (aDouble == null)
             return "";
-        return LATITUDE_NUMBER_FORMAT.format(aDouble);
+        return LATITUDE_NUMBER_FORMAT.get().format(aDouble);
     }
 
     String formatTime(CompactCalendar time) {
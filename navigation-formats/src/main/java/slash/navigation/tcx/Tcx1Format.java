@@ -22,6 +22,7 @@ package slash.navigation.tcx;
 
 import slash.common.io.Transfer;
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.ColumnarPositionList;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.Wgs84Position;
 import slash.navigation.tcx.binding1.*;
@@ -75,7 +76,7 @@ public class Tcx1Format extends TcxFormat {
     }
 
     private TcxRoute processCoursePoints(String name, CourseT courseT) {
-        List<Wgs84Position> positions = new ArrayList<>();
+        List<Wgs84Position> positions = new ColumnarPositionList();
         for (CoursePointT coursePointT : courseT.getCoursePoint()) {
             positions.add(new Wgs84Position(convertLongitude(coursePointT.getPosition()),
                     convertLatitude(coursePointT.getPosition()),
@@ -108,7 +109,7 @@ public class Tcx1Format extends TcxFormat {
 
 
     private TcxRoute processTracks(String name, List<TrackT> trackListT) {
-        List<Wgs84Position> positions = new ArrayList<>();
+        List<Wgs84Position> positions = new ColumnarPositionList();
         for (TrackT trackT : trackListT) {
             positions.addAll(processTrack(trackT));
         }
@@ -22,6 +22,7 @@ package slash.navigation.tcx;
 
 import slash.common.io.Transfer;
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.ColumnarPositionList;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.Wgs84Position;
 import slash.navigation.tcx.binding2.*;
@@ -76,7 +77,7 @@ public class Tcx2Format extends TcxFormat {
     }
 
     private TcxRoute processCoursePoints(CourseT courseT) {
-        List<Wgs84Position> positions = new ArrayList<>();
+        List<Wgs84Position> positions = new ColumnarPositionList();
         for (CoursePointT coursePointT : courseT.getCoursePoint()) {
             positions.add(new Wgs84Position(convertLongitude(coursePointT.getPosition()),
                     convertLatitude(coursePointT.getPosition()),
@@ -107,7 +108,7 @@ public class Tcx2Format extends TcxFormat {
 
 
     private TcxRoute process(ActivityLapT activityLapT) {
-        List<Wgs84Position> positions = new ArrayList<>();
+        List<Wgs84Position> positions = new ColumnarPositionList();
         for (TrackT trackT : activityLapT.getTrack()) {
             positions.addAll(processTrack(trackT));
         }
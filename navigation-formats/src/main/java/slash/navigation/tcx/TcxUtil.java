@@ -20,10 +20,9 @@
 
 package slash.navigation.tcx;
 
+import javax.xml.bind.JAXBContext;
 import javax.xml.bind.JAXBElement;
 import javax.xml.bind.JAXBException;
-import javax.xml.bind.Marshaller;
-import javax.xml.bind.Unmarshaller;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -34,27 +33,19 @@ class TcxUtil {
     public static final String TCX_1_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v1";
     public static final String TCX_2_NAMESPACE_URI = "http://www.garmin.com/xmlschemas/TrainingCenterDatabase/v2";
 
-    private static Unmarshaller newUnmarshaller1() {
-        return newUnmarshaller(newContext(slash.navigation.tcx.binding1.ObjectFactory.class));
+    private static JAXBContext newContext1() {
+        return newContext(slash.navigation.tcx.binding1.ObjectFactory.class);
     }
 
-    private static Marshaller newMarshaller1() {
-        return newMarshaller(newContext(slash.navigation.tcx.binding1.ObjectFactory.class));
-    }
-
-    private static Unmarshaller newUnmarshaller2() {
-        return newUnmarshaller(newContext(slash.navigation.tcx.binding2.ObjectFactory.class));
-    }
-
-    private static Marshaller newMarshaller2() {
-        return newMarshaller(newContext(slash.navigation.tcx.binding2.ObjectFactory.class));
+    private static JAXBContext newContext2() {
+        return newContext(slash.navigation.tcx.binding2.ObjectFactory.class);
     }
 
 
     public static slash.navigation.tcx.binding1.TrainingCenterDatabaseT unmarshal1(InputStream in) throws JAXBException {
         slash.navigation.tcx.binding1.TrainingCenterDatabaseT result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller1().unmarshal(in);
+            JAXBElement element = (JAXBElement) unmarshal(newContext1(), in);
             result = (slash.navigation.tcx.binding1.TrainingCenterDatabaseT) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
@@ -65,7 +56,7 @@ class TcxUtil {
     public static void marshal1(slash.navigation.tcx.binding1.TrainingCenterDatabaseT trainingCenterDatabaseT, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller1().marshal(new slash.navigation.tcx.binding1.ObjectFactory().createTrainingCenterDatabase(trainingCenterDatabaseT), out);
+                marshal(newContext1(), new slash.navigation.tcx.binding1.ObjectFactory().createTrainingCenterDatabase(trainingCenterDatabaseT), out);
             }
             finally {
                 out.flush();
@@ -80,7 +71,7 @@ class TcxUtil {
     public static slash.navigation.tcx.binding2.TrainingCenterDatabaseT unmarshal2(InputStream in) throws JAXBException {
         slash.navigation.tcx.binding2.TrainingCenterDatabaseT result = null;
         try {
-            JAXBElement element = (JAXBElement) newUnmarshaller2().unmarshal(in);
+            JAXBElement element = (JAXBElement) unmarshal(newContext2(), in);
             result = (slash.navigation.tcx.binding2.TrainingCenterDatabaseT) element.getValue();
         } catch (ClassCastException e) {
             throw new JAXBException("Parse error: " + e, e);
@@ -91,7 +82,7 @@ class TcxUtil {
     public static void marshal2(slash.navigation.tcx.binding2.TrainingCenterDatabaseT trainingCenterDatabaseT, OutputStream out) throws JAXBException {
         try {
             try {
-                newMarshaller2().marshal(new slash.navigation.tcx.binding2.ObjectFactory().createTrainingCenterDatabase(trainingCenterDatabaseT), out);
+                marshal(newContext2(), new slash.navigation.tcx.binding2.ObjectFactory().createTrainingCenterDatabase(trainingCenterDatabaseT), out);
             }
             finally {
                 out.flush();
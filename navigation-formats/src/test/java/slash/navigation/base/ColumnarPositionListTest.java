@@ -0,0 +1,272 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.common.Orientation;
+import slash.navigation.common.ValueAndOrientation;
+import slash.navigation.gpx.ColumnarGpxPositionList;
+import slash.navigation.gpx.GpxPosition;
+import slash.navigation.kml.ColumnarKmlPositionList;
+import slash.navigation.kml.KmlPosition;
+import slash.navigation.nmea.ColumnarNmeaPositionList;
+import slash.navigation.nmea.NmeaPosition;
+import slash.navigation.simple.KompassFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static slash.common.TestCase.assertDoubleEquals;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class ColumnarPositionListTest {
+    private List<Wgs84Position> createPositions() {
+        List<Wgs84Position> positions = new ArrayList<>();
+        positions.add(new Wgs84Position(10.0, 50.0, 100.0, 5.0, fromMillis(1000000L), "A"));
+        positions.add(new Wgs84Position(10.01, 50.0, 120.0, null, fromMillisAndTimeZone(1060000L, "Europe/Berlin"), null));
+        positions.add(new Wgs84Position(null, null, 90.0, null, null, null));
+        positions.add(new Wgs84Position(10.02, 50.01, null, 7.5, fromMillis(1030000L), "C"));
+        positions.add(new Wgs84Position(10.03, 50.01, 95.0, null, fromMillis(1200000L), null));
+        Wgs84Position position = positions.get(4);
+        position.setHeading(45.0);
+        position.setHdop(1.5);
+        position.setSatellites(7);
+        position.setWaypointType(WaypointType.Waypoint);
+        return positions;
+    }
+
+    @Test
+    public void testStoresValues() {
+        List<Wgs84Position> positions = createPositions();
+        ColumnarPositionList list = new ColumnarPositionList(positions);
+        assertEquals(positions.size(), list.size());
+        for (int i = 0; i < positions.size(); i++) {
+            Wgs84Position expected = positions.get(i), actual = list.get(i);
+            assertEquals(expected.getLongitude(), actual.getLongitude());
+            assertEquals(expected.getLatitude(), actual.getLatitude());
+            assertEquals(expected.getElevation(), actual.getElevation());
+            assertEquals(expected.getSpeed(), actual.getSpeed());
+            assertEquals(expected.getTime(), actual.getTime());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getHeading(), actual.getHeading());
+            assertEquals(expected.getHdop(), actual.getHdop());
+        }
+        assertEquals("Europe/Berlin", list.get(1).getTime().getTimeZoneId());
+        assertNull(list.get(2).getLongitude());
+        assertFalse(list.get(2).hasTime());
+        assertEquals(Integer.valueOf(7), list.get(4).getSatellites());
+        assertEquals(WaypointType.Waypoint, list.get(4).getWaypointType());
+        assertNull(list.get(3).getWaypointType());
+    }
+
+    @Test
+    public void testViewsWriteThrough() {
+        ColumnarPositionList list = new ColumnarPositionList(createPositions());
+        Wgs84Position view = list.get(1);
+        view.setElevation(null);
+        view.setSpeed(12.0);
+        assertNull(list.get(1).getElevation());
+        assertDoubleEquals(12.0, list.get(1).getSpeed());
+        assertEquals(view, list.get(1));
+        assertEquals(1, list.indexOf(view));
+    }
+
+    @Test
+    public void testMovingViewsKeepsRows() {
+        ColumnarPositionList list = new ColumnarPositionList(createPositions());
+        Wgs84Position first = list.remove(0);
+        list.add(2, first);
+        assertEquals("A", list.get(2).getDescription());
+        first.setDescription("moved");
+        assertEquals("moved", list.get(2).getDescription());
+
+        list.set(0, new Wgs84Position(1.0, 2.0, null, null, null, "new"));
+        assertEquals("new", list.get(0).getDescription());
+        assertDoubleEquals(1.0, list.get(0).getLongitude());
+        assertEquals(5, list.size());
+    }
+
+    @Test
+    public void testRemovedViewsKeepValuesWhenRowsAreCompacted() {
+        ColumnarPositionList list = new ColumnarPositionList(createPositions());
+        Wgs84Position first = list.get(0);
+        Wgs84Position removed = list.remove(1);
+        for (int i = 0; i < 1000; i++) {
+            list.add(new Wgs84Position(1.0 + i, 2.0, null, null, null, "p" + i));
+            list.remove(list.size() - 1);
+        }
+        assertTrue(list.getRowCount() < 200);
+        assertEquals(4, list.size());
+
+        assertEquals("Europe/Berlin", removed.getTime().getTimeZoneId());
+        assertDoubleEquals(120.0, removed.getElevation());
+        removed.setSpeed(3.0);
+        assertDoubleEquals(3.0, removed.getSpeed());
+        first.setDescription("first");
+        assertEquals("first", list.get(0).getDescription());
+        assertEquals(0, list.indexOf(first));
+
+        list.add(1, removed);
+        assertEquals(1, list.indexOf(removed));
+        assertDoubleEquals(3.0, list.get(1).getSpeed());
+        removed.setElevation(200.0);
+        assertDoubleEquals(200.0, list.get(1).getElevation());
+        assertDoubleEquals(7.5, list.get(3).getSpeed());
+    }
+
+    @Test
+    public void testAddingSubclassesKeepsObjects() {
+        ColumnarPositionList list = new ColumnarPositionList(createPositions());
+        assertTrue(list.isColumnar());
+        NmeaPositionLike position = new NmeaPositionLike();
+        list.add(1, position);
+        assertFalse(list.isColumnar());
+        assertFalse(list.useColumns());
+        assertEquals(6, list.size());
+        assertSame(position, list.get(1));
+        assertEquals("A", list.get(0).getDescription());
+        assertEquals("Europe/Berlin", list.get(2).getTime().getTimeZoneId());
+    }
+
+    @Test
+    public void testIndexOfOriginalPositions() {
+        List<Wgs84Position> positions = createPositions();
+        ColumnarPositionList list = new ColumnarPositionList(positions);
+        assertTrue(list.isColumnar());
+        for (int i = 0; i < positions.size(); i++) {
+            assertEquals(i, list.indexOf(positions.get(i)));
+            assertEquals(positions.get(i), list.get(i));
+        }
+
+        GpxPosition gpxPosition = new GpxPosition(10.0, 50.0, 100.0, 5.0, fromMillis(1000000L), "Reason: Continue; Richtung: 90 Grad; Stadt");
+        ColumnarGpxPositionList gpxList = new ColumnarGpxPositionList();
+        gpxList.add(new GpxPosition(11.0, 51.0, null, null, null, "first"));
+        gpxList.add(gpxPosition);
+        assertTrue(gpxList.useColumns());
+        assertEquals(1, gpxList.indexOf(gpxPosition));
+        assertEquals(gpxPosition.getReason(), gpxList.get(1).getReason());
+
+        KmlPosition kmlPosition = new KmlPosition(10.0, 50.0, 100.0, null, fromMillis(1000000L), "kml");
+        ColumnarKmlPositionList kmlList = new ColumnarKmlPositionList();
+        kmlList.add(new KmlPosition(11.0, 51.0, null, null, null, "first"));
+        kmlList.add(kmlPosition);
+        assertTrue(kmlList.useColumns());
+        assertEquals(1, kmlList.indexOf(kmlPosition));
+
+        NmeaPosition nmeaPosition = new NmeaPosition(1003.0191, "E", 5142.6123, "N", 100.0, 5.0, 90.0, fromMillis(1000000L), "nmea");
+        ColumnarNmeaPositionList nmeaList = new ColumnarNmeaPositionList();
+        nmeaList.add(new NmeaPosition(10.0, 51.0, null, null, null, "first"));
+        nmeaList.add(nmeaPosition);
+        assertTrue(nmeaList.useColumns());
+        assertEquals(1, nmeaList.indexOf(nmeaPosition));
+    }
+
+    @Test
+    public void testNmeaValuesAreStoredAsRead() {
+        NmeaPosition position = new NmeaPosition(1003.0191, "W", 5142.61234, "S", null, null, null, null, null);
+        ColumnarNmeaPositionList list = new ColumnarNmeaPositionList();
+        list.add(position);
+        assertTrue(list.useColumns());
+        NmeaPosition view = list.get(0);
+        assertEquals(new ValueAndOrientation(1003.0191, Orientation.West), view.getLongitudeAsValueAndOrientation());
+        assertEquals(new ValueAndOrientation(5142.61234, Orientation.South), view.getLatitudeAsValueAndOrientation());
+        assertEquals(position.getLongitude(), view.getLongitude());
+        assertEquals(position.getLatitude(), view.getLatitude());
+
+        view.setLatitudeAsValueAndOrientation(new ValueAndOrientation(4807.038, Orientation.North));
+        assertEquals(new ValueAndOrientation(4807.038, Orientation.North), list.get(0).getLatitudeAsValueAndOrientation());
+        assertDoubleEquals(48.1173, list.get(0).getLatitude());
+    }
+
+    @Test
+    public void testCalculationsMatchObjects() {
+        Wgs84Route objects = new Wgs84Route(new KompassFormat(), Track, createPositions());
+        Wgs84Route columns = new Wgs84Route(new KompassFormat(), Track, createPositions());
+        assertTrue(columns.useColumnarPositions());
+        assertTrue(columns.isColumnar());
+        assertFalse(objects.isColumnar());
+
+        int last = objects.getPositionCount() - 1;
+        assertDoubleEquals(objects.getDistance(), columns.getDistance());
+        assertDoubleEquals(objects.getDistance(1, 3), columns.getDistance(1, 3));
+        assertEquals(objects.getTime(), columns.getTime());
+        assertDoubleEquals(objects.getElevationAscend(0, last), columns.getElevationAscend(0, last));
+        assertDoubleEquals(objects.getElevationDescend(0, last), columns.getElevationDescend(0, last));
+        assertDoubleEquals(objects.getElevationAscend(1, 2), columns.getElevationAscend(1, 2));
+    }
+
+    @Test
+    public void testFillsColumnsOnceThresholdIsReached() {
+        List<Wgs84Position> positions = createPositions();
+        ColumnarPositionList list = new ColumnarPositionList();
+        BaseColumnarPositionList.setColumnarPositionThreshold(3);
+        try {
+            list.add(positions.get(0));
+            list.add(positions.get(1));
+            assertFalse(list.isColumnar());
+            list.add(positions.get(2));
+            assertTrue(list.isColumnar());
+            list.add(positions.get(3));
+        } finally {
+            BaseColumnarPositionList.setColumnarPositionThreshold(-1);
+        }
+        assertEquals(4, list.size());
+        assertEquals("A", list.get(0).getDescription());
+        assertEquals("Europe/Berlin", list.get(1).getTime().getTimeZoneId());
+        assertDoubleEquals(7.5, list.get(3).getSpeed());
+    }
+
+    @Test
+    public void testSubclassesStayObjects() {
+        List<Wgs84Position> positions = createPositions();
+        ColumnarPositionList list = new ColumnarPositionList();
+        BaseColumnarPositionList.setColumnarPositionThreshold(1);
+        try {
+            list.add(new NmeaPositionLike());
+            list.addAll(positions);
+        } finally {
+            BaseColumnarPositionList.setColumnarPositionThreshold(-1);
+        }
+        assertFalse(list.isColumnar());
+        assertEquals(6, list.size());
+    }
+
+    @Test
+    public void testSubclassesAreNotStoredInColumns() {
+        List<Wgs84Position> positions = createPositions();
+        positions.add(new NmeaPositionLike());
+        Wgs84Route route = new Wgs84Route(new KompassFormat(), Track, positions);
+        assertFalse(route.useColumnarPositions());
+        assertSame(positions, route.getPositions());
+    }
+
+    private static class NmeaPositionLike extends Wgs84Position {
+        NmeaPositionLike() {
+            super(1.0, 2.0, null, null, null, null);
+        }
+    }
+}
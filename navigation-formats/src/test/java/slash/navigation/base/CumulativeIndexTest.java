@@ -0,0 +1,235 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.common.type.CompactCalendar;
+import slash.navigation.simple.KompassFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.common.TestCase.assertDoubleArrayEquals;
+import static slash.common.TestCase.assertDoubleEquals;
+import static java.lang.Math.max;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.base.RouteComments.commentRoutePositions;
+
+public class CumulativeIndexTest {
+    private Wgs84Route createRoute(int count) {
+        List<Wgs84Position> positions = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+            positions.add(new Wgs84Position(10.0 + i * 0.001, 50.0 + (i % 7) * 0.0005, 100.0 + (i % 5) * 3.0,
+                    null, fromMillis(1000000L + i * 5000L), null));
+        return new Wgs84Route(new KompassFormat(), Track, positions);
+    }
+
+    private double calculateDistance(Wgs84Route route, int startIndex, int endIndex) {
+        double result = 0.0;
+        for (int i = startIndex + 1; i <= endIndex; i++) {
+            Double distance = route.getPosition(i - 1).calculateDistance(route.getPosition(i));
+            if (distance != null)
+                result += distance;
+        }
+        return result;
+    }
+
+    private long calculateTime(Wgs84Route route) {
+        Long minimum = null, maximum = null;
+        long positive = 0;
+        CompactCalendar previous = null;
+        for (Wgs84Position position : route.getPositions()) {
+            CompactCalendar time = position.getTime();
+            if (time == null)
+                continue;
+            if (previous != null && time.getTimeInMillis() > previous.getTimeInMillis())
+                positive += time.getTimeInMillis() - previous.getTimeInMillis();
+            if (minimum == null || time.getTimeInMillis() < minimum)
+                minimum = time.getTimeInMillis();
+            if (maximum == null || time.getTimeInMillis() > maximum)
+                maximum = time.getTimeInMillis();
+            previous = time;
+        }
+        return max(minimum != null ? maximum - minimum : 0, positive);
+    }
+
+    private void assertMatchesCalculation(Wgs84Route route) {
+        int last = route.getPositionCount() - 1;
+        assertEquals(calculateTime(route), route.getTime());
+        assertDoubleEquals(calculateDistance(route, 0, last), route.getDistance(0, last));
+        assertDoubleEquals(calculateDistance(route, 3, last - 2), route.getDistance(3, last - 2));
+        double[] distances = route.getDistancesFromStart(0, last);
+        for (int i = 0; i <= last; i++)
+            assertDoubleEquals(calculateDistance(route, 0, i), distances[i]);
+    }
+
+    @Test
+    public void testRangesMatchCalculation() {
+        Wgs84Route route = createRoute(50);
+        assertMatchesCalculation(route);
+        assertDoubleEquals(0.0, route.getDistance(5, 5));
+        assertDoubleEquals(route.getDistance(0, 10), route.getDistancesFromStart(new int[]{10})[0]);
+        assertDoubleArrayEquals(new double[]{route.getDistance(0, 3), route.getDistance(0, 7)},
+                route.getDistancesFromStart(new int[]{7, 3}));
+        assertArrayEquals(new long[]{0L, 5000L, 10000L}, route.getTimesFromStart(0, 2));
+        assertArrayEquals(new long[]{45000L, 0L}, route.getTimesFromStart(new int[]{9, 100}));
+    }
+
+    @Test
+    public void testElevation() {
+        Wgs84Route route = createRoute(11);
+        // 100, 103, 106, 109, 112, 100, 103, 106, 109, 112, 100
+        assertDoubleEquals(24.0, route.getElevationAscend(0, 10));
+        assertDoubleEquals(24.0, route.getElevationDescend(0, 10));
+        assertDoubleEquals(6.0, route.getElevationAscend(1, 3));
+        assertDoubleEquals(12.0, route.getElevationDescend(3, 6));
+    }
+
+    @Test
+    public void testAnnouncedEdit() {
+        Wgs84Route route = createRoute(30);
+        route.getDistance(0, 29);
+        route.getPosition(20).setLongitude(11.0);
+        route.invalidateFrom(20);
+        assertMatchesCalculation(route);
+    }
+
+    @Test
+    public void testUpdatedRowsAreAnnounced() {
+        Wgs84Route route = createRoute(30);
+        assertEquals(145000L, route.getTime());
+        double distance = route.getDistance();
+
+        // the positions model announces updated rows like this
+        route.getPosition(29).setTime(fromMillis(2000000L));
+        route.getPosition(15).setLongitude(10.1);
+        route.invalidate(15, 15);
+        route.invalidate(29, 29);
+        assertEquals(1000000L, route.getTime());
+        assertTrue(route.getDistance() > distance);
+        assertMatchesCalculation(route);
+    }
+
+    @Test
+    public void testEditsOfCommentingAreAnnounced() {
+        Wgs84Route source = createRoute(20);
+        List<Wgs84Position> positions = new ArrayList<>();
+        for (Wgs84Position position : source.getPositions())
+            positions.add(new Wgs84Position(position.getLongitude(), position.getLatitude(), null, null, null, null));
+        Wgs84Route route = new Wgs84Route(new KompassFormat(), Track, positions);
+        assertDoubleEquals(0.0, route.getElevationAscend(0, 19));
+        assertEquals(0L, route.getTime());
+
+        commentRoutePositions(asList(source, route));
+        assertDoubleEquals(source.getElevationAscend(0, 19), route.getElevationAscend(0, 19));
+        assertEquals(source.getTime(), route.getTime());
+        assertMatchesCalculation(route);
+    }
+
+    @Test
+    public void testRouteChanges() {
+        Wgs84Route route = createRoute(30);
+        route.getDistance(0, 29);
+
+        route.remove(10);
+        assertMatchesCalculation(route);
+        route.down(2, 5);
+        assertMatchesCalculation(route);
+        route.revert();
+        assertMatchesCalculation(route);
+        route.add(4, new Wgs84Position(12.0, 51.0, null, null, null, null));
+        route.invalidateFrom(4);
+        assertMatchesCalculation(route);
+    }
+
+    @Test
+    public void testTimeOfUnorderedPositions() {
+        Wgs84Route route = createRoute(10);
+        assertEquals(45000L, route.getTime());
+
+        route.getPosition(3).setTime(null);
+        route.getPosition(6).setTime(fromMillis(900000L));
+        route.invalidateFrom(3);
+        assertMatchesCalculation(route);
+
+        route.getPosition(0).setTime(null);
+        route.invalidateFrom(0);
+        assertMatchesCalculation(route);
+    }
+
+    @Test
+    public void testEditsBeforeInsertAndDelete() {
+        Wgs84Route route = createRoute(40);
+        route.getTime();
+
+        // an update followed by an insert before the updated position
+        route.getPosition(30).setLongitude(11.0);
+        route.getPosition(30).setTime(fromMillis(5000000L));
+        route.invalidateFrom(30);
+        route.add(5, new Wgs84Position(12.0, 51.0, null, null, fromMillis(1001000L), null));
+        route.invalidateFrom(5);
+        assertMatchesCalculation(route);
+
+        // an update followed by a delete before the updated position
+        route.getPosition(20).setLatitude(50.5);
+        route.invalidateFrom(20);
+        route.remove(2);
+        assertMatchesCalculation(route);
+
+        Wgs84Route expected = createRoute(40);
+        expected.getPosition(30).setLongitude(11.0);
+        expected.getPosition(30).setTime(fromMillis(5000000L));
+        expected.add(5, new Wgs84Position(12.0, 51.0, null, null, fromMillis(1001000L), null));
+        expected.getPosition(20).setLatitude(50.5);
+        expected.remove(2);
+        expected.invalidateFrom(0);
+        assertDoubleEquals(expected.getDistance(), route.getDistance());
+        assertEquals(expected.getTime(), route.getTime());
+    }
+
+    @Test
+    public void testColumnarTimeMatchesObjects() {
+        Wgs84Route objects = createRoute(25), columns = createRoute(25);
+        assertTrue(columns.useColumnarPositions());
+        objects.getPosition(7).setTime(null);
+        columns.getPosition(7).setTime(null);
+        objects.getPosition(9).setTime(fromMillis(10L));
+        columns.getPosition(9).setTime(fromMillis(10L));
+        objects.invalidateFrom(7);
+        columns.invalidateFrom(7);
+        assertEquals(objects.getTime(), columns.getTime());
+        assertMatchesCalculation(columns);
+    }
+
+    @Test
+    public void testUnannouncedAddIsDetected() {
+        Wgs84Route route = createRoute(30);
+        route.getDistance(0, 29);
+        route.getPositions().add(0, new Wgs84Position(12.0, 51.0, null, null, null, null));
+        assertEquals(31, route.getPositionCount());
+        assertMatchesCalculation(route);
+    }
+}
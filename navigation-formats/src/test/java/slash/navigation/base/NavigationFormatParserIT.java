@@ -33,6 +33,8 @@ import java.util.List;
 
 import static org.junit.Assert.*;
 import static slash.common.TestCase.assertEquals;
+import static slash.common.io.Files.collectFiles;
+import static slash.navigation.base.NavigationTestCase.SAMPLE_PATH;
 import static slash.navigation.base.NavigationTestCase.TEST_PATH;
 import static slash.navigation.base.RouteCharacteristics.*;
 
@@ -87,6 +89,44 @@ public class NavigationFormatParserIT {
         readRouteCharacteristics(testFileName, Track, trackCount, positionCount);
     }
 
+    private List<File> collectSamples() {
+        List<File> files = new ArrayList<>(collectFiles(new File(TEST_PATH), null));
+        files.addAll(collectFiles(new File(SAMPLE_PATH), null));
+        return files;
+    }
+
+    private void assertSameResult(File file, ParserResult expected, ParserResult actual) {
+        assertEquals("Success of " + file, expected.isSuccessful(), actual.isSuccessful());
+        if (!expected.isSuccessful())
+            return;
+
+        assertEquals("Format of " + file, expected.getFormat(), actual.getFormat());
+        assertEquals("Routes of " + file, expected.getAllRoutes().size(), actual.getAllRoutes().size());
+        for (int i = 0; i < expected.getAllRoutes().size(); i++) {
+            BaseRoute expectedRoute = expected.getAllRoutes().get(i);
+            BaseRoute actualRoute = actual.getAllRoutes().get(i);
+            assertEquals("Format of route " + i + " of " + file, expectedRoute.getFormat(), actualRoute.getFormat());
+            assertEquals("Characteristics of route " + i + " of " + file, expectedRoute.getCharacteristics(), actualRoute.getCharacteristics());
+            assertEquals("Positions of route " + i + " of " + file, expectedRoute.getPositionCount(), actualRoute.getPositionCount());
+        }
+    }
+
+    @Test
+    public void testSniffingReadsSameResultAsExhaustiveReading() throws IOException {
+        NavigationFormatParser sniffing = new NavigationFormatParser(new AllNavigationFormatRegistry());
+        sniffing.setSniffing(true);
+        for (File file : collectSamples())
+            assertSameResult(file, parser.read(file), sniffing.read(file));
+    }
+
+    @Test
+    public void testParallelProbingReadsSameResultAsSequentialReading() throws IOException {
+        NavigationFormatParser parallel = new NavigationFormatParser(new AllNavigationFormatRegistry());
+        parallel.setProbingParallelism(4);
+        for (File file : collectSamples())
+            assertSameResult(file, parser.read(file), parallel.read(file));
+    }
+
     @Test
     public void testNavigationFileParserListener() throws IOException {
         final NavigationFormat[] found = new NavigationFormat[1];
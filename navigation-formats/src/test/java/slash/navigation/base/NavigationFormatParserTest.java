@@ -0,0 +1,223 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.gpx.Gpx11Format;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.io.File.createTempFile;
+import static org.junit.Assert.*;
+
+public class NavigationFormatParserTest {
+    private static final String GPX_11 = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n" +
+            "<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" creator=\"RouteConverter\" version=\"1.1\">\n" +
+            "<trk><trkseg><trkpt lat=\"51.0\" lon=\"10.0\"/><trkpt lat=\"51.1\" lon=\"10.1\"/></trkseg></trk>\n" +
+            "</gpx>";
+    private static final String NMEA = "$GPGGA,130441.89,5239.3154,N,00907.7011,E,1,08,1.25,16.76,M,46.79,M,,*6D\n" +
+            "$GPRMC,140403.000,A,4837.5194,N,00903.4022,E,15.00,0.00,260707,,*3E\n";
+    private static final String ITN = "1046348|5364352|Linau|4|\n980401|4894505|Hamburg|2|\n";
+    private static final String MAGELLAN = "$PMGNTRK,4914.967,N,00651.208,E,000199,M,152224,A,KLLERTAL-RADWEG,210307*48\n" +
+            "$PMGNTRK,5159.928,N,00528.243,E,00008,M,093405.33,A,,250408*79\n";
+    private static final String GPX_10 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<gpx xmlns=\"http://www.topografix.com/GPX/1/0\" creator=\"RouteConverter\" version=\"1.0\">\n" +
+            "<wpt lat=\"51.0\" lon=\"10.0\"><name>First</name><sym>Flag</sym></wpt>\n" +
+            "<rte><rtept lat=\"51.0\" lon=\"10.0\"/><rtept lat=\"51.1\" lon=\"10.1\"/></rte>\n" +
+            "</gpx>";
+    private static final String KML_PLACEMARKS = "<Document><name>Document</name>" +
+            "<Placemark><name>First</name><Point><coordinates>10.0,51.0,0</coordinates></Point></Placemark>" +
+            "<Placemark><name>Second</name><Point><coordinates>10.1,51.1,0</coordinates></Point></Placemark>" +
+            "</Document></kml>";
+    private static final String KML_20 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<kml xmlns=\"http://earth.google.com/kml/2.0\">" + KML_PLACEMARKS;
+    private static final String KML_21 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<kml xmlns=\"http://earth.google.com/kml/2.1\">" + KML_PLACEMARKS;
+    private static final String KML_22 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<kml xmlns=\"http://www.opengis.net/kml/2.2\">" + KML_PLACEMARKS;
+
+    private NavigationFormatParser sequential = new NavigationFormatParser(new NavigationFormatRegistry());
+    private NavigationFormatParser parallel = new NavigationFormatParser(new NavigationFormatRegistry());
+
+    {
+        sequential.setSniffing(false);
+        parallel.setSniffing(false);
+        parallel.setProbingParallelism(4);
+    }
+
+    private void assertSameResult(String source) throws IOException {
+        ParserResult expected = sequential.read(source);
+        ParserResult actual = parallel.read(source);
+        assertEquals(expected.isSuccessful(), actual.isSuccessful());
+        if (!expected.isSuccessful())
+            return;
+
+        assertEquals(expected.getFormat(), actual.getFormat());
+        assertEquals(expected.getAllRoutes().size(), actual.getAllRoutes().size());
+        for (int i = 0; i < expected.getAllRoutes().size(); i++) {
+            BaseRoute expectedRoute = expected.getAllRoutes().get(i);
+            BaseRoute actualRoute = actual.getAllRoutes().get(i);
+            assertEquals(expectedRoute.getFormat(), actualRoute.getFormat());
+            assertEquals(expectedRoute.getCharacteristics(), actualRoute.getCharacteristics());
+            assertEquals(expectedRoute.getPositionCount(), actualRoute.getPositionCount());
+        }
+    }
+
+    @Test
+    public void testParallelProbingReadsSameResultAsSequentialReading() throws IOException {
+        assertSameResult(GPX_11);
+        assertSameResult(NMEA);
+        assertSameResult(ITN);
+    }
+
+    @Test
+    public void testParallelProbingReadsSameResultForAmbiguousFormats() throws IOException {
+        assertSameResult(MAGELLAN);
+        assertSameResult(NMEA + MAGELLAN);
+        assertSameResult(GPX_10);
+        assertSameResult(GPX_10.replace(" xmlns=\"http://www.topografix.com/GPX/1/0\"", ""));
+        assertSameResult(GPX_11.replace(" xmlns=\"http://www.topografix.com/GPX/1/1\"", ""));
+        assertSameResult(KML_20);
+        assertSameResult(KML_21);
+        assertSameResult(KML_22);
+    }
+
+    @Test
+    public void testParallelProbingWithoutResult() throws IOException {
+        assertSameResult("");
+        assertSameResult("no navigation format at all");
+    }
+
+    private static class CollectingListener implements ParserMetricsListener {
+        private final List<ReadMetrics> reads = new ArrayList<>();
+        private final List<WriteMetrics> writes = new ArrayList<>();
+
+        public void read(ReadMetrics metrics) {
+            reads.add(metrics);
+        }
+
+        public void written(WriteMetrics metrics) {
+            writes.add(metrics);
+        }
+    }
+
+    private void assertReadMetrics(NavigationFormatParser parser) throws IOException {
+        CollectingListener listener = new CollectingListener();
+        parser.addParserMetricsListener(listener);
+        try {
+            ParserResult result = parser.read(GPX_11);
+            assertTrue(result.isSuccessful());
+        } finally {
+            parser.removeParserMetricsListener(listener);
+        }
+
+        assertEquals(1, listener.reads.size());
+        ReadMetrics metrics = listener.reads.get(0);
+        assertEquals(new Gpx11Format().getName(), metrics.getFormat());
+        assertEquals(1, metrics.getRoutes());
+        assertEquals(2, metrics.getPositions());
+        assertEquals(GPX_11.length(), metrics.getBytes());
+        assertTrue(metrics.getBufferSize() > GPX_11.length());
+        assertTrue(metrics.getNanos() >= metrics.getConvertNanos() + metrics.getCommentNanos());
+
+        FormatMetrics gpx11 = null;
+        for (FormatMetrics format : metrics.getFormats()) {
+            assertTrue(format.getBytes() <= GPX_11.length());
+            if (format.getRoutes() > 0)
+                gpx11 = format;
+        }
+        assertNotNull(gpx11);
+        assertEquals(new Gpx11Format().getName(), gpx11.getFormat());
+        assertEquals(2, gpx11.getPositions());
+        assertNull(gpx11.getException());
+    }
+
+    @Test
+    public void testReadMetrics() throws IOException {
+        assertReadMetrics(sequential);
+        assertReadMetrics(parallel);
+    }
+
+    @Test
+    public void testReadMetricsCountSwallowedExceptions() throws IOException {
+        CollectingListener listener = new CollectingListener();
+        sequential.addParserMetricsListener(listener);
+        sequential.read("no navigation format at all");
+
+        ReadMetrics metrics = listener.reads.get(0);
+        assertEquals(0, metrics.getPositions());
+        assertEquals(sequential.getNavigationFormatRegistry().getReadFormats().size(), metrics.getFormats().size());
+        int exceptions = 0;
+        for (FormatMetrics format : metrics.getFormats()) {
+            if (format.getException() != null)
+                exceptions++;
+        }
+        assertEquals(exceptions, metrics.getSwallowedExceptions());
+    }
+
+    @Test
+    public void testWriteMetrics() throws IOException {
+        CollectingListener listener = new CollectingListener();
+        sequential.addParserMetricsListener(listener);
+        ParserResult result = sequential.read(GPX_11);
+
+        File target = createTempFile("metrics", ".gpx");
+        try {
+            sequential.write(result.getTheRoute(), new Gpx11Format(), target);
+
+            assertEquals(1, listener.writes.size());
+            WriteMetrics metrics = listener.writes.get(0);
+            assertEquals(new Gpx11Format().getName(), metrics.getFormat());
+            assertEquals(1, metrics.getRoutes());
+            assertEquals(2, metrics.getPositions());
+            assertEquals(1, metrics.getFiles());
+            assertEquals(target.length(), metrics.getBytes());
+            assertTrue(metrics.getNanos() >= metrics.getWriteNanos());
+        } finally {
+            assertTrue(target.delete());
+        }
+    }
+
+    @Test
+    public void testParserStatistics() throws IOException {
+        ParserStatistics statistics = new ParserStatistics();
+        NavigationFormatParser.addDefaultParserMetricsListener(statistics);
+        try {
+            sequential.read(GPX_11);
+            parallel.read(NMEA);
+        } finally {
+            NavigationFormatParser.removeDefaultParserMetricsListener(statistics);
+        }
+
+        assertEquals(2, statistics.getReadCount());
+        assertEquals(GPX_11.length() + NMEA.length(), statistics.getBytesRead());
+        assertEquals(2, statistics.getSlowestReads().size());
+        assertTrue(statistics.getReadMillisByFormat().containsKey(new Gpx11Format().getName()));
+        assertTrue(statistics.getProbingMillisByFormat().size() > 2);
+
+        statistics.reset();
+        assertEquals(0, statistics.getReadCount());
+        assertEquals(0, statistics.getSlowestReads().size());
+    }
+}
@@ -0,0 +1,193 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.gopal.GoPal3RouteFormat;
+import slash.navigation.gpx.GarbleGpx11Format;
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.kml.*;
+import slash.navigation.nmea.GarbleNmeaFormat;
+import slash.navigation.nmea.NmeaFormat;
+import slash.navigation.simple.NavilinkFormat;
+import slash.navigation.wbt.WintecWbt201Tk1Format;
+import slash.navigation.zip.ZipFormat;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NavigationFormatSnifferTest {
+    private static final String GPX_11 = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n" +
+            "<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" creator=\"RouteConverter\" version=\"1.1\">\n" +
+            "<trk><trkseg><trkpt lat=\"51.0\" lon=\"10.0\"/><trkpt lat=\"51.1\" lon=\"10.1\"/></trkseg></trk>\n" +
+            "</gpx>";
+    private NavigationFormatRegistry registry = new NavigationFormatRegistry();
+    private NavigationFormatSniffer sniffer = new NavigationFormatSniffer();
+
+    private SniffResult sniff(byte[] bytes) {
+        return sniffer.sniff(bytes, bytes.length, registry.getReadFormats());
+    }
+
+    private SniffResult sniff(String string) {
+        return sniff(string.getBytes());
+    }
+
+    private List<Class> getCandidateClasses(SniffResult result) {
+        List<Class> classes = new ArrayList<>();
+        for (NavigationFormat format : result.getCandidates())
+            classes.add(format.getClass());
+        return classes;
+    }
+
+    @Test
+    public void testGpx11() {
+        SniffResult result = sniff(GPX_11);
+        assertTrue(result.isConclusive());
+        assertEquals(2, result.getCandidates().size());
+        assertEquals(Gpx11Format.class, result.getCandidates().get(0).getClass());
+        assertEquals(GarbleGpx11Format.class, result.getCandidates().get(1).getClass());
+        assertEquals(registry.getReadFormats().size() - 2, result.getSkipped().size());
+    }
+
+    @Test
+    public void testPrefixedRootElementWithCommentAndDoctype() {
+        SniffResult result = sniff("<!-- exported -->\n<!DOCTYPE kml [ <!ENTITY a \"b\"> ]>\n" +
+                "<k:kml xmlns=\"urn:other\" xmlns:k='http://www.opengis.net/kml/2.2'><k:Document/></k:kml>");
+        assertTrue(result.isConclusive());
+        List<Class> classes = getCandidateClasses(result);
+        assertEquals(Igo8RouteFormat.class, classes.get(0));
+        assertTrue(classes.contains(Kml22Format.class));
+        assertTrue(classes.contains(GarbleKml22Format.class));
+        assertFalse(classes.contains(Kml22BetaFormat.class));
+    }
+
+    @Test
+    public void testRootElementWithoutNamespace() {
+        SniffResult result = sniff("<?xml version=\"1.0\"?><tour><options/></tour>");
+        assertTrue(result.isConclusive());
+        assertEquals(GoPal3RouteFormat.class, result.getCandidates().get(0).getClass());
+    }
+
+    @Test
+    public void testUnknownXmlIsInconclusive() {
+        SniffResult result = sniff("<?xml version=\"1.0\"?><gpx><trk/></gpx>");
+        assertFalse(result.isConclusive());
+        assertEquals(registry.getReadFormats().size(), result.getCandidates().size());
+        assertEquals(0, result.getSkipped().size());
+    }
+
+    @Test
+    public void testNmea() {
+        SniffResult result = sniff("\n$GPGGA,130441.89,5239.3154,N,00907.7011,E,1,08,1.25,16.76,M,46.79,M,,*6D\n");
+        assertTrue(result.isConclusive());
+        List<Class> classes = getCandidateClasses(result);
+        assertEquals(2, classes.size());
+        assertEquals(NmeaFormat.class, classes.get(0));
+        assertEquals(GarbleNmeaFormat.class, classes.get(1));
+    }
+
+    @Test
+    public void testZip() {
+        SniffResult result = sniff(new byte[]{'P', 'K', 3, 4, 0, 0});
+        assertTrue(result.isConclusive());
+        List<Class> classes = getCandidateClasses(result);
+        assertEquals(Kmz22Format.class, classes.get(0));
+        assertTrue(classes.contains(GarbleKmz21LittleEndianFormat.class));
+        assertTrue(classes.contains(ZipFormat.class));
+    }
+
+    @Test
+    public void testBinaryHeaders() {
+        assertEquals(WintecWbt201Tk1Format.class, sniff("WintecLogFormat\0").getCandidates().get(0).getClass());
+        assertEquals(NavilinkFormat.class, sniff(new byte[]{0, 0, (byte) 0xA0, (byte) 0xA2, 0, 0, (byte) 0xFD}).
+                getCandidates().get(0).getClass());
+    }
+
+    @Test
+    public void testEmptyAndTextAreInconclusive() {
+        assertFalse(sniff("").isConclusive());
+        assertFalse(sniff("Just some text\n$GPGGA").isConclusive());
+    }
+
+    @Test
+    public void testCandidatesAreRestrictedToGivenFormats() {
+        List<NavigationFormat> formats = new ArrayList<>();
+        formats.add(new NmeaFormat());
+        byte[] bytes = GPX_11.getBytes();
+        SniffResult result = sniffer.sniff(bytes, bytes.length, formats);
+        assertFalse(result.isConclusive());
+        assertEquals(formats, result.getCandidates());
+    }
+
+    @Test
+    public void testParserSkipsFormatsAndReadsSameResult() throws IOException {
+        NavigationFormatParser parser = new NavigationFormatParser(registry);
+        parser.setSniffing(true);
+        final List<NavigationFormat> reading = new ArrayList<>();
+        final List<NavigationFormat> skipping = new ArrayList<>();
+        parser.addNavigationFileParserListener(new NavigationFormatParserListener() {
+            public void reading(NavigationFormat<BaseRoute> format) {
+                reading.add(format);
+            }
+        });
+        parser.addNavigationFormatSkippingListener(new NavigationFormatSkippingListener() {
+            public void skipping(NavigationFormat<BaseRoute> format, String reason) {
+                skipping.add(format);
+            }
+        });
+
+        assertFalse(new NavigationFormatParser(registry).isSniffing());
+        ParserResult sniffed = parser.read(GPX_11);
+        assertTrue(sniffed.isSuccessful());
+        assertEquals(1, reading.size());
+        assertEquals(registry.getReadFormats().size() - 2, skipping.size());
+
+        parser.setSniffing(false);
+        ParserResult exhaustive = parser.read(GPX_11);
+        assertEquals(exhaustive.getFormat(), sniffed.getFormat());
+        assertEquals(exhaustive.getTheRoute().getPositionCount(), sniffed.getTheRoute().getPositionCount());
+    }
+
+    @Test
+    public void testParserReadsSkippedFormatsIfNoCandidateReads() throws IOException {
+        NavigationFormatParser parser = new NavigationFormatParser(registry);
+        parser.setSniffing(true);
+        final List<NavigationFormat> reading = new ArrayList<>();
+        final List<NavigationFormat> skipping = new ArrayList<>();
+        parser.addNavigationFileParserListener(new NavigationFormatParserListener() {
+            public void reading(NavigationFormat<BaseRoute> format) {
+                reading.add(format);
+            }
+        });
+        parser.addNavigationFormatSkippingListener(new NavigationFormatSkippingListener() {
+            public void skipping(NavigationFormat<BaseRoute> format, String reason) {
+                skipping.add(format);
+            }
+        });
+
+        parser.read("<gpx xmlns=\"http://www.topografix.com/GPX/1/1\"><trk><trkseg><trkpt lat=\"51.0\"");
+        assertEquals(registry.getReadFormats().size() - 2, skipping.size());
+        assertTrue(reading.containsAll(skipping));
+    }
+}
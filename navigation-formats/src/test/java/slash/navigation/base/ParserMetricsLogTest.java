@@ -0,0 +1,70 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.base;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ParserMetricsLogTest {
+    @Test
+    public void testReadAsJsonLine() throws IOException {
+        ReadMetrics metrics = new ReadMetrics("C:\\Tracks\\\"Hamburg\"\t1.gpx");
+        metrics.setBufferSize(1025);
+        metrics.setBytes(1024);
+        metrics.setResult("GPX 1.1", 1, 2);
+        metrics.setNanos(42);
+        metrics.addFormat(new FormatMetrics("NMEA", 10, 512, 0, 0, new IllegalArgumentException("line\nbreak")));
+        metrics.addFormat(new FormatMetrics("GPX 1.1", 20, 1024, 1, 2, null));
+
+        String json = ParserMetricsLog.toJson(metrics);
+        assertTrue(json.startsWith("{\"type\":\"read\",\"time\":" + metrics.getTime() + ","));
+        assertTrue(json.contains("\"source\":\"C:\\\\Tracks\\\\\\\"Hamburg\\\"\\t1.gpx\""));
+        assertTrue(json.contains("\"format\":\"GPX 1.1\",\"routes\":1,\"positions\":2,\"bytes\":1024,\"bufferSize\":1025,\"nanos\":42"));
+        assertTrue(json.endsWith(",\"formats\":[" +
+                "{\"format\":\"NMEA\",\"nanos\":10,\"bytes\":512,\"routes\":0,\"positions\":0," +
+                "\"exception\":\"java.lang.IllegalArgumentException: line\\nbreak\"}," +
+                "{\"format\":\"GPX 1.1\",\"nanos\":20,\"bytes\":1024,\"routes\":1,\"positions\":2,\"exception\":null}]}"));
+        assertEquals(1, metrics.getSwallowedExceptions());
+    }
+
+    @Test
+    public void testWriteOneLinePerMetrics() throws IOException {
+        StringWriter writer = new StringWriter();
+        try (ParserMetricsLog log = new ParserMetricsLog(writer)) {
+            log.read(new ReadMetrics(null));
+            WriteMetrics metrics = new WriteMetrics("TCX 2");
+            metrics.addRoute(3);
+            metrics.setFiles(1);
+            log.written(metrics);
+        }
+
+        String[] lines = writer.toString().split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"source\":null,\"format\":null"));
+        assertTrue(lines[1].startsWith("{\"type\":\"write\""));
+        assertTrue(lines[1].contains("\"format\":\"TCX 2\",\"routes\":1,\"positions\":3,\"files\":1,\"bytes\":0"));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.common.NavigationPosition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static java.lang.Math.cos;
+import static java.lang.Math.sin;
+import static java.lang.System.arraycopy;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.navigation.base.RouteCalculations.asWgs84Position;
+import static slash.navigation.base.RouteCalculations.getSignificanceRanks;
+import static slash.navigation.base.RouteCalculations.getSignificantPositions;
+import static slash.navigation.common.DistanceAccuracy.Exact;
+import static slash.navigation.common.DistanceAccuracy.Spherical;
+
+public class RouteCalculationsTest {
+    private final Random random = new Random(17);
+
+    private List<Wgs84Position> createTrack(int count) {
+        List<Wgs84Position> positions = new ArrayList<>();
+        double longitude = 10.0, latitude = 53.0, heading = 0.0;
+        for (int i = 0; i < count; i++) {
+            heading += random.nextGaussian() * 0.3;
+            longitude += sin(heading) * 0.0005;
+            latitude += cos(heading) * 0.0003;
+            positions.add(asWgs84Position(longitude, latitude));
+        }
+        return positions;
+    }
+
+    private static int[] douglasPeuckerSimplify(List<? extends NavigationPosition> positions, int from, int to, double threshold) {
+        NavigationPosition pointA = positions.get(from);
+        NavigationPosition pointB = positions.get(to);
+        int maximumDistanceIndex = -1;
+        double maximumDistance = 0.0;
+        for (int i = from + 1; i < to; i++) {
+            NavigationPosition position = positions.get(i);
+            if (position.hasCoordinates()) {
+                double distance = abs(position.calculateOrthogonalDistance(pointA, pointB));
+                if (distance > maximumDistance) {
+                    maximumDistance = distance;
+                    maximumDistanceIndex = i;
+                }
+            }
+        }
+
+        if ((maximumDistanceIndex != -1) && (maximumDistance > threshold)) {
+            int[] res1 = douglasPeuckerSimplify(positions, from, maximumDistanceIndex, threshold);
+            int[] res2 = douglasPeuckerSimplify(positions, maximumDistanceIndex, to, threshold);
+            int[] result = new int[res1.length - 1 + res2.length];
+            arraycopy(res1, 0, result, 0, res1.length - 1);
+            arraycopy(res2, 0, result, res1.length - 1, res2.length);
+            return result;
+        } else
+            return new int[]{from, to};
+    }
+
+    @Test
+    public void testSignificantPositionsMatchRecursion() {
+        List<Wgs84Position> positions = createTrack(3000);
+        SignificanceRanks ranks = getSignificanceRanks(positions, Exact);
+        for (double threshold : new double[]{0.0, 0.5, 5.0, 20.0, 100.0, 1000.0, 100000.0}) {
+            int[] expected = douglasPeuckerSimplify(positions, 0, positions.size() - 1, threshold);
+            assertArrayEquals(expected, getSignificantPositions(positions, threshold));
+            assertArrayEquals(expected, ranks.getSignificantPositionsByScanning(threshold));
+            assertArrayEquals(expected, ranks.getSignificantPositions(threshold));
+        }
+    }
+
+    @Test
+    public void testSmallLists() {
+        List<Wgs84Position> positions = new ArrayList<>();
+        assertArrayEquals(new int[0], getSignificantPositions(positions, 10.0));
+        positions.add(asWgs84Position(10.0, 50.0));
+        assertArrayEquals(new int[]{0}, getSignificantPositions(positions, 10.0));
+        positions.add(asWgs84Position(10.1, 50.0));
+        assertArrayEquals(new int[]{0, 1}, getSignificantPositions(positions, 10.0));
+        positions.add(1, asWgs84Position(null, null));
+        assertArrayEquals(new int[]{0, 2}, getSignificantPositions(positions, 0.0));
+    }
+
+    @Test
+    public void testLargeTrackInParallel() {
+        List<Wgs84Position> positions = new ArrayList<>();
+        int count = 100000;
+        for (int i = 0; i < count; i++) {
+            double angle = Math.PI * i / (count - 1);
+            positions.add(asWgs84Position(10.0 + cos(angle) * 0.5, 50.0 + sin(angle) * 0.3));
+        }
+
+        SignificanceRanks ranks = getSignificanceRanks(positions, Spherical);
+        assertEquals(count, ranks.getPositionCount());
+        assertTrue(Double.isInfinite(ranks.getSignificance(0)));
+        int[] significant = ranks.getSignificantPositions(1.0);
+        assertArrayEquals(ranks.getSignificantPositionsByScanning(1.0), significant);
+        assertArrayEquals(getSignificantPositions(positions, 1.0, Spherical), significant);
+        assertTrue(significant.length > 2 && significant.length < count);
+    }
+}
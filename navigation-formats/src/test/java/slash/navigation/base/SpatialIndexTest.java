@@ -0,0 +1,150 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.common.BoundingBox;
+import slash.navigation.simple.KompassFormat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Double.MAX_VALUE;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class SpatialIndexTest {
+    private final Random random = new Random(4711);
+
+    private Wgs84Route createRoute(int count) {
+        List<Wgs84Position> positions = new ArrayList<>();
+        double longitude = 10.0, latitude = 53.0;
+        for (int i = 0; i < count; i++) {
+            longitude += random.nextDouble() * 0.002 - 0.0008;
+            latitude += random.nextDouble() * 0.002 - 0.001;
+            positions.add(i % 97 == 0 ? new Wgs84Position(null, null, null, null, null, null) :
+                    new Wgs84Position(longitude, latitude, null, null, null, null));
+        }
+        return new Wgs84Route(new KompassFormat(), Track, positions);
+    }
+
+    private int getClosestPositionByScanning(Wgs84Route route, double longitude, double latitude, double threshold) {
+        int closestIndex = -1;
+        double closestDistance = MAX_VALUE;
+        for (int i = 0; i < route.getPositionCount(); i++) {
+            Double distance = route.getPosition(i).calculateDistance(longitude, latitude);
+            if (distance != null && distance < closestDistance && distance <= threshold) {
+                closestDistance = distance;
+                closestIndex = i;
+            }
+        }
+        return closestIndex;
+    }
+
+    private int[] getContainedPositionsByScanning(Wgs84Route route, BoundingBox boundingBox) {
+        List<Integer> result = new ArrayList<>();
+        for (int i = 0; i < route.getPositionCount(); i++) {
+            Wgs84Position position = route.getPosition(i);
+            if (position.hasCoordinates() && boundingBox.contains(position))
+                result.add(i);
+        }
+        int[] array = new int[result.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = result.get(i);
+        return array;
+    }
+
+    private void assertMatchesScanning(Wgs84Route route) {
+        for (int i = 0; i < 200; i++) {
+            Wgs84Position position = route.getPosition(random.nextInt(route.getPositionCount()));
+            if (!position.hasCoordinates())
+                continue;
+            double longitude = position.getLongitude() + random.nextDouble() * 0.01 - 0.005;
+            double latitude = position.getLatitude() + random.nextDouble() * 0.01 - 0.005;
+            double threshold = random.nextDouble() * 2000.0;
+            assertEquals(getClosestPositionByScanning(route, longitude, latitude, threshold),
+                    route.getClosestPosition(longitude, latitude, threshold));
+
+            BoundingBox boundingBox = new BoundingBox(longitude + 0.02, latitude + 0.01, longitude, latitude);
+            assertArrayEquals(getContainedPositionsByScanning(route, boundingBox), route.getContainedPositions(boundingBox));
+        }
+        assertEquals(getClosestPositionByScanning(route, 10.5, 53.5, MAX_VALUE), route.getClosestPosition(10.5, 53.5, MAX_VALUE));
+    }
+
+    @Test
+    public void testMatchesScanning() {
+        assertMatchesScanning(createRoute(5000));
+    }
+
+    @Test
+    public void testMatchesScanningAfterChanges() {
+        Wgs84Route route = createRoute(5000);
+        assertMatchesScanning(route);
+
+        route.remove(2000);
+        route.remove(10);
+        assertMatchesScanning(route);
+
+        route.getPosition(4000).setLongitude(route.getPosition(100).getLongitude());
+        route.getPosition(4000).setLatitude(route.getPosition(100).getLatitude());
+        route.invalidateFrom(4000);
+        assertMatchesScanning(route);
+
+        route.getPositions().add(new Wgs84Position(11.0, 54.0, null, null, null, null));
+        route.revert();
+        assertMatchesScanning(route);
+    }
+
+    @Test
+    public void testMatchesScanningAfterUpdates() {
+        Wgs84Route route = createRoute(5000);
+        assertMatchesScanning(route);
+
+        // move positions into other cells, remove and add coordinates
+        route.getPosition(10).setLongitude(route.getPosition(4000).getLongitude());
+        route.getPosition(10).setLatitude(route.getPosition(4000).getLatitude());
+        route.getPosition(11).setLongitude(null);
+        route.getPosition(11).setLatitude(null);
+        route.getPosition(97).setLongitude(route.getPosition(98).getLongitude());
+        route.getPosition(97).setLatitude(route.getPosition(98).getLatitude());
+        route.invalidate(10, 97);
+        assertMatchesScanning(route);
+
+        route.getPosition(4999).setLongitude(11.0);
+        route.getPosition(4999).setLatitude(54.0);
+        route.invalidate(4999, 4999);
+        assertEquals(4999, route.getClosestPosition(11.0, 54.0, 1.0));
+        assertMatchesScanning(route);
+
+        // an update after an unannounced removal
+        route.getPositions().remove(0);
+        route.getPosition(20).setLongitude(11.0);
+        route.invalidate(20, 20);
+        assertMatchesScanning(route);
+    }
+
+    @Test
+    public void testSmallRoute() {
+        Wgs84Route route = createRoute(SpatialIndex.MINIMUM_POSITION_COUNT / 2);
+        assertMatchesScanning(route);
+    }
+}
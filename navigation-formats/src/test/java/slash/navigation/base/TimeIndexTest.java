@@ -0,0 +1,130 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.base;
+
+import org.junit.Test;
+import slash.navigation.simple.KompassFormat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.Math.abs;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static slash.common.TestCase.assertDoubleEquals;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.navigation.base.RouteCharacteristics.Track;
+
+public class TimeIndexTest {
+    private final Random random = new Random(815);
+
+    private Wgs84Route createRoute(int count, boolean shuffled) {
+        List<Wgs84Position> positions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            long millis = shuffled ? 1000000L + random.nextInt(count) * 1000L : 1000000L + i * 1000L;
+            positions.add(new Wgs84Position(10.0 + i * 0.001, 50.0, 100.0 + i, null,
+                    i % 13 == 0 ? null : fromMillis(millis), null));
+        }
+        return new Wgs84Route(new KompassFormat(), Track, positions);
+    }
+
+    private int getClosestPositionByScanning(Wgs84Route route, long millis, long threshold) {
+        int closestIndex = -1;
+        long closestDistance = Long.MAX_VALUE;
+        for (int i = 0; i < route.getPositionCount(); i++) {
+            Wgs84Position position = route.getPosition(i);
+            if (!position.hasTime())
+                continue;
+            long distance = abs(position.getTime().getTimeInMillis() - millis);
+            if (distance < closestDistance && distance <= threshold) {
+                closestDistance = distance;
+                closestIndex = i;
+            }
+        }
+        return closestIndex;
+    }
+
+    private void assertMatchesScanning(Wgs84Route route) {
+        long[] times = new long[500];
+        for (int i = 0; i < times.length; i++)
+            times[i] = 990000L + random.nextInt(route.getPositionCount() * 1000 + 20000);
+        Arrays.sort(times);
+
+        int[] closest = route.getClosestPositions(times, 700L);
+        for (int i = 0; i < times.length; i++) {
+            int expected = getClosestPositionByScanning(route, times[i], 700L);
+            assertEquals(expected, route.getClosestPosition(fromMillis(times[i]), 700L));
+            assertEquals(expected, closest[i]);
+        }
+    }
+
+    @Test
+    public void testMatchesScanning() {
+        assertMatchesScanning(createRoute(2000, false));
+        assertMatchesScanning(createRoute(2000, true));
+    }
+
+    @Test
+    public void testMatchesScanningAfterChanges() {
+        Wgs84Route route = createRoute(2000, true);
+        assertMatchesScanning(route);
+
+        route.remove(1500);
+        route.getPosition(10).setTime(fromMillis(1500000L));
+        route.invalidateFrom(10);
+        assertMatchesScanning(route);
+
+        route.revert();
+        route.getPositions().add(new Wgs84Position(11.0, 51.0, null, null, fromMillis(1200500L), null));
+        assertMatchesScanning(route);
+    }
+
+    @Test
+    public void testSameTimeFirstWins() {
+        Wgs84Route route = createRoute(5, false);
+        route.getPosition(3).setTime(fromMillis(1002000L));
+        route.invalidateFrom(3);
+        assertEquals(2, route.getClosestPosition(fromMillis(1002000L), 0));
+        assertEquals(2, route.getClosestPosition(fromMillis(1002400L), 1000));
+        assertArrayEquals(new int[]{1, 2, -1}, route.getClosestPositions(new long[]{1000600L, 1002000L, 1010000L}, 500L));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsortedTimes() {
+        createRoute(5, false).getClosestPositions(new long[]{1002000L, 1001000L}, 500L);
+    }
+
+    @Test
+    public void testInterpolatedPosition() {
+        Wgs84Route route = createRoute(5, false);
+        Wgs84Position position = route.getInterpolatedPosition(fromMillis(1002250L));
+        assertDoubleEquals(10.00225, position.getLongitude());
+        assertDoubleEquals(50.0, position.getLatitude());
+        assertDoubleEquals(102.25, position.getElevation());
+        assertEquals(fromMillis(1002250L), position.getTime());
+
+        assertDoubleEquals(10.003, route.getInterpolatedPosition(fromMillis(1003000L)).getLongitude());
+        assertNull(route.getInterpolatedPosition(fromMillis(999999L)));
+        assertNull(route.getInterpolatedPosition(fromMillis(1004001L)));
+    }
+}
@@ -0,0 +1,121 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.gpx;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+
+import javax.xml.stream.XMLStreamException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static slash.common.io.Files.collectFiles;
+import static slash.navigation.base.NavigationTestCase.SAMPLE_PATH;
+import static slash.navigation.base.NavigationTestCase.TEST_PATH;
+import static slash.navigation.gpx.GpxStreamReaderTest.assertRoutesEquals;
+
+public class GpxStreamReaderIT {
+    private static final List<String> ORIGIN_VALUES = asList("getName", "getCmt", "getDesc", "getSrc", "getUrl",
+            "getUrlname", "getSym", "getType", "getFix", "getMagvar", "getGeoidheight", "getAgeofdgpsdata", "getDgpsid");
+
+    private List<File> collectGpxFiles() {
+        List<File> files = new ArrayList<>();
+        files.addAll(collectFiles(new File(TEST_PATH), ".gpx"));
+        files.addAll(collectFiles(new File(SAMPLE_PATH), ".gpx"));
+        return files;
+    }
+
+    private List<GpxRoute> stream(GpxFormat format, File file) throws IOException {
+        try (InputStream source = new FileInputStream(file);
+             GpxStreamReader reader = new GpxStreamReader(source, format.getNamespaceUri())) {
+            return format.read(reader);
+        } catch (XMLStreamException e) {
+            return null;
+        }
+    }
+
+    private List<GpxRoute> unmarshal(GpxFormat format, File file) throws Exception {
+        ParserContext<GpxRoute> context = new ParserContextImpl<>();
+        try (InputStream source = new FileInputStream(file)) {
+            format.unmarshal(source, context);
+        }
+        return context.getRoutes();
+    }
+
+    private void assertOriginsEquals(List<GpxRoute> expected, List<GpxRoute> actual) throws Exception {
+        for (int i = 0; i < expected.size(); i++) {
+            GpxRoute expectedRoute = expected.get(i), actualRoute = actual.get(i);
+            for (int j = 0; j < expectedRoute.getPositionCount(); j++) {
+                Object expectedOrigin = expectedRoute.getPosition(j).getOrigin();
+                Object actualOrigin = actualRoute.getPosition(j).getOrigin();
+                if (actualOrigin != null)
+                    assertEquals(expectedOrigin.getClass(), actualOrigin.getClass());
+                for (String getter : ORIGIN_VALUES) {
+                    Method method = expectedOrigin.getClass().getMethod(getter);
+                    Object expectedValue = method.invoke(expectedOrigin);
+                    // a streamed position without an origin holds all values JAXB has read
+                    if (actualOrigin != null)
+                        assertEquals(getter + " of position " + j, expectedValue, method.invoke(actualOrigin));
+                    else if (!getter.equals("getName") && !getter.equals("getDesc"))
+                        assertEquals(getter + " of position " + j, null, expectedValue);
+                }
+            }
+        }
+    }
+
+    private int compareFiles(GpxFormat format, boolean compareOrigins) throws Exception {
+        int streamed = 0;
+        for (File file : collectGpxFiles()) {
+            List<GpxRoute> routes = stream(format, file);
+            // other versions and extensions are left to JAXB
+            if (routes == null)
+                continue;
+            List<GpxRoute> expected = unmarshal(format, file);
+            try {
+                assertRoutesEquals(expected, routes);
+                if (compareOrigins)
+                    assertOriginsEquals(expected, routes);
+            } catch (AssertionError e) {
+                throw new AssertionError("Streaming " + file + " differs from JAXB: " + e.getMessage(), e);
+            }
+            streamed++;
+        }
+        return streamed;
+    }
+
+    @Test
+    public void testGpx10StreamingMatchesJAXB() throws Exception {
+        assertTrue(compareFiles(new Gpx10Format(), true) > 0);
+    }
+
+    @Test
+    public void testGpx11StreamingMatchesJAXB() throws Exception {
+        assertTrue(compareFiles(new Gpx11Format(), false) > 0);
+    }
+}
@@ -0,0 +1,269 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.gpx;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+import slash.navigation.gpx.binding10.Gpx;
+import slash.navigation.gpx.binding11.GpxType;
+import slash.navigation.gpx.binding11.RteType;
+import slash.navigation.gpx.binding11.WptType;
+
+import javax.xml.bind.UnmarshalException;
+import javax.xml.stream.XMLStreamException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+import static slash.navigation.base.BaseColumnarPositionList.setColumnarPositionThreshold;
+
+public class GpxStreamReaderTest {
+    private static final String GPX_11_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" " +
+            "xmlns:gpxtpx=\"http://www.garmin.com/xmlschemas/TrackPointExtension/v2\" " +
+            "xmlns:gpxx=\"http://www.garmin.com/xmlschemas/GpxExtensions/v3\" " +
+            "xmlns:nmea=\"http://trekbuddy.net/2009/01/gpx/nmea\" version=\"1.1\" creator=\"Test\">\n";
+    private static final String GPX_10_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<gpx xmlns=\"http://www.topografix.com/GPX/1/0\" version=\"1.0\" creator=\"Test\">\n";
+
+    private static final String GPX_11_TRACK = GPX_11_HEADER +
+            "<metadata><name>Metadata</name><desc>Description</desc><time>2014-01-02T10:00:00Z</time></metadata>\n" +
+            "<wpt lat=\"50.1\" lon=\"10.1\"><ele>100.5</ele><name>Start</name><desc>Start of &amp; track</desc></wpt>\n" +
+            "<wpt lat=\"50.2\" lon=\"10.2\"><name>Speed 9.0 km/h</name><sym>Flag</sym></wpt>\n" +
+            "<trk><name>Track</name><desc>Track Description</desc><trkseg>\n" +
+            "<trkpt lat=\"50.00001\" lon=\"10.00001\"><ele>101</ele><time>2014-01-02T10:00:00.123Z</time>" +
+            "<sat>7</sat><hdop>1.5</hdop></trkpt>\n" +
+            "<trkpt lat=\"50.00002\" lon=\"10.00002\"><time>2014-01-02T12:00:01+02:00</time>" +
+            "<extensions><nmea:speed>12.5</nmea:speed><nmea:course>90</nmea:course></extensions></trkpt>\n" +
+            "<trkpt lat=\"50.00003\" lon=\"10.00003\"><extensions><gpxtpx:TrackPointExtension>" +
+            "<gpxtpx:hr>120</gpxtpx:hr><gpxtpx:speed>3.5</gpxtpx:speed><gpxtpx:course>45.5</gpxtpx:course>" +
+            "</gpxtpx:TrackPointExtension></extensions></trkpt>\n" +
+            "</trkseg><trkseg><!-- second segment -->\n" +
+            "<trkpt lat=\"50.00004\" lon=\"10.00004\"><name><![CDATA[Point]]></name></trkpt>\n" +
+            "</trkseg></trk>\n" +
+            "</gpx>\n";
+
+    private static final String GPX_11_ROUTE = GPX_11_HEADER +
+            "<rte><name>Route</name><extensions><gpxx:RouteExtension><gpxx:IsAutoNamed>true</gpxx:IsAutoNamed>" +
+            "</gpxx:RouteExtension></extensions>\n" +
+            "<rtept lat=\"50.1\" lon=\"10.1\"><extensions><gpxx:RoutePointExtension>" +
+            "<gpxx:rpt lat=\"50.11\" lon=\"10.11\"/><gpxx:rpt lat=\"50.12\" lon=\"10.12\"/>" +
+            "</gpxx:RoutePointExtension></extensions></rtept>\n" +
+            "<rtept lat=\"50.2\" lon=\"10.2\"><name>End</name></rtept>\n" +
+            "</rte>\n" +
+            "</gpx>\n";
+
+    private static final String GPX_10_TRACK = GPX_10_HEADER +
+            "<name>Name</name><time>2014-01-02T10:00:00Z</time>" +
+            "<bounds minlat=\"50.0\" minlon=\"10.0\" maxlat=\"51.0\" maxlon=\"11.0\"/>\n" +
+            "<wpt lat=\"50.1\" lon=\"10.1\"><name>Start</name></wpt>\n" +
+            "<rte><name>Route</name><rtept lat=\"50.1\" lon=\"10.1\"><speed>2.5</speed></rtept></rte>\n" +
+            "<trk><name>Empty</name></trk>\n" +
+            "<trk><name>Track</name><trkseg>\n" +
+            "<trkpt lat=\"50.00001\" lon=\"10.00001\"><ele>101</ele><time>2014-01-02T10:00:00Z</time>" +
+            "<course>22.4</course><speed>15.5</speed><sat>5</sat><hdop>1.5</hdop><vdop>1.2</vdop><pdop>1.7</pdop></trkpt>\n" +
+            "<trkpt lat=\"50.00002\" lon=\"10.00002\"><name>Point</name><desc>Point; Description</desc></trkpt>\n" +
+            "</trkseg></trk>\n" +
+            "</gpx>\n";
+
+    private static InputStream asStream(String string) throws IOException {
+        return new ByteArrayInputStream(string.getBytes(UTF8_ENCODING));
+    }
+
+    private List<GpxRoute> stream(GpxFormat format, String string) throws Exception {
+        try (GpxStreamReader reader = new GpxStreamReader(asStream(string), format.getNamespaceUri())) {
+            return format.read(reader);
+        }
+    }
+
+    private List<GpxRoute> unmarshal(GpxFormat format, String string) throws Exception {
+        ParserContext<GpxRoute> context = new ParserContextImpl<>();
+        format.unmarshal(asStream(string), context);
+        return context.getRoutes();
+    }
+
+    private List<GpxRoute> read(GpxFormat format, String string) throws Exception {
+        ParserContext<GpxRoute> context = new ParserContextImpl<>();
+        format.read(asStream(string), null, context);
+        return context.getRoutes();
+    }
+
+    static void assertRoutesEquals(List<GpxRoute> expected, List<GpxRoute> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            GpxRoute expectedRoute = expected.get(i), actualRoute = actual.get(i);
+            assertEquals(expectedRoute.getCharacteristics(), actualRoute.getCharacteristics());
+            assertEquals(expectedRoute.getName(), actualRoute.getName());
+            assertEquals(expectedRoute.getDescription(), actualRoute.getDescription());
+            assertEquals(expectedRoute.getOrigins().size(), actualRoute.getOrigins().size());
+            assertEquals(expectedRoute.getPositionCount(), actualRoute.getPositionCount());
+            for (int j = 0; j < expectedRoute.getPositionCount(); j++) {
+                GpxPosition expectedPosition = expectedRoute.getPosition(j), actualPosition = actualRoute.getPosition(j);
+                assertEquals(expectedPosition.getLongitude(), actualPosition.getLongitude());
+                assertEquals(expectedPosition.getLatitude(), actualPosition.getLatitude());
+                assertEquals(expectedPosition.getElevation(), actualPosition.getElevation());
+                assertEquals(expectedPosition.getSpeed(), actualPosition.getSpeed());
+                assertEquals(expectedPosition.getHeading(), actualPosition.getHeading());
+                assertEquals(expectedPosition.getTime(), actualPosition.getTime());
+                assertEquals(expectedPosition.getDescription(), actualPosition.getDescription());
+                assertEquals(expectedPosition.getHdop(), actualPosition.getHdop());
+                assertEquals(expectedPosition.getPdop(), actualPosition.getPdop());
+                assertEquals(expectedPosition.getVdop(), actualPosition.getVdop());
+                assertEquals(expectedPosition.getSatellites(), actualPosition.getSatellites());
+            }
+        }
+    }
+
+    @Test
+    public void testGpx11TrackFillsColumnsWhileReading() throws Exception {
+        Gpx11Format format = new Gpx11Format();
+        List<GpxRoute> routes;
+        setColumnarPositionThreshold(2);
+        try {
+            routes = stream(format, GPX_11_TRACK);
+        } finally {
+            setColumnarPositionThreshold(-1);
+        }
+        assertRoutesEquals(unmarshal(format, GPX_11_TRACK), routes);
+        GpxRoute track = routes.get(1);
+        assertTrue(track.isColumnar());
+        assertEquals(Integer.valueOf(7), track.getPosition(0).getSatellites());
+        assertNotNull(track.getPosition(1).getOrigin(WptType.class).getExtensions());
+
+        track.getPosition(3).setDescription("Changed");
+        assertEquals("Changed", track.getPosition(3).getDescription());
+    }
+
+    @Test
+    public void testGpx11TrackMatchesJAXB() throws Exception {
+        Gpx11Format format = new Gpx11Format();
+        List<GpxRoute> routes = stream(format, GPX_11_TRACK);
+        assertRoutesEquals(unmarshal(format, GPX_11_TRACK), routes);
+        assertEquals(2, routes.size());
+
+        GpxType gpxType = routes.get(0).getOrigin(GpxType.class);
+        assertEquals("Metadata", gpxType.getMetadata().getName());
+        assertNotNull(gpxType.getMetadata().getTime());
+
+        GpxRoute wayPoints = routes.get(0);
+        // the desc cannot be derived from the description
+        assertEquals("Start of & track", wayPoints.getPosition(0).getDescription());
+        assertNotNull(wayPoints.getPosition(0).getOrigin());
+        assertEquals("Flag", wayPoints.getPosition(1).getOrigin(WptType.class).getSym());
+
+        GpxRoute track = routes.get(1);
+        assertEquals(4, track.getPositionCount());
+        assertNull(track.getPosition(0).getOrigin());
+        assertNotNull(track.getPosition(1).getOrigin(WptType.class).getExtensions());
+        assertNotNull(track.getPosition(2).getOrigin(WptType.class).getExtensions());
+        assertEquals("Point", track.getPosition(3).getDescription());
+    }
+
+    @Test
+    public void testGpx11RouteWithGarminExtensions() throws Exception {
+        Gpx11Format format = new Gpx11Format();
+        List<GpxRoute> routes = stream(format, GPX_11_ROUTE);
+        assertRoutesEquals(unmarshal(format, GPX_11_ROUTE), routes);
+        assertEquals(2, routes.size());
+        assertEquals(2, routes.get(0).getPositionCount());
+        assertEquals(4, routes.get(1).getPositionCount());
+        RteType rteType = routes.get(0).getOrigin(RteType.class);
+        assertEquals(1, rteType.getExtensions().getAny().size());
+    }
+
+    @Test
+    public void testGpx10TrackMatchesJAXB() throws Exception {
+        Gpx10Format format = new Gpx10Format();
+        List<GpxRoute> routes = stream(format, GPX_10_TRACK);
+        assertRoutesEquals(unmarshal(format, GPX_10_TRACK), routes);
+        assertEquals(3, routes.size());
+
+        Gpx gpx = routes.get(0).getOrigin(Gpx.class);
+        assertNotNull(gpx.getTime());
+        assertNotNull(gpx.getBounds());
+        assertEquals(2, routes.get(1).getOrigins().size());
+        assertNull(routes.get(2).getPosition(0).getOrigin());
+    }
+
+    @Test
+    public void testGpx10StandardElementsAreStreamed() throws Exception {
+        String string = GPX_10_TRACK.replace("<name>Start</name>", "<name>Start</name><cmt>Speed: 9.0 Km/h</cmt><sym>Flag</sym><type>Stop</type>").
+                replace("<speed>2.5</speed>", "<speed>2.5</speed><src>Garmin</src><url>http://www.routeconverter.com</url><urlname>Home</urlname>").
+                replace("<sat>5</sat>", "<fix>3d</fix><sat>5</sat>").
+                replace("<pdop>1.7</pdop>", "<pdop>1.7</pdop><ageofdgpsdata>2.5</ageofdgpsdata><dgpsid>17</dgpsid>");
+        Gpx10Format format = new Gpx10Format();
+        List<GpxRoute> routes = stream(format, string);
+        assertRoutesEquals(unmarshal(format, string), routes);
+
+        Gpx.Wpt wpt = routes.get(0).getPosition(0).getOrigin(Gpx.Wpt.class);
+        assertEquals("Flag", wpt.getSym());
+        assertEquals("Stop", wpt.getType());
+        assertEquals(9.0, routes.get(0).getPosition(0).getSpeed(), 0.0);
+        Gpx.Rte.Rtept rtept = routes.get(1).getPosition(0).getOrigin(Gpx.Rte.Rtept.class);
+        assertEquals("Garmin", rtept.getSrc());
+        assertEquals("Home", rtept.getUrlname());
+        Gpx.Trk.Trkseg.Trkpt trkpt = routes.get(2).getPosition(0).getOrigin(Gpx.Trk.Trkseg.Trkpt.class);
+        assertEquals("3d", trkpt.getFix());
+        assertEquals(Integer.valueOf(17), trkpt.getDgpsid());
+        assertNull(routes.get(2).getPosition(1).getOrigin());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testGpx10UnsupportedContent() throws Exception {
+        stream(new Gpx10Format(), GPX_10_TRACK.replace("<sat>5</sat>", "<sat>5</sat><ext:hr xmlns:ext=\"urn:test\">120</ext:hr>"));
+    }
+
+    @Test
+    public void testGpx10DescriptionKeptInOrigin() throws Exception {
+        String string = GPX_10_TRACK.replace("<name>Point</name><desc>Point; Description</desc>", "<desc>Description</desc>");
+        Gpx10Format format = new Gpx10Format();
+        List<GpxRoute> routes = stream(format, string);
+        assertRoutesEquals(unmarshal(format, string), routes);
+        assertEquals("Description", routes.get(2).getPosition(1).getOrigin(Gpx.Trk.Trkseg.Trkpt.class).getDesc());
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void testOtherVersion() throws Exception {
+        stream(new Gpx11Format(), GPX_10_TRACK);
+    }
+
+    @Test
+    public void testFallbackToJAXB() throws Exception {
+        String string = GPX_10_TRACK.replace("<sat>5</sat>", "<sat>5</sat><ext:hr xmlns:ext=\"urn:test\">120</ext:hr>");
+        Gpx10Format format = new Gpx10Format();
+        List<GpxRoute> routes = read(format, string);
+        assertRoutesEquals(unmarshal(format, string), routes);
+        assertEquals(1, routes.get(2).getPosition(0).getOrigin(Gpx.Trk.Trkseg.Trkpt.class).getAny().size());
+    }
+
+    @Test(expected = UnmarshalException.class)
+    public void testReadsOtherNamespaceLikeJAXB() throws Exception {
+        read(new Gpx10Format(), GPX_11_TRACK);
+    }
+
+    @Test
+    public void testReadsOtherVersionLikeJAXB() throws Exception {
+        assertEquals(0, read(new Gpx11Format(), GPX_11_TRACK.replace("version=\"1.1\"", "version=\"1.0\"")).size());
+    }
+}
@@ -0,0 +1,188 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.gpx;
+
+import org.junit.Test;
+import slash.common.type.CompactCalendar;
+import slash.navigation.base.ParserContext;
+import slash.navigation.base.ParserContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+import static slash.common.io.Transfer.formatXMLTime;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.CompactCalendar.fromMillisAndTimeZone;
+import static slash.navigation.base.RouteCharacteristics.Route;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.gpx.GpxUtil.GPX_11_NAMESPACE_URI;
+
+public class GpxStreamWriterTest {
+    private static final String GPX_11_EXTENSIONS = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<gpx xmlns=\"http://www.topografix.com/GPX/1/1\" " +
+            "xmlns:gpxtpx=\"http://www.garmin.com/xmlschemas/TrackPointExtension/v2\" " +
+            "xmlns:foo=\"urn:foo\" version=\"1.1\" creator=\"Test\">\n" +
+            "<trk><name>Track</name><link href=\"http://www.routeconverter.com\"><text>Link</text></link><trkseg>\n" +
+            "<trkpt lat=\"50.1\" lon=\"10.1\"><ele>100</ele><extensions><gpxtpx:TrackPointExtension>" +
+            "<gpxtpx:hr>120</gpxtpx:hr><gpxtpx:course>45.5</gpxtpx:course></gpxtpx:TrackPointExtension>" +
+            "<foo:note level=\"1\">mixed <foo:em>content</foo:em> kept</foo:note></extensions></trkpt>\n" +
+            "<trkpt lat=\"50.2\" lon=\"10.2\"><ele>101</ele></trkpt>\n" +
+            "</trkseg></trk>\n" +
+            "</gpx>\n";
+
+    private String write(GpxFormat format, List<GpxRoute> routes) throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.write(routes, outputStream);
+        return outputStream.toString(UTF8_ENCODING);
+    }
+
+    private List<GpxRoute> read(GpxFormat format, String string) throws Exception {
+        ParserContext<GpxRoute> context = new ParserContextImpl<>();
+        format.read(new ByteArrayInputStream(string.getBytes(UTF8_ENCODING)), null, context);
+        return context.getRoutes();
+    }
+
+    private GpxRoute createRoute(GpxFormat format) {
+        List<GpxPosition> positions = new ArrayList<>();
+        GpxPosition first = new GpxPosition(10.1, 50.1, 100.5, 36.0, fromMillis(1389000000123L), "First; Description");
+        first.setHeading(90.0);
+        first.setHdop(1.5);
+        first.setVdop(2.5);
+        first.setPdop(3.5);
+        first.setSatellites(7);
+        positions.add(first);
+        positions.add(new GpxPosition(10.2, 50.2, null, null, fromMillis(1389000001000L), "Second"));
+        positions.add(new GpxPosition(10.3, 50.3, null, null, null, null));
+        return new GpxRoute(format, Track, "Name", asList("Description"), positions);
+    }
+
+    private void assertPositions(GpxRoute route) {
+        assertEquals(3, route.getPositionCount());
+        GpxPosition first = route.getPosition(0);
+        assertEquals(10.1, first.getLongitude(), 0.0);
+        assertEquals(50.1, first.getLatitude(), 0.0);
+        assertEquals(100.5, first.getElevation(), 0.0);
+        assertEquals(36.0, first.getSpeed(), 0.0);
+        assertEquals(90.0, first.getHeading(), 0.0);
+        assertEquals(fromMillis(1389000000123L), first.getTime());
+        assertEquals(1.5, first.getHdop(), 0.0);
+        assertEquals(2.5, first.getVdop(), 0.0);
+        assertEquals(3.5, first.getPdop(), 0.0);
+        assertEquals(7, first.getSatellites().intValue());
+        GpxPosition second = route.getPosition(1);
+        assertEquals("Second", second.getDescription());
+        assertEquals(fromMillis(1389000001000L), second.getTime());
+        assertNull(second.getElevation());
+        assertNull(second.getSpeed());
+        GpxPosition third = route.getPosition(2);
+        assertNull(third.getTime());
+        assertNull(third.getDescription());
+    }
+
+    @Test
+    public void testWriteGpx11() throws Exception {
+        Gpx11Format format = new Gpx11Format();
+        String string = write(format, asList(createRoute(format)));
+        assertTrue(string.startsWith("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"));
+        assertTrue(string.contains("<nmea:speed>10.0</nmea:speed>"));
+        assertTrue(string.contains("<nmea:course>90.0</nmea:course>"));
+        assertTrue(string.contains("<time>2014-01-06T09:20:00.123Z</time>"));
+
+        List<GpxRoute> routes = read(format, string);
+        assertEquals(1, routes.size());
+        assertEquals(Track, routes.get(0).getCharacteristics());
+        assertEquals("Name", routes.get(0).getName());
+        assertPositions(routes.get(0));
+    }
+
+    @Test
+    public void testWriteGpx10() throws Exception {
+        Gpx10Format format = new Gpx10Format();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        format.write(createRoute(format), outputStream, 0, 3);
+        String string = outputStream.toString(UTF8_ENCODING);
+        assertTrue(string.contains("<speed>10.0</speed>"));
+        assertTrue(string.contains("<course>90.0</course>"));
+        assertTrue(string.contains("<cmt>Speed: 36.0 Km/h Heading: 90.0</cmt>"));
+
+        List<GpxRoute> routes = read(format, string);
+        assertEquals(3, routes.size());
+        assertEquals(Waypoints, routes.get(0).getCharacteristics());
+        assertEquals(Route, routes.get(1).getCharacteristics());
+        assertEquals(Track, routes.get(2).getCharacteristics());
+        for (GpxRoute route : routes)
+            assertPositions(route);
+    }
+
+    @Test
+    public void testWriteKeepsExtensionsOfOrigins() throws Exception {
+        Gpx11Format format = new Gpx11Format();
+        List<GpxRoute> routes = read(format, GPX_11_EXTENSIONS);
+        assertNotNull(routes.get(0).getPosition(0).getOrigin());
+        assertNull(routes.get(0).getPosition(1).getOrigin());
+
+        String string = write(format, routes);
+        assertTrue(string.contains("<link href=\"http://www.routeconverter.com\">"));
+        assertTrue(string.contains("<gpxtpx:hr>120</gpxtpx:hr>"));
+        assertTrue(string.contains(">mixed <foo:em>content</foo:em> kept</foo:note>"));
+
+        List<GpxRoute> written = read(format, string);
+        assertEquals(2, written.get(0).getPositionCount());
+        assertEquals(45.5, written.get(0).getPosition(0).getHeading(), 0.0);
+        assertEquals(101.0, written.get(0).getPosition(1).getElevation(), 0.0);
+    }
+
+    @Test
+    public void testTimeLikeXMLGregorianCalendar() throws Exception {
+        List<CompactCalendar> times = new ArrayList<>();
+        for (long millis : new long[]{0L, 1L, -1L, 999L, 1389000000123L, -12219292800000L, -11676096000000L,
+                253402300799999L, 253402300800000L})
+            times.add(fromMillis(millis));
+        times.add(fromMillisAndTimeZone(1389000000123L, "Europe/Berlin"));
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; i++)
+            times.add(fromMillis((random.nextLong() % 200000000000000L)));
+
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (GpxStreamWriter writer = new GpxStreamWriter(outputStream, GPX_11_NAMESPACE_URI)) {
+            writer.startDocument("1.1", "Test");
+            for (CompactCalendar time : times)
+                writer.writeTime("time", time);
+            writer.endDocument();
+        }
+
+        Matcher matcher = Pattern.compile("<time>([^<]+)</time>").matcher(outputStream.toString(UTF8_ENCODING));
+        for (CompactCalendar time : times) {
+            assertTrue(matcher.find());
+            assertEquals(formatXMLTime(time).toXMLFormat(), matcher.group(1));
+        }
+        assertFalse(matcher.find());
+    }
+}
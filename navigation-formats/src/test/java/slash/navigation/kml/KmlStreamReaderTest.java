@@ -0,0 +1,290 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.kml;
+
+import org.junit.Test;
+import slash.navigation.base.ParserContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+import static slash.navigation.base.BaseColumnarPositionList.setColumnarPositionThreshold;
+import static slash.navigation.base.RouteCharacteristics.Route;
+import static slash.navigation.base.RouteCharacteristics.Track;
+import static slash.navigation.base.RouteCharacteristics.Waypoints;
+import static slash.navigation.kml.KmlUtil.KML_21_NAMESPACE_URI;
+import static slash.navigation.kml.KmlUtil.KML_22_NAMESPACE_URI;
+
+public class KmlStreamReaderTest {
+    private static final String KML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+            "<kml xmlns=\"" + KML_22_NAMESPACE_URI + "\" xmlns:gx=\"http://www.google.com/kml/ext/2.2\" " +
+            "xmlns:atom=\"http://www.w3.org/2005/Atom\">\n";
+
+    private static final String KML_DOCUMENT = KML_HEADER +
+            "<Document><name> Document </name><description>Description</description>\n" +
+            "<Style id=\"line\"><LineStyle><width>3</width></LineStyle></Style>\n" +
+            "<Folder><name>Waypoints</name>\n" +
+            "<Placemark><name>First</name><description>Speed: 12.5 km/h</description>" +
+            "<TimeStamp><when>2014-01-06T09:20:00Z</when></TimeStamp>" +
+            "<Point><coordinates>10.1,50.1,100</coordinates></Point></Placemark>\n" +
+            "<Placemark><name>Second</name><TimeSpan><begin>2014-01-06T09:21:00Z</begin></TimeSpan>" +
+            "<Point><coordinates> 10.2, 50.2 </coordinates></Point></Placemark>\n" +
+            "<Placemark><name>Without Geometry</name></Placemark>\n" +
+            "</Folder>\n" +
+            "<Placemark><name>Track</name><styleUrl>#line</styleUrl><LineString><tessellate>1</tessellate><coordinates>\n" +
+            "  10.0,50.0,1.5 10.00001,50.00001,2\n\t10.00002,50.00002\n" +
+            "</coordinates></LineString></Placemark>\n" +
+            "<Placemark><name>Multi</name><MultiGeometry>" +
+            "<LineString><coordinates>1.5E1,-2.25E0,0 -0.5,+0.25,-0</coordinates></LineString>" +
+            "<Polygon><outerBoundaryIs><LinearRing><coordinates>1,2,3 4,5,6</coordinates></LinearRing></outerBoundaryIs></Polygon>" +
+            "<LineString><coordinates><![CDATA[3,4,5 6,7,8]]></coordinates></LineString>" +
+            "</MultiGeometry></Placemark>\n" +
+            "<Placemark><name>GX</name><gx:Track><when>2014-01-06T09:20:00Z</when><when>2014-01-06T09:20:01.5Z</when>" +
+            "<gx:coord>10.1 50.1 100</gx:coord><gx:coord>10.2 50.2 101.5</gx:coord><gx:coord>10.3,50.3,102</gx:coord>" +
+            "<gx:angles>1 2 3</gx:angles></gx:Track></Placemark>\n" +
+            "<Folder><name>Speed [Km/h]</name><Placemark><Point><coordinates>1,2</coordinates></Point></Placemark></Folder>\n" +
+            "<Document><name>Inner</name><Folder><name>Route</name>" +
+            "<Placemark><LineString><coordinates>1,2,3 4,5,6 7,8,9</coordinates></LineString></Placemark></Folder></Document>\n" +
+            "<NetworkLink><Url><href>http://url</href></Url><Link><href>http://link</href></Link>" +
+            "<atom:link href=\"http://atom\"/></NetworkLink>\n" +
+            "</Document>\n" +
+            "</kml>\n";
+
+    private static class RecordingParserContext extends ParserContextImpl<KmlRoute> {
+        private final List<String> urls = new ArrayList<>();
+
+        public void parse(String url) {
+            urls.add(url);
+        }
+    }
+
+    private List<KmlRoute> stream(KmlFormat format, String string) throws Exception {
+        KmlFeature kml = format.stream(new ByteArrayInputStream(string.getBytes(UTF8_ENCODING)));
+        if (kml == null)
+            return null;
+        RecordingParserContext context = new RecordingParserContext();
+        format.process(kml, null, context);
+        return context.getRoutes();
+    }
+
+    private List<KmlRoute> unmarshal(KmlFormat format, String string) throws Exception {
+        RecordingParserContext context = new RecordingParserContext();
+        format.unmarshal(new ByteArrayInputStream(string.getBytes(UTF8_ENCODING)), null, context);
+        return context.getRoutes();
+    }
+
+    private List<KmlRoute> read(KmlFormat format, String string) throws Exception {
+        RecordingParserContext context = new RecordingParserContext();
+        format.read(new ByteArrayInputStream(string.getBytes(UTF8_ENCODING)), null, context);
+        return context.getRoutes();
+    }
+
+    private void assertRoutesEquals(List<KmlRoute> expected, List<KmlRoute> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            KmlRoute expectedRoute = expected.get(i);
+            KmlRoute actualRoute = actual.get(i);
+            assertEquals(expectedRoute.getName(), actualRoute.getName());
+            assertEquals(expectedRoute.getDescription(), actualRoute.getDescription());
+            assertEquals(expectedRoute.getCharacteristics(), actualRoute.getCharacteristics());
+            assertEquals(expectedRoute.getPositionCount(), actualRoute.getPositionCount());
+            for (int j = 0; j < expectedRoute.getPositionCount(); j++) {
+                KmlPosition expectedPosition = expectedRoute.getPosition(j);
+                KmlPosition actualPosition = actualRoute.getPosition(j);
+                assertEquals(expectedPosition.getLongitude(), actualPosition.getLongitude());
+                assertEquals(expectedPosition.getLatitude(), actualPosition.getLatitude());
+                assertEquals(expectedPosition.getElevation(), actualPosition.getElevation());
+                assertEquals(expectedPosition.getSpeed(), actualPosition.getSpeed());
+                assertEquals(expectedPosition.getTime(), actualPosition.getTime());
+                assertEquals(expectedPosition.getDescription(), actualPosition.getDescription());
+            }
+        }
+    }
+
+    @Test
+    public void testKml22FillsColumnsWhileReading() throws Exception {
+        Kml22Format format = new Kml22Format();
+        List<KmlRoute> routes;
+        setColumnarPositionThreshold(2);
+        try {
+            routes = stream(format, KML_DOCUMENT);
+        } finally {
+            setColumnarPositionThreshold(-1);
+        }
+        assertRoutesEquals(unmarshal(format, KML_DOCUMENT), routes);
+        KmlRoute track = routes.get(3);
+        assertTrue(track.isColumnar());
+        assertNotNull(track.getPosition(1).getTime());
+    }
+
+    @Test
+    public void testKml22MatchesJAXB() throws Exception {
+        Kml22Format format = new Kml22Format();
+        List<KmlRoute> routes = stream(format, KML_DOCUMENT);
+        assertRoutesEquals(unmarshal(format, KML_DOCUMENT), routes);
+        assertEquals(5, routes.size());
+
+        KmlRoute wayPoints = routes.get(0);
+        assertEquals(Waypoints, wayPoints.getCharacteristics());
+        assertEquals("Document/Waypoints", wayPoints.getName());
+        assertEquals(2, wayPoints.getPositionCount());
+        assertEquals(12.5, wayPoints.getPosition(0).getSpeed(), 0.0);
+        assertNull(wayPoints.getPosition(1).getElevation());
+
+        assertEquals(3, routes.get(1).getPositionCount());
+        assertEquals(4, routes.get(2).getPositionCount());
+        assertEquals(-0.0, routes.get(2).getPosition(1).getElevation(), 0.0);
+
+        KmlRoute track = routes.get(3);
+        assertEquals(Track, track.getCharacteristics());
+        assertEquals(3, track.getPositionCount());
+        assertEquals(101.5, track.getPosition(1).getElevation(), 0.0);
+        assertEquals(1389000001500L, track.getPosition(1).getTime().getTimeInMillis());
+        assertNull(track.getPosition(2).getTime());
+
+        assertEquals(Route, routes.get(4).getCharacteristics());
+        assertEquals("Document/Inner/Route", routes.get(4).getName());
+    }
+
+    @Test
+    public void testKml21MatchesJAXB() throws Exception {
+        String string = KML_DOCUMENT.replace(KML_22_NAMESPACE_URI, KML_21_NAMESPACE_URI);
+        Kml21Format format = new Kml21Format();
+        List<KmlRoute> routes = stream(format, string);
+        assertRoutesEquals(unmarshal(format, string), routes);
+        // the placemark without geometry, the speed folder and the Google extensions are kept
+        assertEquals(7, routes.size());
+    }
+
+    @Test
+    public void testNetworkLinks() throws Exception {
+        Kml22Format format = new Kml22Format();
+        RecordingParserContext context = new RecordingParserContext();
+        format.read(new ByteArrayInputStream(KML_DOCUMENT.getBytes(UTF8_ENCODING)), null, context);
+        assertEquals(asList("http://atom", "http://url", "http://link"), context.urls);
+
+        context = new RecordingParserContext();
+        new Kml21Format().read(new ByteArrayInputStream(KML_DOCUMENT.replace(KML_22_NAMESPACE_URI, KML_21_NAMESPACE_URI).
+                getBytes(UTF8_ENCODING)), null, context);
+        assertEquals(asList("http://url"), context.urls);
+    }
+
+    @Test
+    public void testCoordinatesLikeDoubleParseDouble() throws Exception {
+        Random random = new Random(42);
+        List<String> numbers = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(12) - 4);
+            switch (i % 4) {
+                case 0:
+                    numbers.add(Double.toString(value));
+                    break;
+                case 1:
+                    numbers.add(String.format("%." + random.nextInt(20) + "f", value));
+                    break;
+                case 2:
+                    numbers.add(String.format("%.12E", value));
+                    break;
+                default:
+                    numbers.add(Long.toString(random.nextLong()));
+            }
+        }
+
+        StringBuilder coordinates = new StringBuilder();
+        for (int i = 0; i < numbers.size(); i += 3)
+            coordinates.append(numbers.get(i)).append(',').append(numbers.get(i + 1)).append(',').append(numbers.get(i + 2)).append('\n');
+        String string = KML_HEADER + "<Placemark><LineString><coordinates>" + coordinates + "</coordinates></LineString></Placemark></kml>";
+
+        List<KmlRoute> routes = stream(new Kml22Format(), string);
+        assertEquals(numbers.size() / 3, routes.get(0).getPositionCount());
+        for (int i = 0; i < numbers.size(); i += 3) {
+            KmlPosition position = routes.get(0).getPosition(i / 3);
+            assertEquals(Double.valueOf(numbers.get(i)), position.getLongitude());
+            assertEquals(Double.valueOf(numbers.get(i + 1)), position.getLatitude());
+            assertEquals(Double.valueOf(numbers.get(i + 2)), position.getElevation());
+        }
+    }
+
+    @Test
+    public void testFallbackToJAXB() throws Exception {
+        Kml22Format format = new Kml22Format();
+        for (String string : asList(
+                KML_DOCUMENT.replace("1.5E1", "1.5e1"),
+                KML_DOCUMENT.replace("10.0,50.0,1.5", "10.0,50.0,1.5,3"),
+                KML_DOCUMENT.replace("<description>Description</description>", "<description>A <b>bold</b> one</description>"),
+                KML_HEADER + "<gx:Tour><name>Tour</name><gx:Playlist><gx:FlyTo><LookAt><longitude>10.1</longitude>" +
+                        "<latitude>50.1</latitude><heading>90</heading></LookAt></gx:FlyTo></gx:Playlist></gx:Tour></kml>")) {
+            assertNull(stream(format, string));
+            List<KmlRoute> routes = read(format, string);
+            assertRoutesEquals(unmarshal(format, string), routes);
+            assertTrue(routes.size() > 0);
+        }
+    }
+
+    @Test
+    public void testFallbackKeepsMarkOfSource() throws Exception {
+        byte[] bytes = ("  " + KML_DOCUMENT.replace("1.5E1", "1.5e1")).getBytes(UTF8_ENCODING);
+        ByteArrayInputStream source = new ByteArrayInputStream(bytes);
+        source.mark(bytes.length + 1);
+        assertEquals(2, source.skip(2));
+        RecordingParserContext context = new RecordingParserContext();
+        new Kml22Format().read(source, null, context);
+        assertTrue(context.getRoutes().size() > 0);
+        source.reset();
+        assertEquals(bytes.length, source.available());
+    }
+
+    @Test
+    public void testOtherNamespace() throws Exception {
+        assertNull(stream(new Kml21Format(), KML_DOCUMENT));
+        assertNull(stream(new Kml22BetaFormat(), KML_DOCUMENT));
+    }
+
+    @Test
+    public void testKmzStreamsEntries() throws Exception {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        List<String> entries = asList(KML_DOCUMENT, KML_DOCUMENT.replace("1.5E1", "1.5e1"), KML_DOCUMENT.replace("Document", "Folder"));
+        try (ZipOutputStream zip = new ZipOutputStream(outputStream)) {
+            for (int i = 0; i < entries.size(); i++) {
+                zip.putNextEntry(new ZipEntry("doc" + i + ".kml"));
+                zip.write(entries.get(i).getBytes(UTF8_ENCODING));
+                zip.closeEntry();
+            }
+        }
+
+        RecordingParserContext expected = new RecordingParserContext();
+        for (String entry : entries)
+            new Kml22Format().unmarshal(new ByteArrayInputStream(entry.getBytes(UTF8_ENCODING)), null, expected);
+
+        RecordingParserContext context = new RecordingParserContext();
+        new Kmz22Format().read(new ByteArrayInputStream(outputStream.toByteArray()), null, context);
+        assertRoutesEquals(expected.getRoutes(), context.getRoutes());
+        assertEquals(9, context.urls.size());
+    }
+}
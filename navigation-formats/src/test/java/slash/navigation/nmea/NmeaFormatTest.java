@@ -24,16 +24,19 @@ import org.junit.Test;
 import slash.common.type.CompactCalendar;
 import slash.navigation.base.ParserContext;
 import slash.navigation.base.ParserContextImpl;
+import slash.navigation.base.PositionSink;
 import slash.navigation.base.SimpleRoute;
 
 import java.io.*;
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.*;
 import static slash.common.TestCase.assertDoubleEquals;
 import static slash.common.TestCase.calendar;
 import static slash.common.io.Transfer.ISO_LATIN1_ENCODING;
+import static slash.navigation.base.BaseColumnarPositionList.setColumnarPositionThreshold;
 import static slash.navigation.common.UnitConversion.nauticMilesToKiloMeter;
 
 public class NmeaFormatTest {
@@ -355,6 +358,87 @@ public class NmeaFormatTest {
         assertEquals("Position 3", position.getDescription());
     }
 
+    @Test
+    public void testStreamingReadEmitsMergedPositions() throws IOException {
+        String lines = "$GPGGA,130441,4837.4374,N,00903.4036,E,1,08,1.25,16.76,M,46.79,M,,*42\n" +
+                "$GPRMC,130441,A,4837.4374,N,00903.4036,E,000.0,000.0,290713,,,A*7A\n" +
+                "$GPZDA,130441,29,07,2013,00,00*47\n" +
+                "$GPVTG,0.00,T,,M,1.531,N,2.835,K,A*37\n" +
+                "$GPZDA,100436,29,07,2013,,*44\n" +
+                "$GPRMC,100436,A,4300.898329,N,00948.227878,E,0.0000,,290713,,A*4F\n" +
+                "$GPGGA,100436,4300.898329,N,00948.227878,E,1,,,203.0821,M,,M,,*4B\n";
+
+        final List<NmeaPosition> streamed = new ArrayList<>();
+        assertTrue(format.read(new ByteArrayInputStream(lines.getBytes(ISO_LATIN1_ENCODING)), null, new PositionSink<NmeaPosition>() {
+            public void accept(NmeaPosition position) {
+                streamed.add(position);
+            }
+        }));
+
+        ParserContext<NmeaRoute> context = new ParserContextImpl<>();
+        format.read(new BufferedReader(new StringReader(lines)), null, ISO_LATIN1_ENCODING, context);
+        List<NmeaPosition> read = context.getRoutes().get(0).getPositions();
+
+        assertEquals(2, streamed.size());
+        assertEquals(read.size(), streamed.size());
+        for (int i = 0; i < read.size(); i++) {
+            assertDoubleEquals(read.get(i).getLongitude(), streamed.get(i).getLongitude());
+            assertDoubleEquals(read.get(i).getLatitude(), streamed.get(i).getLatitude());
+            assertDoubleEquals(read.get(i).getElevation(), streamed.get(i).getElevation());
+            assertEquals(read.get(i).getTime(), streamed.get(i).getTime());
+        }
+        assertDoubleEquals(2.835, streamed.get(0).getSpeed());
+        assertDoubleEquals(203.0821, streamed.get(1).getElevation());
+    }
+
+    @Test
+    public void testReadFillsColumns() throws IOException {
+        String lines = "$GPGGA,130441,4837.4374,N,00903.4036,E,1,08,1.25,16.76,M,46.79,M,,*42\n" +
+                "$GPRMC,130441,A,4837.4374,N,00903.4036,E,000.0,000.0,290713,,,A*7A\n" +
+                "$GPZDA,130441,29,07,2013,00,00*47\n" +
+                "$GPVTG,0.00,T,,M,1.531,N,2.835,K,A*37\n" +
+                "$GPZDA,100436,29,07,2013,,*44\n" +
+                "$GPRMC,100436,A,4300.898329,N,00948.227878,E,0.0000,,290713,,A*4F\n" +
+                "$GPGGA,100436,4300.898329,N,00948.227878,E,1,,,203.0821,M,,M,,*4B\n";
+
+        ParserContext<NmeaRoute> objects = new ParserContextImpl<>();
+        format.read(new BufferedReader(new StringReader(lines)), null, ISO_LATIN1_ENCODING, objects);
+        ParserContext<NmeaRoute> columns = new ParserContextImpl<>();
+        setColumnarPositionThreshold(1);
+        try {
+            format.read(new BufferedReader(new StringReader(lines)), null, ISO_LATIN1_ENCODING, columns);
+        } finally {
+            setColumnarPositionThreshold(-1);
+        }
+
+        NmeaRoute expected = objects.getRoutes().get(0), actual = columns.getRoutes().get(0);
+        assertFalse(expected.isColumnar());
+        assertTrue(actual.isColumnar());
+        assertEquals(expected.getPositionCount(), actual.getPositionCount());
+        for (int i = 0; i < expected.getPositionCount(); i++) {
+            NmeaPosition expectedPosition = expected.getPosition(i), actualPosition = actual.getPosition(i);
+            assertDoubleEquals(expectedPosition.getLongitude(), actualPosition.getLongitude());
+            assertDoubleEquals(expectedPosition.getLatitude(), actualPosition.getLatitude());
+            assertEquals(expectedPosition.getLongitudeAsValueAndOrientation().getValue(), actualPosition.getLongitudeAsValueAndOrientation().getValue(), 0.0000001);
+            assertEquals(expectedPosition.getLatitudeAsValueAndOrientation().getOrientation(), actualPosition.getLatitudeAsValueAndOrientation().getOrientation());
+            assertEquals(expectedPosition.getElevation(), actualPosition.getElevation());
+            assertEquals(expectedPosition.getSpeed(), actualPosition.getSpeed());
+            assertEquals(expectedPosition.getTime(), actualPosition.getTime());
+            assertEquals(expectedPosition.getHdop(), actualPosition.getHdop());
+            assertEquals(expectedPosition.getSatellites(), actualPosition.getSatellites());
+        }
+    }
+
+    @Test
+    public void testStreamingReadRejectsGarbage() throws IOException {
+        String lines = "no NMEA\nat all\n";
+        assertFalse(format.read(new ByteArrayInputStream(lines.getBytes(ISO_LATIN1_ENCODING)), null, new PositionSink<NmeaPosition>() {
+            public void accept(NmeaPosition position) {
+                fail("No position expected");
+            }
+        }));
+    }
+
     @Test
     public void testGGAAndRMCDateProblem() throws IOException {
         StringReader reader = new StringReader(
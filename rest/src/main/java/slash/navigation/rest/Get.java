@@ -21,6 +21,7 @@ package slash.navigation.rest;
 
 import org.apache.http.client.methods.HttpGet;
 
+import static org.apache.http.HttpHeaders.IF_RANGE;
 import static org.apache.http.HttpHeaders.RANGE;
 
 /**
@@ -40,4 +41,11 @@ public class Get extends ReadRequest {
         // Apache accepts just bytes=1234-1235 while the spec says bytes 1234-1235/1236
         setHeader(RANGE, "bytes=" + startIndex + "-" + (endIndex != null ? endIndex : ""));
     }
+
+    /**
+     * Lets the server answer a range request with the complete content if the ETag has changed.
+     */
+    public void setIfRange(String eTag) {
+        setHeader(IF_RANGE, eTag);
+    }
 }
@@ -0,0 +1,144 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.rest;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.client.IdleConnectionEvictor;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
+
+import java.io.IOException;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Shares pooled keep-alive connections between all {@link HttpRequest}s.
+ *
+ * The limits are configured with the system properties
+ * <code>rest.maximumConnections</code>, <code>rest.maximumConnectionsPerRoute</code>
+ * and <code>rest.idleConnectionTimeout</code> in milliseconds.
+ *
+ * @author Christian Pesch
+ */
+
+public class HttpClientPool {
+    private static final Logger log = Logger.getLogger(HttpClientPool.class.getName());
+    private static HttpClientPool instance;
+
+    private final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+    private final IdleConnectionEvictor idleConnectionEvictor;
+    private final CloseableHttpClient client, clientWithoutContentCompression;
+
+    public static synchronized HttpClientPool getInstance() {
+        if (instance == null)
+            instance = new HttpClientPool(Integer.getInteger("rest.maximumConnections", 50),
+                    Integer.getInteger("rest.maximumConnectionsPerRoute", 10),
+                    Long.getLong("rest.idleConnectionTimeout", 30 * 1000L));
+        return instance;
+    }
+
+    HttpClientPool(int maximumConnections, int maximumConnectionsPerRoute, final long idleConnectionTimeout) {
+        connectionManager.setMaxTotal(maximumConnections);
+        connectionManager.setDefaultMaxPerRoute(maximumConnectionsPerRoute);
+        // check connections that have been idle for a while before they are reused
+        connectionManager.setValidateAfterInactivity(2 * 1000);
+
+        ConnectionKeepAliveStrategy keepAliveStrategy = new ConnectionKeepAliveStrategy() {
+            public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long duration = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                return duration > 0 ? duration : idleConnectionTimeout;
+            }
+        };
+        this.client = createClient(keepAliveStrategy, true);
+        this.clientWithoutContentCompression = createClient(keepAliveStrategy, false);
+
+        this.idleConnectionEvictor = new IdleConnectionEvictor(connectionManager,
+                idleConnectionTimeout / 2, MILLISECONDS, idleConnectionTimeout, MILLISECONDS);
+        idleConnectionEvictor.start();
+        log.info(format("Created connection pool with %d connections, %d per route, %d milliseconds idle timeout",
+                maximumConnections, maximumConnectionsPerRoute, idleConnectionTimeout));
+    }
+
+    private CloseableHttpClient createClient(ConnectionKeepAliveStrategy keepAliveStrategy, boolean contentCompression) {
+        HttpClientBuilder builder = HttpClientBuilder.create().
+                setConnectionManager(connectionManager).
+                setConnectionManagerShared(true).
+                setKeepAliveStrategy(keepAliveStrategy).
+                setRetryHandler(new DefaultHttpRequestRetryHandler(0, false)).
+                // requests used to have their own client and thus didn't share cookies
+                disableCookieManagement();
+        if (!contentCompression)
+            builder.disableContentCompression();
+        return builder.build();
+    }
+
+    CloseableHttpClient getClient(boolean contentCompression) {
+        return contentCompression ? client : clientWithoutContentCompression;
+    }
+
+    private PoolStats getStatistics() {
+        return connectionManager.getTotalStats();
+    }
+
+    public int getLeased() {
+        return getStatistics().getLeased();
+    }
+
+    public int getPending() {
+        return getStatistics().getPending();
+    }
+
+    public int getAvailable() {
+        return getStatistics().getAvailable();
+    }
+
+    public int getMaximum() {
+        return getStatistics().getMax();
+    }
+
+    public int getMaximumPerRoute() {
+        return connectionManager.getDefaultMaxPerRoute();
+    }
+
+    public void shutdown() {
+        idleConnectionEvictor.shutdown();
+        try {
+            client.close();
+            clientWithoutContentCompression.close();
+        } catch (IOException e) {
+            log.warning("Cannot close HTTP clients: " + e);
+        }
+        connectionManager.shutdown();
+    }
+
+    public String toString() {
+        PoolStats statistics = getStatistics();
+        return getClass().getSimpleName() + "[leased=" + statistics.getLeased() + ", pending=" + statistics.getPending() +
+                ", available=" + statistics.getAvailable() + ", maximum=" + statistics.getMax() + "]";
+    }
+}
@@ -21,6 +21,7 @@ package slash.navigation.rest;
 
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
+import org.apache.http.HttpHeaders;
 import org.apache.http.HttpHost;
 import org.apache.http.HttpResponse;
 import org.apache.http.auth.AuthScope;
@@ -33,8 +34,6 @@ import org.apache.http.client.protocol.HttpClientContext;
 import org.apache.http.impl.auth.BasicScheme;
 import org.apache.http.impl.client.BasicAuthCache;
 import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.DefaultHttpRequestRetryHandler;
-import org.apache.http.impl.client.HttpClientBuilder;
 import org.apache.http.message.BasicHttpResponse;
 
 import java.io.Closeable;
@@ -72,20 +71,21 @@ public abstract class HttpRequest {
     public static final String USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; WOW64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/46.0.2490.86 Safari/537.36";
 
     private final Logger log;
-    private final HttpClientBuilder clientBuilder = HttpClientBuilder.create();
     private final HttpRequestBase method;
     private HttpResponse response;
     private HttpClientContext context;
     private RequestConfig.Builder requestConfigBuilder;
+    private boolean contentCompression = true;
 
     HttpRequest(HttpRequestBase method) {
         this.log = Logger.getLogger(getClass().getName());
+        this.method = method;
         requestConfigBuilder = RequestConfig.custom();
         requestConfigBuilder.setConnectTimeout(15 * 1000);
         requestConfigBuilder.setSocketTimeout(90 * 1000);
-        clientBuilder.setRetryHandler(new DefaultHttpRequestRetryHandler(0, false));
+        // fail instead of waiting forever if all connections of the pool are leased
+        requestConfigBuilder.setConnectionRequestTimeout(60 * 1000);
         setUserAgent("RouteConverter REST Client/" + System.getProperty("rest", "1.8"));
-        this.method = method;
     }
 
     HttpRequest(HttpRequestBase method, Credentials credentials) {
@@ -116,19 +116,23 @@ public abstract class HttpRequest {
     }
 
     public void setUserAgent(String userAgent) {
-        clientBuilder.setUserAgent(userAgent);
+        setHeader(HttpHeaders.USER_AGENT, userAgent);
     }
 
     public void setSocketTimeout(int socketTimeout) {
         requestConfigBuilder.setSocketTimeout(socketTimeout);
     }
 
+    public void setConnectionRequestTimeout(int connectionRequestTimeout) {
+        requestConfigBuilder.setConnectionRequestTimeout(connectionRequestTimeout);
+    }
+
     protected void setHeader(String name, String value) {
         getMethod().setHeader(name, value);
     }
 
     protected void disableContentCompression() {
-        clientBuilder.disableContentCompression();
+        this.contentCompression = false;
     }
 
     protected boolean throwsSocketExceptionIfUnAuthorized() {
@@ -136,9 +140,9 @@ public abstract class HttpRequest {
     }
 
     protected HttpResponse execute() throws IOException {
-        clientBuilder.setDefaultRequestConfig(requestConfigBuilder.build());
+        method.setConfig(requestConfigBuilder.build());
         try {
-            return clientBuilder.build().execute(method, context);
+            return HttpClientPool.getInstance().getClient(contentCompression).execute(method, context);
         } catch (SocketException e) {
             if (throwsSocketExceptionIfUnAuthorized())
                 return new BasicHttpResponse(HTTP_1_1, SC_UNAUTHORIZED, "socket exception since unauthorized");
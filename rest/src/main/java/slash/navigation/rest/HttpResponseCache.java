@@ -0,0 +1,126 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.rest;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least recently used cache of response bodies of {@link ReadRequest}s that are
+ * revalidated with their ETag and Last-Modified headers.
+ *
+ * @author Christian Pesch
+ */
+
+public class HttpResponseCache {
+    private final int maximumEntries;
+    private final long maximumBytes;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes, hits, misses;
+
+    public HttpResponseCache(int maximumEntries, long maximumBytes) {
+        this.maximumEntries = maximumEntries;
+        this.maximumBytes = maximumBytes;
+    }
+
+    synchronized Entry get(String uri) {
+        return entries.get(uri);
+    }
+
+    synchronized void put(String uri, Entry entry) {
+        if (entry.getBody().length > maximumBytes)
+            return;
+
+        Entry previous = entries.put(uri, entry);
+        if (previous != null)
+            bytes -= previous.getBody().length;
+        bytes += entry.getBody().length;
+
+        Iterator<Entry> iterator = entries.values().iterator();
+        while ((bytes > maximumBytes || entries.size() > maximumEntries) && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            bytes -= eldest.getBody().length;
+            iterator.remove();
+        }
+    }
+
+    synchronized void hit() {
+        hits++;
+    }
+
+    synchronized void miss() {
+        misses++;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized String toString() {
+        return getClass().getSimpleName() + "[entries=" + entries.size() + ", bytes=" + bytes +
+                ", hits=" + hits + ", misses=" + misses + "]";
+    }
+
+    static class Entry {
+        private final String eTag, lastModified, contentType;
+        private final byte[] body;
+
+        Entry(String eTag, String lastModified, String contentType, byte[] body) {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        public String getETag() {
+            return eTag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -19,13 +19,23 @@
 */
 package slash.navigation.rest;
 
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
 import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.Calendar;
 
 import static org.apache.http.HttpHeaders.*;
+import static org.apache.http.HttpStatus.SC_NOT_MODIFIED;
+import static org.apache.http.HttpStatus.SC_OK;
+import static org.apache.http.HttpVersion.HTTP_1_1;
+import static slash.common.io.InputOutput.readBytes;
 import static slash.common.io.Transfer.parseLong;
 import static slash.navigation.rest.RFC2616.formatDate;
 import static slash.navigation.rest.RFC2616.parseDate;
@@ -37,10 +47,100 @@ import static slash.navigation.rest.RFC2616.parseDate;
  */
 
 abstract class ReadRequest extends HttpRequest {
+    private static HttpResponseCache responseCache;
+    private boolean readingString = false;
+
     public ReadRequest(HttpRequestBase method) {
         super(method);
     }
 
+    public static synchronized HttpResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Sets the cache for the bodies of {@link #executeAsString()}, null to disable caching.
+     */
+    public static synchronized void setResponseCache(HttpResponseCache responseCache) {
+        ReadRequest.responseCache = responseCache;
+    }
+
+    protected boolean isCacheable() {
+        // requests with their own validators or ranges handle the response themselves
+        HttpRequestBase method = getMethod();
+        return method.getMethod().equals("GET") && !method.containsHeader(IF_NONE_MATCH) &&
+                !method.containsHeader(IF_MODIFIED_SINCE) && !method.containsHeader(RANGE);
+    }
+
+    public String executeAsString() throws IOException {
+        readingString = true;
+        try {
+            return super.executeAsString();
+        } finally {
+            readingString = false;
+        }
+    }
+
+    protected HttpResponse execute() throws IOException {
+        HttpResponseCache cache = getResponseCache();
+        if (cache == null || !readingString || !isCacheable())
+            return super.execute();
+
+        String uri = getMethod().getURI().toString();
+        HttpResponseCache.Entry entry = cache.get(uri);
+        if (entry != null) {
+            if (entry.getETag() != null)
+                setHeader(IF_NONE_MATCH, entry.getETag());
+            if (entry.getLastModified() != null)
+                setHeader(IF_MODIFIED_SINCE, entry.getLastModified());
+        }
+
+        HttpResponse response = super.execute();
+        int statusCode = response.getStatusLine().getStatusCode();
+        if (entry != null && statusCode == SC_NOT_MODIFIED) {
+            cache.hit();
+            if (response instanceof Closeable)
+                ((Closeable) response).close();
+            return createResponse(entry);
+        }
+        cache.miss();
+
+        String eTag = getHeader(response, ETAG);
+        String lastModified = getHeader(response, LAST_MODIFIED);
+        HttpEntity entity = response.getEntity();
+        if (statusCode == SC_OK && entity != null && (eTag != null || lastModified != null)) {
+            String contentType = entity.getContentType() != null ? entity.getContentType().getValue() : null;
+            byte[] body = readBytes(entity.getContent());
+            cache.put(uri, new HttpResponseCache.Entry(eTag, lastModified, contentType, body));
+            response.setEntity(createEntity(body, contentType));
+        }
+        return response;
+    }
+
+    private static String getHeader(HttpResponse response, String name) {
+        Header header = response.getFirstHeader(name);
+        return header != null ? header.getValue() : null;
+    }
+
+    private static HttpResponse createResponse(HttpResponseCache.Entry entry) {
+        BasicHttpResponse response = new BasicHttpResponse(HTTP_1_1, SC_OK, "OK from cache");
+        if (entry.getETag() != null)
+            response.setHeader(ETAG, entry.getETag());
+        if (entry.getLastModified() != null)
+            response.setHeader(LAST_MODIFIED, entry.getLastModified());
+        if (entry.getContentType() != null)
+            response.setHeader(CONTENT_TYPE, entry.getContentType());
+        response.setHeader(CONTENT_LENGTH, Integer.toString(entry.getBody().length));
+        response.setEntity(createEntity(entry.getBody(), entry.getContentType()));
+        return response;
+    }
+
+    private static HttpEntity createEntity(byte[] body, String contentType) {
+        ByteArrayEntity entity = new ByteArrayEntity(body);
+        entity.setContentType(contentType);
+        return entity;
+    }
+
     public boolean getAcceptByteRanges() throws IOException {
         return "bytes".equals(getHeader(ACCEPT_RANGES));
     }
@@ -49,6 +149,20 @@ abstract class ReadRequest extends HttpRequest {
         return parseLong(getHeader(CONTENT_LENGTH));
     }
 
+    /**
+     * @return the length of the complete content from the Content-Range of a partial content or null if it's unknown
+     */
+    public Long getCompleteLength() throws IOException {
+        String contentRange = getHeader(CONTENT_RANGE);
+        if (contentRange == null)
+            return null;
+
+        // bytes 0-1023/146515 or bytes 0-1023/*
+        int slash = contentRange.lastIndexOf('/');
+        String completeLength = slash != -1 ? contentRange.substring(slash + 1) : "*";
+        return !completeLength.equals("*") ? parseLong(completeLength) : null;
+    }
+
     public Long getLastModified() throws IOException {
         String lastModified = getHeader(LAST_MODIFIED);
         if(lastModified == null)
@@ -0,0 +1,176 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.currentTimeMillis;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class HttpClientPoolTest {
+    private static final String ETAG = "\"4711\"";
+    private static final byte[] BODY = "Hello RouteConverter".getBytes();
+
+    private HttpServer server;
+    private final Set<Object> remoteAddresses = new HashSet<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                synchronized (remoteAddresses) {
+                    remoteAddresses.add(exchange.getRemoteAddress());
+                }
+                if (ETAG.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                    notModified.incrementAndGet();
+                    exchange.sendResponseHeaders(304, -1);
+                } else {
+                    exchange.getResponseHeaders().set("ETag", ETAG);
+                    exchange.getResponseHeaders().set("Content-Type", "text/plain");
+                    exchange.sendResponseHeaders(200, BODY.length);
+                    try (OutputStream outputStream = exchange.getResponseBody()) {
+                        outputStream.write(BODY);
+                    }
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/test";
+    }
+
+    @After
+    public void tearDown() {
+        ReadRequest.setResponseCache(null);
+        server.stop(0);
+    }
+
+    @Test
+    public void testConnectionIsReused() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            Get get = new Get(url);
+            assertEquals(new String(BODY), get.executeAsString());
+            assertTrue(get.isOk());
+        }
+        assertEquals(1, remoteAddresses.size());
+
+        HttpClientPool pool = HttpClientPool.getInstance();
+        assertEquals(0, pool.getLeased());
+        assertEquals(0, pool.getPending());
+        assertTrue(pool.getAvailable() >= 1);
+        assertTrue(pool.getMaximum() > 0);
+    }
+
+    @Test
+    public void testWaitingForConnectionTimesOut() throws IOException {
+        List<Get> leased = new ArrayList<>();
+        try {
+            // keeps all connections of the route leased by not reading the bodies
+            for (int i = 0; i < 10; i++) {
+                Get get = new Get(url);
+                InputStream inputStream = get.executeAsStream();
+                assertTrue(inputStream != null);
+                leased.add(get);
+            }
+
+            Get get = new Get(url);
+            get.setConnectionRequestTimeout(200);
+            long start = currentTimeMillis();
+            try {
+                get.executeAsString();
+                fail("IOException expected");
+            } catch (ConnectionPoolTimeoutException e) {
+                assertTrue(currentTimeMillis() - start < 10 * 1000);
+            }
+        } finally {
+            for (Get get : leased)
+                get.release();
+        }
+    }
+
+    @Test
+    public void testResponseIsCachedAndRevalidated() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(10, 1024);
+        ReadRequest.setResponseCache(cache);
+
+        Get first = new Get(url);
+        assertEquals(new String(BODY), first.executeAsString());
+        assertTrue(first.isOk());
+        assertEquals(1, cache.getEntryCount());
+        assertEquals(BODY.length, cache.getBytes());
+
+        Get second = new Get(url);
+        assertEquals(new String(BODY), second.executeAsString());
+        assertTrue(second.isOk());
+        assertEquals(ETAG, second.getETag());
+        assertEquals(1, notModified.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void testRequestWithOwnValidatorIsNotCached() throws IOException {
+        HttpResponseCache cache = new HttpResponseCache(10, 1024);
+        ReadRequest.setResponseCache(cache);
+
+        Get get = new Get(url);
+        get.setIfNoneMatch(ETAG);
+        get.executeAsString();
+        assertTrue(get.isNotModified());
+        assertEquals(0, cache.getEntryCount());
+    }
+
+    @Test
+    public void testCacheEvictsLeastRecentlyUsed() {
+        HttpResponseCache cache = new HttpResponseCache(2, 1024);
+        cache.put("a", new HttpResponseCache.Entry("a", null, null, new byte[10]));
+        cache.put("b", new HttpResponseCache.Entry("b", null, null, new byte[10]));
+        cache.get("a");
+        cache.put("c", new HttpResponseCache.Entry("c", null, null, new byte[10]));
+        assertEquals(2, cache.getEntryCount());
+        assertEquals(20, cache.getBytes());
+        assertTrue(cache.get("b") == null);
+
+        cache.put("d", new HttpResponseCache.Entry("d", null, null, new byte[2048]));
+        assertEquals(2, cache.getEntryCount());
+        assertTrue(cache.get("d") == null);
+    }
+}
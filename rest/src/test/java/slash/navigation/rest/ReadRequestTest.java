@@ -0,0 +1,96 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.rest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ReadRequestTest {
+    private static final byte[] BODY = "Hello".getBytes();
+
+    private HttpServer server;
+    private String url;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                String contentRange = exchange.getRequestURI().getQuery();
+                if (contentRange != null) {
+                    exchange.getResponseHeaders().set("Content-Range", contentRange);
+                    exchange.sendResponseHeaders(206, BODY.length);
+                } else
+                    exchange.sendResponseHeaders(200, BODY.length);
+                try (OutputStream outputStream = exchange.getResponseBody()) {
+                    outputStream.write(BODY);
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/test";
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+
+    private Get get(String contentRange) throws IOException {
+        Get get = new Get(contentRange != null ? url + "?" + contentRange.replace(" ", "%20") : url);
+        get.setRange(0, 4L);
+        assertEquals(new String(BODY), get.executeAsString());
+        return get;
+    }
+
+    @Test
+    public void testCompleteLength() throws IOException {
+        Get get = get("bytes 0-4/146515");
+        assertTrue(get.isPartialContent());
+        assertEquals(new Long(146515), get.getCompleteLength());
+    }
+
+    @Test
+    public void testUnknownCompleteLength() throws IOException {
+        Get get = get("bytes 0-4/*");
+        assertTrue(get.isPartialContent());
+        assertNull(get.getCompleteLength());
+    }
+
+    @Test
+    public void testCompleteLengthWithoutContentRange() throws IOException {
+        Get get = get(null);
+        assertTrue(get.isOk());
+        assertNull(get.getCompleteLength());
+    }
+}
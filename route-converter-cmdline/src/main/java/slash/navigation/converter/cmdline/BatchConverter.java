@@ -0,0 +1,385 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.cmdline;
+
+import slash.navigation.base.BaseNavigationFormat;
+import slash.navigation.base.BaseRoute;
+import slash.navigation.base.MultipleRoutesFormat;
+import slash.navigation.base.NavigationFormatParser;
+import slash.navigation.base.ParserResult;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static slash.common.io.Files.collectFiles;
+import static slash.common.helpers.JAXBHelper.setCacheContexts;
+import static slash.common.io.Files.createTargetFiles;
+import static slash.common.io.Files.getExtension;
+import static slash.common.io.Files.removeExtension;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWriteFor;
+
+/**
+ * Converts many files in parallel with one {@link NavigationFormatParser} and
+ * writes a summary with one line per file.
+ *
+ * Sources are files, directories which are searched recursively, glob patterns
+ * like <code>archive/**&#47;*.gpx</code> and manifest files prefixed with <code>@</code>
+ * that contain one source per line.
+ *
+ * @author Christian Pesch
+ */
+
+public class BatchConverter {
+    private static final Logger log = Logger.getLogger(BatchConverter.class.getName());
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    public enum Status {
+        Converted, Skipped, Failed
+    }
+
+    private final NavigationFormatParser parser;
+    private final BaseNavigationFormat format;
+    private final File targetDirectory;
+    private final int threads;
+
+    public BatchConverter(NavigationFormatParser parser, BaseNavigationFormat format, File targetDirectory, int threads) {
+        this.parser = parser;
+        this.format = format;
+        this.targetDirectory = targetDirectory;
+        this.threads = threads;
+    }
+
+    /**
+     * Resolves the given sources to the files to convert and the target file names
+     * relative to the target directory without extension. Sources with the same
+     * name like <code>a.gpx</code> and <code>a.kml</code> get distinct target names.
+     */
+    public Map<File, String> collectSources(List<String> sources) throws IOException {
+        Map<File, String> result = new LinkedHashMap<>();
+        for (String source : sources)
+            collectSource(source, new File("."), result);
+        return makeTargetNamesUnique(result);
+    }
+
+    private Map<File, String> makeTargetNamesUnique(Map<File, String> sources) {
+        Map<File, String> result = new LinkedHashMap<>();
+        // compare ignoring case since targets may end up on a case insensitive file system
+        Set<String> names = new HashSet<>();
+        for (Map.Entry<File, String> entry : sources.entrySet()) {
+            String name = entry.getValue();
+            if (!names.add(name.toLowerCase())) {
+                String extension = getExtension(entry.getKey().getName()).replace(".", "");
+                String base = extension.length() > 0 ? name + "-" + extension : name;
+                name = base;
+                for (int i = 2; !names.add(name.toLowerCase()); i++)
+                    name = base + "-" + i;
+                log.info("Target name of '" + entry.getKey().getAbsolutePath() + "' is taken; using '" + name + "'");
+            }
+            result.put(entry.getKey(), name);
+        }
+        return result;
+    }
+
+    private void collectSource(String source, File baseDirectory, Map<File, String> result) throws IOException {
+        if (source.startsWith("@")) {
+            File manifest = resolve(source.substring(1), baseDirectory);
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(manifest), UTF8_ENCODING))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    line = line.trim();
+                    if (line.length() > 0 && !line.startsWith("#"))
+                        collectSource(line, manifest.getParentFile(), result);
+                }
+            }
+            return;
+        }
+
+        int globIndex = indexOfGlob(source);
+        if (globIndex != -1) {
+            collectGlob(source, globIndex, baseDirectory, result);
+            return;
+        }
+
+        File file = resolve(source, baseDirectory);
+        if (file.isDirectory()) {
+            List<File> files = collectFiles(file, null);
+            Collections.sort(files);
+            for (File found : files)
+                result.put(found, relativeTargetName(file, found));
+        } else if (file.isFile())
+            result.put(file, removeExtension(file.getName()));
+        else
+            log.warning("Source '" + file.getAbsolutePath() + "' does not exist; ignoring.");
+    }
+
+    private File resolve(String path, File baseDirectory) {
+        File file = new File(path);
+        if (!file.isAbsolute())
+            file = new File(baseDirectory, path);
+        return file.toPath().toAbsolutePath().normalize().toFile();
+    }
+
+    private int indexOfGlob(String source) {
+        for (int i = 0; i < source.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(source.charAt(i)) != -1)
+                return i;
+        }
+        return -1;
+    }
+
+    private void collectGlob(String source, int globIndex, File baseDirectory, final Map<File, String> result) throws IOException {
+        // the directory part before the first glob character is the root of the search
+        String normalized = source.replace('\\', '/');
+        int separator = normalized.lastIndexOf('/', globIndex);
+        final File root = resolve(separator != -1 ? source.substring(0, separator + 1) : ".", baseDirectory);
+        String pattern = normalized.substring(separator + 1);
+        final Path rootPath = root.toPath();
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + pattern);
+        final List<File> files = new ArrayList<>();
+
+        Files.walkFileTree(rootPath, new SimpleFileVisitor<Path>() {
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                if (attributes.isRegularFile() && matcher.matches(rootPath.relativize(file)))
+                    files.add(file.toFile());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+
+        Collections.sort(files);
+        for (File file : files)
+            result.put(file, relativeTargetName(root, file));
+    }
+
+    private String relativeTargetName(File root, File file) {
+        String relative = root.toPath().relativize(file.toPath()).toString();
+        return removeExtension(relative);
+    }
+
+    public static class Conversion {
+        private final File source;
+        private Status status = Status.Failed;
+        private String formatName, message;
+        private int routes, positions;
+        private List<File> targets = new ArrayList<>();
+        private long readMillis, writeMillis;
+
+        private Conversion(File source) {
+            this.source = source;
+        }
+
+        public File getSource() {
+            return source;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public String getFormatName() {
+            return formatName;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public int getRoutes() {
+            return routes;
+        }
+
+        public int getPositions() {
+            return positions;
+        }
+
+        public List<File> getTargets() {
+            return targets;
+        }
+
+        public long getReadMillis() {
+            return readMillis;
+        }
+
+        public long getWriteMillis() {
+            return writeMillis;
+        }
+    }
+
+    private Conversion convert(File source, String targetName) {
+        Conversion conversion = new Conversion(source);
+        try {
+            // skip up to date targets before the expensive read; a split target starts with its first file
+            File target = new File(targetDirectory, targetName + format.getExtension());
+            if (isUpToDate(conversion, createTargetFiles(target, 1, format.getExtension(), format.getMaximumFileNameLength())[0]) ||
+                    !format.isSupportsMultipleRoutes() && isUpToDate(conversion,
+                            createTargetFiles(target, 2, format.getExtension(), format.getMaximumFileNameLength())[0]))
+                return conversion;
+
+            long start = currentTimeMillis();
+            ParserResult result = parser.read(source);
+            conversion.readMillis = currentTimeMillis() - start;
+            if (!result.isSuccessful()) {
+                conversion.message = "Could not read source";
+                return conversion;
+            }
+
+            conversion.formatName = result.getFormat().getName();
+            conversion.routes = result.getAllRoutes().size();
+            for (BaseRoute route : result.getAllRoutes())
+                conversion.positions += route.getPositionCount();
+
+            File[] targets;
+            if (format.isSupportsMultipleRoutes())
+                targets = new File[]{target};
+            else {
+                int fileCount = getNumberOfFilesToWriteFor(result.getTheRoute(), format, false);
+                targets = createTargetFiles(target, fileCount, format.getExtension(), format.getMaximumFileNameLength());
+            }
+            for (File t : targets) {
+                if (isUpToDate(conversion, t))
+                    return conversion;
+            }
+
+            File parent = target.getParentFile();
+            if (!parent.exists() && !parent.mkdirs() && !parent.exists())
+                throw new IOException("Cannot create directory '" + parent.getAbsolutePath() + "'");
+
+            start = currentTimeMillis();
+            if (format.isSupportsMultipleRoutes())
+                parser.write(result.getAllRoutes(), (MultipleRoutesFormat) format, target);
+            else
+                parser.write(result.getTheRoute(), format, false, false, null, targets);
+            conversion.writeMillis = currentTimeMillis() - start;
+            conversion.targets.addAll(asList(targets));
+            conversion.status = Status.Converted;
+        } catch (Exception e) {
+            conversion.status = Status.Failed;
+            conversion.message = e.toString();
+        }
+        return conversion;
+    }
+
+    private boolean isUpToDate(Conversion conversion, File target) {
+        if (!target.exists())
+            return false;
+        conversion.status = Status.Skipped;
+        conversion.message = "Target '" + target.getAbsolutePath() + "' already exists";
+        return true;
+    }
+
+    /**
+     * Converts the given sources on a pool of workers.
+     * All workers share the cached JAXB contexts.
+     *
+     * @param sources the files to convert mapped to the target names
+     * @return the conversions in the order of the sources
+     */
+    public List<Conversion> convert(Map<File, String> sources) throws InterruptedException {
+        setCacheContexts(true);
+        ExecutorService executor = newFixedThreadPool(threads);
+        List<Future<Conversion>> futures = new ArrayList<>(sources.size());
+        try {
+            for (final Map.Entry<File, String> entry : sources.entrySet()) {
+                futures.add(executor.submit(new Callable<Conversion>() {
+                    public Conversion call() {
+                        return convert(entry.getKey(), entry.getValue());
+                    }
+                }));
+            }
+
+            List<Conversion> conversions = new ArrayList<>(futures.size());
+            for (Future<Conversion> future : futures) {
+                try {
+                    Conversion conversion = future.get();
+                    conversions.add(conversion);
+                    if (conversion.getStatus().equals(Status.Failed))
+                        log.warning(format("Failed to convert '%s': %s", conversion.getSource(), conversion.getMessage()));
+                    if (conversions.size() % 1000 == 0)
+                        log.info(format("Processed %d of %d files", conversions.size(), futures.size()));
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Conversion failed unexpectedly", e.getCause());
+                }
+            }
+            return conversions;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Writes the conversions as comma separated values with a header line.
+     */
+    public void writeSummary(List<Conversion> conversions, File summary) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(summary), UTF8_ENCODING))) {
+            writer.println("source,status,format,routes,positions,targets,readMillis,writeMillis,message");
+            for (Conversion conversion : conversions) {
+                StringBuilder targets = new StringBuilder();
+                for (File target : conversion.getTargets()) {
+                    if (targets.length() > 0)
+                        targets.append(File.pathSeparator);
+                    targets.append(target.getPath());
+                }
+                writer.println(escape(conversion.getSource().getPath()) + "," + conversion.getStatus() + "," +
+                        escape(conversion.getFormatName()) + "," + conversion.getRoutes() + "," +
+                        conversion.getPositions() + "," + escape(targets.toString()) + "," +
+                        conversion.getReadMillis() + "," + conversion.getWriteMillis() + "," +
+                        escape(conversion.getMessage()));
+            }
+        }
+    }
+
+    private static String escape(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') == -1 && value.indexOf('"') == -1 && value.indexOf('\n') == -1 && value.indexOf('\r') == -1)
+            return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -26,14 +26,20 @@ import slash.navigation.base.*;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.LogManager;
 import java.util.logging.Logger;
 
+import static java.lang.Runtime.getRuntime;
+import static java.lang.System.currentTimeMillis;
 import static java.lang.System.exit;
 import static slash.common.io.Files.*;
+import static slash.common.io.Transfer.parseInteger;
 import static slash.common.system.Platform.*;
 import static slash.common.system.Version.parseVersionFromManifest;
+import static slash.navigation.base.BaseColumnarPositionList.setColumnarPositionThreshold;
 import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWriteFor;
 
 /**
@@ -44,7 +50,9 @@ import static slash.navigation.base.NavigationFormatParser.getNumberOfFilesToWri
 
 public class RouteConverterCmdLine {
     private static final Logger log = Logger.getLogger(RouteConverterCmdLine.class.getName());
+    private static final int COLUMNAR_POSITION_THRESHOLD = 100000;
     private NavigationFormatRegistry registry = new CmdLineNavigationFormatRegistry();
+    private NavigationFormatParser parser = new NavigationFormatParser(new NavigationFormatRegistry());
 
     private void initializeLogging() {
         try (InputStream inputStream = RouteConverterCmdLine.class.getResourceAsStream("cmdline.properties")) {
@@ -74,8 +82,14 @@ public class RouteConverterCmdLine {
         Version version = parseVersionFromManifest();
         log.info("Started RouteConverter " + version.getVersion() + " from " + version.getDate() +
                 " on " + getJava() + " and " + getPlatform() + " with " + getMaximumMemory() + " MByte heap");
+        setColumnarPositionThreshold(COLUMNAR_POSITION_THRESHOLD);
+        if (args.length > 0 && args[0].equals("--batch"))
+            return runBatch(args);
+        if (args.length > 0 && args[0].equals("--streaming"))
+            return runStreaming(args);
+
         if (args.length != 3) {
-            log.info("Usage: java -jar RouteConverterCmdLine.jar <source file> <target format> <target file>");
+            logUsage();
             logFormatNames(false);
             return 5;
         }
@@ -110,8 +124,129 @@ public class RouteConverterCmdLine {
         return 0;
     }
 
+    private void logUsage() {
+        log.info("Usage: java -jar RouteConverterCmdLine.jar <source file> <target format> <target file>");
+        log.info("   or: java -jar RouteConverterCmdLine.jar --batch [--threads=<count>] [--summary=<file>] " +
+                "<target format> <target directory> <source file|directory|glob|@manifest>...");
+        log.info("   or: java -jar RouteConverterCmdLine.jar --streaming <NMEA source file> <Gpx11Format|Kml22Format> <target file>");
+    }
+
+    private int runStreaming(String[] args) {
+        if (args.length != 4) {
+            logUsage();
+            return 5;
+        }
+
+        File source = absolutize(new File(args[1]));
+        if (!source.exists()) {
+            log.severe("Source '" + source.getAbsolutePath() + "' does not exist; stopping.");
+            return 10;
+        }
+
+        BaseNavigationFormat format = findFormat(args[2]);
+        if (format == null || !StreamingConverter.isSupportedTarget(format)) {
+            log.severe("Format '" + args[2] + "' does not support streaming; stopping.");
+            return 15;
+        }
+
+        File target = absolutize(new File(removeExtension(args[3]) + format.getExtension()));
+        if (target.exists()) {
+            log.severe("Target '" + target.getAbsolutePath() + "' already exists; stopping.");
+            return 20;
+        }
+
+        try {
+            long start = currentTimeMillis();
+            long count = new StreamingConverter(registry).convert(source, format, target);
+            log.info("Streamed " + count + " positions in " + (currentTimeMillis() - start) + " milliseconds");
+        } catch (IOException e) {
+            log.severe("Error while converting: " + e);
+            return 25;
+        }
+        return 0;
+    }
+
+    private int runBatch(String[] args) {
+        int threads = getRuntime().availableProcessors();
+        File summary = null;
+        List<String> arguments = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--threads=")) {
+                Integer count = parseInteger(arg.substring("--threads=".length()));
+                if (count == null || count < 1) {
+                    log.severe("Thread count '" + arg + "' is invalid; stopping.");
+                    return 5;
+                }
+                threads = count;
+            } else if (arg.startsWith("--summary="))
+                summary = absolutize(new File(arg.substring("--summary=".length())));
+            else
+                arguments.add(arg);
+        }
+        if (arguments.size() < 3) {
+            logUsage();
+            logFormatNames(false);
+            return 5;
+        }
+
+        BaseNavigationFormat format = findFormat(arguments.get(0));
+        if (format == null) {
+            log.severe("Format '" + arguments.get(0) + "' does not exist; stopping.");
+            logFormatNames(false);
+            return 15;
+        }
+
+        File targetDirectory = absolutize(new File(arguments.get(1)));
+        if (!targetDirectory.isDirectory() && !targetDirectory.mkdirs()) {
+            log.severe("Target directory '" + targetDirectory.getAbsolutePath() + "' cannot be created; stopping.");
+            return 20;
+        }
+        if (summary == null)
+            summary = new File(targetDirectory, "summary.csv");
+
+        BatchConverter converter = new BatchConverter(parser, format, targetDirectory, threads);
+        try {
+            Map<File, String> sources = converter.collectSources(arguments.subList(2, arguments.size()));
+            if (sources.isEmpty()) {
+                log.severe("No source files found; stopping.");
+                return 10;
+            }
+
+            log.info("Converting " + sources.size() + " files with " + threads + " threads to " + targetDirectory.getAbsolutePath());
+            long start = currentTimeMillis();
+            List<BatchConverter.Conversion> conversions = converter.convert(sources);
+            converter.writeSummary(conversions, summary);
+
+            int converted = 0, skipped = 0, failed = 0;
+            for (BatchConverter.Conversion conversion : conversions) {
+                switch (conversion.getStatus()) {
+                    case Converted:
+                        converted++;
+                        break;
+                    case Skipped:
+                        skipped++;
+                        break;
+                    default:
+                        failed++;
+                }
+            }
+            log.info("Converted " + converted + ", skipped " + skipped + " and failed " + failed + " files in " +
+                    (currentTimeMillis() - start) + " milliseconds; summary in " + summary.getAbsolutePath());
+
+            if (failed == 0)
+                return 0;
+            return converted + skipped > 0 ? 30 : 35;
+        } catch (IOException e) {
+            log.severe("Error while converting: " + e);
+            return 25;
+        } catch (InterruptedException e) {
+            log.severe("Interrupted while converting: " + e);
+            return 25;
+        }
+    }
+
     private void convert(File source, NavigationFormat format, File target) throws IOException {
-        NavigationFormatParser parser = new NavigationFormatParser(new NavigationFormatRegistry());
         ParserResult result = parser.read(source);
         if (!result.isSuccessful()) {
             log.severe("Could not read source '" + source.getAbsolutePath() + "'");
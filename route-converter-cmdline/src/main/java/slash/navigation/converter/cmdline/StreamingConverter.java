@@ -0,0 +1,348 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.cmdline;
+
+import slash.navigation.base.NavigationFormat;
+import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.NavigationFormatSniffer;
+import slash.navigation.base.PositionSink;
+import slash.navigation.base.SniffResult;
+import slash.navigation.gpx.Gpx11Format;
+import slash.navigation.gpx.Gpx11TrackWriter;
+import slash.navigation.kml.Kml22Format;
+import slash.navigation.nmea.BaseNmeaFormat;
+import slash.navigation.nmea.NmeaPosition;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.logging.Logger;
+
+import static java.io.File.createTempFile;
+import static slash.common.io.Files.removeExtension;
+import static slash.common.io.Transfer.UTF8_ENCODING;
+import static slash.common.type.CompactCalendar.fromMillis;
+import static slash.common.type.ISO8601.formatDate;
+import static slash.navigation.base.NavigationFormatSniffer.SNIFF_BUFFER_SIZE;
+import static slash.navigation.common.NavigationConversion.formatAccuracyAsString;
+import static slash.navigation.common.NavigationConversion.formatElevationAsString;
+import static slash.navigation.common.NavigationConversion.formatHeadingAsString;
+import static slash.navigation.common.NavigationConversion.formatPositionAsString;
+import static slash.navigation.common.NavigationConversion.formatSpeedAsString;
+import static slash.navigation.kml.KmlUtil.KML_22_EXT_NAMESPACE_URI;
+import static slash.navigation.kml.KmlUtil.KML_22_NAMESPACE_URI;
+
+/**
+ * Converts NMEA logs of any size to a GPX or KML track without keeping
+ * the positions in memory.
+ *
+ * @author Christian Pesch
+ */
+
+public class StreamingConverter {
+    private static final Logger log = Logger.getLogger(StreamingConverter.class.getName());
+    private final NavigationFormatRegistry registry;
+
+    public StreamingConverter(NavigationFormatRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static boolean isSupportedTarget(NavigationFormat format) {
+        return format instanceof Gpx11Format || format instanceof Kml22Format;
+    }
+
+    private BaseNmeaFormat sniffNmeaFormat(File source) throws IOException {
+        byte[] head = new byte[SNIFF_BUFFER_SIZE];
+        int length = 0;
+        try (InputStream inputStream = new FileInputStream(source)) {
+            int read;
+            while (length < head.length && (read = inputStream.read(head, length, head.length - length)) != -1)
+                length += read;
+        }
+
+        SniffResult result = new NavigationFormatSniffer().sniff(head, length, registry.getReadFormats());
+        if (result.isConclusive()) {
+            for (NavigationFormat format : result.getCandidates()) {
+                if (format instanceof BaseNmeaFormat)
+                    return (BaseNmeaFormat) format;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Converts the given NMEA source into a track of the given format.
+     *
+     * @param source the NMEA log
+     * @param format a format that {@link #isSupportedTarget(NavigationFormat) is supported}
+     * @param target the file to write
+     * @return the number of positions written
+     * @throws IOException if the source is no NMEA log or cannot be read or the target cannot be written
+     */
+    public long convert(File source, NavigationFormat format, File target) throws IOException {
+        BaseNmeaFormat nmeaFormat = sniffNmeaFormat(source);
+        if (nmeaFormat == null)
+            throw new IOException("Source '" + source.getAbsolutePath() + "' is no NMEA log");
+
+        log.info("Streaming '" + source.getAbsolutePath() + "' with " + nmeaFormat.getName() + " to " + format.getName());
+        String name = removeExtension(source.getName());
+        TrackWriter writer = null;
+        boolean valid = false;
+        try (InputStream inputStream = new FileInputStream(source)) {
+            writer = format instanceof Kml22Format ? new KmlTrackWriter(target, name) : new GpxTrackWriter((Gpx11Format) format, target, name);
+            valid = nmeaFormat.read(inputStream, fromMillis(source.lastModified()), writer);
+        } finally {
+            if (writer != null)
+                writer.close();
+            if (!valid && target.exists() && !target.delete())
+                log.warning("Cannot delete incomplete target '" + target.getAbsolutePath() + "'");
+        }
+        if (!valid)
+            throw new IOException("Source '" + source.getAbsolutePath() + "' contains lines that are no NMEA sentences");
+
+        log.info("Wrote " + writer.getCount() + " positions to '" + target.getAbsolutePath() + "'");
+        return writer.getCount();
+    }
+
+    private static abstract class TrackWriter implements PositionSink<NmeaPosition>, Closeable {
+        private long count = 0;
+
+        public long getCount() {
+            return count;
+        }
+
+        protected abstract void writePosition(NmeaPosition position) throws IOException;
+
+        public void accept(NmeaPosition position) throws IOException {
+            if (!position.hasCoordinates())
+                return;
+            writePosition(position);
+            count++;
+        }
+    }
+
+    private static class GpxTrackWriter extends TrackWriter {
+        private final Gpx11TrackWriter writer;
+
+        GpxTrackWriter(Gpx11Format format, File target, String name) throws IOException {
+            this.writer = new Gpx11TrackWriter(format, new FileOutputStream(target), name);
+        }
+
+        protected void writePosition(NmeaPosition position) throws IOException {
+            writer.accept(position);
+        }
+
+        public void close() throws IOException {
+            writer.close();
+        }
+    }
+
+    /**
+     * Writes a gx:Track like {@link Kml22Format} with the speed, heading, accuracy and satellites
+     * as arrays of extended data. Since KML expects all times before all coordinates and arrays,
+     * the positions are spooled to a temporary file with one line per position and the document
+     * is written with one pass over the file per element when the writer is closed.
+     */
+    private static class KmlTrackWriter extends TrackWriter {
+        private static final String SCHEMA_ID = "trackData";
+        private static final int WHEN_COLUMN = 0, COORDINATES_COLUMN = 1, FIRST_DATA_COLUMN = 2;
+        private static final String[] DATA_NAMES = {"speed", "heading", "hdop", "vdop", "pdop", "satellites"};
+        private static final String[] DATA_DISPLAY_NAMES = {"Speed (Km/h)", "Heading", "HDOP", "VDOP", "PDOP", "Satellites"};
+        private static final String[] DATA_TYPES = {"float", "float", "float", "float", "float", "int"};
+
+        private final File target, spool;
+        private final String name;
+        private final Writer spoolWriter;
+        private final boolean[] hasData = new boolean[DATA_NAMES.length];
+        private int timeCount = 0;
+
+        KmlTrackWriter(File target, String name) throws IOException {
+            this.target = target;
+            this.name = name;
+            this.spool = createTempFile("kmltrack", ".tmp");
+            this.spoolWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(spool), UTF8_ENCODING));
+        }
+
+        protected void writePosition(NmeaPosition position) throws IOException {
+            if (position.hasTime())
+                timeCount++;
+            String[] data = new String[]{
+                    position.getSpeed() != null ? formatSpeedAsString(position.getSpeed()) : "",
+                    position.getHeading() != null ? formatHeadingAsString(position.getHeading()) : "",
+                    position.getHdop() != null ? formatAccuracyAsString(position.getHdop()) : "",
+                    position.getVdop() != null ? formatAccuracyAsString(position.getVdop()) : "",
+                    position.getPdop() != null ? formatAccuracyAsString(position.getPdop()) : "",
+                    position.getSatellites() != null ? position.getSatellites().toString() : ""
+            };
+
+            spoolWriter.write(position.hasTime() ? formatDate(position.getTime()) : "");
+            spoolWriter.write('\t');
+            spoolWriter.write(formatPositionAsString(position.getLongitude()) + "," +
+                    formatPositionAsString(position.getLatitude()) + "," +
+                    formatElevationAsString(position.getElevation()));
+            for (int i = 0; i < data.length; i++) {
+                spoolWriter.write('\t');
+                spoolWriter.write(data[i]);
+                if (data[i].length() > 0)
+                    hasData[i] = true;
+            }
+            spoolWriter.write('\n');
+        }
+
+        private boolean hasData() {
+            for (boolean data : hasData) {
+                if (data)
+                    return true;
+            }
+            return false;
+        }
+
+        public void close() throws IOException {
+            try {
+                spoolWriter.close();
+                try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(target))) {
+                    XMLStreamWriter writer = XMLOutputFactory.newInstance().createXMLStreamWriter(outputStream, UTF8_ENCODING);
+                    writeDocument(writer);
+                    writer.close();
+                } catch (XMLStreamException e) {
+                    throw new IOException("Cannot write KML document: " + e, e);
+                }
+            } finally {
+                if (!spool.delete())
+                    log.warning("Cannot delete temporary file '" + spool.getAbsolutePath() + "'");
+            }
+        }
+
+        private void writeDocument(XMLStreamWriter writer) throws XMLStreamException, IOException {
+            // like Kml22Format a gx:Track needs at least two positions with a time stamp
+            boolean track = timeCount > 1;
+            writer.writeStartDocument(UTF8_ENCODING, "1.0");
+            writer.setDefaultNamespace(KML_22_NAMESPACE_URI);
+            writer.setPrefix("gx", KML_22_EXT_NAMESPACE_URI);
+            writer.writeStartElement(KML_22_NAMESPACE_URI, "kml");
+            writer.writeDefaultNamespace(KML_22_NAMESPACE_URI);
+            writer.writeNamespace("gx", KML_22_EXT_NAMESPACE_URI);
+            writer.writeStartElement("Document");
+            writeElement(writer, "name", name);
+            if (track && hasData())
+                writeSchema(writer);
+            writer.writeStartElement("Placemark");
+            writeElement(writer, "name", name);
+            if (track)
+                writeTrack(writer);
+            else
+                writeLineString(writer);
+            writer.writeEndElement(); // Placemark
+            writer.writeEndElement(); // Document
+            writer.writeEndElement(); // kml
+            writer.writeEndDocument();
+        }
+
+        private void writeSchema(XMLStreamWriter writer) throws XMLStreamException {
+            writer.writeStartElement("Schema");
+            writer.writeAttribute("id", SCHEMA_ID);
+            for (int i = 0; i < DATA_NAMES.length; i++) {
+                if (!hasData[i])
+                    continue;
+                writer.writeStartElement(KML_22_EXT_NAMESPACE_URI, "SimpleArrayField");
+                writer.writeAttribute("name", DATA_NAMES[i]);
+                writer.writeAttribute("type", DATA_TYPES[i]);
+                writeElement(writer, "displayName", DATA_DISPLAY_NAMES[i]);
+                writer.writeEndElement();
+            }
+            writer.writeEndElement();
+        }
+
+        private void writeTrack(XMLStreamWriter writer) throws XMLStreamException, IOException {
+            writer.writeStartElement(KML_22_EXT_NAMESPACE_URI, "Track");
+            writeColumn(writer, KML_22_NAMESPACE_URI, "when", WHEN_COLUMN);
+            writeColumn(writer, KML_22_EXT_NAMESPACE_URI, "coord", COORDINATES_COLUMN);
+            if (hasData()) {
+                writer.writeStartElement("ExtendedData");
+                writer.writeStartElement("SchemaData");
+                writer.writeAttribute("schemaUrl", "#" + SCHEMA_ID);
+                for (int i = 0; i < DATA_NAMES.length; i++) {
+                    if (!hasData[i])
+                        continue;
+                    writer.writeStartElement(KML_22_EXT_NAMESPACE_URI, "SimpleArrayData");
+                    writer.writeAttribute("name", DATA_NAMES[i]);
+                    writeColumn(writer, KML_22_EXT_NAMESPACE_URI, "value", FIRST_DATA_COLUMN + i);
+                    writer.writeEndElement();
+                }
+                writer.writeEndElement(); // SchemaData
+                writer.writeEndElement(); // ExtendedData
+            }
+            writer.writeEndElement(); // Track
+        }
+
+        private void writeLineString(XMLStreamWriter writer) throws XMLStreamException, IOException {
+            writer.writeStartElement("LineString");
+            writeElement(writer, "tessellate", "1");
+            writer.writeStartElement("coordinates");
+            try (BufferedReader reader = openSpool()) {
+                String line;
+                while ((line = reader.readLine()) != null)
+                    writer.writeCharacters(line.split("\t", -1)[COORDINATES_COLUMN] + "\n");
+            }
+            writer.writeEndElement(); // coordinates
+            writer.writeEndElement(); // LineString
+        }
+
+        private void writeColumn(XMLStreamWriter writer, String namespaceUri, String localName, int column) throws XMLStreamException, IOException {
+            try (BufferedReader reader = openSpool()) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String value = line.split("\t", -1)[column];
+                    if (column == COORDINATES_COLUMN)
+                        value = value.replace(',', ' ');
+                    writer.writeStartElement(namespaceUri, localName);
+                    writer.writeCharacters(value);
+                    writer.writeEndElement();
+                }
+            }
+        }
+
+        private BufferedReader openSpool() throws IOException {
+            return new BufferedReader(new InputStreamReader(new FileInputStream(spool), UTF8_ENCODING));
+        }
+
+        private static void writeElement(XMLStreamWriter writer, String name, String value) throws XMLStreamException {
+            if (value == null || value.length() == 0)
+                return;
+            writer.writeStartElement(name);
+            writer.writeCharacters(value);
+            writer.writeEndElement();
+        }
+    }
+}
@@ -25,6 +25,8 @@ import slash.common.log.LoggingHelper;
 import slash.common.system.Version;
 import slash.navigation.babel.BabelException;
 import slash.navigation.base.NavigationFormatRegistry;
+import slash.navigation.base.ParserMetricsLog;
+import slash.navigation.base.ParserStatistics;
 import slash.navigation.base.RouteCharacteristics;
 import slash.navigation.common.BoundingBox;
 import slash.navigation.common.NavigationPosition;
@@ -98,6 +100,7 @@ import slash.navigation.mapview.MapViewCallback;
 import slash.navigation.rest.Credentials;
 import slash.navigation.routing.RoutingService;
 
+import javax.management.JMException;
 import javax.swing.*;
 import javax.swing.event.ChangeEvent;
 import javax.swing.event.ChangeListener;
@@ -174,6 +177,7 @@ import static slash.common.system.Platform.isJavaFX7;
 import static slash.common.system.Platform.isJavaFX8;
 import static slash.common.system.Version.parseVersionFromManifest;
 import static slash.feature.client.Feature.initializePreferences;
+import static slash.navigation.base.NavigationFormatParser.addDefaultParserMetricsListener;
 import static slash.navigation.common.NumberPattern.Number_Space_Then_Description;
 import static slash.navigation.common.NumberingStrategy.Absolute_Position_Within_Position_List;
 import static slash.navigation.converter.gui.helpers.ExternalPrograms.startBrowserForTranslation;
@@ -181,6 +185,7 @@ import static slash.navigation.converter.gui.helpers.ExternalPrograms.startMail;
 import static slash.navigation.converter.gui.helpers.MapViewImplementation.EclipseSWT;
 import static slash.navigation.converter.gui.helpers.MapViewImplementation.JavaFX7;
 import static slash.navigation.converter.gui.helpers.MapViewImplementation.JavaFX8;
+import static slash.navigation.converter.gui.helpers.ServiceLimiters.getGeoNamesLimiter;
 import static slash.navigation.converter.gui.models.LocalNames.POSITIONS;
 import static slash.navigation.datasources.DataSourceManager.FORMAT_XML;
 import static slash.navigation.datasources.DataSourceManager.V1;
@@ -287,6 +292,8 @@ public class RouteConverter extends SingleFrameApplication {
 
     protected void startup() {
         initializeLogging();
+        getNavigationFormatRegistry().initializeBindings();
+        initializeParserMetrics();
         show();
         checkForMissingTranslator();
         updateChecker.implicitCheck(getFrame());
@@ -331,6 +338,26 @@ public class RouteConverter extends SingleFrameApplication {
                 " on " + getJava() + " and " + getPlatform() + " with " + getMaximumMemory() + " MByte heap");
     }
 
+    private void initializeParserMetrics() {
+        ParserStatistics statistics = new ParserStatistics();
+        try {
+            statistics.register();
+            addDefaultParserMetricsListener(statistics);
+        } catch (JMException e) {
+            log.warning("Could not register parser statistics: " + e);
+        }
+
+        String parserMetrics = System.getProperty("parsermetrics");
+        if (parserMetrics != null) {
+            try {
+                addDefaultParserMetricsListener(new ParserMetricsLog(new File(parserMetrics)));
+                log.info("Logging parser metrics to " + parserMetrics);
+            } catch (IOException e) {
+                log.warning("Could not log parser metrics to " + parserMetrics + ": " + e);
+            }
+        }
+    }
+
     private List<String> getLanguagesWithActiveTranslators() {
         List<Locale> localesOfActiveTranslators = asList(CHINA, CROATIA, CZECH, DENMARK, FRANCE, GERMANY, ITALY,
                 NEDERLANDS, POLAND, PORTUGAL, RUSSIA, SERBIA, SLOVAKIA, SPAIN, US);
@@ -1351,7 +1378,7 @@ public class RouteConverter extends SingleFrameApplication {
         getElevationServiceFacade().addElevationService(automaticElevationService);
         getElevationServiceFacade().setPreferredElevationService(automaticElevationService);
 
-        getElevationServiceFacade().addElevationService(new GeoNamesService());
+        getElevationServiceFacade().addElevationService(new GeoNamesService(getGeoNamesLimiter()));
         getElevationServiceFacade().addElevationService(new GoogleMapsService());
 
         getHgtFilesService().initialize();
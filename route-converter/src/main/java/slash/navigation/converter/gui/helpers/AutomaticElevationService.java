@@ -27,6 +27,10 @@ import java.io.IOException;
 import java.util.*;
 import java.util.logging.Logger;
 
+import static java.lang.Double.NaN;
+import static java.lang.Double.isNaN;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
 import static java.util.Arrays.sort;
 
 /**
@@ -68,7 +72,7 @@ public class AutomaticElevationService implements ElevationService {
 
     public Double getElevationFor(double longitude, double latitude) throws IOException {
         for (ElevationService service : sortByBestEffort(elevationServiceFacade.getElevationServices())) {
-            Double elevation = service.getElevationFor(longitude, latitude);
+            Double elevation = elevationServiceFacade.getElevationFor(service, longitude, latitude);
             if (elevation != null) {
                 log.fine("Used " + service.getName() + " to retrieve elevation for " + longitude + "/" + latitude);
                 return elevation;
@@ -77,6 +81,43 @@ public class AutomaticElevationService implements ElevationService {
         return null;
     }
 
+    public double[] getElevationsFor(double[] longitudes, double[] latitudes) throws IOException {
+        if (longitudes.length != latitudes.length)
+            throw new IllegalArgumentException("Got " + longitudes.length + " longitudes but " + latitudes.length + " latitudes");
+
+        double[] elevations = new double[longitudes.length];
+        fill(elevations, NaN);
+        int[] unresolved = new int[longitudes.length];
+        for (int i = 0; i < unresolved.length; i++)
+            unresolved[i] = i;
+
+        for (ElevationService service : sortByBestEffort(elevationServiceFacade.getElevationServices())) {
+            if (unresolved.length == 0)
+                break;
+
+            // ask the next service only for the positions that are still unresolved
+            double[] serviceLongitudes = new double[unresolved.length];
+            double[] serviceLatitudes = new double[unresolved.length];
+            for (int i = 0; i < unresolved.length; i++) {
+                serviceLongitudes[i] = longitudes[unresolved[i]];
+                serviceLatitudes[i] = latitudes[unresolved[i]];
+            }
+            double[] serviceElevations = elevationServiceFacade.getElevationsFor(service, serviceLongitudes, serviceLatitudes);
+
+            int stillUnresolved = 0;
+            for (int i = 0; i < unresolved.length; i++) {
+                if (isNaN(serviceElevations[i]))
+                    unresolved[stillUnresolved++] = unresolved[i];
+                else
+                    elevations[unresolved[i]] = serviceElevations[i];
+            }
+            log.fine("Used " + service.getName() + " to retrieve " + (unresolved.length - stillUnresolved) +
+                    " of " + unresolved.length + " elevations");
+            unresolved = copyOf(unresolved, stillUnresolved);
+        }
+        return elevations;
+    }
+
     private ElevationService[] sortByBestEffort(List<ElevationService> elevationServices) {
         List<ElevationService> toSort = new ArrayList<>(elevationServices);
         toSort.remove(this);
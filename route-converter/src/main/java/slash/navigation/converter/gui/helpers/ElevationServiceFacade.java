@@ -20,8 +20,10 @@
 
 package slash.navigation.converter.gui.helpers;
 
+import slash.common.helpers.ServiceLimiter;
 import slash.navigation.common.LongitudeAndLatitude;
 import slash.navigation.elevation.ElevationService;
+import slash.navigation.geonames.GeoNamesService;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -29,7 +31,13 @@ import java.util.List;
 import java.util.logging.Logger;
 import java.util.prefs.Preferences;
 
+import static java.lang.Double.isNaN;
+import static java.lang.Math.min;
 import static java.lang.String.format;
+import static java.lang.System.arraycopy;
+import static java.util.Arrays.copyOfRange;
+import static slash.navigation.converter.gui.helpers.ServiceLimiters.acquire;
+import static slash.navigation.converter.gui.helpers.ServiceLimiters.getElevationLimiter;
 import static slash.navigation.common.NavigationConversion.formatElevation;
 
 /**
@@ -42,6 +50,7 @@ public class ElevationServiceFacade {
     private static final Logger log = Logger.getLogger(ElevationServiceFacade.class.getName());
     private static final Preferences preferences = Preferences.userNodeForPackage(ElevationServiceFacade.class);
     private static final String ELEVATION_SERVICE = "elevationService-2.16";
+    private static final int REMOTE_BATCH_SIZE = 20;
 
     private final List<ElevationService> elevationServices = new ArrayList<>();
     private ElevationService preferredElevationService;
@@ -92,10 +101,61 @@ public class ElevationServiceFacade {
     }
 
     public Double getElevationFor(double longitude, double latitude) throws IOException {
-        Double elevation = getElevationService().getElevationFor(longitude, latitude);
+        Double elevation = getElevationFor(getElevationService(), longitude, latitude);
         return elevation != null ? formatElevation(elevation).doubleValue() : null;
     }
 
+    private boolean isLimitingRequests(ElevationService service) {
+        // the automatic service limits the requests to the services it chooses,
+        // GeoNames acquires a permit for each of the datasets it queries
+        return service instanceof AutomaticElevationService ||
+                service instanceof GeoNamesService && ((GeoNamesService) service).getLimiter() != null;
+    }
+
+    Double getElevationFor(ElevationService service, double longitude, double latitude) throws IOException {
+        if (isLimitingRequests(service))
+            return service.getElevationFor(longitude, latitude);
+
+        ServiceLimiter limiter = getElevationLimiter(service);
+        acquire(limiter);
+        try {
+            return service.getElevationFor(longitude, latitude);
+        } finally {
+            limiter.release();
+        }
+    }
+
+    public double[] getElevationsFor(double[] longitudes, double[] latitudes) throws IOException {
+        double[] elevations = getElevationsFor(getElevationService(), longitudes, latitudes);
+        for (int i = 0; i < elevations.length; i++) {
+            if (!isNaN(elevations[i]))
+                elevations[i] = formatElevation(elevations[i]).doubleValue();
+        }
+        return elevations;
+    }
+
+    double[] getElevationsFor(ElevationService service, double[] longitudes, double[] latitudes) throws IOException {
+        if (isLimitingRequests(service))
+            return service.getElevationsFor(longitudes, latitudes);
+
+        // a service with local files answers all positions with one permit, a remote
+        // service a few positions per permit to keep within its request rate
+        int batchSize = service.isDownload() ? longitudes.length : REMOTE_BATCH_SIZE;
+        double[] elevations = new double[longitudes.length];
+        ServiceLimiter limiter = getElevationLimiter(service);
+        for (int from = 0; from < longitudes.length; from += batchSize) {
+            int to = min(from + batchSize, longitudes.length);
+            acquire(limiter);
+            try {
+                double[] batch = service.getElevationsFor(copyOfRange(longitudes, from, to), copyOfRange(latitudes, from, to));
+                arraycopy(batch, 0, elevations, from, to - from);
+            } finally {
+                limiter.release();
+            }
+        }
+        return elevations;
+    }
+
     public boolean isDownload() {
         return getElevationService().isDownload();
     }
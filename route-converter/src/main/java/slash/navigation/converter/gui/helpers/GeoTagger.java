@@ -42,6 +42,7 @@ import java.io.File;
 import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.TimeZone;
 import java.util.concurrent.ExecutorService;
@@ -51,6 +52,7 @@ import java.util.prefs.Preferences;
 import static java.lang.Math.min;
 import static java.lang.String.format;
 import static java.lang.System.currentTimeMillis;
+import static java.util.Arrays.sort;
 import static java.util.Collections.singletonList;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static javax.swing.JOptionPane.ERROR_MESSAGE;
@@ -142,20 +144,14 @@ public class GeoTagger {
 
                 try {
                     final List<File> files = collectFiles(filesAndDirectories);
+                    final List<PhotoPosition> positions = new ArrayList<>();
 
                     final Exception[] lastException = new Exception[1];
                     lastException[0] = null;
 
                     for (File file : files) {
                         try {
-                            final PhotoPosition position = extractPhotoPosition(file);
-
-                            invokeLater(new Runnable() {
-                                public void run() {
-                                    photosModel.add(photosModel.getRowCount(), new ArrayList<BaseNavigationPosition>(singletonList(position)));
-                                    scrollToPosition(photosView, photosModel.getRowCount() - 1);
-                                }
-                            });
+                            positions.add(extractMetadata(file));
 
                             synchronized (notificationMutex) {
                                 if (cancelAction.isCanceled() || !running)
@@ -169,6 +165,17 @@ public class GeoTagger {
                                 RouteConverter.getBundle().getString("tagging-progress"), count[0]++, files.size()), cancelAction);
                     }
 
+                    if (!positions.isEmpty()) {
+                        tagPhotoPositions(positions);
+
+                        invokeLater(new Runnable() {
+                            public void run() {
+                                photosModel.add(photosModel.getRowCount(), new ArrayList<BaseNavigationPosition>(positions));
+                                scrollToPosition(photosView, photosModel.getRowCount() - 1);
+                            }
+                        });
+                    }
+
                     if (lastException[0] != null)
                         showMessageDialog(frame,
                                 MessageFormat.format(RouteConverter.getBundle().getString("add-photos-error"), getLocalizedMessage(lastException[0])),
@@ -186,24 +193,46 @@ public class GeoTagger {
         });
     }
 
-    private PhotoPosition extractPhotoPosition(File file) throws IOException {
-        PhotoPosition position = extractMetadata(file);
-
+    private void tagPhotoPositions(List<PhotoPosition> positions) {
         PositionsModel originalPositionsModel = RouteConverter.getInstance().getConvertPanel().getPositionsModel();
-        int index = getClosestPositionByCoordinates(position);
-        if (index != -1) {
-            position.setTagState(Tagged);
-            position.setClosestPositionForTagging(originalPositionsModel.getPosition(index));
 
-        } else {
-            index = getClosestPositionByTime(position);
+        List<PhotoPosition> untagged = new ArrayList<>();
+        for (PhotoPosition position : positions) {
+            int index = getClosestPositionByCoordinates(position);
             if (index != -1) {
-                position.setTagState(Taggable);
+                position.setTagState(Tagged);
                 position.setClosestPositionForTagging(originalPositionsModel.getPosition(index));
-            }
+            } else if (position.hasTime())
+                untagged.add(position);
+        }
+        if (untagged.isEmpty())
+            return;
+
+        // look up the photos in the order of their times to find all closest positions in one pass
+        final long[] times = new long[untagged.size()];
+        Integer[] order = new Integer[times.length];
+        for (int i = 0; i < times.length; i++) {
+            times[i] = getPhotoTime(untagged.get(i)).getTimeInMillis();
+            order[i] = i;
         }
+        sort(order, new Comparator<Integer>() {
+            public int compare(Integer i1, Integer i2) {
+                return Long.compare(times[i1], times[i2]);
+            }
+        });
+        long[] sortedTimes = new long[times.length];
+        for (int i = 0; i < order.length; i++)
+            sortedTimes[i] = times[order[i]];
 
-        return position;
+        long threshold = preferences.getLong(CLOSEST_POSITION_BY_TIME_THRESHOLD_PREFERENCE, 5 * 1000);
+        int[] indices = originalPositionsModel.getClosestPositions(sortedTimes, threshold);
+        for (int i = 0; i < indices.length; i++) {
+            if (indices[i] != -1) {
+                PhotoPosition position = untagged.get(order[i]);
+                position.setTagState(Taggable);
+                position.setClosestPositionForTagging(originalPositionsModel.getPosition(indices[i]));
+            }
+        }
     }
 
     private int getClosestPositionByCoordinates(NavigationPosition position) {
@@ -212,17 +241,12 @@ public class GeoTagger {
         return position.hasCoordinates() ? originalPositionsModel.getClosestPosition(position.getLongitude(), position.getLatitude(), threshold) : -1;
     }
 
-    private int getClosestPositionByTime(NavigationPosition position) {
-        if (!position.hasTime())
-            return -1;
-
+    private CompactCalendar getPhotoTime(NavigationPosition position) {
         RouteConverter r = RouteConverter.getInstance();
-        PositionsModel originalPositionsModel = r.getConvertPanel().getPositionsModel();
         CompactCalendar time = position.getTime();
         if (!time.getTimeZoneId().equals(r.getPhotoTimeZone()))
             time = time.asUTCTimeInTimeZone(TimeZone.getTimeZone(r.getPhotoTimeZone()));
-        long threshold = preferences.getLong(CLOSEST_POSITION_BY_TIME_THRESHOLD_PREFERENCE, 5 * 1000);
-        return originalPositionsModel.getClosestPosition(time, threshold);
+        return time;
     }
 
     private PhotoPosition extractMetadata(File file) throws IOException {
@@ -316,7 +340,7 @@ public class GeoTagger {
     }
 
 
-    private void updateMetaData(PhotoPosition position, NavigationPosition closestPositionForTagging) throws IOException {
+    private void updateMetaData(int photoIndex, PhotoPosition position, NavigationPosition closestPositionForTagging) throws IOException {
         File file = position.getOrigin(File.class);
 
         long start = currentTimeMillis();
@@ -326,6 +350,8 @@ public class GeoTagger {
             position.setElevation(closestPositionForTagging.getElevation());
             position.setSpeed(closestPositionForTagging.getSpeed());
             position.setWaypointType(Photo);
+            // announce the move at once since the table event follows later for a range of photos
+            photosModel.getRoute().invalidate(photoIndex, photoIndex);
 
             Wgs84Route route = new Wgs84Route(new PhotoFormat(), Waypoints, new ArrayList<Wgs84Position>(singletonList(position)));
             NavigationFormatParser parser = new NavigationFormatParser(new PhotoNavigationFormatRegistry());
@@ -369,7 +395,7 @@ public class GeoTagger {
                     if (closestPositionForTagging == null)
                         return false;
 
-                    updateMetaData(position, closestPositionForTagging);
+                    updateMetaData(index, position, closestPositionForTagging);
                     return true;
                 }
 
@@ -20,9 +20,8 @@
 
 package slash.navigation.converter.gui.helpers;
 
-import slash.common.type.CompactCalendar;
+import slash.navigation.base.BaseRoute;
 import slash.navigation.base.RouteCharacteristics;
-import slash.navigation.common.NavigationPosition;
 import slash.navigation.converter.gui.models.CharacteristicsModel;
 import slash.navigation.converter.gui.models.PositionsModel;
 
@@ -33,7 +32,6 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Logger;
 
-import static java.lang.Math.max;
 import static java.lang.System.currentTimeMillis;
 import static javax.swing.event.ListDataEvent.CONTENTS_CHANGED;
 import static javax.swing.event.TableModelEvent.ALL_COLUMNS;
@@ -42,13 +40,19 @@ import static slash.common.helpers.ThreadHelper.safeJoin;
 import static slash.navigation.base.RouteCharacteristics.Route;
 import static slash.navigation.base.RouteCharacteristics.Waypoints;
 import static slash.navigation.converter.gui.models.CharacteristicsModel.IGNORE;
+import static slash.navigation.converter.gui.models.PositionColumns.DATE_TIME_COLUMN_INDEX;
+import static slash.navigation.converter.gui.models.PositionColumns.DESCRIPTION_COLUMN_INDEX;
 import static slash.navigation.converter.gui.models.PositionColumns.LATITUDE_COLUMN_INDEX;
 import static slash.navigation.converter.gui.models.PositionColumns.LONGITUDE_COLUMN_INDEX;
+import static slash.navigation.converter.gui.models.PositionColumns.TIME_COLUMN_INDEX;
 import static slash.navigation.gui.helpers.JTableHelper.isFirstToLastRow;
 
 /**
  * Helps to calculate the length of position list of type route and track.
  *
+ * Takes the distance and time from the route which caches them from the start and
+ * calculates them again from the first position that a table event changed only.
+ *
  * @author Christian Pesch
  */
 
@@ -73,11 +77,15 @@ public class LengthCalculator {
 
         positionsModel.addTableModelListener(new TableModelListener() {
             public void tableChanged(TableModelEvent e) {
-                // ignored updates on columns not relevant for length calculation
+                // ignored updates on columns not relevant for length and time calculation,
+                // descriptions may contain times
                 if (e.getType() == UPDATE &&
                         !isFirstToLastRow(e) &&
                         !(e.getColumn() == LONGITUDE_COLUMN_INDEX ||
                                 e.getColumn() == LATITUDE_COLUMN_INDEX ||
+                                e.getColumn() == DATE_TIME_COLUMN_INDEX ||
+                                e.getColumn() == TIME_COLUMN_INDEX ||
+                                e.getColumn() == DESCRIPTION_COLUMN_INDEX ||
                                 e.getColumn() == ALL_COLUMNS))
                     return;
                 if (getPositionsModel().isContinousRange())
@@ -128,40 +136,11 @@ public class LengthCalculator {
     }
 
     private void recalculateDistance() {
-        fireCalculatedDistance(0, 0);
-
-        double distanceMeters = 0.0;
-        long totalTimeMilliSeconds = 0;
-        CompactCalendar minimumTime = null, maximumTime = null;
-        NavigationPosition previous = null;
-        for (int i = 0; i < positionsModel.getRowCount(); i++) {
-            NavigationPosition next = positionsModel.getPosition(i);
-            if (previous != null) {
-                Double distance = previous.calculateDistance(next);
-                if (distance != null)
-                    distanceMeters += distance;
-                Long time = previous.calculateTime(next);
-                if (time != null && time > 0)
-                    totalTimeMilliSeconds += time;
-            }
-
-            CompactCalendar time = next.getTime();
-            if (time != null) {
-                if (minimumTime == null || time.before(minimumTime))
-                    minimumTime = time;
-                if (maximumTime == null || time.after(maximumTime))
-                    maximumTime = time;
-            }
-
-            if (i > 0 && i % 100 == 0)
-                fireCalculatedDistance(distanceMeters, totalTimeMilliSeconds > 0 ? totalTimeMilliSeconds / 1000 : 0);
-
-            previous = next;
-        }
-
-        long summedUp = totalTimeMilliSeconds > 0 ? totalTimeMilliSeconds / 1000 : 0;
-        long maxMinusMin = minimumTime != null ? (maximumTime.getTimeInMillis() - minimumTime.getTimeInMillis()) / 1000 : 0;
-        fireCalculatedDistance(distanceMeters, max(maxMinusMin, summedUp));
+        BaseRoute route = positionsModel.getRoute();
+        if (route == null)
+            return;
+        // the route caches the distances and times up to the first position that changed
+        fireCalculatedDistance(route.getDistance(), route.getTime() / 1000);
     }
 
     private void initialize() {
@@ -181,7 +160,16 @@ public class LengthCalculator {
                             continue;
                         recalculate = false;
                     }
-                    recalculateDistance();
+
+                    try {
+                        recalculateDistance();
+                    } catch (IndexOutOfBoundsException e) {
+                        // the positions have been changed while calculating
+                        log.fine("Positions changed while calculating length: " + e);
+                        synchronized (notificationMutex) {
+                            recalculate = true;
+                        }
+                    }
                 }
             }
         }, "LengthCalculator");
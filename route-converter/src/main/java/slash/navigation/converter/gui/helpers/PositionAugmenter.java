@@ -19,7 +19,9 @@
 */
 package slash.navigation.converter.gui.helpers;
 
+import slash.common.helpers.ServiceLimiter;
 import slash.common.type.CompactCalendar;
+import slash.navigation.base.Wgs84Position;
 import slash.navigation.common.LongitudeAndLatitude;
 import slash.navigation.common.NavigationPosition;
 import slash.navigation.common.NumberPattern;
@@ -30,8 +32,6 @@ import slash.navigation.converter.gui.models.PositionsModel;
 import slash.navigation.geonames.GeoNamesService;
 import slash.navigation.googlemaps.GoogleMapsService;
 import slash.navigation.gui.Application;
-import slash.navigation.gui.events.ContinousRange;
-import slash.navigation.gui.events.RangeOperation;
 import slash.navigation.gui.notifications.NotificationManager;
 
 import javax.swing.*;
@@ -40,13 +40,21 @@ import java.io.IOException;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.logging.Logger;
 
-import static java.lang.Math.min;
+import static java.lang.Double.isNaN;
 import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
 import static java.util.Arrays.asList;
+import static java.util.Arrays.sort;
+import static java.util.concurrent.Executors.newCachedThreadPool;
 import static java.util.concurrent.Executors.newSingleThreadExecutor;
 import static javax.swing.JOptionPane.ERROR_MESSAGE;
 import static javax.swing.JOptionPane.showMessageDialog;
@@ -59,6 +67,9 @@ import static slash.navigation.base.RouteCalculations.interpolateTime;
 import static slash.navigation.base.RouteComments.formatNumberedPosition;
 import static slash.navigation.base.RouteComments.getNumberedPosition;
 import static slash.navigation.common.NumberingStrategy.Absolute_Position_Within_Position_List;
+import static slash.navigation.converter.gui.helpers.ServiceLimiters.getGeoNamesLimiter;
+import static slash.navigation.converter.gui.helpers.ServiceLimiters.getGoogleMapsLimiter;
+import static slash.navigation.converter.gui.helpers.ServiceLimiters.getWorkerLimiter;
 import static slash.navigation.converter.gui.models.PositionColumns.DATE_TIME_COLUMN_INDEX;
 import static slash.navigation.converter.gui.models.PositionColumns.DESCRIPTION_COLUMN_INDEX;
 import static slash.navigation.converter.gui.models.PositionColumns.ELEVATION_COLUMN_INDEX;
@@ -71,19 +82,27 @@ import static slash.navigation.gui.helpers.JTableHelper.scrollToPosition;
  * Helps to augment a positions with coordinates, elevation, position number for its description,
  * postal address, populated place and speed information.
  *
+ * Positions that require a service are dispatched to a pool of workers whose number of
+ * concurrent requests and request rate is limited per service. The results are applied
+ * to the {@link PositionsModel} in batches at a fixed frame rate.
+ *
  * @author Christian Pesch
  */
 
 public class PositionAugmenter {
     private static final Logger log = Logger.getLogger(PositionAugmenter.class.getName());
+    private static final int FRAMES_PER_SECOND = 10;
+    private static final long FRAME_MILLIS = 1000 / FRAMES_PER_SECOND;
+    private static final int ELEVATION_BATCH_SIZE = 100;
 
     private final JFrame frame;
     private final JTable positionsView;
     private final PositionsModel positionsModel;
 
     private final ExecutorService executor = newSingleThreadExecutor();
+    private final ExecutorService workers = newCachedThreadPool();
     private final ElevationServiceFacade elevationServiceFacade = RouteConverter.getInstance().getElevationServiceFacade();
-    private final GeoNamesService geonamesService = new GeoNamesService();
+    private final GeoNamesService geonamesService = new GeoNamesService(getGeoNamesLimiter());
     private final GoogleMapsService googleMapsService = new GoogleMapsService();
     private static final Object notificationMutex = new Object();
     private boolean running = true;
@@ -103,8 +122,11 @@ public class PositionAugmenter {
     public void dispose() {
         interrupt();
         executor.shutdownNow();
+        workers.shutdownNow();
     }
 
+    private static final List<ServiceLimiter> NO_SERVICE = Collections.emptyList();
+
     private interface OverwritePredicate {
         boolean shouldOverwrite(NavigationPosition position);
     }
@@ -124,11 +146,20 @@ public class PositionAugmenter {
     private interface Operation {
         String getName();
         int getColumnIndex();
+        List<ServiceLimiter> getServiceLimiters();
         void performOnStart();
-        boolean run(int index, NavigationPosition position) throws Exception;
+        PositionColumnValues run(int index, NavigationPosition position) throws Exception;
         String getErrorMessage();
     }
 
+    /**
+     * An {@link Operation} that looks up the values for many positions with one call.
+     */
+    private interface BatchOperation extends Operation {
+        int getBatchSize();
+        PositionColumnValues[] run(int[] indices, NavigationPosition[] positions) throws Exception;
+    }
+
     private NotificationManager getNotificationManager() {
         return Application.getInstance().getContext().getNotificationManager();
     }
@@ -145,10 +176,181 @@ public class PositionAugmenter {
         }
     }
 
+    private boolean isInterrupted(CancelAction cancelAction) {
+        synchronized (notificationMutex) {
+            return cancelAction.isCanceled() || !running;
+        }
+    }
+
+    private static void acquire(List<ServiceLimiter> limiters) throws InterruptedException {
+        for (int i = 0; i < limiters.size(); i++) {
+            try {
+                limiters.get(i).acquire();
+            } catch (InterruptedException e) {
+                release(limiters.subList(0, i));
+                throw e;
+            }
+        }
+    }
+
+    private static void release(List<ServiceLimiter> limiters) {
+        for (ServiceLimiter limiter : limiters)
+            limiter.release();
+    }
+
+    /**
+     * Collects the results of an {@link Operation} from the workers and applies them
+     * to the {@link PositionsModel} in the AWT event queue at most {@link #FRAMES_PER_SECOND}
+     * times per second together with a progress notification.
+     */
+    private class ResultCoalescer {
+        private final JTable positionsTable;
+        private final PositionsModel positionsModel;
+        private final int columnIndex;
+        private final boolean trackUndo;
+        private final int rowCount;
+        private final CancelAction cancelAction;
+        private TreeMap<Integer, PositionColumnValues> results = new TreeMap<>();
+        private int completed = 0, inFlight = 0;
+        private long lastFlush = 0;
+        private Exception lastException = null;
+
+        private ResultCoalescer(JTable positionsTable, PositionsModel positionsModel, int columnIndex,
+                                boolean trackUndo, int rowCount, CancelAction cancelAction) {
+            this.positionsTable = positionsTable;
+            this.positionsModel = positionsModel;
+            this.columnIndex = columnIndex;
+            this.trackUndo = trackUndo;
+            this.rowCount = rowCount;
+            this.cancelAction = cancelAction;
+        }
+
+        public synchronized void begin(int count) {
+            inFlight += count;
+        }
+
+        public void complete(int[] indices, PositionColumnValues[] values) {
+            synchronized (this) {
+                for (int i = 0; i < indices.length; i++) {
+                    if (values != null && values[i] != null)
+                        results.put(indices[i], values[i]);
+                }
+                completed += indices.length;
+                inFlight -= indices.length;
+                notifyAll();
+                if (currentTimeMillis() - lastFlush < FRAME_MILLIS)
+                    return;
+            }
+            flush();
+        }
+
+        public synchronized void failed(Exception exception) {
+            this.lastException = exception;
+        }
+
+        public synchronized Exception getLastException() {
+            return lastException;
+        }
+
+        public synchronized int getCompleted() {
+            return completed;
+        }
+
+        public synchronized void awaitCompletion() throws InterruptedException {
+            while (inFlight > 0)
+                wait();
+        }
+
+        public void flush() {
+            final TreeMap<Integer, PositionColumnValues> flushed;
+            int count;
+            synchronized (this) {
+                lastFlush = currentTimeMillis();
+                count = completed;
+                flushed = results;
+                results = new TreeMap<>();
+            }
+
+            getNotificationManager().showNotification(MessageFormat.format(
+                    RouteConverter.getBundle().getString("augmenting-progress"), count, rowCount), cancelAction);
+            if (flushed.isEmpty())
+                return;
+
+            invokeLater(new Runnable() {
+                public void run() {
+                    for (Map.Entry<Integer, PositionColumnValues> entry : flushed.entrySet())
+                        positionsModel.edit(entry.getKey(), entry.getValue(), false, trackUndo);
+
+                    int lastIndex = flushed.lastKey();
+                    positionsModel.fireTableRowsUpdated(flushed.firstKey(), lastIndex, columnIndex);
+                    if (positionsTable != null)
+                        scrollToPosition(positionsTable, lastIndex);
+                }
+            });
+        }
+    }
+
+    private PositionColumnValues[] runOperation(Operation operation, int[] indices, NavigationPosition[] positions,
+                                                ResultCoalescer coalescer) {
+        try {
+            if (operation instanceof BatchOperation)
+                return ((BatchOperation) operation).run(indices, positions);
+            return new PositionColumnValues[]{operation.run(indices[0], positions[0])};
+        } catch (Exception e) {
+            log.warning(format("Error while running operation %s on positions %d to %d: %s", operation.getName(),
+                    indices[0], indices[indices.length - 1], e));
+            coalescer.failed(e);
+            return null;
+        }
+    }
+
+    /**
+     * @return false if the workers do not accept the positions anymore
+     */
+    private boolean dispatch(final Operation operation, final int[] indices, final NavigationPosition[] positions,
+                             final List<ServiceLimiter> limiters, final ResultCoalescer coalescer,
+                             final CancelAction cancelAction) throws InterruptedException {
+        if (limiters.isEmpty()) {
+            coalescer.begin(indices.length);
+            coalescer.complete(indices, runOperation(operation, indices, positions, coalescer));
+            return true;
+        }
+
+        // blocks until the services accept another request
+        acquire(limiters);
+        coalescer.begin(indices.length);
+        try {
+            workers.execute(new Runnable() {
+                public void run() {
+                    PositionColumnValues[] values = null;
+                    try {
+                        if (!isInterrupted(cancelAction))
+                            values = runOperation(operation, indices, positions, coalescer);
+                    } finally {
+                        release(limiters);
+                        coalescer.complete(indices, values);
+                    }
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            release(limiters);
+            coalescer.complete(indices, null);
+            return false;
+        }
+    }
+
+    private static int[] toIntArray(List<Integer> list) {
+        int[] result = new int[list.size()];
+        for (int i = 0; i < result.length; i++)
+            result[i] = list.get(i);
+        return result;
+    }
+
     private void executeOperation(final JTable positionsTable,
                                   final PositionsModel positionsModel,
                                   final int[] rows,
-                                  final boolean slowOperation,
+                                  final boolean trackUndo,
                                   final OverwritePredicate predicate,
                                   final Operation operation) {
         synchronized (notificationMutex) {
@@ -158,10 +360,11 @@ public class PositionAugmenter {
         final CancelAction cancelAction = new CancelAction();
         executor.execute(new Runnable() {
             public void run() {
-                final int[] count = new int[1];
-                count[0] = 1;
+                final ResultCoalescer coalescer = new ResultCoalescer(positionsTable, positionsModel,
+                        operation.getColumnIndex(), trackUndo, rows.length, cancelAction);
 
                 try {
+                    sort(rows);
                     invokeLater(new Runnable() {
                         public void run() {
                             if (positionsTable != null && rows.length > 0)
@@ -170,54 +373,54 @@ public class PositionAugmenter {
                     });
                     operation.performOnStart();
 
-                    final Exception[] lastException = new Exception[1];
-                    lastException[0] = null;
-                    final int maximumRangeLength = rows.length > 99 ? rows.length / (slowOperation ? 100 : 10) : rows.length;
-
-                    new ContinousRange(rows, new RangeOperation() {
-                        public void performOnIndex(final int index) {
-                            NavigationPosition position = positionsModel.getPosition(index);
-                            if (predicate.shouldOverwrite(position)) {
-                                try {
-                                    // ignoring the result since the performance boost of the continous
-                                    // range operations outweights the possible optimization
-                                    operation.run(index, position);
-                                } catch (Exception e) {
-                                    log.warning(format("Error while running operation %s on position %d: %s", operation, index, e));
-                                    lastException[0] = e;
-                                }
-                            }
-                            getNotificationManager().showNotification(MessageFormat.format(
-                                    RouteConverter.getBundle().getString("augmenting-progress"), count[0]++, rows.length), cancelAction);
+                    List<ServiceLimiter> limiters = operation.getServiceLimiters();
+                    int batchSize = operation instanceof BatchOperation ? ((BatchOperation) operation).getBatchSize() : 1;
+                    List<Integer> indices = new ArrayList<>(batchSize);
+                    List<NavigationPosition> positions = new ArrayList<>(batchSize);
+                    boolean accepted = true;
+                    for (int index : rows) {
+                        if (isInterrupted(cancelAction))
+                            break;
+
+                        NavigationPosition position = positionsModel.getPosition(index);
+                        if (!predicate.shouldOverwrite(position)) {
+                            coalescer.begin(1);
+                            coalescer.complete(new int[]{index}, null);
+                            continue;
                         }
 
-                        public void performOnRange(final int firstIndex, final int lastIndex) {
-                            invokeLater(new Runnable() {
-                                public void run() {
-                                    positionsModel.fireTableRowsUpdated(firstIndex, lastIndex, operation.getColumnIndex());
-                                    if (positionsTable != null) {
-                                        scrollToPosition(positionsTable, min(lastIndex + maximumRangeLength, positionsModel.getRowCount() - 1));
-                                    }
-                                }
-                            });
-                        }
+                        indices.add(index);
+                        positions.add(position);
+                        if (indices.size() < batchSize)
+                            continue;
 
-                        public boolean isInterrupted() {
-                            synchronized (notificationMutex) {
-                                return cancelAction.isCanceled() || !running;
-                            }
-                        }
-                    }).performMonotonicallyIncreasing(maximumRangeLength);
+                        accepted = dispatch(operation, toIntArray(indices),
+                                positions.toArray(new NavigationPosition[positions.size()]), limiters, coalescer, cancelAction);
+                        indices.clear();
+                        positions.clear();
+                        if (!accepted)
+                            break;
+                    }
+                    if (accepted && indices.size() > 0 && !isInterrupted(cancelAction))
+                        dispatch(operation, toIntArray(indices),
+                                positions.toArray(new NavigationPosition[positions.size()]), limiters, coalescer, cancelAction);
+
+                    coalescer.awaitCompletion();
+                    coalescer.flush();
 
-                    if (lastException[0] != null)
+                    Exception lastException = coalescer.getLastException();
+                    if (lastException != null)
                         showMessageDialog(frame,
-                                MessageFormat.format(operation.getErrorMessage(), getLocalizedMessage(lastException[0])),
+                                MessageFormat.format(operation.getErrorMessage(), getLocalizedMessage(lastException)),
                                 frame.getTitle(), ERROR_MESSAGE);
+                } catch (InterruptedException e) {
+                    log.info(format("Interrupted operation %s", operation.getName()));
                 } finally {
+                    final int count = coalescer.getCompleted();
                     invokeLater(new Runnable() {
                         public void run() {
                             getNotificationManager().showNotification(MessageFormat.format(
-                                    RouteConverter.getBundle().getString("augmenting-finished"), count[0]), null);
+                                    RouteConverter.getBundle().getString("augmenting-finished"), count), null);
                         }
                     });
                 }
@@ -239,16 +442,18 @@ public class PositionAugmenter {
                         return ALL_COLUMNS; // LONGITUDE_COLUMN_INDEX + LATITUDE_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        return asList(getGoogleMapsLimiter());
+                    }
+
                     public void performOnStart() {
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
                         NavigationPosition coordinates = googleMapsService.getPositionFor(position.getDescription());
-                        if (coordinates != null)
-                            positionsModel.edit(index,
-                                    new PositionColumnValues(asList(LONGITUDE_COLUMN_INDEX, LATITUDE_COLUMN_INDEX),
-                                            Arrays.<Object>asList(coordinates.getLongitude(), coordinates.getLatitude())), false, true);
-                        return coordinates != null;
+                        return coordinates != null ?
+                                new PositionColumnValues(asList(LONGITUDE_COLUMN_INDEX, LATITUDE_COLUMN_INDEX),
+                                        Arrays.<Object>asList(coordinates.getLongitude(), coordinates.getLatitude())) : null;
                     }
 
                     public String getErrorMessage() {
@@ -270,26 +475,50 @@ public class PositionAugmenter {
                                    final int[] rows,
                                    final OverwritePredicate predicate) {
         executeOperation(positionsTable, positionsModel, rows, true, predicate,
-                new Operation() {
+                new BatchOperation() {
                     public String getName() {
                         return "ElevationPositionAugmenter";
                     }
 
+                    public int getBatchSize() {
+                        return ELEVATION_BATCH_SIZE;
+                    }
+
                     public int getColumnIndex() {
                         return ELEVATION_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        // ElevationServiceFacade limits the requests to the service that answers them
+                        return asList(getWorkerLimiter(getName()));
+                    }
+
                     public void performOnStart() {
                         downloadElevationData(rows, true);
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
-                        Double previousElevation = position.getElevation();
-                        Double nextElevation = elevationServiceFacade.getElevationFor(position.getLongitude(), position.getLatitude());
-                        boolean changed = nextElevation != null && !nextElevation.equals(previousElevation);
-                        if (changed)
-                            positionsModel.edit(index, new PositionColumnValues(ELEVATION_COLUMN_INDEX, nextElevation), false, true);
-                        return changed;
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
+                        return run(new int[]{index}, new NavigationPosition[]{position})[0];
+                    }
+
+                    public PositionColumnValues[] run(int[] indices, NavigationPosition[] positions) throws Exception {
+                        double[] longitudes = new double[positions.length];
+                        double[] latitudes = new double[positions.length];
+                        for (int i = 0; i < positions.length; i++) {
+                            longitudes[i] = positions[i].getLongitude();
+                            latitudes[i] = positions[i].getLatitude();
+                        }
+                        double[] elevations = elevationServiceFacade.getElevationsFor(longitudes, latitudes);
+
+                        PositionColumnValues[] result = new PositionColumnValues[positions.length];
+                        for (int i = 0; i < positions.length; i++) {
+                            Double previousElevation = positions[i].getElevation();
+                            Double nextElevation = isNaN(elevations[i]) ? null : elevations[i];
+                            boolean changed = nextElevation != null && !nextElevation.equals(previousElevation);
+                            if (changed)
+                                result[i] = new PositionColumnValues(ELEVATION_COLUMN_INDEX, nextElevation);
+                        }
+                        return result;
                     }
 
                     public String getErrorMessage() {
@@ -324,7 +553,7 @@ public class PositionAugmenter {
                                     final OverwritePredicate predicate) {
         executeOperation(positionsTable, positionsModel, rows, true, predicate,
                 new Operation() {
-                    private GeoNamesService geonamesService = new GeoNamesService();
+                    private GeoNamesService geonamesService = new GeoNamesService(getGeoNamesLimiter());
 
                     public String getName() {
                         return "PopulatedPlacePositionAugmenter";
@@ -334,14 +563,17 @@ public class PositionAugmenter {
                         return DESCRIPTION_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        // the service acquires a permit for each request
+                        return asList(getWorkerLimiter(getName()));
+                    }
+
                     public void performOnStart() {
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
                         String description = geonamesService.getNearByFor(position.getLongitude(), position.getLatitude());
-                        if (description != null)
-                            positionsModel.edit(index, new PositionColumnValues(DESCRIPTION_COLUMN_INDEX, description), false, true);
-                        return description != null;
+                        return description != null ? new PositionColumnValues(DESCRIPTION_COLUMN_INDEX, description) : null;
                     }
 
                     public String getErrorMessage() {
@@ -372,14 +604,16 @@ public class PositionAugmenter {
                         return DESCRIPTION_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        return asList(getGoogleMapsLimiter());
+                    }
+
                     public void performOnStart() {
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
                         String description = googleMapsService.getLocationFor(position.getLongitude(), position.getLatitude());
-                        if (description != null)
-                            positionsModel.edit(index, new PositionColumnValues(DESCRIPTION_COLUMN_INDEX, description), false, true);
-                        return description != null;
+                        return description != null ? new PositionColumnValues(DESCRIPTION_COLUMN_INDEX, description) : null;
                     }
 
                     public String getErrorMessage() {
@@ -400,7 +634,7 @@ public class PositionAugmenter {
                                final PositionsModel positionsModel,
                                final int[] rows,
                                final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, false, predicate,
+        executeOperation(positionsTable, positionsModel, rows, true, predicate,
                 new Operation() {
                     public String getName() {
                         return "SpeedPositionAugmenter";
@@ -410,20 +644,22 @@ public class PositionAugmenter {
                         return SPEED_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        return NO_SERVICE;
+                    }
+
                     public void performOnStart() {
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
                         NavigationPosition predecessor = index > 0 && index < positionsModel.getRowCount() ? positionsModel.getPosition(index - 1) : null;
                         if (predecessor != null) {
                             Double previousSpeed = position.getSpeed();
                             Double nextSpeed = position.calculateSpeed(predecessor);
                             boolean changed = nextSpeed != null && !nextSpeed.equals(previousSpeed);
-                            if (changed)
-                                positionsModel.edit(index, new PositionColumnValues(SPEED_COLUMN_INDEX, nextSpeed), false, true);
-                            return changed;
+                            return changed ? new PositionColumnValues(SPEED_COLUMN_INDEX, nextSpeed) : null;
                         }
-                        return false;
+                        return null;
                     }
 
                     public String getErrorMessage() {
@@ -439,9 +675,14 @@ public class PositionAugmenter {
             processSpeeds(positionsView, positionsModel, rows, COORDINATE_PREDICATE);
     }
 
-    private NavigationPosition findPredecessorWithTime(PositionsModel positionsModel, int index) {
+    private NavigationPosition findPredecessorWithTime(PositionsModel positionsModel, int index,
+                                                       Map<Integer, CompactCalendar> interpolatedTimes) {
         while (index-- > 0) {
             NavigationPosition position = positionsModel.getPosition(index);
+            CompactCalendar interpolatedTime = interpolatedTimes.get(index);
+            if (interpolatedTime != null)
+                return new Wgs84Position(position.getLongitude(), position.getLatitude(), position.getElevation(),
+                        position.getSpeed(), interpolatedTime, position.getDescription());
             if (position.hasTime())
                 return position;
         }
@@ -457,12 +698,35 @@ public class PositionAugmenter {
         return null;
     }
 
+    private Map<Integer, CompactCalendar> interpolateTimes(PositionsModel positionsModel, int[] rows,
+                                                           OverwritePredicate predicate) {
+        // interpolated in ascending order before the results are applied since
+        // an interpolated position is the predecessor of the next position
+        Map<Integer, CompactCalendar> interpolatedTimes = new HashMap<>();
+        for (int index : rows) {
+            NavigationPosition position = positionsModel.getPosition(index);
+            if (!predicate.shouldOverwrite(position))
+                continue;
+
+            NavigationPosition predecessor = findPredecessorWithTime(positionsModel, index, interpolatedTimes);
+            NavigationPosition successor = findSuccessorWithTime(positionsModel, index);
+            if (predecessor != null && successor != null) {
+                CompactCalendar time = interpolateTime(position, predecessor, successor);
+                if (time != null)
+                    interpolatedTimes.put(index, time);
+            }
+        }
+        return interpolatedTimes;
+    }
+
     private void processTimes(final JTable positionsTable,
                               final PositionsModel positionsModel,
                               final int[] rows,
                               final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, false, predicate,
+        executeOperation(positionsTable, positionsModel, rows, true, predicate,
                 new Operation() {
+                    private Map<Integer, CompactCalendar> interpolatedTimes;
+
                     public String getName() {
                         return "TimePositionAugmenter";
                     }
@@ -471,21 +735,19 @@ public class PositionAugmenter {
                         return DATE_TIME_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        return NO_SERVICE;
+                    }
+
                     public void performOnStart() {
+                        interpolatedTimes = interpolateTimes(positionsModel, rows, predicate);
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
-                        NavigationPosition predecessor = findPredecessorWithTime(positionsModel, index);
-                        NavigationPosition successor = findSuccessorWithTime(positionsModel, index);
-                        if (predecessor != null && successor != null) {
-                            CompactCalendar previousTime = position.getTime();
-                            CompactCalendar nextTime = interpolateTime(position, predecessor, successor);
-                            boolean changed = nextTime != null && !nextTime.equals(previousTime);
-                            if (changed)
-                                positionsModel.edit(index, new PositionColumnValues(DATE_TIME_COLUMN_INDEX, nextTime), false, true);
-                            return changed;
-                        }
-                        return false;
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
+                        CompactCalendar previousTime = position.getTime();
+                        CompactCalendar nextTime = interpolatedTimes.get(index);
+                        boolean changed = nextTime != null && !nextTime.equals(previousTime);
+                        return changed ? new PositionColumnValues(DATE_TIME_COLUMN_INDEX, nextTime) : null;
                     }
 
                     public String getErrorMessage() {
@@ -516,7 +778,7 @@ public class PositionAugmenter {
                                 final NumberPattern numberPattern,
                                 final NumberingStrategy numberingStrategy,
                                 final OverwritePredicate predicate) {
-        executeOperation(positionsTable, positionsModel, rows, false, predicate,
+        executeOperation(positionsTable, positionsModel, rows, true, predicate,
                 new Operation() {
                     public String getName() {
                         return "NumberPositionAugmenter";
@@ -526,17 +788,19 @@ public class PositionAugmenter {
                         return DESCRIPTION_COLUMN_INDEX;
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        return NO_SERVICE;
+                    }
+
                     public void performOnStart() {
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
                         String previousDescription = position.getDescription();
                         int number = numberingStrategy.equals(Absolute_Position_Within_Position_List) ? index : findRelativeIndex(rows, index);
                         String nextDescription = getNumberedPosition(position, number, digitCount, numberPattern);
                         boolean changed = nextDescription != null && !nextDescription.equals(previousDescription);
-                        if (changed)
-                            positionsModel.edit(index, new PositionColumnValues(DESCRIPTION_COLUMN_INDEX, nextDescription), false, true);
-                        return changed;
+                        return changed ? new PositionColumnValues(DESCRIPTION_COLUMN_INDEX, nextDescription) : null;
                     }
 
                     public String getErrorMessage() {
@@ -567,8 +831,10 @@ public class PositionAugmenter {
                          final boolean complementElevation,
                          final boolean waitForDownload,
                          final boolean trackUndo) {
-        executeOperation(positionsTable, positionsModel, rows, true, predicate,
+        executeOperation(positionsTable, positionsModel, rows, trackUndo, predicate,
                 new Operation() {
+                    private Map<Integer, CompactCalendar> interpolatedTimes;
+
                     public String getName() {
                         return "DataPositionAugmenter";
                     }
@@ -577,11 +843,21 @@ public class PositionAugmenter {
                         return ALL_COLUMNS; // might be DESCRIPTION_COLUMN_INDEX, ELEVATION_COLUMN_INDEX, DATE_TIME_COLUMN_INDEX
                     }
 
+                    public List<ServiceLimiter> getServiceLimiters() {
+                        // the requests are limited when the services are called since the elevation
+                        // service might be the same as one for the description
+                        boolean description = complementDescription && waitForDownload;
+                        boolean elevation = complementElevation && (waitForDownload || elevationServiceFacade.isDownload());
+                        return description || elevation ? asList(getWorkerLimiter(getName())) : NO_SERVICE;
+                    }
+
                     public void performOnStart() {
                         downloadElevationData(rows, waitForDownload);
+                        if (complementTime)
+                            interpolatedTimes = interpolateTimes(positionsModel, rows, predicate);
                     }
 
-                    public boolean run(int index, NavigationPosition position) throws Exception {
+                    public PositionColumnValues run(int index, NavigationPosition position) throws Exception {
                         List<Integer> columnIndices = new ArrayList<>(3);
                         List<Object> columnValues = new ArrayList<>(3);
 
@@ -609,23 +885,16 @@ public class PositionAugmenter {
                         }
 
                         if (complementTime) {
-                            NavigationPosition predecessor = findPredecessorWithTime(positionsModel, index);
-                            NavigationPosition successor = findSuccessorWithTime(positionsModel, index);
-                            if (predecessor != null && successor != null) {
-                                CompactCalendar previousTime = position.getTime();
-                                CompactCalendar nextTime = interpolateTime(position, predecessor, successor);
-                                boolean changed = nextTime != null && !nextTime.equals(previousTime);
-                                if (changed) {
-                                    columnIndices.add(DATE_TIME_COLUMN_INDEX);
-                                    columnValues.add(nextTime);
-                                }
+                            CompactCalendar previousTime = position.getTime();
+                            CompactCalendar nextTime = interpolatedTimes.get(index);
+                            boolean changed = nextTime != null && !nextTime.equals(previousTime);
+                            if (changed) {
+                                columnIndices.add(DATE_TIME_COLUMN_INDEX);
+                                columnValues.add(nextTime);
                             }
                         }
 
-                        positionsModel.edit(index, new PositionColumnValues(columnIndices, columnValues), false, trackUndo);
-                        return complementDescription && columnIndices.contains(DESCRIPTION_COLUMN_INDEX) &&
-                                complementElevation && columnIndices.contains(ELEVATION_COLUMN_INDEX) &&
-                                complementTime && columnIndices.contains(DATE_TIME_COLUMN_INDEX);
+                        return columnIndices.size() > 0 ? new PositionColumnValues(columnIndices, columnValues) : null;
                     }
 
                     public String getErrorMessage() {
@@ -650,8 +919,14 @@ public class PositionAugmenter {
     }
 
     private String getLocationFor(NavigationPosition position) {
+        ServiceLimiter limiter = getGoogleMapsLimiter();
         try {
-            return googleMapsService.getLocationFor(position.getLongitude(), position.getLatitude());
+            ServiceLimiters.acquire(limiter);
+            try {
+                return googleMapsService.getLocationFor(position.getLongitude(), position.getLatitude());
+            } finally {
+                limiter.release();
+            }
         } catch (IOException e) {
             return null;
         }
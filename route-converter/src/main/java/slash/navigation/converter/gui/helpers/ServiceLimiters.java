@@ -0,0 +1,108 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+package slash.navigation.converter.gui.helpers;
+
+import slash.common.helpers.ServiceLimiter;
+import slash.navigation.elevation.ElevationService;
+import slash.navigation.geonames.GeoNamesService;
+import slash.navigation.googlemaps.GoogleMapsService;
+
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.prefs.Preferences;
+
+import static java.lang.Runtime.getRuntime;
+import static java.lang.String.format;
+
+/**
+ * Provides the {@link ServiceLimiter}s that are shared by all requests to a service.
+ *
+ * @author Christian Pesch
+ */
+
+public class ServiceLimiters {
+    private static final Logger log = Logger.getLogger(ServiceLimiters.class.getName());
+    private static final Preferences preferences = Preferences.userNodeForPackage(ServiceLimiters.class);
+    private static final String MAXIMUM_CONCURRENCY_PREFERENCE = "maximumConcurrency-";
+    private static final String MAXIMUM_REQUESTS_PER_SECOND_PREFERENCE = "maximumRequestsPerSecond-";
+    private static final String GEONAMES = "GeoNames";
+    private static final String GOOGLE_MAPS = "Google Maps";
+    private static final Map<String, ServiceLimiter> serviceLimiters = new HashMap<>();
+
+    private ServiceLimiters() {
+    }
+
+    private static synchronized ServiceLimiter getServiceLimiter(String serviceName, int defaultMaximumConcurrency,
+                                                                 double defaultMaximumRequestsPerSecond) {
+        ServiceLimiter limiter = serviceLimiters.get(serviceName);
+        if (limiter == null) {
+            int maximumConcurrency = preferences.getInt(MAXIMUM_CONCURRENCY_PREFERENCE + serviceName, defaultMaximumConcurrency);
+            double maximumRequestsPerSecond = preferences.getDouble(MAXIMUM_REQUESTS_PER_SECOND_PREFERENCE + serviceName, defaultMaximumRequestsPerSecond);
+            limiter = new ServiceLimiter(serviceName, maximumConcurrency > 0 ? maximumConcurrency : 1, maximumRequestsPerSecond);
+            serviceLimiters.put(serviceName, limiter);
+            log.info(format("Created %s", limiter));
+        }
+        return limiter;
+    }
+
+    public static ServiceLimiter getGeoNamesLimiter() {
+        return getServiceLimiter(GEONAMES, 2, 2.0);
+    }
+
+    public static ServiceLimiter getGoogleMapsLimiter() {
+        return getServiceLimiter(GOOGLE_MAPS, 4, 10.0);
+    }
+
+    /**
+     * @param service the elevation service that answers the requests
+     * @return the limiter of the service, the same as for the other requests to GeoNames and Google Maps
+     */
+    public static ServiceLimiter getElevationLimiter(ElevationService service) {
+        if (service instanceof GeoNamesService)
+            return getGeoNamesLimiter();
+        if (service instanceof GoogleMapsService)
+            return getGoogleMapsLimiter();
+        // elevation services that download their data answer from local files
+        boolean local = service.isDownload();
+        return getServiceLimiter(service.getName(), local ? getRuntime().availableProcessors() : 2, local ? 0.0 : 2.0);
+    }
+
+    /**
+     * Bounds the number of workers of an operation whose requests are limited per service
+     * when the service is actually called.
+     *
+     * @param operationName the name of the operation
+     * @return a limiter with one permit per processor and no rate limit
+     */
+    public static ServiceLimiter getWorkerLimiter(String operationName) {
+        return getServiceLimiter(operationName, getRuntime().availableProcessors(), 0.0);
+    }
+
+    public static void acquire(ServiceLimiter limiter) throws InterruptedIOException {
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for " + limiter.getName());
+        }
+    }
+}
@@ -146,6 +146,10 @@ public class FilteringPositionsModel extends AbstractTableModel implements Posit
         throw new UnsupportedOperationException();
     }
 
+    public int[] getClosestPositions(long[] sortedTimes, long threshold) {
+        throw new UnsupportedOperationException();
+    }
+
     public boolean isCellEditable(int rowIndex, int columnIndex) {
         return delegate.isCellEditable(mapRow(rowIndex), columnIndex);
     }
@@ -79,6 +79,7 @@ import static slash.navigation.converter.gui.models.PositionColumns.LATITUDE_COL
 import static slash.navigation.converter.gui.models.PositionColumns.LONGITUDE_COLUMN_INDEX;
 import static slash.navigation.converter.gui.models.PositionColumns.SPEED_COLUMN_INDEX;
 import static slash.navigation.converter.gui.models.PositionColumns.TIME_COLUMN_INDEX;
+import static slash.navigation.converter.gui.models.PositionColumns.WAYPOINT_TYPE_COLUMN_INDEX;
 import static slash.navigation.gui.helpers.ImageHelper.resize;
 
 /**
@@ -130,7 +131,6 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     }
 
     private Map<Integer,ImageIcon> imageCache = new HashMap<>();
-    private double[] distanceCache = null;
 
     public Object getValueAt(int rowIndex, int columnIndex) {
         switch (columnIndex) {
@@ -150,9 +150,7 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
                 }
                 return new ImageAndText(image, position.getDescription());
             case DISTANCE_COLUMN_INDEX:
-                if (distanceCache == null)
-                    distanceCache = getRoute().getDistancesFromStart(0, getRowCount() - 1);
-                return distanceCache[rowIndex];
+                return getRoute().getDistance(0, rowIndex);
             case ELEVATION_ASCEND_COLUMN_INDEX:
                 return getRoute().getElevationAscend(0, rowIndex);
             case ELEVATION_DESCEND_COLUMN_INDEX:
@@ -206,6 +204,10 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
         return getRoute().getClosestPosition(time, threshold);
     }
 
+    public int[] getClosestPositions(long[] sortedTimes, long threshold) {
+        return getRoute().getClosestPositions(sortedTimes, threshold);
+    }
+
     public boolean isCellEditable(int rowIndex, int columnIndex) {
         switch (columnIndex) {
             case DESCRIPTION_COLUMN_INDEX:
@@ -494,11 +496,24 @@ public class PositionsModelImpl extends AbstractTableModel implements PositionsM
     public void fireTableChanged(TableModelEvent e) {
         this.currentEvent = e;
         imageCache.clear();
-        distanceCache = null;
+        invalidateRoute(e);
         super.fireTableChanged(e);
         this.currentEvent = null;
     }
 
+    private void invalidateRoute(TableModelEvent e) {
+        if (getRoute() == null)
+            return;
+        // the cached distances, times and elevations of the route do not depend on these columns
+        if (e.getType() == UPDATE && (e.getColumn() == SPEED_COLUMN_INDEX || e.getColumn() == WAYPOINT_TYPE_COLUMN_INDEX))
+            return;
+        // updates of some rows keep the spatial index for the other rows
+        if (e.getType() == UPDATE && e.getFirstRow() >= 0 && e.getLastRow() < getRowCount())
+            getRoute().invalidate(e.getFirstRow(), e.getLastRow());
+        else
+            getRoute().invalidateFrom(e.getFirstRow());
+    }
+
     public boolean isContinousRange() {
         return currentEvent != null && currentEvent instanceof ContinousRangeTableModelEvent;
     }
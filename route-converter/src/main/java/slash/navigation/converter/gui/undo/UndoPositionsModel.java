@@ -172,6 +172,10 @@ public class UndoPositionsModel implements PositionsModel {
         return delegate.getClosestPosition(time, threshold);
     }
 
+    public int[] getClosestPositions(long[] sortedTimes, long threshold) {
+        return delegate.getClosestPositions(sortedTimes, threshold);
+    }
+
     // Undoable operations
 
     public void add(int rowIndex, Double longitude, Double latitude, Double elevation, Double speed, CompactCalendar time, String description) {
@@ -0,0 +1,153 @@
+/*
+    This file is part of RouteConverter.
+
+    RouteConverter is free software; you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation; either version 2 of the License, or
+    (at your option) any later version.
+
+    RouteConverter is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with RouteConverter; if not, write to the Free Software
+    Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA  02110-1301  USA
+
+    Copyright (C) 2007 Christian Pesch. All Rights Reserved.
+*/
+
+package slash.navigation.converter.gui.helpers;
+
+import org.junit.Test;
+import slash.navigation.common.BoundingBox;
+import slash.navigation.common.LongitudeAndLatitude;
+import slash.navigation.elevation.ElevationService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.lang.Double.NaN;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ElevationServiceFacadeTest {
+
+    private static class TestElevationService implements ElevationService {
+        private final String name;
+        private final boolean download;
+        private final List<Integer> requestSizes = new ArrayList<>();
+        private final List<Double> requestedLongitudes = new ArrayList<>();
+
+        private TestElevationService(String name, boolean download) {
+            this.name = name;
+            this.download = download;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isDownload() {
+            return download;
+        }
+
+        public boolean isSupportsPath() {
+            return false;
+        }
+
+        public String getPath() {
+            throw new UnsupportedOperationException();
+        }
+
+        public void setPath(String path) {
+            throw new UnsupportedOperationException();
+        }
+
+        private double getElevation(double longitude) {
+            // the local service knows only even longitudes
+            return download && longitude % 2 != 0 ? NaN : longitude * 10;
+        }
+
+        public Double getElevationFor(double longitude, double latitude) {
+            double elevation = getElevation(longitude);
+            return Double.isNaN(elevation) ? null : elevation;
+        }
+
+        public synchronized double[] getElevationsFor(double[] longitudes, double[] latitudes) {
+            requestSizes.add(longitudes.length);
+            double[] elevations = new double[longitudes.length];
+            for (int i = 0; i < longitudes.length; i++) {
+                requestedLongitudes.add(longitudes[i]);
+                elevations[i] = getElevation(longitudes[i]);
+            }
+            return elevations;
+        }
+
+        public void downloadElevationDataFor(List<LongitudeAndLatitude> longitudeAndLatitudes, boolean waitForDownload) {
+        }
+
+        public long calculateRemainingDownloadSize(List<BoundingBox> boundingBoxes) {
+            return 0;
+        }
+
+        public void downloadElevationData(List<BoundingBox> boundingBoxes) {
+        }
+    }
+
+    private double[] createLongitudes(int count) {
+        double[] longitudes = new double[count];
+        for (int i = 0; i < count; i++)
+            longitudes[i] = i;
+        return longitudes;
+    }
+
+    @Test
+    public void testRemoteServiceIsAskedForFewPositionsPerRequest() throws IOException {
+        ElevationServiceFacade facade = new ElevationServiceFacade();
+        TestElevationService remote = new TestElevationService("Test Remote", false);
+        double[] longitudes = createLongitudes(45);
+
+        double[] elevations = facade.getElevationsFor(remote, longitudes, new double[longitudes.length]);
+
+        assertEquals(3, remote.requestSizes.size());
+        assertEquals(20, remote.requestSizes.get(0).intValue());
+        assertEquals(20, remote.requestSizes.get(1).intValue());
+        assertEquals(5, remote.requestSizes.get(2).intValue());
+        for (int i = 0; i < longitudes.length; i++)
+            assertEquals(i * 10.0, elevations[i], 0.0);
+    }
+
+    @Test
+    public void testLocalServiceIsAskedForAllPositionsAtOnce() throws IOException {
+        ElevationServiceFacade facade = new ElevationServiceFacade();
+        TestElevationService local = new TestElevationService("Test Local", true);
+
+        facade.getElevationsFor(local, createLongitudes(45), new double[45]);
+
+        assertEquals(1, local.requestSizes.size());
+        assertEquals(45, local.requestSizes.get(0).intValue());
+    }
+
+    @Test
+    public void testAutomaticServiceAsksRemoteServiceForUnresolvedPositions() throws IOException {
+        ElevationServiceFacade facade = new ElevationServiceFacade();
+        AutomaticElevationService automatic = new AutomaticElevationService(facade);
+        TestElevationService local = new TestElevationService("Test Local", true);
+        TestElevationService remote = new TestElevationService("Test Remote", false);
+        facade.addElevationService(automatic);
+        facade.addElevationService(local);
+        facade.addElevationService(remote);
+        double[] longitudes = createLongitudes(30);
+
+        double[] elevations = facade.getElevationsFor(automatic, longitudes, new double[longitudes.length]);
+
+        assertEquals(15, remote.requestedLongitudes.size());
+        for (Double longitude : remote.requestedLongitudes)
+            assertTrue(longitude % 2 != 0);
+        for (int i = 0; i < longitudes.length; i++)
+            assertEquals(i * 10.0, elevations[i], 0.0);
+    }
+}